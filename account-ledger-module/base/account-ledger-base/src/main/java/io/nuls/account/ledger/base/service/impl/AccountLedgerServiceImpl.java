@@ -144,14 +144,12 @@ public class AccountLedgerServiceImpl implements AccountLedgerService, Initializ
             return Result.getSuccess().setData(0);
         }
 
-        List<byte[]> localAddresses = AccountLegerUtils.getLocalAddresses();
-
         List<Transaction> savedTxList = new ArrayList<>();
         Result result;
         for (int i = 0; i < txs.size(); i++) {
 
             Transaction tx = txs.get(i);
-            List<byte[]> addresses = AccountLegerUtils.getRelatedAddresses(tx, localAddresses);
+            List<byte[]> addresses = AccountLegerUtils.getRelatedAddresses(tx);
             if (addresses == null || addresses.size() == 0) {
                 continue;
             }
@@ -301,8 +299,7 @@ public class AccountLedgerServiceImpl implements AccountLedgerService, Initializ
             return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
         }
         //查询本地账户地址
-        List<byte[]> localAccountList = AccountLegerUtils.getLocalAddresses();
-        List<byte[]> addresses = AccountLegerUtils.getRelatedAddresses(tx, localAccountList);
+        List<byte[]> addresses = AccountLegerUtils.getRelatedAddresses(tx);
         if (addresses == null || addresses.size() == 0) {
             return Result.getSuccess().setData(0);
         }
@@ -1590,10 +1587,6 @@ public class AccountLedgerServiceImpl implements AccountLedgerService, Initializ
         if (txs == null || txs.size() == 0) {
             return resultTxs;
         }
-        Collection<Account> localAccountList = accountService.getAccountList().getData();
-        if (localAccountList == null || localAccountList.size() == 0) {
-            return resultTxs;
-        }
         Transaction tmpTx;
         for (int i = 0; i < txs.size(); i++) {
             tmpTx = txs.get(i);
@@ -45,6 +45,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * author Facjas
@@ -64,8 +65,10 @@ public class LocalUtxoServiceImpl implements LocalUtxoService {
 
     @Override
     public Result saveUtxoForLocalAccount(Transaction tx) {
-        List<byte[]> localAddressList = AccountLegerUtils.getLocalAddresses();
-        return saveUtxoForAccount(tx, localAddressList);
+        if (tx == null) {
+            return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
+        }
+        return saveUtxo(tx, address -> null != AccountLegerUtils.isLocalAccount(address));
     }
 
     @Override
@@ -81,7 +84,23 @@ public class LocalUtxoServiceImpl implements LocalUtxoService {
         if (tx == null || addressesList == null || addressesList.size() == 0) {
             return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
         }
+        return saveUtxo(tx, address -> {
+            for (byte[] addresses : addressesList) {
+                if (Arrays.equals(address, addresses)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
 
+    /**
+     * 保存交易中属于指定账户的utxo, 并删除其花费的utxo
+     * Save the utxo of the transaction that belong to the matched accounts, and delete the utxo it spends
+     *
+     * @param addressMatcher 判断地址是否需要保存 / decides whether the coins of an address are saved
+     */
+    private Result saveUtxo(Transaction tx, Predicate<byte[]> addressMatcher) {
         CoinData coinData = tx.getCoinData();
 
         if (coinData != null) {
@@ -125,14 +144,7 @@ public class LocalUtxoServiceImpl implements LocalUtxoService {
 
                 byte[] toAddress = fromOfFromCoin.getAddress();
 
-                boolean addressIsMatch = false;
-                for (byte[] addresses : addressesList) {
-                    if (Arrays.equals(toAddress, addresses)) {
-                        addressIsMatch = true;
-                        break;
-                    }
-                }
-                if (!addressIsMatch) {
+                if (!addressMatcher.test(toAddress)) {
                     continue;
                 }
 
@@ -155,14 +167,7 @@ public class LocalUtxoServiceImpl implements LocalUtxoService {
                 to = tos.get(i);
                 toAddress = to.getAddress();
 
-                boolean addressIsMatch = false;
-                for (byte[] addresses : addressesList) {
-                    if (Arrays.equals(toAddress, addresses)) {
-                        addressIsMatch = true;
-                        break;
-                    }
-                }
-                if (!addressIsMatch) {
+                if (!addressMatcher.test(toAddress)) {
                     continue;
                 }
 
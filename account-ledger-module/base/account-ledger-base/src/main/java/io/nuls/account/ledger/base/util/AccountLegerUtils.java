@@ -51,17 +51,7 @@ public class AccountLegerUtils {
     private final static int TX_HASH_LENGTH = NulsDigestData.HASH_LENGTH;
 
     public static Account isLocalAccount(byte[] address) {
-        Collection<Account> localAccountList = accountService.getAccountList().getData();
-        if (localAccountList == null || localAccountList.size() == 0) {
-            return null;
-        }
-
-        for (Account account : localAccountList) {
-            if (Arrays.equals(account.getAddress().getAddressBytes(), address)) {
-                return account;
-            }
-        }
-        return null;
+        return accountService.getLocalAccount(address);
     }
 
     public static List<byte[]> getLocalAddresses() {
@@ -78,21 +68,26 @@ public class AccountLegerUtils {
         return destAddresses;
     }
 
+    /**
+     * 获取交易中属于本地账户的地址, 通过本地账户索引逐个判断, 不复制账户列表
+     * Get the addresses of the transaction that belong to local accounts, checked one by one against the local account index
+     */
     public static List<byte[]> getRelatedAddresses(Transaction tx) {
         List<byte[]> result = new ArrayList<>();
         if (tx == null) {
             return result;
         }
-        Collection<Account> localAccountList = accountService.getAccountList().getData();
-        if (localAccountList == null || localAccountList.size() == 0) {
+        //获取交易中的地址
+        List<byte[]> sourceAddresses = tx.getAllRelativeAddress();
+        if (sourceAddresses == null || sourceAddresses.size() == 0) {
             return result;
         }
-        List<byte[]> destAddresses = new ArrayList<>();
-        for (Account account : localAccountList) {
-            destAddresses.add(account.getAddress().getAddressBytes());
+        for (byte[] tempSourceAddress : sourceAddresses) {
+            if (null != accountService.getLocalAccount(tempSourceAddress)) {
+                result.add(tempSourceAddress);
+            }
         }
-
-        return getRelatedAddresses(tx, destAddresses);
+        return result;
     }
 
     public static List<byte[]> getRelatedAddresses(Transaction tx, List<byte[]> addresses) {
@@ -125,10 +120,6 @@ public class AccountLegerUtils {
         if (tx == null) {
             return false;
         }
-        Collection<Account> localAccountList = accountService.getAccountList().getData();
-        if (localAccountList == null || localAccountList.size() == 0) {
-            return false;
-        }
         List<byte[]> addresses = tx.getAllRelativeAddress();
         for (int j = 0; j < addresses.size(); j++) {
             if (AccountLegerUtils.isLocalAccount(addresses.get(j)) != null) {
@@ -68,6 +68,8 @@ import io.nuls.kernel.func.TimeService;
 import io.nuls.kernel.lite.annotation.Autowired;
 import io.nuls.kernel.lite.annotation.Component;
 import io.nuls.kernel.model.*;
+import io.nuls.kernel.rpc.RpcExecutors;
+import io.nuls.kernel.rpc.RpcTaskGroup;
 import io.nuls.kernel.script.P2PHKSignature;
 import io.nuls.kernel.script.Script;
 import io.nuls.kernel.script.SignatureUtil;
@@ -84,6 +86,10 @@ import io.swagger.annotations.*;
 import org.spongycastle.util.Arrays;
 
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
@@ -101,6 +107,9 @@ import java.util.stream.Collectors;
 @Component
 public class AccountLedgerResource {
 
+    @Context
+    private ResourceInfo resourceInfo;
+
     @Autowired
     private AccountService accountService;
 
@@ -145,7 +154,11 @@ public class AccountLedgerResource {
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "success")
     })
-    public RpcClientResult transfer(@ApiParam(name = "form", value = "转账", required = true) TransferForm form) {
+    public void transfer(@Suspended AsyncResponse asyncResponse, @ApiParam(name = "form", value = "转账", required = true) TransferForm form) {
+        RpcExecutors.submit(RpcTaskGroup.TX, resourceInfo, asyncResponse, () -> doTransfer(form));
+    }
+
+    private RpcClientResult doTransfer(TransferForm form) {
         if (form == null) {
             return Result.getFailed(AccountErrorCode.ADDRESS_ERROR).toRpcClientResult();
         }
@@ -905,7 +918,15 @@ public class AccountLedgerResource {
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "success")
     })
-    public RpcClientResult broadcast(@ApiParam(name = "form", value = "交易信息", required = true) BroadHexTxForm form) {
+    public void broadcast(@Suspended AsyncResponse asyncResponse, @ApiParam(name = "form", value = "交易信息", required = true) BroadHexTxForm form) {
+        RpcExecutors.submit(RpcTaskGroup.TX, resourceInfo, asyncResponse, () -> doBroadcast(form));
+    }
+
+    /**
+     * 解析并广播交易, 调用方需在{@link RpcTaskGroup#TX}任务组中执行
+     * Parse and broadcast a transaction, callers run it on the {@link RpcTaskGroup#TX} task group
+     */
+    public RpcClientResult doBroadcast(BroadHexTxForm form) {
         if (StringUtils.isBlank(form.getTxHex())) {
             return Result.getFailed(AccountErrorCode.PARAMETER_ERROR).toRpcClientResult();
         }
@@ -996,16 +1017,21 @@ public class AccountLedgerResource {
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "success", response = Page.class)
     })
-    public RpcClientResult getTxInfoList(@ApiParam(name = "address", value = "账户地址", required = true)
-                                         @PathParam("address") String address,
-                                         @ApiParam(name = "assetType", value = "资产类型")
-                                         @QueryParam("assetType") String assetType,
-                                         @ApiParam(name = "type", value = "类型")
-                                         @QueryParam("type") Integer type,
-                                         @ApiParam(name = "pageNumber", value = "页码")
-                                         @QueryParam("pageNumber") Integer pageNumber,
-                                         @ApiParam(name = "pageSize", value = "每页条数")
-                                         @QueryParam("pageSize") Integer pageSize) {
+    public void getTxInfoList(@Suspended AsyncResponse asyncResponse,
+                              @ApiParam(name = "address", value = "账户地址", required = true)
+                              @PathParam("address") String address,
+                              @ApiParam(name = "assetType", value = "资产类型")
+                              @QueryParam("assetType") String assetType,
+                              @ApiParam(name = "type", value = "类型")
+                              @QueryParam("type") Integer type,
+                              @ApiParam(name = "pageNumber", value = "页码")
+                              @QueryParam("pageNumber") Integer pageNumber,
+                              @ApiParam(name = "pageSize", value = "每页条数")
+                              @QueryParam("pageSize") Integer pageSize) {
+        RpcExecutors.submit(RpcTaskGroup.LEDGER, resourceInfo, asyncResponse, () -> doGetTxInfoList(address, assetType, type, pageNumber, pageSize));
+    }
+
+    private RpcClientResult doGetTxInfoList(String address, String assetType, Integer type, Integer pageNumber, Integer pageSize) {
         if (null == pageNumber || pageNumber == 0) {
             pageNumber = 1;
         }
@@ -1154,12 +1180,17 @@ public class AccountLedgerResource {
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "success", response = Page.class)
     })
-    public RpcClientResult getLockUtxo(@ApiParam(name = "address", value = "地址")
-                                       @PathParam("address") String address,
-                                       @ApiParam(name = "pageNumber", value = "页码")
-                                       @QueryParam("pageNumber") Integer pageNumber,
-                                       @ApiParam(name = "pageSize", value = "每页条数")
-                                       @QueryParam("pageSize") Integer pageSize) {
+    public void getLockUtxo(@Suspended AsyncResponse asyncResponse,
+                            @ApiParam(name = "address", value = "地址")
+                            @PathParam("address") String address,
+                            @ApiParam(name = "pageNumber", value = "页码")
+                            @QueryParam("pageNumber") Integer pageNumber,
+                            @ApiParam(name = "pageSize", value = "每页条数")
+                            @QueryParam("pageSize") Integer pageSize) {
+        RpcExecutors.submit(RpcTaskGroup.LEDGER, resourceInfo, asyncResponse, () -> doGetLockUtxo(address, pageNumber, pageSize));
+    }
+
+    private RpcClientResult doGetLockUtxo(String address, Integer pageNumber, Integer pageSize) {
         if (null == pageNumber || pageNumber == 0) {
             pageNumber = 1;
         }
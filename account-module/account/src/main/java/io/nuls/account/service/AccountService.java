@@ -168,6 +168,16 @@ public interface AccountService {
      */
     Result<Account> getAccount(byte[] address);
 
+    /**
+     * 根据原始地址byte[]获取本地账户, 不做Base58转换和地址校验, 供处理区块时判断地址是否属于本地账户
+     * Get the local account by raw address bytes, without base58 encoding or address validation.
+     * Used to check whether an address belongs to this wallet while processing blocks.
+     *
+     * @param address the raw address bytes.
+     * @return the local account, or null if the address is not local.
+     */
+    Account getLocalAccount(byte[] address);
+
     /**
      * 根据账户地址字符串获取完整的账户信息
      * Query account by address.
@@ -33,7 +33,6 @@ import io.nuls.core.tools.crypto.Base58;
 import io.nuls.kernel.utils.AddressTool;
 
 import java.util.List;
-import java.util.Map;
 
 /**
  * 账户缓存服务类
@@ -51,7 +50,7 @@ public class AccountCacheService {
      * 本地账户集合
      * Collection of local accounts
      */
-    public Map<String, Account> localAccountMaps;
+    public LocalAccountMap localAccountMaps;
 
     private AccountCacheService() {
         this.cacheMap = new CacheMap<>(AccountConstant.ACCOUNT_LIST_CACHE, 32, String.class, Account.class);
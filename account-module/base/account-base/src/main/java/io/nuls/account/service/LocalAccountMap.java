@@ -0,0 +1,254 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.account.service;
+
+import io.nuls.account.model.Account;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 本地账户集合, 以Base58地址为键, 同时维护一张以原始地址字节为键的开放寻址索引表,
+ * 处理区块时判断地址是否属于本地账户无需转换Base58, 也无需遍历账户列表
+ * Collection of local accounts keyed by base58 address, which also maintains an open addressing index keyed by the
+ * raw address bytes, so "is this address mine" checks during block processing neither encode base58 nor scan the account list.
+ */
+public class LocalAccountMap extends ConcurrentHashMap<String, Account> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 索引表在写入时整体重建并替换, 读取无锁
+     * The index table is rebuilt and swapped on every write, reads are lock free
+     */
+    private transient volatile AddressTable table = AddressTable.EMPTY;
+
+    @Override
+    public Account put(String key, Account value) {
+        synchronized (this) {
+            Account old = super.put(key, value);
+            this.table = new AddressTable(super.values());
+            return old;
+        }
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends Account> map) {
+        synchronized (this) {
+            for (Map.Entry<? extends String, ? extends Account> entry : map.entrySet()) {
+                super.put(entry.getKey(), entry.getValue());
+            }
+            this.table = new AddressTable(super.values());
+        }
+    }
+
+    @Override
+    public Account remove(Object key) {
+        synchronized (this) {
+            Account old = super.remove(key);
+            if (null != old) {
+                this.table = new AddressTable(super.values());
+            }
+            return old;
+        }
+    }
+
+    @Override
+    public Account putIfAbsent(String key, Account value) {
+        synchronized (this) {
+            Account old = super.putIfAbsent(key, value);
+            if (null == old) {
+                this.table = new AddressTable(super.values());
+            }
+            return old;
+        }
+    }
+
+    @Override
+    public Account replace(String key, Account value) {
+        synchronized (this) {
+            Account old = super.replace(key, value);
+            if (null != old) {
+                this.table = new AddressTable(super.values());
+            }
+            return old;
+        }
+    }
+
+    @Override
+    public boolean replace(String key, Account oldValue, Account newValue) {
+        synchronized (this) {
+            boolean replaced = super.replace(key, oldValue, newValue);
+            if (replaced) {
+                this.table = new AddressTable(super.values());
+            }
+            return replaced;
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        synchronized (this) {
+            boolean removed = super.remove(key, value);
+            if (removed) {
+                this.table = new AddressTable(super.values());
+            }
+            return removed;
+        }
+    }
+
+    /**
+     * 以下方法会绕过索引表的维护, 不支持
+     * The following methods would bypass the index table, so they are not supported
+     */
+    @Override
+    public Account compute(String key, BiFunction<? super String, ? super Account, ? extends Account> remappingFunction) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Account computeIfAbsent(String key, Function<? super String, ? extends Account> mappingFunction) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Account computeIfPresent(String key, BiFunction<? super String, ? super Account, ? extends Account> remappingFunction) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Account merge(String key, Account value, BiFunction<? super Account, ? super Account, ? extends Account> remappingFunction) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super Account, ? extends Account> function) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        synchronized (this) {
+            super.clear();
+            this.table = AddressTable.EMPTY;
+        }
+    }
+
+    /**
+     * 根据原始地址字节获取本地账户
+     * Get the local account by raw address bytes
+     *
+     * @param address raw address bytes
+     * @return the local account, or null if the address is not local
+     */
+    public Account get(byte[] address) {
+        if (null == address) {
+            return null;
+        }
+        return this.table.get(address);
+    }
+
+    /**
+     * 判断原始地址字节是否属于本地账户
+     * Check whether the raw address bytes belong to a local account
+     */
+    public boolean contains(byte[] address) {
+        return null != this.get(address);
+    }
+
+    /**
+     * 线性探测的开放寻址表, 装载因子不超过0.5; 每个槽位保存地址的哈希值,
+     * 查询时先比较哈希值, 只有哈希命中才比较地址字节, 未命中的地址通常在第一个空槽位即返回
+     * Linear probing open addressing table with a load factor of at most 0.5. Every slot keeps the hash of its address,
+     * lookups compare the hash first and only compare address bytes on a hash hit, so a foreign address usually stops
+     * at the first empty slot.
+     */
+    private static final class AddressTable {
+
+        static final AddressTable EMPTY = new AddressTable(null);
+
+        private final int mask;
+        private final int[] hashes;
+        private final byte[][] keys;
+        private final Account[] values;
+
+        AddressTable(Collection<Account> accounts) {
+            int size = accounts == null ? 0 : accounts.size();
+            int capacity = 4;
+            while (capacity < size * 2) {
+                capacity <<= 1;
+            }
+            this.mask = capacity - 1;
+            this.hashes = new int[capacity];
+            this.keys = new byte[capacity][];
+            this.values = new Account[capacity];
+            if (size == 0) {
+                return;
+            }
+            for (Account account : accounts) {
+                byte[] address = account.getAddress().getAddressBytes();
+                int hash = hash(address);
+                int i = hash & mask;
+                while (keys[i] != null && !(hashes[i] == hash && Arrays.equals(keys[i], address))) {
+                    i = (i + 1) & mask;
+                }
+                hashes[i] = hash;
+                keys[i] = address;
+                values[i] = account;
+            }
+        }
+
+        Account get(byte[] address) {
+            int hash = hash(address);
+            int i = hash & mask;
+            byte[] key;
+            while ((key = keys[i]) != null) {
+                if (hashes[i] == hash && Arrays.equals(key, address)) {
+                    return values[i];
+                }
+                i = (i + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * 地址的后20个字节是公钥的hash160, 取其中4个字节即可得到分布均匀的哈希值
+         * The last 20 bytes of an address are the hash160 of the public key, so 4 of them already make a well distributed hash
+         */
+        private static int hash(byte[] address) {
+            int length = address.length;
+            if (length < 8) {
+                return Arrays.hashCode(address);
+            }
+            return (address[length - 4] & 0xFF) << 24 | (address[length - 3] & 0xFF) << 16
+                    | (address[length - 2] & 0xFF) << 8 | (address[length - 1] & 0xFF);
+        }
+    }
+}
@@ -32,6 +32,7 @@ import io.nuls.account.model.*;
 import io.nuls.account.service.AccountCacheService;
 import io.nuls.account.service.AccountService;
 import io.nuls.account.service.AliasService;
+import io.nuls.account.service.LocalAccountMap;
 import io.nuls.account.storage.po.AccountPo;
 import io.nuls.account.storage.po.AliasPo;
 import io.nuls.account.storage.service.AccountStorageService;
@@ -67,7 +68,6 @@ import java.io.IOException;
 import java.math.BigInteger;
 import java.security.SignatureException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -121,9 +121,12 @@ public class AccountServiceImpl implements AccountService {
             if (result.isFailed()) {
                 return result;
             }
+            Map<String, Account> accountMap = new HashMap<>(accounts.size() * 2);
             for (Account account : accounts) {
-                accountCacheService.localAccountMaps.put(account.getAddress().getBase58(), account);
+                accountMap.put(account.getAddress().getBase58(), account);
             }
+            // 一次性写入, 地址索引表只重建一次
+            accountCacheService.localAccountMaps.putAll(accountMap);
             return Result.getSuccess().setData(accounts);
         } catch (Exception e) {
             Log.error(e);
@@ -463,11 +466,28 @@ public class AccountServiceImpl implements AccountService {
         if (null == address || address.length == 0) {
             return Result.getFailed(AccountErrorCode.NULL_PARAMETER);
         }
-        String addr = AddressTool.getStringAddressByBytes(address);
-        if (!AddressTool.validAddress(addr)) {
-            return Result.getFailed(AccountErrorCode.ADDRESS_ERROR);
+        Account account = getLocalAccount(address);
+        if (null == account) {
+            String addr = AddressTool.getStringAddressByBytes(address);
+            if (!AddressTool.validAddress(addr)) {
+                return Result.getFailed(AccountErrorCode.ADDRESS_ERROR);
+            }
+            return Result.getFailed(AccountErrorCode.ACCOUNT_NOT_EXIST);
+        }
+        //如果账户已经解锁,则直接返回解锁后的账户. If the account is unlocked, return directly to the unlocked account
+        Account accountCache = accountCacheService.getAccountByAddress(account.getAddress().getBase58());
+        if (null != accountCache) {
+            account = accountCache;
+        }
+        return Result.getSuccess().setData(account);
+    }
+
+    @Override
+    public Account getLocalAccount(byte[] address) {
+        if (accountCacheService.localAccountMaps == null) {
+            getAccountList();
         }
-        return getAccount(addr);
+        return accountCacheService.localAccountMaps.get(address);
     }
 
     @Override
@@ -500,24 +520,23 @@ public class AccountServiceImpl implements AccountService {
                 list.add(iterator.next());
             }
         } else {
-            accountCacheService.localAccountMaps = new ConcurrentHashMap<>();
+            LocalAccountMap localAccountMaps = new LocalAccountMap();
+            accountCacheService.localAccountMaps = localAccountMaps;
             Result<List<AccountPo>> result = accountStorageService.getAccountList();
             if (result.isFailed()) {
                 return Result.getFailed().setData(list);
             }
             List<AccountPo> poList = result.getData();
-            Set<String> addressList = new HashSet<>();
             if (null == poList || poList.isEmpty()) {
                 return Result.getSuccess().setData(list);
             }
+            Map<String, Account> accountMap = new HashMap<>();
             for (AccountPo po : poList) {
                 Account account = po.toAccount();
                 list.add(account);
-                addressList.add(account.getAddress().getBase58());
-            }
-            for (Account account : list) {
-                accountCacheService.localAccountMaps.put(account.getAddress().getBase58(), account);
+                accountMap.put(account.getAddress().getBase58(), account);
             }
+            localAccountMaps.putAll(accountMap);
         }
         list.sort(new Comparator<Account>() {
             @Override
@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.account.service;
+
+import io.nuls.account.model.Account;
+import io.nuls.account.util.AccountTool;
+import io.nuls.kernel.context.NulsContext;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 本地账户集合的写操作都必须同步维护地址字节索引
+ */
+public class LocalAccountMapTest {
+
+    @BeforeClass
+    public static void initClass() {
+        NulsContext.getInstance().setDefaultChainId((short) 8964);
+    }
+
+    @Test
+    public void writesKeepIndex() throws Exception {
+        LocalAccountMap map = new LocalAccountMap();
+        Account a = AccountTool.createAccount();
+        Account b = AccountTool.createAccount();
+        Account c = AccountTool.createAccount();
+        byte[] addressA = a.getAddress().getAddressBytes();
+        byte[] addressB = b.getAddress().getAddressBytes();
+        byte[] addressC = c.getAddress().getAddressBytes();
+
+        Map<String, Account> accounts = new HashMap<>();
+        accounts.put(a.getAddress().getBase58(), a);
+        accounts.put(b.getAddress().getBase58(), b);
+        map.putAll(accounts);
+        assertSame(a, map.get(addressA));
+        assertSame(b, map.get(addressB));
+        assertFalse(map.contains(addressC));
+
+        assertNull(map.putIfAbsent(c.getAddress().getBase58(), c));
+        assertSame(c, map.get(addressC));
+        assertSame(c, map.putIfAbsent(c.getAddress().getBase58(), a));
+        assertSame(c, map.get(addressC));
+
+        assertTrue(map.remove(b.getAddress().getBase58(), b));
+        assertFalse(map.contains(addressB));
+        assertFalse(map.remove(c.getAddress().getBase58(), a));
+        assertTrue(map.contains(addressC));
+
+        assertSame(a, map.remove(a.getAddress().getBase58()));
+        assertFalse(map.contains(addressA));
+
+        map.clear();
+        assertFalse(map.contains(addressC));
+    }
+
+    @Test
+    public void replaceKeepsIndex() throws Exception {
+        LocalAccountMap map = new LocalAccountMap();
+        Account a = AccountTool.createAccount();
+        String key = a.getAddress().getBase58();
+        map.put(key, a);
+        Account copy = new Account();
+        copy.setAddress(a.getAddress());
+        copy.setPubKey(a.getPubKey());
+
+        assertSame(a, map.replace(key, copy));
+        assertSame(copy, map.get(a.getAddress().getAddressBytes()));
+        assertTrue(map.replace(key, copy, a));
+        assertSame(a, map.get(a.getAddress().getAddressBytes()));
+        assertNull(map.replace(AccountTool.createAccount().getAddress().getBase58(), a));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void computeIsNotSupported() throws Exception {
+        Account a = AccountTool.createAccount();
+        new LocalAccountMap().computeIfAbsent(a.getAddress().getBase58(), k -> a);
+    }
+}
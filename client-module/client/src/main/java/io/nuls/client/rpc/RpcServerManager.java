@@ -25,9 +25,12 @@
 
 package io.nuls.client.rpc;
 
+import io.nuls.client.rpc.constant.RpcConstant;
 import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.cfg.NulsConfig;
 import org.glassfish.grizzly.http.server.*;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.servlet.ServletRegistration;
 import org.glassfish.grizzly.servlet.WebappContext;
 import org.glassfish.grizzly.strategies.WorkerThreadIOStrategy;
 import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
@@ -35,7 +38,6 @@ import org.glassfish.grizzly.utils.Charsets;
 import org.glassfish.jersey.internal.guava.ThreadFactoryBuilder;
 import org.glassfish.jersey.servlet.ServletContainer;
 
-import javax.servlet.ServletRegistration;
 import javax.ws.rs.core.UriBuilder;
 import java.io.IOException;
 import java.net.URI;
@@ -65,17 +67,24 @@ public class RpcServerManager {
         ServletRegistration servletRegistration = webappContext.addServlet("jersey-servlet", ServletContainer.class);
         servletRegistration.setInitParameter("javax.ws.rs.Application", "io.nuls.client.rpc.config.NulsResourceConfig");
         servletRegistration.addMapping("/api/*");
+        // 资源方法可挂起AsyncResponse, 在RpcExecutors的任务组中执行, 不占用grizzly工作线程
+        // Resource methods may suspend an AsyncResponse and run on the RpcExecutors task groups instead of the grizzly workers
+        servletRegistration.setAsyncSupported(true);
+
+        int workerThreads = NulsConfig.MODULES_CONFIG.getCfgValue(RpcConstant.CFG_RPC_SECTION, RpcConstant.CFG_RPC_SERVER_WORKER_THREADS, RpcConstant.DEFAULT_WORKER_THREADS);
+        int selectorRunners = NulsConfig.MODULES_CONFIG.getCfgValue(RpcConstant.CFG_RPC_SECTION, RpcConstant.CFG_RPC_SERVER_SELECTOR_RUNNERS, RpcConstant.DEFAULT_SELECTOR_RUNNERS);
+        int queueLimit = NulsConfig.MODULES_CONFIG.getCfgValue(RpcConstant.CFG_RPC_SECTION, RpcConstant.CFG_RPC_SERVER_QUEUE_LIMIT, RpcConstant.DEFAULT_QUEUE_LIMIT);
 
         httpServer = new HttpServer();
         NetworkListener listener = new NetworkListener("grizzly2", ip, port);
         TCPNIOTransport transport = listener.getTransport();
         ThreadPoolConfig workerPool = ThreadPoolConfig.defaultConfig()
-                .setCorePoolSize(4)
-                .setMaxPoolSize(4)
-                .setQueueLimit(1000)
+                .setCorePoolSize(workerThreads)
+                .setMaxPoolSize(workerThreads)
+                .setQueueLimit(queueLimit)
                 .setThreadFactory((new ThreadFactoryBuilder()).setNameFormat("grizzly-http-server-%d").build());
         transport.configureBlocking(false);
-        transport.setSelectorRunnersCount(2);
+        transport.setSelectorRunnersCount(selectorRunners);
         transport.setWorkerThreadPoolConfig(workerPool);
         transport.setIOStrategy(WorkerThreadIOStrategy.getInstance());
         transport.setTcpNoDelay(true);
@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.client.rpc.config;
+
+import org.glassfish.jersey.servlet.spi.AsyncContextDelegate;
+import org.glassfish.jersey.servlet.spi.AsyncContextDelegateProvider;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 基于Servlet 3异步上下文挂起请求, 使挂起AsyncResponse的资源方法不占用grizzly工作线程
+ * Suspends requests with the servlet 3 async context, so resource methods suspending an AsyncResponse
+ * do not hold a grizzly worker thread.
+ * <p>
+ * jersey-container-servlet-core只带了不支持异步的默认实现, 本类通过META-INF/services注册
+ * jersey-container-servlet-core only ships a provider without async support, this one is registered through META-INF/services.
+ */
+public class ServletAsyncContextDelegateProvider implements AsyncContextDelegateProvider {
+
+    @Override
+    public AsyncContextDelegate createDelegate(HttpServletRequest request, HttpServletResponse response) {
+        return new AsyncContextDelegate() {
+
+            private volatile AsyncContext asyncContext;
+
+            @Override
+            public synchronized void suspend() throws IllegalStateException {
+                if (asyncContext == null) {
+                    asyncContext = request.startAsync(request, response);
+                    // 任务总会在所属任务组中完成或失败, 不设置超时
+                    // The task always completes or fails on its task group, so no timeout is set
+                    asyncContext.setTimeout(-1);
+                }
+            }
+
+            @Override
+            public void complete() {
+                AsyncContext context = asyncContext;
+                if (context != null) {
+                    context.complete();
+                }
+            }
+        };
+    }
+}
@@ -42,6 +42,33 @@ public interface RpcConstant {
     String CFG_RPC_REQUEST_WHITE_SHEET="request.white.sheet";
     String CFG_RPC_DAEMON = "daemon";
 
+    /**
+     * http服务的工作线程数、selector线程数及请求队列长度
+     * Worker threads, selector runners and request queue limit of the http server
+     */
+    String CFG_RPC_SERVER_WORKER_THREADS = "server.worker.threads";
+    String CFG_RPC_SERVER_SELECTOR_RUNNERS = "server.selector.runners";
+    String CFG_RPC_SERVER_QUEUE_LIMIT = "server.queue.limit";
+
+    int DEFAULT_WORKER_THREADS = 4;
+    int DEFAULT_SELECTOR_RUNNERS = 2;
+    int DEFAULT_QUEUE_LIMIT = 1000;
+
+    /**
+     * 批量接口单次请求允许的最大子请求数
+     * Max sub requests accepted by one batch request
+     */
+    String CFG_RPC_BATCH_MAX_SIZE = "batch.max.size";
+
+    int DEFAULT_BATCH_MAX_SIZE = 5000;
+
+    /**
+     * 推送订阅允许的最大连接数
+     * Max concurrent push subscriptions
+     */
+    String CFG_RPC_SUBSCRIPTION_MAX_SIZE = "subscription.max.size";
+    int DEFAULT_SUBSCRIPTION_MAX_SIZE = 100;
+
     String WHITE_SHEET_SPLIT = ",";
 
 }
@@ -34,6 +34,7 @@ import io.nuls.kernel.exception.NulsRuntimeException;
 import io.nuls.kernel.model.ErrorData;
 import io.nuls.kernel.model.Result;
 import io.nuls.kernel.model.RpcClientResult;
+import io.nuls.kernel.rpc.RpcStatistics;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -41,11 +42,13 @@ import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerRequestFilter;
 import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.ext.ExceptionMapper;
 import java.io.IOException;
+import java.lang.reflect.Method;
 
 /**
  * @author Niels
@@ -56,6 +59,8 @@ public class RpcServerFilter implements ContainerRequestFilter, ContainerRespons
     private HttpServletRequest request;
     @Context
     private HttpServletResponse response;
+    @Context
+    private ResourceInfo resourceInfo;
     private String[] ipArray;
     private boolean all = false;
 
@@ -72,6 +77,7 @@ public class RpcServerFilter implements ContainerRequestFilter, ContainerRespons
     public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
 //        Log.info("url:{},IP:{},useTime:{}, params:{},result:{}", requestContext.getUriInfo().getRequestUri().getPath() + "?" + requestContext.getUriInfo().getRequestUri().getQuery(), grizzlyRequestProvider.get().getRemoteAddr()
 //                , (System.currentTimeMillis() - Long.parseLong(requestContext.getProperty("start").toString())), null, responseContext.getEntity());
+        recordLatency(requestContext);
         //todo
         response.setHeader("Access-control-Allow-Origin", request.getHeader("Origin"));
         response.setHeader("Access-Control-Allow-Methods", "GET,POST,OPTIONS,PUT,DELETE");
@@ -79,6 +85,21 @@ public class RpcServerFilter implements ContainerRequestFilter, ContainerRespons
 
     }
 
+    /**
+     * 按接口记录请求耗时, 异步接口在结果返回后才执行到这里, 耗时包含排队时间
+     * Record the request latency per endpoint. Async endpoints reach here once their result is resumed,
+     * so the latency includes the time queued in the task group.
+     */
+    private void recordLatency(ContainerRequestContext requestContext) {
+        Object start = requestContext.getProperty("start");
+        Method method = resourceInfo.getResourceMethod();
+        if (start == null || method == null) {
+            return;
+        }
+        String endpoint = RpcStatistics.getEndpoint(resourceInfo.getResourceClass(), method);
+        RpcStatistics.recordLatency(endpoint, System.currentTimeMillis() - (long) start);
+    }
+
     @Override
     public Response toResponse(Exception e) {
 //        System.out.println("---------------" + request.getRequestURI());
@@ -0,0 +1,285 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.client.rpc.resources;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.nuls.account.ledger.service.AccountLedgerService;
+import io.nuls.accout.ledger.rpc.AccountLedgerResource;
+import io.nuls.accout.ledger.rpc.form.BroadHexTxForm;
+import io.nuls.client.rpc.constant.RpcConstant;
+import io.nuls.client.rpc.resources.model.BatchRequest;
+import io.nuls.core.tools.json.JSONUtils;
+import io.nuls.core.tools.log.Log;
+import io.nuls.core.tools.str.StringUtils;
+import io.nuls.db.model.Entry;
+import io.nuls.kernel.cfg.NulsConfig;
+import io.nuls.kernel.constant.KernelErrorCode;
+import io.nuls.kernel.exception.NulsException;
+import io.nuls.kernel.lite.annotation.Autowired;
+import io.nuls.kernel.lite.annotation.Component;
+import io.nuls.kernel.model.Coin;
+import io.nuls.kernel.model.Na;
+import io.nuls.kernel.model.Result;
+import io.nuls.kernel.model.RpcClientResult;
+import io.nuls.kernel.rpc.RpcExecutors;
+import io.nuls.kernel.rpc.RpcTaskGroup;
+import io.nuls.kernel.utils.AddressTool;
+import io.nuls.kernel.utils.ByteArrayWrapper;
+import io.nuls.ledger.rpc.model.AccountUtxoDto;
+import io.nuls.ledger.rpc.model.UtxoDto;
+import io.nuls.ledger.rpc.resource.TransactionResource;
+import io.nuls.ledger.storage.service.UtxoLedgerUtxoStorageService;
+import io.nuls.ledger.storage.util.CoinComparator;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.util.*;
+
+/**
+ * 批量查询及广播接口, 一次请求执行多个子请求, 结果按请求顺序以JSON数组流式返回
+ * 同一批次中的UTXO查询共用一次UTXO库遍历, 不再每个地址遍历一次
+ * Batch endpoint for bulk queries and submissions. The results are streamed back as a json array in request order.
+ * All utxo queries of a batch share one pass over the utxo storage instead of one pass per address.
+ */
+@Path("/batch")
+@Api(value = "/batch", description = "Batch")
+@Component
+public class BatchResource {
+
+    public static final String METHOD_GET_BALANCE = "getBalance";
+    public static final String METHOD_GET_UTXO = "getUtxo";
+    public static final String METHOD_GET_TX = "getTx";
+    public static final String METHOD_BROADCAST = "broadcast";
+
+    private static final int UTXO_PAGE_SIZE = 10000;
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Autowired
+    private AccountLedgerService accountLedgerService;
+    @Autowired
+    private UtxoLedgerUtxoStorageService utxoLedgerUtxoStorageService;
+    @Autowired
+    private TransactionResource transactionResource;
+    @Autowired
+    private AccountLedgerResource accountLedgerResource;
+
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "批量执行子请求", notes = "子请求method: getBalance(address), getUtxo(address, limit), getTx(hash), broadcast(txHex); " +
+            "返回与请求顺序一致的数组, 每项为{id, success, data}")
+    public void batch(@Suspended AsyncResponse asyncResponse,
+                      @ApiParam(name = "requests", value = "子请求列表", required = true) List<BatchRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            asyncResponse.resume(Result.getFailed(KernelErrorCode.NULL_PARAMETER).toRpcClientResult());
+            return;
+        }
+        int maxSize = NulsConfig.MODULES_CONFIG.getCfgValue(RpcConstant.CFG_RPC_SECTION, RpcConstant.CFG_RPC_BATCH_MAX_SIZE, RpcConstant.DEFAULT_BATCH_MAX_SIZE);
+        if (requests.size() > maxSize) {
+            asyncResponse.resume(Result.getFailed(KernelErrorCode.PARAMETER_ERROR).toRpcClientResult());
+            return;
+        }
+        // 含广播子请求的批次在TX任务组执行, 与单独的广播接口共用同一并发上限
+        // A batch carrying broadcasts runs on the TX group and shares its cap with the plain broadcast endpoint
+        RpcTaskGroup group = RpcTaskGroup.LEDGER;
+        for (BatchRequest request : requests) {
+            if (METHOD_BROADCAST.equals(request.getMethod())) {
+                group = RpcTaskGroup.TX;
+                break;
+            }
+        }
+        RpcExecutors.submit(group, resourceInfo, asyncResponse, () -> doBatch(requests));
+    }
+
+    /**
+     * 所有子请求都在任务内执行, 返回的StreamingOutput只负责序列化结果
+     * Every sub request runs inside the task, the returned StreamingOutput only serializes the results
+     */
+    private Response doBatch(List<BatchRequest> requests) {
+        Map<ByteArrayWrapper, List<Coin>> utxoMap = loadUtxo(requests);
+        List<RpcClientResult> results = new ArrayList<>(requests.size());
+        for (BatchRequest request : requests) {
+            results.add(execute(request, utxoMap));
+        }
+        StreamingOutput output = outputStream -> {
+            JsonGenerator generator = JSONUtils.getInstance().getFactory().createGenerator(outputStream);
+            generator.writeStartArray();
+            for (int i = 0; i < requests.size(); i++) {
+                BatchRequest request = requests.get(i);
+                RpcClientResult result = results.get(i);
+                generator.writeStartObject();
+                generator.writeObjectField("id", request.getId());
+                generator.writeBooleanField("success", result.isSuccess());
+                generator.writeObjectField("data", result.getData());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.flush();
+        };
+        return Response.ok(output, MediaType.APPLICATION_JSON).build();
+    }
+
+    private RpcClientResult execute(BatchRequest request, Map<ByteArrayWrapper, List<Coin>> utxoMap) {
+        String method = request.getMethod();
+        if (StringUtils.isBlank(method)) {
+            return Result.getFailed(KernelErrorCode.NULL_PARAMETER).toRpcClientResult();
+        }
+        try {
+            switch (method) {
+                case METHOD_GET_BALANCE:
+                    return getBalance(request.getParam("address"));
+                case METHOD_GET_UTXO:
+                    return getUtxo(request.getParam("address"), request.getParam("limit"), utxoMap);
+                case METHOD_GET_TX:
+                    return transactionResource.getTxByHash(request.getParam("hash"));
+                case METHOD_BROADCAST:
+                    return broadcast(request.getParam("txHex"));
+                default:
+                    return Result.getFailed(KernelErrorCode.PARAMETER_ERROR).toRpcClientResult();
+            }
+        } catch (Exception e) {
+            // 单个子请求失败不影响同批次的其它请求
+            // A failed sub request does not break the rest of the batch
+            Log.error(e);
+            return Result.getFailed(KernelErrorCode.SYS_UNKOWN_EXCEPTION).toRpcClientResult();
+        }
+    }
+
+    private RpcClientResult getBalance(String address) {
+        byte[] addressBytes = toAddressBytes(address);
+        if (addressBytes == null) {
+            return Result.getFailed(KernelErrorCode.PARAMETER_ERROR).toRpcClientResult();
+        }
+        return accountLedgerService.getBalance(addressBytes).toRpcClientResult();
+    }
+
+    private RpcClientResult getUtxo(String address, String limit, Map<ByteArrayWrapper, List<Coin>> utxoMap) {
+        byte[] addressBytes = toAddressBytes(address);
+        if (addressBytes == null) {
+            return Result.getFailed(KernelErrorCode.PARAMETER_ERROR).toRpcClientResult();
+        }
+        int limitValue = 0;
+        if (StringUtils.isNotBlank(limit)) {
+            if (!StringUtils.isNumeric(limit)) {
+                return Result.getFailed(KernelErrorCode.PARAMETER_ERROR).toRpcClientResult();
+            }
+            limitValue = Integer.parseInt(limit);
+        }
+        List<UtxoDto> list = new ArrayList<>();
+        for (Coin coin : utxoMap.getOrDefault(new ByteArrayWrapper(addressBytes), Collections.emptyList())) {
+            if (!coin.usable() || coin.getNa().equals(Na.ZERO)) {
+                continue;
+            }
+            if (limitValue > 0 && list.size() >= limitValue) {
+                break;
+            }
+            list.add(new UtxoDto(coin));
+        }
+        AccountUtxoDto accountUtxoDto = new AccountUtxoDto();
+        accountUtxoDto.setUtxoDtoList(list);
+        return Result.getSuccess().setData(accountUtxoDto).toRpcClientResult();
+    }
+
+    private RpcClientResult broadcast(String txHex) {
+        BroadHexTxForm form = new BroadHexTxForm();
+        form.setTxHex(txHex);
+        return accountLedgerResource.doBroadcast(form);
+    }
+
+    /**
+     * 遍历一次UTXO库, 取出本批次所有getUtxo子请求涉及地址的UTXO
+     * Read the utxo of all addresses queried by the getUtxo sub requests in a single pass over the utxo storage
+     */
+    private Map<ByteArrayWrapper, List<Coin>> loadUtxo(List<BatchRequest> requests) {
+        Map<ByteArrayWrapper, List<Coin>> utxoMap = new HashMap<>();
+        for (BatchRequest request : requests) {
+            if (METHOD_GET_UTXO.equals(request.getMethod())) {
+                byte[] addressBytes = toAddressBytes(request.getParam("address"));
+                if (addressBytes != null) {
+                    utxoMap.put(new ByteArrayWrapper(addressBytes), new ArrayList<>());
+                }
+            }
+        }
+        if (utxoMap.isEmpty()) {
+            return utxoMap;
+        }
+        // 分页遍历, 内存中只保留一页及命中地址的UTXO
+        // Scan page by page, only one page and the utxo of the queried addresses are kept in memory
+        byte[] startKey = new byte[0];
+        while (true) {
+            List<Entry<byte[], byte[]>> page = utxoLedgerUtxoStorageService.getUtxoEntryBytes(startKey, UTXO_PAGE_SIZE);
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+            for (Entry<byte[], byte[]> coinEntryBytes : page) {
+                Coin coin = new Coin();
+                try {
+                    coin.parse(coinEntryBytes.getValue(), 0);
+                } catch (NulsException e) {
+                    Log.info("parse coin form db error");
+                    continue;
+                }
+                List<Coin> coinList = utxoMap.get(new ByteArrayWrapper(coin.getAddress()));
+                if (coinList != null) {
+                    coin.setOwner(coinEntryBytes.getKey());
+                    coinList.add(coin);
+                }
+            }
+            if (page.size() < UTXO_PAGE_SIZE) {
+                break;
+            }
+            // 下一页从最后一个key之后的最小key开始
+            // The next page starts at the smallest key after the last one
+            byte[] lastKey = page.get(page.size() - 1).getKey();
+            startKey = Arrays.copyOf(lastKey, lastKey.length + 1);
+        }
+        for (List<Coin> coinList : utxoMap.values()) {
+            coinList.sort(CoinComparator.getInstance());
+        }
+        return utxoMap;
+    }
+
+    private byte[] toAddressBytes(String address) {
+        if (StringUtils.isBlank(address) || !AddressTool.validAddress(address)) {
+            return null;
+        }
+        return AddressTool.getAddress(address);
+    }
+}
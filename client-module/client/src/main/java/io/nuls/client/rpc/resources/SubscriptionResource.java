@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.client.rpc.resources;
+
+import io.nuls.client.rpc.constant.RpcConstant;
+import io.nuls.client.rpc.subscription.Subscription;
+import io.nuls.client.rpc.subscription.SubscriptionManager;
+import io.nuls.client.rpc.subscription.SubscriptionTopic;
+import io.nuls.core.tools.str.StringUtils;
+import io.nuls.kernel.cfg.NulsConfig;
+import io.nuls.kernel.constant.KernelErrorCode;
+import io.nuls.kernel.context.NulsContext;
+import io.nuls.kernel.exception.NulsRuntimeException;
+import io.nuls.kernel.lite.annotation.Component;
+import io.nuls.kernel.utils.AddressTool;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.glassfish.jersey.server.ChunkedOutput;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 推送订阅接口，以server-sent events(text/event-stream)持续推送新区块、地址相关交易及合约事件，只推送增量。
+ * 事件id为区块高度，可通过fromHeight或断线重连时的Last-Event-ID从指定高度续传，分叉回滚时推送rollback事件。
+ * Push subscription endpoints streaming new blocks, address activity and contract events as server-sent events
+ * (text/event-stream), deltas only. Event ids are block heights: fromHeight, or the Last-Event-ID sent on reconnect,
+ * resumes from a given height, and a rollback event is pushed when delivered blocks are rolled back.
+ */
+@Path("/subscribe")
+@Api(value = "/subscribe", description = "Subscribe")
+@Component
+public class SubscriptionResource {
+
+    private static final String EVENT_STREAM = "text/event-stream";
+
+    @GET
+    @Path("/header")
+    @Produces(EVENT_STREAM)
+    @ApiOperation(value = "订阅新区块头", notes = "事件: header, rollback, ping")
+    public ChunkedOutput<String> subscribeHeader(
+            @ApiParam(name = "fromHeight", value = "起始高度(不填从下一个区块开始)") @QueryParam("fromHeight") Long fromHeight,
+            @HeaderParam("Last-Event-ID") String lastEventId) {
+        return subscribe(new Subscription(SubscriptionTopic.HEADER, getStartHeight(fromHeight, lastEventId), null, false, null, null));
+    }
+
+    @GET
+    @Path("/block")
+    @Produces(EVENT_STREAM)
+    @ApiOperation(value = "订阅完整区块", notes = "事件: block, rollback, ping")
+    public ChunkedOutput<String> subscribeBlock(
+            @ApiParam(name = "fromHeight", value = "起始高度(不填从下一个区块开始)") @QueryParam("fromHeight") Long fromHeight,
+            @HeaderParam("Last-Event-ID") String lastEventId) {
+        return subscribe(new Subscription(SubscriptionTopic.BLOCK, getStartHeight(fromHeight, lastEventId), null, false, null, null));
+    }
+
+    @GET
+    @Path("/tx")
+    @Produces(EVENT_STREAM)
+    @ApiOperation(value = "订阅与指定地址相关的交易", notes = "事件: txs(已确认), unconfirmed-tx(未确认), rollback, ping")
+    public ChunkedOutput<String> subscribeTx(
+            @ApiParam(name = "address", value = "地址，多个以逗号分隔", required = true) @QueryParam("address") String address,
+            @ApiParam(name = "unconfirmed", value = "是否推送未确认交易") @QueryParam("unconfirmed") Boolean unconfirmed,
+            @ApiParam(name = "fromHeight", value = "起始高度(不填从下一个区块开始)") @QueryParam("fromHeight") Long fromHeight,
+            @HeaderParam("Last-Event-ID") String lastEventId) {
+        if (StringUtils.isBlank(address)) {
+            throw new NulsRuntimeException(KernelErrorCode.NULL_PARAMETER);
+        }
+        Set<String> addressSet = new HashSet<>();
+        for (String item : address.split(",")) {
+            if (!AddressTool.validAddress(item.trim())) {
+                throw new NulsRuntimeException(KernelErrorCode.PARAMETER_ERROR);
+            }
+            addressSet.add(item.trim());
+        }
+        return subscribe(new Subscription(SubscriptionTopic.TX, getStartHeight(fromHeight, lastEventId), addressSet, Boolean.TRUE.equals(unconfirmed), null, null));
+    }
+
+    @GET
+    @Path("/contract/event")
+    @Produces(EVENT_STREAM)
+    @ApiOperation(value = "订阅合约事件", notes = "事件: contract-events, rollback, ping")
+    public ChunkedOutput<String> subscribeContractEvent(
+            @ApiParam(name = "contractAddress", value = "合约地址(不填推送所有合约)") @QueryParam("contractAddress") String contractAddress,
+            @ApiParam(name = "event", value = "事件名(不填推送所有事件)") @QueryParam("event") String event,
+            @ApiParam(name = "fromHeight", value = "起始高度(不填从下一个区块开始)") @QueryParam("fromHeight") Long fromHeight,
+            @HeaderParam("Last-Event-ID") String lastEventId) {
+        if (StringUtils.isNotBlank(contractAddress) && !AddressTool.validAddress(contractAddress)) {
+            throw new NulsRuntimeException(KernelErrorCode.PARAMETER_ERROR);
+        }
+        return subscribe(new Subscription(SubscriptionTopic.CONTRACT_EVENT, getStartHeight(fromHeight, lastEventId), null, false,
+                StringUtils.isBlank(contractAddress) ? null : contractAddress, StringUtils.isBlank(event) ? null : event));
+    }
+
+    private ChunkedOutput<String> subscribe(Subscription subscription) {
+        int maxSize = NulsConfig.MODULES_CONFIG.getCfgValue(RpcConstant.CFG_RPC_SECTION, RpcConstant.CFG_RPC_SUBSCRIPTION_MAX_SIZE, RpcConstant.DEFAULT_SUBSCRIPTION_MAX_SIZE);
+        if (!SubscriptionManager.getInstance().subscribe(subscription, maxSize)) {
+            throw new NulsRuntimeException(KernelErrorCode.REQUEST_DENIED);
+        }
+        return subscription.getOutput();
+    }
+
+    /**
+     * fromHeight优先，其次是断线重连时的Last-Event-ID，都没有时从下一个区块开始
+     * fromHeight first, then the Last-Event-ID of a reconnect, otherwise start with the next block
+     */
+    private long getStartHeight(Long fromHeight, String lastEventId) {
+        if (null != fromHeight) {
+            if (fromHeight < 0) {
+                throw new NulsRuntimeException(KernelErrorCode.PARAMETER_ERROR);
+            }
+            return fromHeight;
+        }
+        if (StringUtils.isNotBlank(lastEventId)) {
+            try {
+                return Long.parseLong(lastEventId.trim()) + 1;
+            } catch (NumberFormatException e) {
+                throw new NulsRuntimeException(KernelErrorCode.PARAMETER_ERROR);
+            }
+        }
+        return NulsContext.getInstance().getBestHeight() + 1;
+    }
+}
@@ -35,9 +35,15 @@ import io.nuls.kernel.lite.annotation.Autowired;
 import io.nuls.kernel.lite.annotation.Component;
 import io.nuls.kernel.model.Result;
 import io.nuls.kernel.model.RpcClientResult;
+import io.nuls.kernel.rpc.RpcExecutors;
+import io.nuls.kernel.rpc.RpcStatistics;
+import io.nuls.kernel.validate.ValidatorManager;
+import io.nuls.protocol.base.cache.TransactionDuplicateRemoval;
+import io.nuls.protocol.utils.SmallBlockDuplicateRemoval;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 
+import javax.ws.rs.GET;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -78,4 +84,34 @@ public class SystemResource {
         map.put("value", true);
         return Result.getSuccess().setData(map).toRpcClientResult();
     }
+
+    @GET
+    @Path("/rpc/statistics")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "查询RPC接口耗时统计及任务组线程池状态")
+    public RpcClientResult getRpcStatistics() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("executors", RpcExecutors.getStatistics());
+        map.put("latency", RpcStatistics.getLatencyStatistics());
+        return Result.getSuccess().setData(map).toRpcClientResult();
+    }
+
+    @GET
+    @Path("/validator/statistics")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "查询各验证器的执行次数及耗时")
+    public RpcClientResult getValidatorStatistics() {
+        return Result.getSuccess().setData(ValidatorManager.getStatistics()).toRpcClientResult();
+    }
+
+    @GET
+    @Path("/filter/statistics")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "查询交易及区块去重过滤器的占用率和误判率")
+    public RpcClientResult getFilterStatistics() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("transaction", TransactionDuplicateRemoval.getStatistics());
+        map.put("smallBlock", SmallBlockDuplicateRemoval.getStatistics());
+        return Result.getSuccess().setData(map).toRpcClientResult();
+    }
 }
@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.client.rpc.subscription;
+
+import io.nuls.contract.constant.ContractConstant;
+import io.nuls.contract.dto.ContractResult;
+import io.nuls.contract.entity.tx.ContractTransaction;
+import io.nuls.contract.service.ContractService;
+import io.nuls.core.tools.json.JSONUtils;
+import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.context.NulsContext;
+import io.nuls.kernel.model.Block;
+import io.nuls.kernel.model.Transaction;
+import io.nuls.kernel.utils.AddressTool;
+import io.nuls.protocol.rpc.model.BlockDto;
+import io.nuls.protocol.rpc.model.BlockHeaderDto;
+import io.nuls.protocol.rpc.model.TransactionDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 已保存区块及其推送内容，内容在首次需要时生成一次，由所有订阅共用
+ * A saved block and its push payloads. Each payload is built once, on first use, and shared by every subscription.
+ */
+public class BlockEntry {
+
+    private final Block block;
+    private final long height;
+    private final String hash;
+
+    private String headerJson;
+    private String blockJson;
+    private List<TxEntry> txList;
+    private List<Map<String, Object>> contractEventList;
+
+    public BlockEntry(Block block) {
+        this.block = block;
+        this.height = block.getHeader().getHeight();
+        this.hash = block.getHeader().getHash().getDigestHex();
+    }
+
+    public String getHeaderJson() throws Exception {
+        if (null == headerJson) {
+            headerJson = JSONUtils.obj2json(new BlockHeaderDto(block));
+        }
+        return headerJson;
+    }
+
+    public String getBlockJson() throws Exception {
+        if (null == blockJson) {
+            blockJson = JSONUtils.obj2json(new BlockDto(block));
+        }
+        return blockJson;
+    }
+
+    public List<TxEntry> getTxList() {
+        if (null == txList) {
+            List<TxEntry> list = new ArrayList<>();
+            for (Transaction tx : block.getTxs()) {
+                list.add(new TxEntry(tx, true));
+            }
+            txList = list;
+        }
+        return txList;
+    }
+
+    /**
+     * 区块内所有合约交易产生的事件
+     * Events emitted by the contract transactions of this block.
+     */
+    public List<Map<String, Object>> getContractEventList() {
+        if (null == contractEventList) {
+            List<Map<String, Object>> list = new ArrayList<>();
+            for (Transaction tx : block.getTxs()) {
+                if (!(tx instanceof ContractTransaction)) {
+                    continue;
+                }
+                ContractResult contractResult = ((ContractTransaction) tx).getContractResult();
+                if (null == contractResult) {
+                    contractResult = NulsContext.getServiceBean(ContractService.class).getContractExecuteResult(tx.getHash());
+                }
+                if (null == contractResult || null == contractResult.getEvents()) {
+                    continue;
+                }
+                for (String event : contractResult.getEvents()) {
+                    try {
+                        Map<String, Object> eventMap = JSONUtils.json2map(event);
+                        Map<String, Object> map = new HashMap<>();
+                        map.put("txHash", tx.getHash().getDigestHex());
+                        map.put("contractAddress", eventMap.get(ContractConstant.CONTRACT_EVENT_ADDRESS));
+                        map.put("event", eventMap.get(ContractConstant.CONTRACT_EVENT));
+                        map.put("payload", eventMap.get(ContractConstant.CONTRACT_EVENT_DATA));
+                        list.add(map);
+                    } catch (Exception e) {
+                        Log.error(e);
+                    }
+                }
+            }
+            contractEventList = list;
+        }
+        return contractEventList;
+    }
+
+    public long getHeight() {
+        return height;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * 交易及其相关地址，交易对象与链上共用，只读不改
+     * A transaction and the addresses it touches. The transaction object is shared with the chain and never modified.
+     */
+    public static class TxEntry {
+
+        private final Transaction tx;
+        private final boolean confirmed;
+        private final Set<String> addressSet = new HashSet<>();
+        private String json;
+
+        public TxEntry(Transaction tx, boolean confirmed) {
+            this.tx = tx;
+            this.confirmed = confirmed;
+            List<byte[]> addressList = tx.getAllRelativeAddress();
+            for (byte[] address : addressList) {
+                addressSet.add(AddressTool.getStringAddressByBytes(address));
+            }
+        }
+
+        public boolean touches(Set<String> addresses) {
+            for (String address : addresses) {
+                if (addressSet.contains(address)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public String getJson() throws Exception {
+            if (null == json) {
+                TransactionDto dto = new TransactionDto(tx);
+                if (confirmed) {
+                    dto.setStatus(1);
+                }
+                json = JSONUtils.obj2json(dto);
+            }
+            return json;
+        }
+    }
+}
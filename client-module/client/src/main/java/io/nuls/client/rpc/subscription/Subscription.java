@@ -0,0 +1,241 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.client.rpc.subscription;
+
+import io.nuls.core.tools.log.Log;
+import org.glassfish.jersey.server.ChunkedOutput;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一个推送订阅，以server-sent events格式写出事件，事件id为区块高度，断线后可用Last-Event-ID从下一个高度继续
+ * A push subscription writing server-sent events. Event ids are block heights, so a consumer reconnecting with
+ * Last-Event-ID resumes from the next height.
+ * <p>
+ * 事件先放入待写队列，由写出线程写到连接上，分发线程不会被慢速消费者阻塞；游标等状态只由{@link SubscriptionManager}的分发线程访问
+ * Events are queued first and written to the connection by a writer thread, so a slow consumer never blocks the
+ * dispatch thread. The cursor and the other state are only touched by the dispatch thread of {@link SubscriptionManager}.
+ */
+public class Subscription {
+
+    /**
+     * 为检测分叉回滚而保留的已推送区块数
+     * delivered blocks kept to detect rollbacks
+     */
+    private static final int MAX_HISTORY = 200;
+
+    /**
+     * 待写字符数达到该值后暂停推送区块，写出后再从游标处继续
+     * block delivery pauses once this many characters wait to be written, and resumes from the cursor after a flush
+     */
+    private static final long BACKLOG_HIGH_WATER = 1024 * 1024;
+
+    /**
+     * 待写字符数上限，超过时认为消费者无法跟上并断开连接，消费者可用Last-Event-ID重连续传
+     * hard cap of characters waiting to be written, beyond it the consumer cannot keep up and is disconnected,
+     * it may reconnect with Last-Event-ID
+     */
+    private static final long BACKLOG_MAX = 4 * BACKLOG_HIGH_WATER;
+
+    private final SubscriptionTopic topic;
+    private final ChunkedOutput<String> output = new ChunkedOutput<>(String.class, "");
+    private final Set<String> addressSet;
+    private final boolean unconfirmed;
+    private final String contractAddress;
+    private final String eventName;
+
+    private long nextHeight;
+    private long rollbackEpoch;
+    private long lastSendTime;
+    private final Deque<DeliveredBlock> history = new ArrayDeque<>();
+
+    private final Queue<String> backlog = new ConcurrentLinkedQueue<>();
+    private final AtomicLong backlogSize = new AtomicLong();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    public Subscription(SubscriptionTopic topic, long nextHeight, Set<String> addressSet, boolean unconfirmed, String contractAddress, String eventName) {
+        this.topic = topic;
+        this.nextHeight = nextHeight;
+        this.addressSet = addressSet;
+        this.unconfirmed = unconfirmed;
+        this.contractAddress = contractAddress;
+        this.eventName = eventName;
+        this.lastSendTime = System.currentTimeMillis();
+    }
+
+    /**
+     * 把一个事件放入待写队列，连接已断开或待写内容超过上限时返回false
+     * Queue one event for writing, returns false once the connection is gone or the backlog is over its cap.
+     *
+     * @param event 事件名/event name
+     * @param id    事件id，null表示不更新消费者的续传位置/event id, null keeps the consumer's resume position
+     * @param json  事件数据/event data in json
+     */
+    public boolean send(String event, Long id, String json) {
+        StringBuilder frame = new StringBuilder();
+        if (null != id) {
+            frame.append("id: ").append(id).append('\n');
+        }
+        frame.append("event: ").append(event).append('\n');
+        frame.append("data: ").append(json).append("\n\n");
+        if (isClosed()) {
+            return false;
+        }
+        if (backlogSize.get() + frame.length() > BACKLOG_MAX) {
+            Log.info("push subscription closed, the consumer cannot keep up: " + topic);
+            close();
+            return false;
+        }
+        backlog.offer(frame.toString());
+        backlogSize.addAndGet(frame.length());
+        lastSendTime = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * 写出所有待写事件，在写出线程中调用，可能因消费者读取缓慢而阻塞
+     * Write every queued event. Called on a writer thread and may block while the consumer reads slowly.
+     */
+    void flush() {
+        String frame;
+        while (null != (frame = backlog.poll())) {
+            try {
+                write(frame);
+            } catch (IOException e) {
+                close();
+            }
+            backlogSize.addAndGet(-frame.length());
+        }
+    }
+
+    void write(String frame) throws IOException {
+        if (!output.isClosed()) {
+            output.write(frame);
+        }
+    }
+
+    boolean startFlush() {
+        return flushing.compareAndSet(false, true);
+    }
+
+    void endFlush() {
+        flushing.set(false);
+    }
+
+    boolean hasBacklog() {
+        return !backlog.isEmpty();
+    }
+
+    boolean isBackedUp() {
+        return backlogSize.get() >= BACKLOG_HIGH_WATER;
+    }
+
+    public void close() {
+        try {
+            output.close();
+        } catch (IOException e) {
+            Log.debug(e.getMessage());
+        }
+    }
+
+    public boolean isClosed() {
+        return output.isClosed();
+    }
+
+    void delivered(long height, String hash) {
+        history.addLast(new DeliveredBlock(height, hash));
+        if (history.size() > MAX_HISTORY) {
+            history.removeFirst();
+        }
+        nextHeight = height + 1;
+    }
+
+    DeliveredBlock lastDelivered() {
+        return history.peekLast();
+    }
+
+    void rollback(DeliveredBlock block) {
+        history.remove(block);
+        nextHeight = block.height;
+    }
+
+    public ChunkedOutput<String> getOutput() {
+        return output;
+    }
+
+    public SubscriptionTopic getTopic() {
+        return topic;
+    }
+
+    public Set<String> getAddressSet() {
+        return addressSet;
+    }
+
+    public boolean isUnconfirmed() {
+        return unconfirmed;
+    }
+
+    public String getContractAddress() {
+        return contractAddress;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public long getNextHeight() {
+        return nextHeight;
+    }
+
+    long getRollbackEpoch() {
+        return rollbackEpoch;
+    }
+
+    void setRollbackEpoch(long rollbackEpoch) {
+        this.rollbackEpoch = rollbackEpoch;
+    }
+
+    long getLastSendTime() {
+        return lastSendTime;
+    }
+
+    static class DeliveredBlock {
+
+        final long height;
+        final String hash;
+
+        private DeliveredBlock(long height, String hash) {
+            this.height = height;
+            this.hash = hash;
+        }
+    }
+}
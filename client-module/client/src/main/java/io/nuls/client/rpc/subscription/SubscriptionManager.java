@@ -0,0 +1,377 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.client.rpc.subscription;
+
+import io.nuls.client.rpc.subscription.BlockEntry.TxEntry;
+import io.nuls.core.tools.json.JSONUtils;
+import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.constant.NulsConstant;
+import io.nuls.kernel.context.NulsContext;
+import io.nuls.kernel.model.Block;
+import io.nuls.kernel.model.BlockHeader;
+import io.nuls.kernel.model.Transaction;
+import io.nuls.kernel.thread.manager.NulsThreadFactory;
+import io.nuls.kernel.thread.manager.TaskManager;
+import io.nuls.protocol.listener.ChainEventListener;
+import io.nuls.protocol.service.BlockService;
+import io.nuls.protocol.utils.ChainEventManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 推送订阅管理，由区块保存、回滚及交易进入待打包队列的事件驱动，所有订阅在同一个分发线程中按各自的高度游标推进。
+ * 实时推送优先：每轮先推送缓存中的最新区块，再从存储为落后的订阅补推，所有订阅每轮共用{@link #MAX_BLOCKS_PER_PASS}次存储读取，
+ * 补推之间留出间隔。事件由写出线程写到连接上，待写内容过多的订阅暂停推送区块，写出后再继续。
+ * Push subscription manager. It is driven by block save, block rollback and tx admission events, and one dispatch
+ * thread moves every subscription forward along its own height cursor. Live delivery comes first: each pass serves
+ * the recently saved blocks from the cache, then lets lagging subscriptions catch up from storage with
+ * {@link #MAX_BLOCKS_PER_PASS} reads shared by all of them, and catch-up passes are spaced out. Events are written to
+ * the connections by writer threads, and a subscription with too much unwritten output stops receiving blocks until
+ * it is flushed.
+ */
+public class SubscriptionManager implements ChainEventListener {
+
+    private static final SubscriptionManager INSTANCE = new SubscriptionManager();
+
+    private static final int MAX_BLOCKS_PER_PASS = 100;
+    private static final int MAX_CACHED_BLOCKS = 100;
+    private static final int MAX_PENDING_TXS = 10000;
+    private static final long HEARTBEAT_INTERVAL = 15000L;
+    private static final long CATCH_UP_INTERVAL = 50L;
+
+    private final List<Subscription> subscriptionList = new CopyOnWriteArrayList<>();
+
+    /**
+     * 最近保存的区块，按高度索引
+     * recently saved blocks indexed by height
+     */
+    private final Map<Long, BlockEntry> blockCache = new LinkedHashMap<Long, BlockEntry>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BlockEntry> eldest) {
+            return size() > MAX_CACHED_BLOCKS;
+        }
+    };
+
+    private final Queue<Transaction> pendingTxQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingTxCount = new AtomicInteger();
+    private final AtomicLong rollbackEpoch = new AtomicLong();
+    /**
+     * 最后保存的区块高度，区块保存后最新高度可能还没有更新
+     * height of the last saved block, the best height may not be updated yet right after a save
+     */
+    private final AtomicLong savedHeight = new AtomicLong(-1L);
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+
+    private ScheduledExecutorService executor;
+    private Executor writeExecutor;
+    private BlockService blockService;
+    private int catchUpOffset;
+
+    private SubscriptionManager() {
+    }
+
+    SubscriptionManager(BlockService blockService, ScheduledExecutorService executor, Executor writeExecutor) {
+        this.blockService = blockService;
+        this.executor = executor;
+        this.writeExecutor = writeExecutor;
+    }
+
+    public static SubscriptionManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 添加订阅，订阅数已达上限时返回false
+     * Add a subscription, returns false when the number of subscriptions already reached the cap.
+     *
+     * @param subscription 订阅/the subscription
+     * @param maxSize      订阅数上限/max number of subscriptions
+     */
+    public synchronized boolean subscribe(Subscription subscription, int maxSize) {
+        subscriptionList.removeIf(Subscription::isClosed);
+        if (subscriptionList.size() >= maxSize) {
+            return false;
+        }
+        if (null == executor) {
+            blockService = NulsContext.getServiceBean(BlockService.class);
+            writeExecutor = TaskManager.createThreadPool(maxSize, 0, new NulsThreadFactory(NulsConstant.MODULE_ID_MICROKERNEL, "rpc-subscription-writer"));
+            executor = TaskManager.createScheduledThreadPool(new NulsThreadFactory(NulsConstant.MODULE_ID_MICROKERNEL, "rpc-subscription"));
+            executor.scheduleWithFixedDelay(this::dispatch, 1, 1, TimeUnit.SECONDS);
+            ChainEventManager.addListener(this);
+        }
+        subscription.setRollbackEpoch(rollbackEpoch.get());
+        subscriptionList.add(subscription);
+        wakeUp();
+        return true;
+    }
+
+    @Override
+    public void onBlockSaved(Block block) {
+        BlockEntry entry = new BlockEntry(block);
+        synchronized (blockCache) {
+            blockCache.put(entry.getHeight(), entry);
+        }
+        savedHeight.set(entry.getHeight());
+        wakeUp();
+    }
+
+    @Override
+    public void onBlockRolledBack(Block block) {
+        synchronized (blockCache) {
+            blockCache.remove(block.getHeader().getHeight());
+        }
+        savedHeight.set(block.getHeader().getHeight() - 1);
+        rollbackEpoch.incrementAndGet();
+        wakeUp();
+    }
+
+    @Override
+    public void onTxAdmitted(Transaction tx) {
+        if (pendingTxCount.incrementAndGet() > MAX_PENDING_TXS) {
+            pendingTxCount.decrementAndGet();
+            return;
+        }
+        pendingTxQueue.offer(tx);
+        wakeUp();
+    }
+
+    private void wakeUp() {
+        if (dispatchScheduled.compareAndSet(false, true)) {
+            executor.execute(this::dispatch);
+        }
+    }
+
+    private void dispatch() {
+        dispatchScheduled.set(false);
+        try {
+            dispatchUnconfirmedTxs();
+            long bestHeight = Math.max(NulsContext.getInstance().getBestHeight(), savedHeight.get());
+            long epoch = rollbackEpoch.get();
+            for (Subscription subscription : subscriptionList) {
+                if (subscription.isClosed()) {
+                    subscriptionList.remove(subscription);
+                    continue;
+                }
+                if (subscription.getRollbackEpoch() != epoch) {
+                    subscription.setRollbackEpoch(epoch);
+                    dispatchRollback(subscription);
+                }
+                deliverBlocks(subscription, bestHeight, 0);
+            }
+            boolean behind = catchUp(bestHeight);
+            for (Subscription subscription : subscriptionList) {
+                if (!subscription.isBackedUp() && System.currentTimeMillis() - subscription.getLastSendTime() >= HEARTBEAT_INTERVAL) {
+                    subscription.send("ping", subscription.getNextHeight() - 1, "{\"bestHeight\":" + bestHeight + "}");
+                }
+                flush(subscription);
+            }
+            if (behind) {
+                executor.schedule(this::wakeUp, CATCH_UP_INTERVAL, TimeUnit.MILLISECONDS);
+            }
+        } catch (Exception e) {
+            Log.error(e);
+        }
+    }
+
+    /**
+     * 为落后的订阅从存储补推区块，所有订阅共用本轮的读取额度，起点轮转以免总是同一个订阅先读，返回是否仍有订阅需要补推
+     * Let lagging subscriptions catch up from storage. The reads of one pass are shared by all subscriptions and the
+     * starting subscription rotates, returns whether any subscription still needs to catch up.
+     */
+    private boolean catchUp(long bestHeight) throws Exception {
+        List<Subscription> list = new ArrayList<>(subscriptionList);
+        int size = list.size();
+        if (size == 0) {
+            return false;
+        }
+        int reads = 0;
+        boolean behind = false;
+        for (int i = 0; i < size; i++) {
+            Subscription subscription = list.get((catchUpOffset + i) % size);
+            if (reads < MAX_BLOCKS_PER_PASS) {
+                reads += deliverBlocks(subscription, bestHeight, MAX_BLOCKS_PER_PASS - reads);
+            }
+            behind |= !subscription.isClosed() && !subscription.isBackedUp() && subscription.getNextHeight() <= bestHeight;
+        }
+        catchUpOffset = (catchUpOffset + 1) % size;
+        return behind;
+    }
+
+    /**
+     * 按游标推送区块，直到追上最新高度、待写内容过多或用完存储读取额度，返回读取存储的次数
+     * Deliver blocks along the cursor until the subscription is up to date, backed up or out of storage reads,
+     * returns the number of storage reads.
+     */
+    private int deliverBlocks(Subscription subscription, long bestHeight, int maxReads) throws Exception {
+        int reads = 0;
+        while (subscription.getNextHeight() <= bestHeight && !subscription.isClosed() && !subscription.isBackedUp()) {
+            BlockEntry entry = getCachedBlockEntry(subscription.getNextHeight());
+            if (null == entry) {
+                if (reads >= maxReads) {
+                    break;
+                }
+                reads++;
+                Block block = blockService.getBlock(subscription.getNextHeight()).getData();
+                if (null == block) {
+                    break;
+                }
+                entry = new BlockEntry(block);
+            }
+            dispatchBlock(subscription, entry);
+        }
+        return reads;
+    }
+
+    /**
+     * 在写出线程中写出订阅的待写事件，之前待写内容过多时唤醒分发线程继续推送
+     * Write the queued events of a subscription on a writer thread, and wake the dispatch thread up when the
+     * subscription was backed up.
+     */
+    private void flush(Subscription subscription) {
+        if (!subscription.hasBacklog() || !subscription.startFlush()) {
+            return;
+        }
+        writeExecutor.execute(() -> {
+            boolean backedUp = subscription.isBackedUp();
+            do {
+                subscription.flush();
+                subscription.endFlush();
+            } while (subscription.hasBacklog() && subscription.startFlush());
+            if (backedUp) {
+                wakeUp();
+            }
+        });
+    }
+
+    private void dispatchUnconfirmedTxs() throws Exception {
+        Transaction tx;
+        while (null != (tx = pendingTxQueue.poll())) {
+            pendingTxCount.decrementAndGet();
+            TxEntry entry = null;
+            for (Subscription subscription : subscriptionList) {
+                if (subscription.getTopic() != SubscriptionTopic.TX || !subscription.isUnconfirmed()) {
+                    continue;
+                }
+                if (null == entry) {
+                    entry = new TxEntry(tx, false);
+                }
+                if (entry.touches(subscription.getAddressSet())) {
+                    subscription.send("unconfirmed-tx", null, entry.getJson());
+                }
+            }
+        }
+    }
+
+    /**
+     * 已推送的区块被回滚时，逐个通知消费者并把游标退回到分叉点
+     * When delivered blocks were rolled back, notify the consumer block by block and move the cursor back to the fork point.
+     */
+    private void dispatchRollback(Subscription subscription) {
+        Subscription.DeliveredBlock last;
+        while (null != (last = subscription.lastDelivered())) {
+            String hash = getBlockHash(last.height);
+            if (last.hash.equals(hash)) {
+                return;
+            }
+            subscription.rollback(last);
+            subscription.send("rollback", last.height - 1, "{\"height\":" + last.height + ",\"hash\":\"" + last.hash + "\"}");
+        }
+    }
+
+    private void dispatchBlock(Subscription subscription, BlockEntry entry) throws Exception {
+        long height = entry.getHeight();
+        switch (subscription.getTopic()) {
+            case HEADER:
+                subscription.send("header", height, entry.getHeaderJson());
+                break;
+            case BLOCK:
+                subscription.send("block", height, entry.getBlockJson());
+                break;
+            case TX:
+                List<String> txJsonList = new ArrayList<>();
+                for (TxEntry tx : entry.getTxList()) {
+                    if (tx.touches(subscription.getAddressSet())) {
+                        txJsonList.add(tx.getJson());
+                    }
+                }
+                if (!txJsonList.isEmpty()) {
+                    subscription.send("txs", height, "{\"height\":" + height + ",\"hash\":\"" + entry.getHash() + "\",\"txs\":[" + String.join(",", txJsonList) + "]}");
+                }
+                break;
+            case CONTRACT_EVENT:
+                List<Map<String, Object>> eventList = new ArrayList<>();
+                for (Map<String, Object> event : entry.getContractEventList()) {
+                    if (matches(subscription.getContractAddress(), event.get("contractAddress")) && matches(subscription.getEventName(), event.get("event"))) {
+                        eventList.add(event);
+                    }
+                }
+                if (!eventList.isEmpty()) {
+                    Map<String, Object> map = new HashMap<>();
+                    map.put("height", height);
+                    map.put("hash", entry.getHash());
+                    map.put("events", eventList);
+                    subscription.send("contract-events", height, JSONUtils.obj2json(map));
+                }
+                break;
+            default:
+                break;
+        }
+        subscription.delivered(height, entry.getHash());
+    }
+
+    private boolean matches(String expected, Object value) {
+        return null == expected || expected.equals(value);
+    }
+
+    private BlockEntry getCachedBlockEntry(long height) {
+        synchronized (blockCache) {
+            return blockCache.get(height);
+        }
+    }
+
+    private String getBlockHash(long height) {
+        synchronized (blockCache) {
+            BlockEntry entry = blockCache.get(height);
+            if (null != entry) {
+                return entry.getHash();
+            }
+        }
+        BlockHeader header = blockService.getBlockHeader(height).getData();
+        return null == header ? null : header.getHash().getDigestHex();
+    }
+}
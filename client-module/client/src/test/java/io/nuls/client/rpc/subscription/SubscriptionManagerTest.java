@@ -0,0 +1,255 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.client.rpc.subscription;
+
+import io.nuls.core.tools.crypto.Util;
+import io.nuls.kernel.constant.TxStatusEnum;
+import io.nuls.kernel.context.NulsContext;
+import io.nuls.kernel.model.Block;
+import io.nuls.kernel.model.BlockHeader;
+import io.nuls.kernel.model.Coin;
+import io.nuls.kernel.model.CoinData;
+import io.nuls.kernel.model.Na;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.model.Result;
+import io.nuls.kernel.model.Transaction;
+import io.nuls.kernel.utils.AddressTool;
+import io.nuls.protocol.model.tx.CoinBaseTransaction;
+import io.nuls.protocol.service.BlockService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+public class SubscriptionManagerTest {
+
+    private static final long BEST_HEIGHT = 1000L;
+
+    private final AtomicInteger storageReads = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Runnable> writeTasks = new ConcurrentLinkedQueue<>();
+
+    private byte[] owner;
+    private String address;
+    private ScheduledThreadPoolExecutor executor;
+    private BlockService blockService;
+    private String remark = "";
+
+    @Before
+    public void init() {
+        NulsContext.getInstance().setDefaultChainId((short) 8964);
+        owner = AddressTool.getAddress(new byte[33]);
+        address = AddressTool.getStringAddressByBytes(owner);
+        NulsContext.getInstance().setBestBlock(block(BEST_HEIGHT));
+        executor = new ScheduledThreadPoolExecutor(1);
+        blockService = (BlockService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{BlockService.class}, (proxy, method, args) -> {
+                    if ("getBlock".equals(method.getName()) && args.length == 1) {
+                        storageReads.incrementAndGet();
+                        long height = (Long) args[0];
+                        return Result.getSuccess().setData(height <= BEST_HEIGHT ? block(height) : null);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void capIsEnforcedUnderConcurrentSubscribes() throws Exception {
+        SubscriptionManager manager = new SubscriptionManager(blockService, executor, Runnable::run);
+        int threads = 16;
+        int maxSize = 5;
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(pool.submit(() -> {
+                barrier.await();
+                return manager.subscribe(new RecordingSubscription(BEST_HEIGHT + 1), maxSize);
+            }));
+        }
+        int accepted = 0;
+        for (Future<Boolean> future : futures) {
+            if (future.get(10, TimeUnit.SECONDS)) {
+                accepted++;
+            }
+        }
+        pool.shutdown();
+        assertEquals(maxSize, accepted);
+    }
+
+    @Test
+    public void closedSubscriptionsFreeTheirSlot() {
+        SubscriptionManager manager = new SubscriptionManager(blockService, executor, Runnable::run);
+        RecordingSubscription first = new RecordingSubscription(BEST_HEIGHT + 1);
+        assertTrue(manager.subscribe(first, 1));
+        assertFalse(manager.subscribe(new RecordingSubscription(BEST_HEIGHT + 1), 1));
+        first.close();
+        assertTrue(manager.subscribe(new RecordingSubscription(BEST_HEIGHT + 1), 1));
+    }
+
+    @Test
+    public void confirmedTxJsonDoesNotTouchTheTx() throws Exception {
+        Block block = block(10);
+        Transaction tx = block.getTxs().get(0);
+        tx.setStatus(TxStatusEnum.UNCONFIRM);
+        String json = new BlockEntry(block).getTxList().get(0).getJson();
+        assertTrue(json, json.contains("\"status\":1"));
+        assertEquals(TxStatusEnum.UNCONFIRM, tx.getStatus());
+    }
+
+    @Test
+    public void catchUpPausesWhileBackedUpAndResumesAfterFlush() throws Exception {
+        char[] chars = new char[20000];
+        Arrays.fill(chars, 'a');
+        remark = new String(chars);
+        SubscriptionManager manager = new SubscriptionManager(blockService, executor, writeTasks::add);
+        RecordingSubscription subscription = new RecordingSubscription(1);
+        assertTrue(manager.subscribe(subscription, 1));
+
+        awaitIdle();
+        assertTrue(subscription.isBackedUp());
+        int reads = storageReads.get();
+        assertTrue("reads: " + reads, reads < BEST_HEIGHT / 10);
+        awaitIdle();
+        assertEquals(reads, storageReads.get());
+        assertTrue(subscription.ids.isEmpty());
+
+        while (subscription.getNextHeight() <= BEST_HEIGHT || !writeTasks.isEmpty()) {
+            Runnable task = writeTasks.poll();
+            if (null == task) {
+                awaitIdle();
+            } else {
+                task.run();
+            }
+        }
+        assertEquals(BEST_HEIGHT, subscription.ids.size());
+        for (int i = 0; i < BEST_HEIGHT; i++) {
+            assertEquals(Long.valueOf(i + 1), subscription.ids.get(i));
+        }
+    }
+
+    @Test
+    public void liveBlockIsNotQueuedBehindCatchUp() throws Exception {
+        SubscriptionManager manager = new SubscriptionManager(blockService, executor, Runnable::run);
+        RecordingSubscription lagging = new RecordingSubscription(1);
+        List<Integer> laggingCountOnLive = Collections.synchronizedList(new ArrayList<>());
+        RecordingSubscription live = new RecordingSubscription(BEST_HEIGHT + 1) {
+            @Override
+            void write(String frame) throws IOException {
+                laggingCountOnLive.add(lagging.ids.size());
+                super.write(frame);
+            }
+        };
+        assertTrue(manager.subscribe(live, 2));
+        assertTrue(manager.subscribe(lagging, 2));
+        NulsContext.getInstance().setBestBlock(block(BEST_HEIGHT + 1));
+        manager.onBlockSaved(block(BEST_HEIGHT + 1));
+
+        await(() -> lagging.ids.size() == BEST_HEIGHT + 1);
+        assertEquals(Collections.singletonList(BEST_HEIGHT + 1), live.ids);
+        assertTrue("lagging: " + laggingCountOnLive, laggingCountOnLive.get(0) < BEST_HEIGHT / 2);
+    }
+
+    private Block block(long height) {
+        CoinBaseTransaction tx = new CoinBaseTransaction();
+        tx.setTime(height);
+        tx.setBlockHeight(height);
+        tx.setRemark(remark.getBytes());
+        CoinData coinData = new CoinData();
+        coinData.setTo(Collections.singletonList(new Coin(owner, Na.NA)));
+        tx.setCoinData(coinData);
+        tx.setStatus(TxStatusEnum.CONFIRMED);
+
+        BlockHeader header = new BlockHeader();
+        header.setHeight(height);
+        header.setHash(NulsDigestData.calcDigestData(Util.longToBytes(height)));
+        Block block = new Block();
+        block.setHeader(header);
+        block.setTxs(new ArrayList<>(Collections.singletonList(tx)));
+        return block;
+    }
+
+    /**
+     * 等待分发线程空闲且没有排队中的补推
+     * Wait until the dispatch thread is idle and no catch-up pass is queued.
+     */
+    private void awaitIdle() throws Exception {
+        await(() -> {
+            try {
+                executor.submit(() -> {
+                }).get();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            return executor.getQueue().isEmpty();
+        });
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private class RecordingSubscription extends Subscription {
+
+        private final List<Long> ids = Collections.synchronizedList(new ArrayList<>());
+
+        private RecordingSubscription(long nextHeight) {
+            super(SubscriptionTopic.TX, nextHeight, new HashSet<>(Collections.singletonList(address)), false, null, null);
+        }
+
+        @Override
+        void write(String frame) throws IOException {
+            if (frame.startsWith("id: ") && frame.contains("event: txs")) {
+                ids.add(Long.parseLong(frame.substring(4, frame.indexOf('\n'))));
+            }
+        }
+    }
+}
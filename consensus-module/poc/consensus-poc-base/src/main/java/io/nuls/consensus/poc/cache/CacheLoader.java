@@ -63,6 +63,12 @@ public class CacheLoader {
     private AgentStorageService agentStorageService = NulsContext.getServiceBean(AgentStorageService.class);
     private DepositStorageService depositStorageService = NulsContext.getServiceBean(DepositStorageService.class);
 
+    /**
+     * 加载区块头时每次按高度区间读取的数量
+     * Number of headers read per height range while loading block headers.
+     */
+    private static final int LOAD_HEADERS_BATCH_SIZE = 1000;
+
 
     /**
      * 从数据存储中加载指定个数的最新块
@@ -119,24 +125,34 @@ public class CacheLoader {
         }
         BlockExtendsData roundData = new BlockExtendsData(blockHeader.getExtend());
         long breakRoundIndex = roundData.getRoundIndex() - size;
-        while (true) {
-            if (blockHeader == null) {
+        blockHeaderList.add(blockHeader);
+
+        // 按高度区间成批顺序读取，从最新高度往回直到超出所需轮次
+        // Read in height ranges with sequential scans, walking back from the best height until the rounds are covered
+        long endHeight = blockHeader.getHeight() - 1;
+        boolean finished = false;
+        while (!finished && endHeight >= 0L) {
+            long startHeight = Math.max(0L, endHeight - LOAD_HEADERS_BATCH_SIZE + 1);
+            List<BlockHeader> batch = blockService.getBlockHeaderList(startHeight, endHeight).getData();
+            if (null == batch || batch.isEmpty() || batch.get(batch.size() - 1).getHeight() != endHeight) {
                 break;
             }
-
-            blockHeaderList.add(0, blockHeader);
-
-            if (blockHeader.getHeight() == 0L) {
-                break;
-            }
-
-            NulsDigestData preHash = blockHeader.getPreHash();
-            blockHeader = blockService.getBlockHeader(preHash).getData();
-            BlockExtendsData blockRoundData = new BlockExtendsData(blockHeader.getExtend());
-            if (blockRoundData.getRoundIndex() <= breakRoundIndex) {
-                break;
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                BlockHeader header = batch.get(i);
+                BlockExtendsData blockRoundData = new BlockExtendsData(header.getExtend());
+                if (blockRoundData.getRoundIndex() <= breakRoundIndex) {
+                    finished = true;
+                    break;
+                }
+                blockHeaderList.add(header);
+                if (header.getHeight() == 0L) {
+                    finished = true;
+                    break;
+                }
             }
+            endHeight = startHeight - 1;
         }
+        Collections.reverse(blockHeaderList);
 
         return blockHeaderList;
     }
@@ -81,6 +81,12 @@ public interface PocConsensusConstant {
      */
     long CLEAR_INTERVAL_TIME = 60000L;
 
+    /**
+     * Save a snapshot of the consensus cache every specified number of blocks
+     * 每隔指定数量的区块保存一次共识缓存快照
+     */
+    int SNAPSHOT_INTERVAL_BLOCK_COUNT = 1000;
+
     /**
      * Regularly clear the round before the specified number of rounds of the main chain
      * 定期清理主链指定轮数之前的轮次信息
@@ -104,4 +110,10 @@ public interface PocConsensusConstant {
 
     long POC_START_PROCESS_PROTOCOL_VERSION_HEIGHT = 1;
     int MAX_BLOCK_HEADER_COUNT = 30000;
+
+    /**
+     * Number of transactions taken from the memory pool at a time while packing, contract calls among them are executed speculatively
+     * 打包时每次从内存池中预取的交易数量，其中的合约调用交易会被并行预执行
+     */
+    int PACKING_PREFETCH_TX_COUNT = 200;
 }
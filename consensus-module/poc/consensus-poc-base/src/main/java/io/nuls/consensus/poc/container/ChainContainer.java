@@ -831,25 +831,20 @@ public class ChainContainer implements Cloneable {
 
         Chain chain = new Chain();
 
+        // 分叉点靠近链尾, 从后往前查找, 只需遍历分叉深度
+        // The fork point is near the tip, search backwards so only the fork depth is walked
         List<Block> blockList = getChain().getAllBlockList();
-
-        boolean canAdd = false;
-        for (int i = 0; i < blockList.size(); i++) {
-
-            Block block = blockList.get(i);
-
-            if (canAdd) {
-                chain.addBlock(block);
+        int pointIndex = -1;
+        for (int i = blockList.size() - 1; i >= 0; i--) {
+            if (pointBlockHeader.getPreHash().equals(blockList.get(i).getHeader().getHash())) {
+                pointIndex = i;
+                break;
             }
-
-            if (pointBlockHeader.getPreHash().equals(block.getHeader().getHash())) {
-                canAdd = true;
-                chain.setPreChainId(getChain().getId());
-
-//                if (i + 1 < blockList.size()) {
-//                    chain.setPreChainId(getChain().getId());
-//                }
-                continue;
+        }
+        if (pointIndex >= 0) {
+            chain.setPreChainId(getChain().getId());
+            for (int i = pointIndex + 1; i < blockList.size(); i++) {
+                chain.addBlock(blockList.get(i));
             }
         }
         return new ChainContainer(chain);
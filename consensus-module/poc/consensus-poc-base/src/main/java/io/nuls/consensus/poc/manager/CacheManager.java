@@ -28,11 +28,18 @@ package io.nuls.consensus.poc.manager;
 
 import io.nuls.consensus.poc.cache.CacheLoader;
 import io.nuls.consensus.poc.constant.PocConsensusConstant;
+import io.nuls.consensus.poc.locker.Lockers;
+import io.nuls.consensus.poc.model.BlockExtendsData;
 import io.nuls.consensus.poc.protocol.entity.Agent;
 import io.nuls.consensus.poc.protocol.entity.Deposit;
 import io.nuls.consensus.poc.container.ChainContainer;
 import io.nuls.consensus.poc.model.Chain;
+import io.nuls.consensus.poc.protocol.util.PoConvertUtil;
+import io.nuls.consensus.poc.storage.po.AgentPo;
+import io.nuls.consensus.poc.storage.po.ConsensusSnapshotPo;
+import io.nuls.consensus.poc.storage.po.DepositPo;
 import io.nuls.consensus.poc.storage.po.PunishLogPo;
+import io.nuls.consensus.poc.storage.service.ConsensusSnapshotStorageService;
 import io.nuls.consensus.poc.storage.service.PunishLogStorageService;
 import io.nuls.core.tools.log.Log;
 import io.nuls.kernel.constant.KernelErrorCode;
@@ -41,9 +48,10 @@ import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.exception.NulsRuntimeException;
 import io.nuls.kernel.model.Block;
 import io.nuls.kernel.model.BlockHeader;
-import io.nuls.kernel.model.Transaction;
+import io.nuls.protocol.service.BlockService;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -55,12 +63,22 @@ public class CacheManager {
 
     private CacheLoader cacheLoader = new CacheLoader();
 
+    private BlockService blockService = NulsContext.getServiceBean(BlockService.class);
+
+    private ConsensusSnapshotStorageService snapshotStorageService = NulsContext.getServiceBean(ConsensusSnapshotStorageService.class);
+
+    private long lastSnapshotHeight = -1L;
+
     public CacheManager(ChainManager chainManager) {
         this.chainManager = chainManager;
     }
 
     public void load() throws NulsException {
 
+        if (loadFromSnapshot()) {
+            return;
+        }
+
         //load storage data to memory
 
         List<BlockHeader> blockHeaderList = cacheLoader.loadBlockHeaders(PocConsensusConstant.INIT_HEADERS_OF_ROUND_COUNT);
@@ -89,6 +107,163 @@ public class CacheManager {
         chainManager.setMasterChain(masterChainContainer);
 
         chainManager.getMasterChain().initRound();
+
+        lastSnapshotHeight = masterChain.getEndBlockHeader().getHeight();
+    }
+
+    /**
+     * 从快照恢复主链缓存，只重放快照之后的区块，快照不可用时返回false
+     * Restore the master chain cache from the snapshot, replaying only the blocks after it. Returns false when the snapshot is unusable.
+     */
+    private boolean loadFromSnapshot() {
+        try {
+            ConsensusSnapshotPo snapshot = snapshotStorageService.get();
+            if (null == snapshot || snapshot.getBlockHeaderList().isEmpty()) {
+                return false;
+            }
+            BlockHeader bestHeader = blockService.getBestBlockHeader().getData();
+            if (null == bestHeader || bestHeader.getHeight() < snapshot.getHeight()) {
+                return false;
+            }
+            // 快照必须在当前主链上
+            // The snapshot must be on the stored main chain.
+            BlockHeader snapshotHeader = blockService.getBlockHeader(snapshot.getHeight()).getData();
+            List<BlockHeader> headerList = snapshot.getBlockHeaderList();
+            if (null == snapshotHeader || !snapshotHeader.getHash().equals(snapshot.getHash())
+                    || !snapshotHeader.getHash().equals(headerList.get(headerList.size() - 1).getHash())) {
+                return false;
+            }
+
+            Chain masterChain = toChain(snapshot);
+            ChainContainer masterChainContainer = new ChainContainer(masterChain);
+            for (long height = snapshot.getHeight() + 1; height <= bestHeader.getHeight(); height++) {
+                Block block = blockService.getBlock(height).getData();
+                if (null == block || !masterChainContainer.addBlock(block)) {
+                    Log.warn("replay block failed after the consensus snapshot, height: " + height);
+                    return false;
+                }
+            }
+
+            List<Block> blockList = cacheLoader.loadBlocks(PocConsensusConstant.INIT_BLOCKS_COUNT);
+            if (blockList.isEmpty()) {
+                return false;
+            }
+            trimToRoundWindow(masterChain, PocConsensusConstant.INIT_HEADERS_OF_ROUND_COUNT);
+            masterChain.initData(masterChain.getAllBlockHeaderList().get(0), masterChain.getAllBlockHeaderList(), blockList);
+
+            chainManager.setMasterChain(masterChainContainer);
+            chainManager.getMasterChain().initRound();
+
+            lastSnapshotHeight = snapshot.getHeight();
+            Log.info("consensus cache loaded from snapshot at height " + snapshot.getHeight() + ", replayed " + (bestHeader.getHeight() - snapshot.getHeight()) + " blocks");
+            return true;
+        } catch (Exception e) {
+            Log.warn("load consensus snapshot failed, fall back to full load", e);
+            chainManager.clear();
+            return false;
+        }
+    }
+
+    /**
+     * 用快照数据构造链，区块列表为空，由调用方补充
+     * Build a chain from the snapshot data, the block list is left empty for the caller to fill.
+     */
+    static Chain toChain(ConsensusSnapshotPo snapshot) {
+        List<Agent> agentList = new ArrayList<>();
+        for (AgentPo po : snapshot.getAgentList()) {
+            agentList.add(PoConvertUtil.poToAgent(po));
+        }
+        List<Deposit> depositList = new ArrayList<>();
+        for (DepositPo po : snapshot.getDepositList()) {
+            depositList.add(PoConvertUtil.poToDeposit(po));
+        }
+        List<BlockHeader> headerList = snapshot.getBlockHeaderList();
+        Chain chain = new Chain();
+        chain.initData(headerList.get(0), headerList, new ArrayList<>());
+        chain.setAgentList(agentList);
+        chain.setDepositList(depositList);
+        chain.setYellowPunishList(snapshot.getYellowPunishList());
+        chain.setRedPunishList(snapshot.getRedPunishList());
+        return chain;
+    }
+
+    /**
+     * 与全量加载保持一致：只保留最近指定轮数的区块头和黄牌记录
+     * Keep only the headers and yellow punish logs of the latest rounds, the same window a full load produces.
+     */
+    static void trimToRoundWindow(Chain chain, int roundSize) {
+        List<BlockHeader> headerList = chain.getAllBlockHeaderList();
+        BlockExtendsData roundData = new BlockExtendsData(headerList.get(headerList.size() - 1).getExtend());
+        long breakRoundIndex = roundData.getRoundIndex() - roundSize;
+        int from = 0;
+        while (from < headerList.size() - 1 && new BlockExtendsData(headerList.get(from).getExtend()).getRoundIndex() <= breakRoundIndex) {
+            from++;
+        }
+        if (from > 0) {
+            chain.removeFirstBlockHeaders(from);
+        }
+        Iterator<PunishLogPo> it = chain.getYellowPunishList().iterator();
+        while (it.hasNext()) {
+            if (it.next().getRoundIndex() <= breakRoundIndex) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * 保存主链缓存快照
+     * Save a snapshot of the master chain cache.
+     */
+    public boolean saveSnapshot() {
+        ConsensusSnapshotPo snapshot;
+        Lockers.CHAIN_LOCK.lock();
+        try {
+            snapshot = createSnapshot();
+        } finally {
+            Lockers.CHAIN_LOCK.unlock();
+        }
+        if (null == snapshot) {
+            return false;
+        }
+        boolean result = snapshotStorageService.save(snapshot);
+        if (result) {
+            lastSnapshotHeight = snapshot.getHeight();
+        }
+        return result;
+    }
+
+    private ConsensusSnapshotPo createSnapshot() {
+        ChainContainer masterChain = chainManager.getMasterChain();
+        if (null == masterChain || null == masterChain.getChain().getEndBlockHeader()) {
+            return null;
+        }
+        return toSnapshot(masterChain.getChain());
+    }
+
+    static ConsensusSnapshotPo toSnapshot(Chain chain) {
+        ConsensusSnapshotPo snapshot = new ConsensusSnapshotPo();
+        snapshot.setHeight(chain.getEndBlockHeader().getHeight());
+        snapshot.setHash(chain.getEndBlockHeader().getHash());
+        snapshot.setBlockHeaderList(new ArrayList<>(chain.getAllBlockHeaderList()));
+        List<AgentPo> agentPoList = new ArrayList<>();
+        for (Agent agent : chain.getAgentList()) {
+            AgentPo po = PoConvertUtil.agentToPo(agent);
+            po.setDelHeight(agent.getDelHeight());
+            agentPoList.add(po);
+        }
+        snapshot.setAgentList(agentPoList);
+        List<DepositPo> depositPoList = new ArrayList<>();
+        for (Deposit deposit : chain.getDepositList()) {
+            depositPoList.add(PoConvertUtil.depositToPo(deposit));
+        }
+        snapshot.setDepositList(depositPoList);
+        snapshot.setYellowPunishList(new ArrayList<>(chain.getYellowPunishList()));
+        snapshot.setRedPunishList(new ArrayList<>(chain.getRedPunishList()));
+        return snapshot;
+    }
+
+    public long getLastSnapshotHeight() {
+        return lastSnapshotHeight;
     }
 
     public void reload() throws NulsException {
@@ -30,6 +30,7 @@ import io.nuls.consensus.poc.container.ChainContainer;
 import io.nuls.consensus.poc.model.Chain;
 import io.nuls.kernel.model.Block;
 import io.nuls.kernel.model.BlockHeader;
+import io.nuls.kernel.model.NulsDigestData;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -84,6 +85,24 @@ public class ChainManager {
         return false;
     }
 
+    /**
+     * 检查主链、分叉链及孤立链中是否存在该区块, 每条链按hash索引查找
+     * Check whether the block is on the master chain, a fork chain or an orphan chain, using the hash index of each chain
+     */
+    public boolean containsBlock(NulsDigestData blockHash) {
+        for (ChainContainer chainContainer : orphanChains) {
+            if (chainContainer.getChain().containsBlockHeader(blockHash)) {
+                return true;
+            }
+        }
+        for (ChainContainer chainContainer : chains) {
+            if (chainContainer.getChain().containsBlockHeader(blockHash)) {
+                return true;
+            }
+        }
+        return masterChain != null && masterChain.getChain().containsBlockHeader(blockHash);
+    }
+
     public long getBestBlockHeight() {
         if(masterChain == null || masterChain.getChain() == null || masterChain.getChain().getEndBlockHeader() == null) {
             return 0L;
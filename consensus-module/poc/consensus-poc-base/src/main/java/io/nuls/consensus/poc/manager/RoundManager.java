@@ -26,6 +26,7 @@
 
 package io.nuls.consensus.poc.manager;
 
+import io.nuls.account.model.Account;
 import io.nuls.account.service.AccountService;
 import io.nuls.consensus.poc.config.ConsensusConfig;
 import io.nuls.consensus.poc.locker.Lockers;
@@ -265,13 +266,30 @@ public class RoundManager {
 
         setMemberList(round, startBlockHeader);
 
-        round.calcLocalPacker(getAccountService().getAccountList().getData());
+        round.calcLocalPacker(getLocalMemberAccounts(round));
 
         ConsensusLog.debug("\ncalculation||index:{},startTime:{},startHeight:{},hash:{}\n" + round.toString() + "\n\n", index, startTime, startBlockHeader.getHeight(), startBlockHeader.getHash());
         return round;
     }
 
 
+    /**
+     * 通过本地账户索引找出本轮成员中的本地账户, 按创建时间倒序排列, 与账户列表的顺序保持一致
+     * Find the local accounts among the members of the round through the local account index,
+     * sorted by create time descending, the same order as the account list
+     */
+    private List<Account> getLocalMemberAccounts(MeetingRound round) {
+        List<Account> accountList = new ArrayList<>();
+        for (MeetingMember member : round.getMemberList()) {
+            Account account = getAccountService().getLocalAccount(member.getPackingAddress());
+            if (null != account) {
+                accountList.add(account);
+            }
+        }
+        accountList.sort((o1, o2) -> o2.getCreateTime().compareTo(o1.getCreateTime()));
+        return accountList;
+    }
+
     private void setMemberList(MeetingRound round, BlockHeader startBlockHeader) {
 
         List<MeetingMember> memberList = new ArrayList<>();
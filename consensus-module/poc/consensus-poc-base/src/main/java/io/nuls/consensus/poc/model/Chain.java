@@ -34,8 +34,10 @@ import io.nuls.core.tools.array.ArraysTool;
 import io.nuls.core.tools.str.StringUtils;
 import io.nuls.kernel.model.Block;
 import io.nuls.kernel.model.BlockHeader;
+import io.nuls.kernel.model.NulsDigestData;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author ln
@@ -47,6 +49,11 @@ public class Chain implements Cloneable {
     private BlockHeader startBlockHeader;
     private BlockHeader endBlockHeader;
     private List<BlockHeader> blockHeaderList;
+    /**
+     * 区块头hash索引, 与blockHeaderList同步维护, 用于O(1)判断区块是否在链上及查找连接点
+     * Hash index of blockHeaderList, kept in step with the list, used for O(1) existence and connection lookups
+     */
+    private Map<NulsDigestData, BlockHeader> blockHeaderIndex;
     private List<Block> blockList;
     private List<Agent> agentList;
     private List<Deposit> depositList;
@@ -55,6 +62,7 @@ public class Chain implements Cloneable {
 
     public Chain() {
         blockHeaderList = new ArrayList<>();
+        blockHeaderIndex = new ConcurrentHashMap<>();
         blockList = new ArrayList<>();
         id = StringUtils.getNewUUID();
     }
@@ -63,8 +71,9 @@ public class Chain implements Cloneable {
     public void addBlock(Block block) {
         endBlockHeader = block.getHeader();
         blockHeaderList.add(block.getHeader());
+        blockHeaderIndex.put(block.getHeader().getHash(), block.getHeader());
         if (blockHeaderList.size() > PocConsensusConstant.MAX_BLOCK_HEADER_COUNT) {
-            blockHeaderList.remove(0);
+            removeFromIndex(blockHeaderList.remove(0));
         }
         blockList.add(block);
         if (blockList.size() > PocConsensusConstant.MAX_ISOLATED_BLOCK_COUNT) {
@@ -80,11 +89,13 @@ public class Chain implements Cloneable {
         BlockHeader header;
         if (blockHeaderList.size() == 1) {
             header = blockHeaderList.remove(blockHeaderList.size() - 1);
+            removeFromIndex(header);
             this.startBlockHeader = null;
             this.endBlockHeader = null;
         } else {
             BlockHeader preHeader = blockHeaderList.get(blockHeaderList.size() - 2);
             header = blockHeaderList.remove(blockHeaderList.size() - 1);
+            removeFromIndex(header);
             if (header.getPreHash().equals(preHeader.getHash())) {
                 this.endBlockHeader = preHeader;
             } else {
@@ -98,6 +109,67 @@ public class Chain implements Cloneable {
         return blockHeaderList;
     }
 
+    /**
+     * 链上是否存在该hash的区块头
+     * Whether a block header with the hash is on this chain
+     */
+    public boolean containsBlockHeader(NulsDigestData hash) {
+        return hash != null && blockHeaderIndex.containsKey(hash);
+    }
+
+    /**
+     * 根据hash获取链上的区块头, 不存在时返回null
+     * Get the block header with the hash on this chain, or null
+     */
+    public BlockHeader getBlockHeader(NulsDigestData hash) {
+        if (hash == null) {
+            return null;
+        }
+        return blockHeaderIndex.get(hash);
+    }
+
+    /**
+     * 区块头在blockHeaderList中的位置, 链上区块按高度连续时按高度直接定位, 否则退回顺序查找
+     * Position of the header in blockHeaderList. The headers of a chain are consecutive by height, so the position
+     * is computed from the height first, a linear search is only the fallback.
+     */
+    public int indexOfBlockHeader(BlockHeader header) {
+        if (header == null || blockHeaderList.isEmpty()) {
+            return -1;
+        }
+        long index = header.getHeight() - blockHeaderList.get(0).getHeight();
+        if (index >= 0 && index < blockHeaderList.size() && blockHeaderList.get((int) index) == header) {
+            return (int) index;
+        }
+        return blockHeaderList.lastIndexOf(header);
+    }
+
+    /**
+     * 移除最早的count个区块头
+     * Remove the oldest count block headers
+     */
+    public void removeFirstBlockHeaders(int count) {
+        List<BlockHeader> removed = blockHeaderList.subList(0, count);
+        for (BlockHeader header : removed) {
+            removeFromIndex(header);
+        }
+        removed.clear();
+    }
+
+    private void removeFromIndex(BlockHeader header) {
+        // 同一hash的区块头可能在列表中被重新加入, 只移除同一个对象
+        // The same hash may have been added again, only remove the entry of this very header
+        blockHeaderIndex.remove(header.getHash(), header);
+    }
+
+    private void rebuildIndex() {
+        Map<NulsDigestData, BlockHeader> index = new ConcurrentHashMap<>();
+        for (BlockHeader header : blockHeaderList) {
+            index.put(header.getHash(), header);
+        }
+        this.blockHeaderIndex = index;
+    }
+
     public List<Block> getAllBlockList() {
         return blockList;
     }
@@ -187,18 +259,21 @@ public class Chain implements Cloneable {
         this.endBlockHeader = headerList.get(headerList.size() - 1);
         this.blockHeaderList = headerList;
         this.blockList = blockList;
+        rebuildIndex();
     }
 
     public void initData(Block block) {
         this.startBlockHeader = block.getHeader();
         this.endBlockHeader = block.getHeader();
         this.blockHeaderList.add(block.getHeader());
+        this.blockHeaderIndex.put(block.getHeader().getHash(), block.getHeader());
         this.blockList.add(block);
     }
 
     public void addPreBlock(Block block) {
         this.startBlockHeader = block.getHeader();
         this.blockHeaderList.add(0, block.getHeader());
+        this.blockHeaderIndex.putIfAbsent(block.getHeader().getHash(), block.getHeader());
         this.blockList.add(0, block);
     }
 }
@@ -258,6 +258,8 @@ public class BlockProcess {
                     tempHeader.setHeight(verifyHeader.getHeight());
                     tempHeader.setPackingAddress(verifyHeader.getPackingAddress());
                     contractService.createCurrentBlockHeader(tempHeader);
+                    // 区块内的合约调用交易先在工作线程上并行预执行
+                    contractService.speculativeExecute(txs, bestHeight, tempHeader, false);
 
                     List<ContractResult> contractResultList = new ArrayList<>();
                     // 用于存储合约执行结果的stateRoot, 如果不为空，则说明验证、打包的区块是同一个节点
@@ -479,34 +481,26 @@ public class BlockProcess {
         BlockHeader blockHeader = block.getHeader();
 
         Chain masterChain = chainManager.getMasterChain().getChain();
-        List<BlockHeader> headerList = masterChain.getAllBlockHeaderList();
 
-        for (int i = headerList.size() - 1; i >= 0; i--) {
-            BlockHeader header = headerList.get(i);
-
-            if (header.getHash().equals(blockHeader.getHash())) {
-                // found a same block , return true
-                return true;
-            } else if (header.getHash().equals(blockHeader.getPreHash())) {
-
-                if (header.getHeight() + 1L != blockHeader.getHeight()) {
-                    // Discard data blocks that are incorrect
-                    // 丢弃数据不正确的区块
-                    return true;
-                }
-                Chain newForkChain = new Chain();
-
-                newForkChain.addBlock(block);
+        if (masterChain.containsBlockHeader(blockHeader.getHash())) {
+            // found a same block , return true
+            return true;
+        }
+        BlockHeader header = masterChain.getBlockHeader(blockHeader.getPreHash());
+        if (header == null) {
+            return false;
+        }
+        if (header.getHeight() + 1L != blockHeader.getHeight()) {
+            // Discard data blocks that are incorrect
+            // 丢弃数据不正确的区块
+            return true;
+        }
+        Chain newForkChain = new Chain();
 
-                chainManager.getChains().add(new ChainContainer(newForkChain));
-                return true;
-            }
+        newForkChain.addBlock(block);
 
-            if (header.getHeight() < blockHeader.getHeight()) {
-                break;
-            }
-        }
-        return false;
+        chainManager.getChains().add(new ChainContainer(newForkChain));
+        return true;
     }
 
     /**
@@ -528,44 +522,40 @@ public class BlockProcess {
         Iterator<ChainContainer> iterator = chainManager.getChains().iterator();
         while (iterator.hasNext()) {
             Chain forkChain = iterator.next().getChain();
-            List<BlockHeader> headerList = forkChain.getAllBlockHeaderList();
-            int size = headerList.size();
-            for (int i = size - 1; i >= 0; i--) {
-                BlockHeader header = headerList.get(i);
-
-                if (header.getHash().equals(blockHeader.getHash())) {
-                    // found a same block , return true
-                    return true;
-                } else if (header.getHash().equals(preHash)) {
-
-                    if (header.getHeight() + 1L != blockHeader.getHeight()) {
-                        // Discard data blocks that are incorrect
-                        // 丢弃数据不正确的区块
-                        return true;
-                    }
 
-                    // Check whether it is forked or connected. If it is a connection, add it.
-                    // 检查是分叉还是连接，如果是连接，则加上即可
-                    if (i == size - 1) {
-                        forkChain.addBlock(block);
-                        return true;
-                    }
+            if (forkChain.containsBlockHeader(blockHeader.getHash())) {
+                // found a same block , return true
+                return true;
+            }
+            BlockHeader header = forkChain.getBlockHeader(preHash);
+            if (header == null) {
+                continue;
+            }
+            if (header.getHeight() + 1L != blockHeader.getHeight()) {
+                // Discard data blocks that are incorrect
+                // 丢弃数据不正确的区块
+                return true;
+            }
 
-                    // The block is again forked in the forked chain
-                    // 该块是在分叉链中再次进行的分叉
-                    List<Block> blockList = forkChain.getAllBlockList();
+            // Check whether it is forked or connected. If it is a connection, add it.
+            // 检查是分叉还是连接，如果是连接，则加上即可
+            List<BlockHeader> headerList = forkChain.getAllBlockHeaderList();
+            int i = forkChain.indexOfBlockHeader(header);
+            if (i == headerList.size() - 1) {
+                forkChain.addBlock(block);
+                return true;
+            }
 
-                    Chain newForkChain = new Chain();
+            // The block is again forked in the forked chain
+            // 该块是在分叉链中再次进行的分叉
+            List<Block> blockList = forkChain.getAllBlockList();
 
-                    newForkChain.initData(forkChain.getStartBlockHeader(), new ArrayList<>(headerList.subList(0, i + 1)), new ArrayList<>(blockList.subList(0, i + 1)));
-                    newForkChain.addBlock(block);
+            Chain newForkChain = new Chain();
 
+            newForkChain.initData(forkChain.getStartBlockHeader(), new ArrayList<>(headerList.subList(0, i + 1)), new ArrayList<>(blockList.subList(0, i + 1)));
+            newForkChain.addBlock(block);
 
-                    return chainManager.getChains().add(new ChainContainer(newForkChain));
-                } else if (header.getHeight() < blockHeader.getHeight()) {
-                    break;
-                }
-            }
+            return chainManager.getChains().add(new ChainContainer(newForkChain));
         }
         return false;
     }
@@ -280,6 +280,19 @@ public class ConsensusProcess {
         blockService.broadcastBlock(smallBlock);
     }
 
+    /**
+     * 从内存池中预取一批交易，其中的合约调用交易提交到工作线程上并行预执行
+     */
+    private void prefetchTxs(Deque<Transaction> prefetchTxs, long height, BlockHeader tempHeader) {
+        Transaction tx;
+        while (prefetchTxs.size() < PocConsensusConstant.PACKING_PREFETCH_TX_COUNT && (tx = txMemoryPool.get()) != null) {
+            prefetchTxs.add(tx);
+        }
+        if (!prefetchTxs.isEmpty()) {
+            contractService.speculativeExecute(new ArrayList<>(prefetchTxs), height, tempHeader, false);
+        }
+    }
+
     private Block doPacking(MeetingMember self, MeetingRound round) throws NulsException, IOException {
         Block bestBlock = chainManager.getBestBlock();
         /** ******************************************************************************************************** */
@@ -391,13 +404,17 @@ public class ConsensusProcess {
 
         List<ContractResult> contractResultList = new ArrayList<>();
         Set<String> redPunishAddress = new HashSet<>();
+        Deque<Transaction> prefetchTxs = new ArrayDeque<>();
         while (true) {
 
             if ((self.getPackEndTime() - TimeService.currentTimeMillis()) <= 500L) {
                 break;
             }
             start = System.nanoTime();
-            Transaction tx = txMemoryPool.get();
+            if (prefetchTxs.isEmpty()) {
+                prefetchTxs(prefetchTxs, height, tempHeader);
+            }
+            Transaction tx = prefetchTxs.poll();
             getTxUse += (System.nanoTime() - start);
             if (tx == null) {
                 try {
@@ -413,12 +430,12 @@ public class ConsensusProcess {
             long txSize = tx.size();
             sizeTime += (System.nanoTime() - start);
             if ((totalSize + txSize) > ProtocolConstant.MAX_BLOCK_SIZE) {
-                txMemoryPool.addInFirst(tx, false);
+                prefetchTxs.addFirst(tx);
                 break;
             }
             // 区块中可以消耗的最大Gas总量，超过这个值，则本区块中不再继续组装消耗GAS智能合约交易
             if (totalGasUsed > ContractConstant.MAX_PACKAGE_GAS && ContractUtil.isGasCostContractTransaction(tx)) {
-                txMemoryPool.addInFirst(tx, false);
+                prefetchTxs.addFirst(tx);
                 continue;
             }
             count++;
@@ -477,6 +494,11 @@ public class ConsensusProcess {
 
             totalSize += txSize;
         }
+        // 预取但未打包的交易按原顺序放回内存池
+        Iterator<Transaction> unpackedTxs = prefetchTxs.descendingIterator();
+        while (unpackedTxs.hasNext()) {
+            txMemoryPool.addInFirst(unpackedTxs.next(), false);
+        }
         // 打包结束后移除临时余额区
         contractService.removeContractTempBalance();
         stateRoot = contractService.commitBatchExecute().getData();
@@ -336,6 +336,8 @@ public class ForkChainProcess {
             tempHeader.setHeight(verifyHeader.getHeight());
             tempHeader.setPackingAddress(verifyHeader.getPackingAddress());
             contractService.createCurrentBlockHeader(tempHeader);
+            // 区块内的合约调用交易先在工作线程上并行预执行
+            contractService.speculativeExecute(newBlock.getTxs(), bestHeight, tempHeader, true);
 
             List<ContractResult> contractResultList = new ArrayList<>();
             // 用于存储合约执行结果的stateRoot, 如果不为空，则说明验证、打包的区块是同一个节点
@@ -557,23 +559,20 @@ public class ForkChainProcess {
         // 判断该孤立链是否和主链相连
         BlockHeader startBlockHeader = orphanChain.getChain().getStartBlockHeader();
 
-        List<BlockHeader> blockHeaderList = chainManager.getMasterChain().getChain().getAllBlockHeaderList();
-
-        int count = blockHeaderList.size() > PocConsensusConstant.MAX_ISOLATED_BLOCK_COUNT ? PocConsensusConstant.MAX_ISOLATED_BLOCK_COUNT : blockHeaderList.size();
-        for (int i = blockHeaderList.size() - 1; i >= blockHeaderList.size() - count; i--) {
-            BlockHeader header = blockHeaderList.get(i);
-            if (startBlockHeader.getPreHash().equals(header.getHash()) && startBlockHeader.getHeight() == header.getHeight() + 1) {
-                //yes connectioned
-                orphanChain.getChain().setPreChainId(chainManager.getMasterChain().getChain().getId());
+        // 按hash索引直接查找连接点, 只连接主链最近MAX_ISOLATED_BLOCK_COUNT个区块
+        // Look the connection point up by hash, only the latest MAX_ISOLATED_BLOCK_COUNT blocks of the master chain count
+        Chain masterChain = chainManager.getMasterChain().getChain();
+        BlockHeader header = masterChain.getBlockHeader(startBlockHeader.getPreHash());
+        if (header != null && startBlockHeader.getHeight() == header.getHeight() + 1
+                && masterChain.getEndBlockHeader().getHeight() - header.getHeight() < PocConsensusConstant.MAX_ISOLATED_BLOCK_COUNT) {
+            //yes connectioned
+            orphanChain.getChain().setPreChainId(masterChain.getId());
 
-                chainManager.getChains().add(orphanChain);
+            chainManager.getChains().add(orphanChain);
 
-                ChainLog.debug("discover the OrphanChain {} : start {} - {} , end {} - {} , connection the master chain of {} - {} - {}, move into the fork chians", orphanChain.getChain().getId(), startBlockHeader.getHeight(), startBlockHeader.getHash().getDigestHex(), orphanChain.getChain().getEndBlockHeader().getHeight(), orphanChain.getChain().getEndBlockHeader().getHash(), chainManager.getMasterChain().getChain().getId(), chainManager.getMasterChain().getChain().getBestBlock().getHeader().getHeight(), chainManager.getMasterChain().getChain().getBestBlock().getHeader().getHash());
+            ChainLog.debug("discover the OrphanChain {} : start {} - {} , end {} - {} , connection the master chain of {} - {} - {}, move into the fork chians", orphanChain.getChain().getId(), startBlockHeader.getHeight(), startBlockHeader.getHash().getDigestHex(), orphanChain.getChain().getEndBlockHeader().getHeight(), orphanChain.getChain().getEndBlockHeader().getHash(), masterChain.getId(), masterChain.getBestBlock().getHeader().getHeight(), masterChain.getBestBlock().getHeader().getHash());
 
-                return true;
-            } else if (startBlockHeader.getHeight() > header.getHeight()) {
-                break;
-            }
+            return true;
         }
 
         // Determine whether the lone chain is connected to the forked chain to be verified
@@ -586,33 +585,29 @@ public class ForkChainProcess {
                 continue;
             }
 
-            blockHeaderList = chain.getAllBlockHeaderList();
+            header = chain.getBlockHeader(startBlockHeader.getPreHash());
+            if (header == null || startBlockHeader.getHeight() != header.getHeight() + 1) {
+                continue;
+            }
+            int i = chain.indexOfBlockHeader(header);
 
-            for (int i = 0; i < blockHeaderList.size(); i++) {
-                BlockHeader header = blockHeaderList.get(i);
-                if (startBlockHeader.getPreHash().equals(header.getHash()) && startBlockHeader.getHeight() == header.getHeight() + 1) {
-                    //yes connectioned
-                    orphanChain.getChain().setPreChainId(chain.getPreChainId());
-//                    orphanChain.getChain().initData(chain.getStartBlockHeader(), blockHeaderList.subList(0, i + 1), chain.getAllBlockList().subList(0, i + 1));
+            //yes connectioned
+            orphanChain.getChain().setPreChainId(chain.getPreChainId());
 
-                    List<Block> blockList = chain.getAllBlockList().subList(0, i + 1);
-                    for (int m = blockList.size() - 1; m >= 0; m--) {
-                        orphanChain.getChain().addPreBlock(blockList.get(m));
-                    }
+            List<Block> blockList = chain.getAllBlockList().subList(0, i + 1);
+            for (int m = blockList.size() - 1; m >= 0; m--) {
+                orphanChain.getChain().addPreBlock(blockList.get(m));
+            }
 
-                    chainManager.getChains().add(orphanChain);
+            chainManager.getChains().add(orphanChain);
 
-                    if (i == blockHeaderList.size() - 1) {
-                        chainManager.getChains().remove(forkChain);
-                    }
+            if (i == chain.getAllBlockHeaderList().size() - 1) {
+                chainManager.getChains().remove(forkChain);
+            }
 
-                    ChainLog.debug("discover the OrphanChain {} : start {} - {} , end {} - {} , connection the fork chain of : start {} - {} , end {} - {}, move into the fork chians", orphanChain.getChain().getId(), startBlockHeader.getHeight(), startBlockHeader.getHash().getDigestHex(), orphanChain.getChain().getEndBlockHeader().getHeight(), orphanChain.getChain().getEndBlockHeader().getHash(), chainManager.getMasterChain().getChain().getId(), chain.getStartBlockHeader().getHeight(), chain.getStartBlockHeader().getHash(), chain.getEndBlockHeader().getHeight(), chain.getEndBlockHeader().getHash());
+            ChainLog.debug("discover the OrphanChain {} : start {} - {} , end {} - {} , connection the fork chain of : start {} - {} , end {} - {}, move into the fork chians", orphanChain.getChain().getId(), startBlockHeader.getHeight(), startBlockHeader.getHash().getDigestHex(), orphanChain.getChain().getEndBlockHeader().getHeight(), orphanChain.getChain().getEndBlockHeader().getHash(), chainManager.getMasterChain().getChain().getId(), chain.getStartBlockHeader().getHeight(), chain.getStartBlockHeader().getHash(), chain.getEndBlockHeader().getHeight(), chain.getEndBlockHeader().getHash());
 
-                    return true;
-                } else if (startBlockHeader.getHeight() == header.getHeight() + 1) {
-                    break;
-                }
-            }
+            return true;
         }
 
         // Determine whether the orphan chains are connected
@@ -515,8 +515,7 @@ public class NulsProtocolProcess {
 
     public void clearIncompatibleTx() {
         TransactionQueueStorageService tqs = NulsContext.getServiceBean(TransactionQueueStorageService.class);
-        while (tqs.pollTx() != null) {
-        }
+        tqs.clear();
         TransactionCacheStorageService tcs = NulsContext.getServiceBean(TransactionCacheStorageService.class);
         Transaction tx = null;
         while ((tx = tcs.pollTx()) != null) {
@@ -34,7 +34,6 @@ import io.nuls.consensus.poc.locker.Lockers;
 import io.nuls.consensus.poc.manager.ChainManager;
 import io.nuls.consensus.constant.ConsensusConstant;
 import io.nuls.consensus.poc.constant.BlockContainerStatus;
-import io.nuls.consensus.poc.container.ChainContainer;
 import io.nuls.consensus.poc.provider.OrphanBlockProvider;
 import io.nuls.core.tools.log.ChainLog;
 import io.nuls.kernel.context.NulsContext;
@@ -47,8 +46,6 @@ import io.nuls.network.service.NetworkService;
 import io.nuls.protocol.service.DownloadService;
 
 import java.io.IOException;
-import java.util.Iterator;
-import java.util.List;
 
 /**
  * @author ln
@@ -154,37 +151,7 @@ public class OrphanBlockProcess implements Runnable {
      * 从分叉链和孤立链中检查，是否存在该区块
      */
     private boolean checkHasExist(NulsDigestData blockHash) {
-
-        for (Iterator<ChainContainer> it = chainManager.getOrphanChains().iterator(); it.hasNext(); ) {
-            ChainContainer chainContainer = it.next();
-            for (BlockHeader header : chainContainer.getChain().getAllBlockHeaderList()) {
-                if (header.getHash().equals(blockHash)) {
-                    return true;
-                }
-            }
-        }
-
-        for (Iterator<ChainContainer> it = chainManager.getChains().iterator(); it.hasNext(); ) {
-            ChainContainer chainContainer = it.next();
-            for (BlockHeader header : chainContainer.getChain().getAllBlockHeaderList()) {
-                if (header.getHash().equals(blockHash)) {
-                    return true;
-                }
-            }
-        }
-
-        List<BlockHeader> masterChainBlockHeaderList = chainManager.getMasterChain().getChain().getAllBlockHeaderList();
-        int size = (int) (masterChainBlockHeaderList.size() - PocConsensusConstant.MAX_ISOLATED_BLOCK_COUNT * 1.05);
-        if (size < 0) {
-            size = 0;
-        }
-        for (int i = masterChainBlockHeaderList.size() - 1; i >= size; i--) {
-            if (blockHash.equals(masterChainBlockHeaderList.get(i).getHash())) {
-                return true;
-            }
-        }
-
-        return false;
+        return chainManager.containsBlock(blockHash);
     }
 
     private void foundAndProcessPreviousBlock(BlockContainer blockContainer) {
@@ -64,6 +64,8 @@ public class ConsensusScheduler {
 
     private OrphanBlockProcess orphanBlockProcess;
 
+    private TxProcessTask txProcessTask;
+
     private CacheManager cacheManager;
 
     private VersionManagerStorageService versionManagerStorageService;
@@ -114,7 +116,11 @@ public class ConsensusScheduler {
 
         threadPool.scheduleAtFixedRate(new RewardCalculatorTask(NulsContext.getServiceBean(RewardStatisticsProcess.class)), ProtocolConstant.BLOCK_TIME_INTERVAL_SECOND, ProtocolConstant.BLOCK_TIME_INTERVAL_SECOND, TimeUnit.SECONDS);
 
-        threadPool.scheduleAtFixedRate(new TxProcessTask(), 5, 1, TimeUnit.SECONDS);
+        txProcessTask = new TxProcessTask();
+        txProcessTask.start();
+        threadPool.scheduleAtFixedRate(txProcessTask, 5, 1, TimeUnit.SECONDS);
+
+        threadPool.scheduleAtFixedRate(new ConsensusSnapshotTask(cacheManager), 60, 60, TimeUnit.SECONDS);
 
         ConsensusProcess consensusProcess = new ConsensusProcess(chainManager);
         threadPool.scheduleAtFixedRate(new ConsensusProcessTask(consensusProcess), 1000L, 1000L, TimeUnit.MILLISECONDS);
@@ -172,10 +178,16 @@ public class ConsensusScheduler {
 
     public boolean stop() {
 
+        try {
+            cacheManager.saveSnapshot();
+        } catch (Exception e) {
+            Log.error(e);
+        }
         clear();
 
         orphanBlockProcess.stop();
         threadPool.shutdown();
+        txProcessTask.stop();
 
         return true;
     }
@@ -23,54 +23,35 @@
  *
  */
 
-package io.nuls.protocol.base.utils.filter;
+package io.nuls.consensus.poc.task;
 
-import com.google.common.hash.BloomFilter;
-import com.google.common.hash.Funnels;
-
-import java.util.concurrent.atomic.AtomicInteger;
+import io.nuls.consensus.poc.constant.PocConsensusConstant;
+import io.nuls.consensus.poc.manager.CacheManager;
+import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.context.NulsContext;
 
 /**
- * 向量清单过滤器
- *
- * @author ln
+ * 每隔指定数量的区块保存一次共识缓存快照
+ * Save a snapshot of the consensus cache every specified number of blocks.
  */
-public class InventoryFilter {
-
-    private final int elements;
-    private AtomicInteger size = new AtomicInteger(0);
-
-    private BloomFilter<byte[]> filter;
-
-//    private Lock lock = new ReentrantLock();
+public class ConsensusSnapshotTask implements Runnable {
 
-    public InventoryFilter(int elements) {
-        this.elements = elements;
-        filter = BloomFilter.create(Funnels.byteArrayFunnel(), elements, 0.00001);
-    }
+    private final CacheManager cacheManager;
 
-    public BloomFilter getFilter() {
-        return filter;
+    public ConsensusSnapshotTask(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
     }
 
-    public void insert(byte[] object) {
-//        lock.lock();
-//        try {
-        filter.put(object);
-        int count = size.incrementAndGet();
-        if (count >= elements - 100) {
-            this.clear();
+    @Override
+    public void run() {
+        try {
+            long bestHeight = NulsContext.getInstance().getBestHeight();
+            if (bestHeight - cacheManager.getLastSnapshotHeight() < PocConsensusConstant.SNAPSHOT_INTERVAL_BLOCK_COUNT) {
+                return;
+            }
+            cacheManager.saveSnapshot();
+        } catch (Exception e) {
+            Log.error(e);
         }
-//        } finally {
-//            lock.unlock();
-//        }
-    }
-
-    public boolean contains(byte[] object) {
-        return filter.mightContain(object);
-    }
-
-    public void clear() {
-        filter = BloomFilter.create(Funnels.byteArrayFunnel(), elements, 0.00001);
     }
 }
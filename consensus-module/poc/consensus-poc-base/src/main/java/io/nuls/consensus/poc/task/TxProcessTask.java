@@ -25,31 +25,57 @@
 
 package io.nuls.consensus.poc.task;
 
+import io.nuls.consensus.constant.ConsensusConstant;
 import io.nuls.consensus.poc.cache.TxMemoryPool;
 import io.nuls.consensus.poc.storage.service.TransactionCacheStorageService;
 import io.nuls.consensus.poc.storage.service.TransactionQueueStorageService;
+import io.nuls.core.tools.array.ArraysTool;
 import io.nuls.core.tools.log.Log;
 import io.nuls.kernel.constant.TransactionErrorCode;
 import io.nuls.kernel.context.NulsContext;
-import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.func.TimeService;
+import io.nuls.kernel.model.Block;
 import io.nuls.kernel.model.Coin;
-import io.nuls.kernel.model.Result;
 import io.nuls.kernel.model.Transaction;
+import io.nuls.kernel.thread.manager.NulsThreadFactory;
+import io.nuls.kernel.thread.manager.TaskManager;
+import io.nuls.kernel.utils.VarInt;
 import io.nuls.kernel.validate.ValidateResult;
+import io.nuls.kernel.validate.ValidatorManager;
 import io.nuls.ledger.service.LedgerService;
 import io.nuls.ledger.util.LedgerUtil;
+import io.nuls.protocol.listener.ChainEventListener;
 import io.nuls.protocol.service.TransactionService;
-import io.nuls.protocol.utils.TransactionTimeComparator;
+import io.nuls.protocol.utils.ChainEventManager;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
 
 /**
+ * 交易接收流水线：
+ * 1、多线程并行做无状态验证（字段、大小、签名）
+ * 2、单线程按接收顺序做重复交易、UTXO和冲突检测，写入内存池
+ * 3、孤儿交易按缺失的输入建立索引，只有当产生该输入的交易被接收（或已确认）时才重新验证
+ * <p>
+ * Transaction admission pipeline:
+ * 1. stateless verification (fields, size, signature) runs in parallel on a worker pool;
+ * 2. a single writer performs the repeat, UTXO and conflict checks in arrival order and feeds the memory pool;
+ * 3. orphans are indexed by their missing inputs and re-evaluated only when a tx creating one of them is admitted (or confirmed).
+ *
  * @author: Niels Wang
  * @date: 2018/7/5
  */
 public class TxProcessTask implements Runnable {
 
+    private static final int VERIFY_BATCH_SIZE = 2000;
+
+    private static final long ORPHAN_EXPIRE_MILLIS = 3600000L;
+
+    private static int maxOrphanSize = 200000;
+
     private TxMemoryPool pool = TxMemoryPool.getInstance();
 
     private LedgerService ledgerService = NulsContext.getServiceBean(LedgerService.class);
@@ -58,17 +84,61 @@ public class TxProcessTask implements Runnable {
 
     private TransactionService transactionService = NulsContext.getServiceBean(TransactionService.class);
 
-    private TransactionTimeComparator txComparator = TransactionTimeComparator.getInstance();
+    private ExecutorService verifyExecutor = TaskManager.createThreadPool(Runtime.getRuntime().availableProcessors(), Integer.MAX_VALUE, new NulsThreadFactory(ConsensusConstant.MODULE_ID_CONSENSUS, "tx-verify"));
 
     private Map<String, Coin> temporaryToMap = new HashMap<>();
     private Set<String> temporaryFromSet = new HashSet<>();
 
-    private List<Transaction> orphanTxList = new ArrayList<>();
+    /**
+     * 孤儿交易，以及缺失输入到等待该输入的孤儿交易的索引
+     * Orphan txs, and the index from a missing input to the orphans waiting for it.
+     */
+    private Set<OrphanTx> orphanTxSet = new LinkedHashSet<>();
+    private Map<String, List<OrphanTx>> waitingOrphanMap = new HashMap<>();
 
-    private static int maxOrphanSize = 200000;
+    private Deque<OrphanTx> readyOrphanQueue = new ArrayDeque<>();
+
+    /**
+     * 已保存或已回滚的区块，由本任务线程消费，用于唤醒等待这些区块所产生UTXO的孤儿交易
+     * Saved and rolled back blocks, consumed on the task thread to wake the orphans waiting for the utxos they create.
+     */
+    private Queue<ChainEvent> chainEventQueue = new ConcurrentLinkedQueue<>();
+
+    private final ChainEventListener chainEventListener = new ChainEventListener() {
+        @Override
+        public void onBlockSaved(Block block) {
+            chainEventQueue.offer(new ChainEvent(block, false));
+        }
 
-//    int count = 0;
-//    int size = 0;
+        @Override
+        public void onBlockRolledBack(Block block) {
+            chainEventQueue.offer(new ChainEvent(block, true));
+        }
+
+        @Override
+        public void onTxAdmitted(Transaction tx) {
+        }
+    };
+
+    private volatile boolean stopped;
+
+    /**
+     * 开始接收链上事件，由调度器在启动时调用
+     * Starts listening for chain events, called by the scheduler when it starts.
+     */
+    public void start() {
+        ChainEventManager.addListener(chainEventListener);
+    }
+
+    /**
+     * 注销事件监听并关闭验证线程池，由调度器在停止时调用
+     * Unregisters the chain event listener and shuts down the verify pool, called by the scheduler when it stops.
+     */
+    public void stop() {
+        stopped = true;
+        ChainEventManager.removeListener(chainEventListener);
+        verifyExecutor.shutdown();
+    }
 
     @Override
     public void run() {
@@ -82,7 +152,6 @@ public class TxProcessTask implements Runnable {
         } catch (Exception e) {
             Log.error(e);
         }
-//        System.out.println("count: " + count + " , size : " + size + " , orphan size : " + orphanTxList.size());
     }
 
     private void doTask() {
@@ -91,38 +160,115 @@ public class TxProcessTask implements Runnable {
             return;
         }
 
-        Transaction tx = null;
-        while ((tx = transactionQueueStorageService.pollTx()) != null && orphanTxList.size() < maxOrphanSize) {
-//            size++;
-            processTx(tx, false);
+        List<Transaction> batch = new ArrayList<>(VERIFY_BATCH_SIZE);
+        List<CompletableFuture<ValidateResult>> futures = new ArrayList<>(VERIFY_BATCH_SIZE);
+        Transaction tx;
+        while (!stopped && orphanTxSet.size() < maxOrphanSize) {
+            while (batch.size() < VERIFY_BATCH_SIZE && (tx = transactionQueueStorageService.pollTx()) != null) {
+                batch.add(tx);
+                // 结构验证在本线程执行, 未通过的交易不再进入线程池; 签名验证交给验证线程池并行执行
+                // Structural checks run on this thread and short-circuit, signature checks run in parallel on the verify pool
+                CompletableFuture<ValidateResult> future;
+                try {
+                    future = ValidatorManager.startDoValidator(tx, verifyExecutor);
+                } catch (Exception e) {
+                    future = new CompletableFuture<>();
+                    future.completeExceptionally(e);
+                }
+                futures.add(future);
+            }
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                boolean verified;
+                try {
+                    verified = futures.get(i).get().isSuccess();
+                } catch (Exception e) {
+                    Log.error(e);
+                    verified = false;
+                }
+                if (verified) {
+                    processTx(batch.get(i));
+                }
+            }
+            batch.clear();
+            futures.clear();
         }
     }
 
+    /**
+     * 唤醒缺失输入已随区块确认（或因回滚恢复）的孤儿交易，并清理过期的孤儿交易
+     * Wake the orphans whose missing inputs were created by a saved block or restored by a rollback, and drop the expired ones.
+     */
+    private void doOrphanTxTask() throws IOException {
+        ChainEvent event;
+        while ((event = chainEventQueue.poll()) != null) {
+            if (waitingOrphanMap.isEmpty() || null == event.block.getTxs()) {
+                continue;
+            }
+            for (Transaction tx : event.block.getTxs()) {
+                if (!event.rolledBack) {
+                    releaseOrphansOf(tx);
+                } else if (null != tx.getCoinData() && null != tx.getCoinData().getFrom()) {
+                    for (Coin coin : tx.getCoinData().getFrom()) {
+                        releaseWaitingOrphans(LedgerUtil.asString(coin.getOwner()));
+                    }
+                }
+            }
+        }
+        processReadyOrphans();
 
-    private void doOrphanTxTask() {
-        orphanTxList.sort(txComparator);
-
-        Iterator<Transaction> it = orphanTxList.iterator();
+        long expireTime = TimeService.currentTimeMillis() - ORPHAN_EXPIRE_MILLIS;
+        Iterator<OrphanTx> it = orphanTxSet.iterator();
         while (it.hasNext()) {
-            Transaction tx = it.next();
-            boolean success = processTx(tx, true);
-            if (success) {
+            OrphanTx orphan = it.next();
+            if (orphan.tx.getTime() < expireTime) {
                 it.remove();
+                unregisterOrphan(orphan);
             }
         }
     }
 
+    private void processTx(Transaction tx) {
+        ValidateResult validateResult = admitTx(tx);
+        if (null != validateResult && validateResult.isFailed() && TransactionErrorCode.ORPHAN_TX.equals(validateResult.getErrorCode())) {
+            OrphanTx orphan = new OrphanTx(tx);
+            if (registerOrphan(orphan)) {
+                orphanTxSet.add(orphan);
+            } else {
+                readyOrphanQueue.add(orphan);
+            }
+        }
+        processReadyOrphans();
+    }
 
-    private boolean processTx(Transaction tx, boolean isOrphanTx) {
-        try {
-            Result result = tx.verify();
-            if (result.isFailed()) {
-                return false;
+    private void processReadyOrphans() {
+        OrphanTx orphan;
+        while ((orphan = readyOrphanQueue.poll()) != null) {
+            ValidateResult validateResult = admitTx(orphan.tx);
+            if (null != validateResult && validateResult.isFailed() && TransactionErrorCode.ORPHAN_TX.equals(validateResult.getErrorCode())
+                    && orphan.tx.getTime() >= TimeService.currentTimeMillis() - ORPHAN_EXPIRE_MILLIS && registerOrphan(orphan)) {
+                // 仍缺少输入：重新登记，使其参与过期清理和数量限制
+                // still missing inputs: track it again so it expires and counts toward the orphan limit
+                orphanTxSet.add(orphan);
+                continue;
             }
+            orphanTxSet.remove(orphan);
+        }
+    }
 
+    /**
+     * 验证交易的账本数据，通过则放入内存池并唤醒等待其输出的孤儿交易
+     * Verify the tx against the ledger, on success put it into the pool and wake the orphans waiting for its outputs.
+     *
+     * @return null if the tx is already confirmed
+     */
+    private ValidateResult admitTx(Transaction tx) {
+        try {
             Transaction tempTx = ledgerService.getTx(tx.getHash());
             if (tempTx != null) {
-                return isOrphanTx;
+                return null;
             }
 
             ValidateResult validateResult = ledgerService.verifyCoinData(tx, temporaryToMap, temporaryFromSet);
@@ -135,24 +281,102 @@ public class TxProcessTask implements Runnable {
                     temporaryFromSet.remove(key);
                     temporaryToMap.remove(key);
                 }
-//                count++;
 
                 transactionCacheStorageService.putTx(tx);
                 transactionService.forwardTx(tx, null);
+                ChainEventManager.txAdmitted(tx);
 
-                return true;
-            } else if (validateResult.getErrorCode().equals(TransactionErrorCode.ORPHAN_TX) && !isOrphanTx) {
-                processOrphanTx(tx);
-            } else if (isOrphanTx) {
-                return tx.getTime() < (TimeService.currentTimeMillis() - 3600000L);
+                releaseOrphansOf(tx);
             }
+            return validateResult;
         } catch (Exception e) {
             Log.error(e);
         }
-        return false;
+        return null;
     }
 
-    private void processOrphanTx(Transaction tx) throws NulsException {
-        orphanTxList.add(tx);
+    private void releaseOrphansOf(Transaction tx) throws IOException {
+        if (waitingOrphanMap.isEmpty() || null == tx.getCoinData()) {
+            return;
+        }
+        byte[] txHashBytes = tx.getHash().serialize();
+        int toSize = tx.getCoinData().getTo().size();
+        for (int i = 0; i < toSize; i++) {
+            releaseWaitingOrphans(LedgerUtil.asString(ArraysTool.concatenate(txHashBytes, new VarInt(i).encode())));
+        }
+    }
+
+    private void releaseWaitingOrphans(String key) {
+        List<OrphanTx> orphans = waitingOrphanMap.remove(key);
+        if (null == orphans) {
+            return;
+        }
+        for (OrphanTx orphan : orphans) {
+            orphan.missingKeys.remove(key);
+            if (orphan.missingKeys.isEmpty()) {
+                readyOrphanQueue.add(orphan);
+            }
+        }
+    }
+
+    /**
+     * 登记孤儿交易缺失的输入
+     * Register the inputs the orphan is missing.
+     *
+     * @return false if no input is missing any more, the orphan can be re-evaluated right away
+     */
+    private boolean registerOrphan(OrphanTx orphan) {
+        orphan.missingKeys.clear();
+        for (Coin coin : orphan.tx.getCoinData().getFrom()) {
+            String key = LedgerUtil.asString(coin.getOwner());
+            if (temporaryToMap.containsKey(key) || ledgerService.getUtxo(coin.getOwner()) != null) {
+                continue;
+            }
+            orphan.missingKeys.add(key);
+        }
+        if (orphan.missingKeys.isEmpty()) {
+            return false;
+        }
+        for (String key : orphan.missingKeys) {
+            waitingOrphanMap.computeIfAbsent(key, k -> new ArrayList<>()).add(orphan);
+        }
+        return true;
+    }
+
+    private void unregisterOrphan(OrphanTx orphan) {
+        for (String key : orphan.missingKeys) {
+            List<OrphanTx> orphans = waitingOrphanMap.get(key);
+            if (null == orphans) {
+                continue;
+            }
+            orphans.remove(orphan);
+            if (orphans.isEmpty()) {
+                waitingOrphanMap.remove(key);
+            }
+        }
+        orphan.missingKeys.clear();
+    }
+
+    private static class ChainEvent {
+
+        private final Block block;
+
+        private final boolean rolledBack;
+
+        private ChainEvent(Block block, boolean rolledBack) {
+            this.block = block;
+            this.rolledBack = rolledBack;
+        }
+    }
+
+    private static class OrphanTx {
+
+        private final Transaction tx;
+
+        private final Set<String> missingKeys = new HashSet<>();
+
+        private OrphanTx(Transaction tx) {
+            this.tx = tx;
+        }
     }
 }
@@ -67,6 +67,16 @@ public class ConsensusBlockServiceImpl implements BlockService {
         return null;
     }
 
+    @Override
+    public Result<List<BlockHeader>> getBlockHeaderList(long startHeight, long endHeight) {
+        return null;
+    }
+
+    @Override
+    public Result<List<NulsDigestData>> getBlockHashList(long startHeight, long endHeight) {
+        return null;
+    }
+
     @Override
     public Result<Block> getBlock(NulsDigestData hash) {
         Result result = new Result(true, null);
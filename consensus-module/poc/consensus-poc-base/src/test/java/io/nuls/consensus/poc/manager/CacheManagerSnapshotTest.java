@@ -0,0 +1,207 @@
+/*
+ * *
+ *  * MIT License
+ *  *
+ *  * Copyright (c) 2017-2019 nuls.io
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+
+package io.nuls.consensus.poc.manager;
+
+import io.nuls.consensus.poc.BaseTest;
+import io.nuls.consensus.poc.model.BlockRoundData;
+import io.nuls.consensus.poc.model.Chain;
+import io.nuls.consensus.poc.protocol.constant.PunishType;
+import io.nuls.consensus.poc.protocol.entity.Agent;
+import io.nuls.consensus.poc.protocol.entity.Deposit;
+import io.nuls.consensus.poc.storage.po.ConsensusSnapshotPo;
+import io.nuls.consensus.poc.storage.po.PunishLogPo;
+import io.nuls.kernel.model.Address;
+import io.nuls.kernel.model.BlockHeader;
+import io.nuls.kernel.model.Na;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.script.BlockSignature;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CacheManagerSnapshotTest extends BaseTest {
+
+    @Test
+    public void restoresChainFromSerializedSnapshot() throws Exception {
+        Chain chain = newChain(1, 4, 3);
+
+        ConsensusSnapshotPo snapshot = new ConsensusSnapshotPo();
+        snapshot.parse(CacheManager.toSnapshot(chain).serialize(), 0);
+        assertEquals(ConsensusSnapshotPo.CURRENT_VERSION, snapshot.getVersion());
+        assertEquals(chain.getEndBlockHeader().getHeight(), snapshot.getHeight());
+        assertEquals(chain.getEndBlockHeader().getHash(), snapshot.getHash());
+
+        Chain restored = CacheManager.toChain(snapshot);
+        assertEquals(chain.getAllBlockHeaderList().size(), restored.getAllBlockHeaderList().size());
+        for (int i = 0; i < chain.getAllBlockHeaderList().size(); i++) {
+            assertEquals(chain.getAllBlockHeaderList().get(i).getHash(), restored.getAllBlockHeaderList().get(i).getHash());
+        }
+        assertEquals(chain.getStartBlockHeader().getHash(), restored.getStartBlockHeader().getHash());
+        assertEquals(chain.getEndBlockHeader().getHash(), restored.getEndBlockHeader().getHash());
+        assertTrue(restored.containsBlockHeader(chain.getEndBlockHeader().getHash()));
+
+        Agent agent = chain.getAgentList().get(0);
+        Agent restoredAgent = restored.getAgentList().get(0);
+        assertArrayEquals(agent.getAgentAddress(), restoredAgent.getAgentAddress());
+        assertEquals(agent.getTxHash(), restoredAgent.getTxHash());
+        assertEquals(agent.getDeposit(), restoredAgent.getDeposit());
+        assertEquals(agent.getBlockHeight(), restoredAgent.getBlockHeight());
+        assertEquals(agent.getDelHeight(), restoredAgent.getDelHeight());
+
+        Deposit deposit = chain.getDepositList().get(0);
+        Deposit restoredDeposit = restored.getDepositList().get(0);
+        assertEquals(deposit.getTxHash(), restoredDeposit.getTxHash());
+        assertEquals(deposit.getAgentHash(), restoredDeposit.getAgentHash());
+        assertEquals(deposit.getDeposit(), restoredDeposit.getDeposit());
+        assertEquals(deposit.getDelHeight(), restoredDeposit.getDelHeight());
+
+        assertEquals(chain.getYellowPunishList().size(), restored.getYellowPunishList().size());
+        assertEquals(chain.getRedPunishList().size(), restored.getRedPunishList().size());
+        assertEquals(chain.getRedPunishList().get(0).getRoundIndex(), restored.getRedPunishList().get(0).getRoundIndex());
+    }
+
+    @Test
+    public void ignoresSnapshotOfOtherVersion() throws Exception {
+        ConsensusSnapshotPo snapshot = CacheManager.toSnapshot(newChain(1, 2, 2));
+        snapshot.setVersion(ConsensusSnapshotPo.CURRENT_VERSION + 1);
+
+        ConsensusSnapshotPo parsed = new ConsensusSnapshotPo();
+        parsed.parse(snapshot.serialize(), 0);
+        assertNotEquals(ConsensusSnapshotPo.CURRENT_VERSION, parsed.getVersion());
+        assertTrue(parsed.getBlockHeaderList().isEmpty());
+    }
+
+    @Test
+    public void trimKeepsOnlyLatestRounds() {
+        Chain chain = newChain(1, 10, 2);
+
+        CacheManager.trimToRoundWindow(chain, 3);
+
+        // 最后一轮为10，只保留第8到10轮
+        // The last round is 10, so only rounds 8 to 10 are kept.
+        assertEquals(6, chain.getAllBlockHeaderList().size());
+        assertEquals(14L, chain.getAllBlockHeaderList().get(0).getHeight());
+        for (PunishLogPo po : chain.getYellowPunishList()) {
+            assertTrue(po.getRoundIndex() > 7);
+        }
+        assertEquals(3, chain.getYellowPunishList().size());
+        assertEquals(1, chain.getRedPunishList().size());
+    }
+
+    private Chain newChain(long firstRound, long lastRound, int blocksPerRound) {
+        List<BlockHeader> headerList = new ArrayList<>();
+        NulsDigestData preHash = NulsDigestData.calcDigestData("00000000000".getBytes());
+        long height = 0;
+        for (long round = firstRound; round <= lastRound; round++) {
+            for (int index = 1; index <= blocksPerRound; index++) {
+                BlockHeader header = newHeader(height++, preHash, round, index, blocksPerRound);
+                preHash = header.getHash();
+                headerList.add(header);
+            }
+        }
+
+        Agent agent = new Agent();
+        agent.setAgentAddress(newAddress(1));
+        agent.setPackingAddress(newAddress(2));
+        agent.setRewardAddress(newAddress(1));
+        agent.setDeposit(Na.parseNuls(20000));
+        agent.setCommissionRate(10);
+        agent.setTime(1L);
+        agent.setBlockHeight(1L);
+        agent.setDelHeight(-1L);
+        agent.setTxHash(NulsDigestData.calcDigestData("agent".getBytes()));
+
+        Deposit deposit = new Deposit();
+        deposit.setAddress(newAddress(3));
+        deposit.setAgentHash(agent.getTxHash());
+        deposit.setDeposit(Na.parseNuls(2000));
+        deposit.setTime(2L);
+        deposit.setBlockHeight(2L);
+        deposit.setDelHeight(5L);
+        deposit.setTxHash(NulsDigestData.calcDigestData("deposit".getBytes()));
+
+        List<PunishLogPo> yellowList = new ArrayList<>();
+        for (long round = firstRound; round <= lastRound; round++) {
+            yellowList.add(newPunishLog(PunishType.YELLOW.getCode(), round));
+        }
+
+        Chain chain = new Chain();
+        chain.initData(headerList.get(0), headerList, new ArrayList<>());
+        chain.setAgentList(new ArrayList<>(Arrays.asList(agent)));
+        chain.setDepositList(new ArrayList<>(Arrays.asList(deposit)));
+        chain.setYellowPunishList(yellowList);
+        chain.setRedPunishList(new ArrayList<>(Arrays.asList(newPunishLog(PunishType.RED.getCode(), firstRound))));
+        return chain;
+    }
+
+    private BlockHeader newHeader(long height, NulsDigestData preHash, long roundIndex, int packingIndex, int memberCount) {
+        BlockHeader header = new BlockHeader();
+        header.setHeight(height);
+        header.setPreHash(preHash);
+        header.setTime(height + 1);
+        header.setTxCount(1);
+        header.setMerkleHash(NulsDigestData.calcDigestData(new byte[20]));
+        BlockRoundData roundData = new BlockRoundData();
+        roundData.setConsensusMemberCount(memberCount);
+        roundData.setPackingIndexOfRound(packingIndex);
+        roundData.setRoundIndex(roundIndex);
+        roundData.setRoundStartTime(roundIndex);
+        try {
+            header.setExtend(roundData.serialize());
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        BlockSignature signature = new BlockSignature();
+        signature.setSignData(signDigest(header.getHash().getDigestBytes(), ecKey));
+        signature.setPublicKey(ecKey.getPubKey());
+        header.setBlockSignature(signature);
+        return header;
+    }
+
+    private PunishLogPo newPunishLog(byte type, long roundIndex) {
+        PunishLogPo po = new PunishLogPo();
+        po.setType(type);
+        po.setAddress(newAddress(2));
+        po.setTime(roundIndex);
+        po.setHeight(roundIndex);
+        po.setRoundIndex(roundIndex);
+        po.setIndex(1);
+        po.setReasonCode((short) 0);
+        po.setEvidence(new byte[0]);
+        return po;
+    }
+
+    private byte[] newAddress(int seed) {
+        byte[] address = new byte[Address.ADDRESS_LENGTH];
+        Arrays.fill(address, (byte) seed);
+        return address;
+    }
+}
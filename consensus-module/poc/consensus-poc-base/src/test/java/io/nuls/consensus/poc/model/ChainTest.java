@@ -28,6 +28,7 @@ package io.nuls.consensus.poc.model;
 
 import io.nuls.kernel.model.Block;
 import io.nuls.kernel.model.BlockHeader;
+import io.nuls.kernel.model.NulsDigestData;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -55,4 +56,38 @@ public class ChainTest {
         assertNotNull(bestBlock);
         assertEquals(bestBlock.getHeader().getHeight(), 100l);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBlockHeaderIndex() {
+        Chain chain = new Chain();
+        Block first = newBlock(100L, null);
+        chain.initData(first);
+        Block second = newBlock(101L, first.getHeader().getHash());
+        chain.addBlock(second);
+        Block pre = newBlock(99L, null);
+        chain.addPreBlock(pre);
+
+        assertTrue(chain.containsBlockHeader(pre.getHeader().getHash()));
+        assertSame(second.getHeader(), chain.getBlockHeader(second.getHeader().getHash()));
+        assertEquals(1, chain.indexOfBlockHeader(first.getHeader()));
+        assertEquals(2, chain.indexOfBlockHeader(second.getHeader()));
+
+        chain.rollbackBlock();
+        assertFalse(chain.containsBlockHeader(second.getHeader().getHash()));
+        assertEquals(first.getHeader(), chain.getEndBlockHeader());
+
+        chain.removeFirstBlockHeaders(1);
+        assertFalse(chain.containsBlockHeader(pre.getHeader().getHash()));
+        assertEquals(0, chain.indexOfBlockHeader(first.getHeader()));
+    }
+
+    private Block newBlock(long height, NulsDigestData preHash) {
+        BlockHeader header = new BlockHeader();
+        header.setHeight(height);
+        header.setPreHash(preHash);
+        header.setHash(NulsDigestData.calcDigestData(String.valueOf(height).getBytes()));
+        Block block = new Block();
+        block.setHeader(header);
+        return block;
+    }
+}
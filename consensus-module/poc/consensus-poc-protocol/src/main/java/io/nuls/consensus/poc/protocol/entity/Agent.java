@@ -28,6 +28,9 @@ package io.nuls.consensus.poc.protocol.entity;
 import io.nuls.consensus.poc.protocol.constant.PocConsensusProtocolConstant;
 import io.nuls.consensus.poc.protocol.util.PoConvertUtil;
 import io.nuls.core.tools.calc.LongUtils;
+import io.nuls.kernel.codegen.FieldType;
+import io.nuls.kernel.codegen.NulsSerializable;
+import io.nuls.kernel.codegen.SerializeField;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.model.Address;
 import io.nuls.kernel.model.Na;
@@ -36,7 +39,6 @@ import io.nuls.kernel.model.TransactionLogicData;
 import io.nuls.kernel.utils.AddressTool;
 import io.nuls.kernel.utils.NulsByteBuffer;
 import io.nuls.kernel.utils.NulsOutputStreamBuffer;
-import io.nuls.kernel.utils.SerializeUtils;
 import io.protostuff.Tag;
 
 import java.io.IOException;
@@ -46,16 +48,22 @@ import java.util.Set;
 /**
  * @author Niels
  */
+@NulsSerializable
 public class Agent extends TransactionLogicData {
 
+    @SerializeField(order = 2, type = FieldType.FIXED_BYTES, length = Address.ADDRESS_LENGTH)
     private byte[] agentAddress;
 
+    @SerializeField(order = 3, type = FieldType.FIXED_BYTES, length = Address.ADDRESS_LENGTH)
     private byte[] packingAddress;
 
+    @SerializeField(order = 4, type = FieldType.FIXED_BYTES, length = Address.ADDRESS_LENGTH)
     private byte[] rewardAddress;
 
+    @SerializeField(order = 1, type = FieldType.NA)
     private Na deposit;
 
+    @SerializeField(order = 5, type = FieldType.DOUBLE)
     private double commissionRate;
 
     private transient long time;
@@ -74,31 +82,17 @@ public class Agent extends TransactionLogicData {
 
     @Override
     public int size() {
-        int size = 0;
-        size += SerializeUtils.sizeOfInt64();  // deposit.getValue()
-        size += this.agentAddress.length;
-        size += this.rewardAddress.length;
-        size += this.packingAddress.length;
-        size += SerializeUtils.sizeOfDouble(this.commissionRate);
-        return size;
+        return AgentSerializer.size(this);
     }
 
     @Override
     protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
-        stream.writeInt64(deposit.getValue());
-        stream.write(agentAddress);
-        stream.write(packingAddress);
-        stream.write(rewardAddress);
-        stream.writeDouble(this.commissionRate);
+        AgentSerializer.serialize(this, stream);
     }
 
     @Override
     public void parse(NulsByteBuffer byteBuffer) throws NulsException {
-        this.deposit = Na.valueOf(byteBuffer.readInt64());
-        this.agentAddress = byteBuffer.readBytes(Address.ADDRESS_LENGTH);
-        this.packingAddress = byteBuffer.readBytes(Address.ADDRESS_LENGTH);
-        this.rewardAddress = byteBuffer.readBytes(Address.ADDRESS_LENGTH);
-        this.commissionRate = byteBuffer.readDouble();
+        AgentSerializer.parse(this, byteBuffer);
     }
 
     public Na getDeposit() {
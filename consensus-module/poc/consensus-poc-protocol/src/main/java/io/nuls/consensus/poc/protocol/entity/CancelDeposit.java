@@ -25,6 +25,9 @@
 
 package io.nuls.consensus.poc.protocol.entity;
 
+import io.nuls.kernel.codegen.FieldType;
+import io.nuls.kernel.codegen.NulsSerializable;
+import io.nuls.kernel.codegen.SerializeField;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.model.NulsDigestData;
 import io.nuls.kernel.model.TransactionLogicData;
@@ -38,10 +41,12 @@ import java.util.Set;
 /**
  * @author: Niels Wang
  */
+@NulsSerializable
 public class CancelDeposit extends TransactionLogicData {
 
     private byte[] address;
 
+    @SerializeField(order = 1, type = FieldType.NULS_DATA)
     private NulsDigestData joinTxHash;
 
     @Override
@@ -74,17 +79,16 @@ public class CancelDeposit extends TransactionLogicData {
      */
     @Override
     protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
-        stream.writeNulsData(this.joinTxHash);
-
+        CancelDepositSerializer.serialize(this, stream);
     }
 
     @Override
     public void parse(NulsByteBuffer byteBuffer) throws NulsException {
-        this.joinTxHash = byteBuffer.readHash();
+        CancelDepositSerializer.parse(this, byteBuffer);
     }
 
     @Override
     public int size() {
-        return this.joinTxHash.size();
+        return CancelDepositSerializer.size(this);
     }
 }
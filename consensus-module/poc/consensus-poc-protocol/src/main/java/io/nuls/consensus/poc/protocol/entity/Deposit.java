@@ -25,6 +25,9 @@
  */
 package io.nuls.consensus.poc.protocol.entity;
 
+import io.nuls.kernel.codegen.FieldType;
+import io.nuls.kernel.codegen.NulsSerializable;
+import io.nuls.kernel.codegen.SerializeField;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.model.Address;
 import io.nuls.kernel.model.Na;
@@ -39,13 +42,17 @@ import java.util.Set;
 /**
  * @author Niels
  */
+@NulsSerializable
 public class Deposit extends TransactionLogicData {
 
 
+    @SerializeField(order = 1, type = FieldType.NA)
     private Na deposit;
 
+    @SerializeField(order = 3, type = FieldType.NULS_DATA)
     private NulsDigestData agentHash;
 
+    @SerializeField(order = 2, type = FieldType.FIXED_BYTES, length = Address.ADDRESS_LENGTH)
     private byte[] address;
 
     private transient long time;
@@ -59,26 +66,17 @@ public class Deposit extends TransactionLogicData {
      */
     @Override
     protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
-        stream.writeInt64(deposit.getValue());
-        stream.write(address);
-        stream.writeNulsData(agentHash);
-
+        DepositSerializer.serialize(this, stream);
     }
 
     @Override
     public void parse(NulsByteBuffer byteBuffer) throws NulsException {
-        this.deposit = Na.valueOf(byteBuffer.readInt64());
-        this.address = byteBuffer.readBytes(Address.ADDRESS_LENGTH);
-        this.agentHash = byteBuffer.readHash();
+        DepositSerializer.parse(this, byteBuffer);
     }
 
     @Override
     public int size() {
-        int size = 0;
-        size += SerializeUtils.sizeOfInt64(); // deposit.getValue()
-        size += Address.ADDRESS_LENGTH;
-        size += this.agentHash.size();
-        return size;
+        return DepositSerializer.size(this);
     }
 
     public Na getDeposit() {
@@ -24,6 +24,9 @@
  */
 package io.nuls.consensus.poc.protocol.entity;
 
+import io.nuls.kernel.codegen.FieldType;
+import io.nuls.kernel.codegen.NulsSerializable;
+import io.nuls.kernel.codegen.SerializeField;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.model.Address;
 import io.nuls.kernel.model.TransactionLogicData;
@@ -36,9 +39,13 @@ import java.util.Set;
 /**
  * @author Niels
  */
+@NulsSerializable
 public class RedPunishData extends TransactionLogicData {
+    @SerializeField(order = 1, type = FieldType.FIXED_BYTES, length = Address.ADDRESS_LENGTH)
     private byte[] address;
+    @SerializeField(order = 2, type = FieldType.BYTE)
     private byte reasonCode;
+    @SerializeField(order = 3, type = FieldType.BYTES)
     private byte[] evidence;
 
     public RedPunishData() {
@@ -46,26 +53,17 @@ public class RedPunishData extends TransactionLogicData {
 
     @Override
     public int size() {
-        int size = 0;
-        size += address.length;
-        size += 1;
-        size += SerializeUtils.sizeOfBytes(evidence);
-        return size;
+        return RedPunishDataSerializer.size(this);
     }
 
     @Override
     protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
-        stream.write(address);
-        stream.write(reasonCode);
-        stream.writeBytesWithLength(evidence);
-
+        RedPunishDataSerializer.serialize(this, stream);
     }
 
     @Override
     public void parse(NulsByteBuffer byteBuffer) throws NulsException {
-        this.address = byteBuffer.readBytes(Address.ADDRESS_LENGTH);
-        this.reasonCode = byteBuffer.readByte();
-        this.evidence = byteBuffer.readByLengthByte();
+        RedPunishDataSerializer.parse(this, byteBuffer);
     }
 
     public byte[] getAddress() {
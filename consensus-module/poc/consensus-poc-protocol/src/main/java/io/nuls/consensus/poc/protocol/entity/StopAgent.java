@@ -25,6 +25,9 @@
 
 package io.nuls.consensus.poc.protocol.entity;
 
+import io.nuls.kernel.codegen.FieldType;
+import io.nuls.kernel.codegen.NulsSerializable;
+import io.nuls.kernel.codegen.SerializeField;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.model.NulsDigestData;
 import io.nuls.kernel.model.TransactionLogicData;
@@ -38,28 +41,29 @@ import java.util.Set;
 /**
  * @author: Niels Wang
  */
+@NulsSerializable
 public class StopAgent extends TransactionLogicData {
 
     private byte[] address;
 
+    @SerializeField(order = 1, type = FieldType.NULS_DATA)
     private NulsDigestData createTxHash;
     /**
      * serialize important field
      */
     @Override
     protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
-        stream.writeNulsData(this.createTxHash);
-
+        StopAgentSerializer.serialize(this, stream);
     }
 
     @Override
     public void parse(NulsByteBuffer byteBuffer) throws NulsException {
-        this.createTxHash = byteBuffer.readHash();
+        StopAgentSerializer.parse(this, byteBuffer);
     }
 
     @Override
     public int size() {
-        return this.createTxHash.size();
+        return StopAgentSerializer.size(this);
     }
     @Override
     public Set<byte[]> getAddresses() {
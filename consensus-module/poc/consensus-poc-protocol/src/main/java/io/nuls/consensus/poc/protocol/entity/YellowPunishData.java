@@ -63,6 +63,9 @@ public class YellowPunishData extends TransactionLogicData {
 
     /**
      * serialize important field
+     * 地址列表的元素是不带长度前缀的定长字节数组，生成的序列化代码不支持这种列表，因此保持手写
+     * The list elements are fixed length byte arrays without a length prefix, which the generated serializers
+     * do not support, so this class keeps its hand written code.
      */
     @Override
     protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
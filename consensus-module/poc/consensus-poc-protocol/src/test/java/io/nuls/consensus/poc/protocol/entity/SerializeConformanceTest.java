@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.consensus.poc.protocol.entity;
+
+import io.nuls.core.tools.crypto.Hex;
+import io.nuls.kernel.model.BaseNulsData;
+import io.nuls.kernel.utils.NulsByteBuffer;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 生成的共识交易数据序列化代码必须与手写版本逐字节一致
+ * The generated serialization of the consensus tx data must reproduce the hand written layout byte for byte.
+ */
+public class SerializeConformanceTest {
+
+    private static final String ADDRESS = "042301dbdb74f285112040dc80c56fe086c16e192d4e97";
+
+    private static final String DIGEST = "0020a2075608eb8b0468413e0537d909196dc16ad1567f5b957237e68ce9deba21e4";
+
+    /**
+     * 20000 NULS
+     */
+    private static final String NA = "00204aa9d1010000";
+
+    @Test
+    public void agent() throws Exception {
+        Agent agent = roundTrip(new Agent(), NA + ADDRESS + ADDRESS + ADDRESS + "0000000000002440");
+        assertEquals(2000000000000L, agent.getDeposit().getValue());
+        assertEquals(ADDRESS, Hex.encode(agent.getPackingAddress()));
+        assertEquals(10.0, agent.getCommissionRate(), 0.0);
+    }
+
+    @Test
+    public void deposit() throws Exception {
+        Deposit deposit = roundTrip(new Deposit(), NA + ADDRESS + DIGEST);
+        assertEquals(ADDRESS, Hex.encode(deposit.getAddress()));
+        assertEquals(DIGEST, Hex.encode(deposit.getAgentHash().serialize()));
+    }
+
+    @Test
+    public void cancelDepositAndStopAgent() throws Exception {
+        assertEquals(DIGEST, Hex.encode(roundTrip(new CancelDeposit(), DIGEST).getJoinTxHash().serialize()));
+        assertEquals(DIGEST, Hex.encode(roundTrip(new StopAgent(), DIGEST).getCreateTxHash().serialize()));
+    }
+
+    @Test
+    public void redPunishData() throws Exception {
+        RedPunishData data = roundTrip(new RedPunishData(), ADDRESS + "02" + "03aabbcc");
+        assertEquals(2, data.getReasonCode());
+        assertEquals("aabbcc", Hex.encode(data.getEvidence()));
+    }
+
+    private static <T extends BaseNulsData> T roundTrip(T data, String hex) throws Exception {
+        byte[] bytes = Hex.decode(hex);
+        data.parse(new NulsByteBuffer(bytes));
+        assertEquals(bytes.length, data.size());
+        assertArrayEquals(bytes, data.serialize());
+        return data;
+    }
+}
@@ -47,6 +47,7 @@ import io.nuls.consensus.poc.protocol.tx.StopAgentTransaction;
 import io.nuls.consensus.poc.protocol.util.PoConvertUtil;
 import io.nuls.consensus.poc.rpc.model.*;
 import io.nuls.consensus.poc.rpc.utils.AgentComparator;
+import io.nuls.consensus.poc.rpc.utils.ConsensusQueryIndex;
 import io.nuls.consensus.poc.service.impl.PocRewardCacheService;
 import io.nuls.consensus.poc.storage.po.PunishLogPo;
 import io.nuls.consensus.poc.util.ConsensusTool;
@@ -722,32 +723,37 @@ public class PocConsensusResource {
             return Result.getFailed(KernelErrorCode.PARAMETER_ERROR).toRpcClientResult();
         }
         Result result = Result.getSuccess();
-        List<Agent> agentList = PocConsensusContext.getChainManager().getMasterChain().getChain().getAgentList();
-        agentList = new ArrayList<>(agentList);
-        long startBlockHeight = NulsContext.getInstance().getBestHeight();
-
-
-        for (int i = agentList.size() - 1; i >= 0; i--) {
-            Agent agent = agentList.get(i);
-            if (agent.getDelHeight() != -1L && agent.getDelHeight() <= startBlockHeight) {
-                agentList.remove(i);
-            } else if (agent.getBlockHeight() > startBlockHeight || agent.getBlockHeight() < 0L) {
-                agentList.remove(i);
-            } else if (StringUtils.isNotBlank(keyword)) {
-                keyword = keyword.toUpperCase();
+        int type = AgentComparator.COMPREHENSIVE;
+        if ("deposit".equals(sortType)) {
+            type = AgentComparator.DEPOSIT;
+        } else if ("commissionRate".equals(sortType)) {
+            type = AgentComparator.COMMISSION_RATE;
+        } else if ("creditVal".equals(sortType)) {
+            type = AgentComparator.CREDIT_VALUE;
+        } else if ("totalDeposit".equals(sortType)) {
+            type = AgentComparator.DEPOSITABLE;
+        } else if ("comprehensive".equals(sortType)) {
+            type = AgentComparator.COMPREHENSIVE;
+        }
+        List<Agent> agentList = ConsensusQueryIndex.getInstance().getSnapshot().getSortedAgentList(type);
+        if (StringUtils.isNotBlank(keyword)) {
+            keyword = keyword.toUpperCase();
+            List<Agent> filteredList = new ArrayList<>();
+            for (Agent agent : agentList) {
                 String agentAddress = AddressTool.getStringAddressByBytes(agent.getAgentAddress()).toUpperCase();
                 String packingAddress = AddressTool.getStringAddressByBytes(agent.getPackingAddress()).toUpperCase();
                 String agentId = PoConvertUtil.getAgentId(agent.getTxHash()).toUpperCase();
-                String alias = accountService.getAlias(agent.getAgentAddress()).getData();
                 boolean b = agentId.indexOf(keyword) >= 0;
                 b = b || agentAddress.equals(keyword) || packingAddress.equals(keyword);
-                if (StringUtils.isNotBlank(alias)) {
-                    b = b || alias.toUpperCase().indexOf(keyword) >= 0;
-                }
                 if (!b) {
-                    agentList.remove(i);
+                    String alias = accountService.getAlias(agent.getAgentAddress()).getData();
+                    b = StringUtils.isNotBlank(alias) && alias.toUpperCase().indexOf(keyword) >= 0;
+                }
+                if (b) {
+                    filteredList.add(agent);
                 }
             }
+            agentList = filteredList;
         }
         int start = pageNumber * pageSize - pageSize;
         Page<AgentDTO> page = new Page<>(pageNumber, pageSize, agentList.size());
@@ -755,20 +761,6 @@ public class PocConsensusResource {
             result.setData(page);
             return result.toRpcClientResult();
         }
-        fillAgentList(agentList, null);
-        int type = AgentComparator.COMPREHENSIVE;
-        if ("deposit".equals(sortType)) {
-            type = AgentComparator.DEPOSIT;
-        } else if ("commissionRate".equals(sortType)) {
-            type = AgentComparator.COMMISSION_RATE;
-        } else if ("creditVal".equals(sortType)) {
-            type = AgentComparator.CREDIT_VALUE;
-        } else if ("totalDeposit".equals(sortType)) {
-            type = AgentComparator.DEPOSITABLE;
-        } else if ("comprehensive".equals(sortType)) {
-            type = AgentComparator.COMPREHENSIVE;
-        }
-        Collections.sort(agentList, AgentComparator.getInstance(type));
 
         List<AgentDTO> resultList = new ArrayList<>();
         for (int i = start; i < agentList.size() && i < (start + pageSize); i++) {
@@ -787,47 +779,6 @@ public class PocConsensusResource {
         return result.toRpcClientResult();
     }
 
-    private void fillAgentList(List<Agent> agentList, List<Deposit> depositList) {
-        MeetingRound round = PocConsensusContext.getChainManager().getMasterChain().getCurrentRound();
-        for (Agent agent : agentList) {
-            fillAgent(agent, round, depositList);
-        }
-    }
-
-    private void fillAgent(Agent agent, MeetingRound round, List<Deposit> depositList) {
-        if (null == depositList || depositList.isEmpty()) {
-            depositList = PocConsensusContext.getChainManager().getMasterChain().getChain().getDepositList();
-        }
-        Set<String> memberSet = new HashSet<>();
-        Na total = Na.ZERO;
-        for (int i = 0; i < depositList.size(); i++) {
-            Deposit deposit = depositList.get(i);
-            if (!agent.getTxHash().equals(deposit.getAgentHash())) {
-                continue;
-            }
-            if (deposit.getDelHeight() >= 0) {
-                continue;
-            }
-            total = total.add(deposit.getDeposit());
-            memberSet.add(AddressTool.getStringAddressByBytes(deposit.getAddress()));
-        }
-        agent.setMemberCount(memberSet.size());
-        agent.setTotalDeposit(total.getValue());
-
-        if (round == null) {
-            return;
-        }
-        MeetingMember member = round.getMember(agent.getPackingAddress());
-        if (null == member) {
-            agent.setStatus(0);
-            agent.setCreditVal(0);
-            return;
-        }
-        agent.setStatus(1);
-        agent.setCreditVal(member.getCreditVal());
-
-    }
-
     @GET
     @Path("/agent/{agentHash}")
     @Produces(MediaType.APPLICATION_JSON)
@@ -842,19 +793,16 @@ public class PocConsensusResource {
             return Result.getFailed(PocConsensusErrorCode.AGENT_NOT_EXIST).toRpcClientResult();
         }
         Result result = Result.getSuccess();
-        List<Agent> agentList = PocConsensusContext.getChainManager().getMasterChain().getChain().getAgentList();
-        NulsDigestData agentHashData = NulsDigestData.fromDigestHex(agentHash);
-        for (Agent agent : agentList) {
-            if (agent.getTxHash().equals(agentHashData)) {
-                MeetingRound round = PocConsensusContext.getChainManager().getMasterChain().getCurrentRound();
-                this.fillAgent(agent, round, null);
-                String alias = accountService.getAlias(agent.getAgentAddress()).getData();
-                AgentDTO dto = new AgentDTO(agent, alias);
-                result.setData(dto);
-                return result.toRpcClientResult();
-            }
+        ConsensusQueryIndex.Snapshot snapshot = ConsensusQueryIndex.getInstance().getSnapshot();
+        Agent agent = snapshot.getAgent(NulsDigestData.fromDigestHex(agentHash));
+        if (null == agent) {
+            return Result.getFailed(PocConsensusErrorCode.AGENT_NOT_EXIST).toRpcClientResult();
         }
-        return Result.getFailed(PocConsensusErrorCode.AGENT_NOT_EXIST).toRpcClientResult();
+        snapshot.fillAgent(agent);
+        String alias = accountService.getAlias(agent.getAgentAddress()).getData();
+        AgentDTO dto = new AgentDTO(agent, alias);
+        result.setData(dto);
+        return result.toRpcClientResult();
     }
 
     @GET
@@ -885,41 +833,23 @@ public class PocConsensusResource {
             return Result.getFailed(KernelErrorCode.PARAMETER_ERROR).toRpcClientResult();
         }
         Result result = Result.getSuccess();
-        List<Deposit> allList = PocConsensusContext.getChainManager().getMasterChain().getChain().getDepositList();
-        long startBlockHeight = NulsContext.getInstance().getBestHeight();
+        ConsensusQueryIndex.Snapshot snapshot = ConsensusQueryIndex.getInstance().getSnapshot();
         byte[] addressBytes = AddressTool.getAddress(address);
+        Agent ownAgent = snapshot.getAgentByAddress(addressBytes);
         Set<NulsDigestData> agentHashSet = new HashSet<>();
-        for (Deposit deposit : allList) {
-            if (deposit.getDelHeight() != -1L && deposit.getDelHeight() <= startBlockHeight) {
-                continue;
-            }
-            if (deposit.getBlockHeight() > startBlockHeight || deposit.getBlockHeight() < 0L) {
-                continue;
-            }
-            if (!Arrays.equals(deposit.getAddress(), addressBytes)) {
-                continue;
-            }
-            agentHashSet.add(deposit.getAgentHash());
-        }
-        List<Agent> allAgentList = PocConsensusContext.getChainManager().getMasterChain().getChain().getAgentList();
         List<Agent> agentList = new ArrayList<>();
-        Agent ownAgent = null;
-        for (int i = allAgentList.size() - 1; i >= 0; i--) {
-            Agent agent = allAgentList.get(i);
-            if (agent.getDelHeight() != -1L && agent.getDelHeight() <= startBlockHeight) {
-                continue;
-            } else if (agent.getBlockHeight() > startBlockHeight || agent.getBlockHeight() < 0L) {
+        for (Deposit deposit : snapshot.getDepositListByAddress(addressBytes)) {
+            if (!agentHashSet.add(deposit.getAgentHash()) || snapshot.getAgentPosition(deposit.getAgentHash()) < 0) {
                 continue;
             }
-            if (Arrays.equals(agent.getAgentAddress(), addressBytes)) {
-                ownAgent = agent;
-                continue;
+            Agent agent = snapshot.getAgent(deposit.getAgentHash());
+            if (agent != ownAgent) {
+                agentList.add(agent);
             }
-            if (!agentHashSet.contains(agent.getTxHash())) {
-                continue;
-            }
-            agentList.add(agent);
         }
+        //与链上顺序相反，最新的节点排在前面
+        //newest agents first, the same order as a reverse scan of the chain's agent list
+        agentList.sort((a1, a2) -> Integer.compare(snapshot.getAgentPosition(a2.getTxHash()), snapshot.getAgentPosition(a1.getTxHash())));
         if (null != ownAgent) {
             agentList.add(0, ownAgent);
         }
@@ -929,7 +859,6 @@ public class PocConsensusResource {
             result.setData(page);
             return result.toRpcClientResult();
         }
-        fillAgentList(agentList, allList);
         List<AgentDTO> resultList = new ArrayList<>();
         for (int i = start; i < agentList.size() && i < (start + pageSize); i++) {
             Agent agent = agentList.get(i);
@@ -973,24 +902,16 @@ public class PocConsensusResource {
             return Result.getFailed(PocConsensusErrorCode.AGENT_NOT_EXIST).toRpcClientResult();
         }
         Result result = Result.getSuccess();
-        List<Deposit> allList = PocConsensusContext.getChainManager().getMasterChain().getChain().getDepositList();
-        List<Deposit> depositList = new ArrayList<>();
-        long startBlockHeight = NulsContext.getInstance().getBestHeight();
-        byte[] addressBytes = AddressTool.getAddress(address);
-        for (Deposit deposit : allList) {
-            if (deposit.getDelHeight() != -1L && deposit.getDelHeight() <= startBlockHeight) {
-                continue;
-            }
-            if (deposit.getBlockHeight() > startBlockHeight || deposit.getBlockHeight() < 0L) {
-                continue;
-            }
-            if (!Arrays.equals(deposit.getAddress(), addressBytes)) {
-                continue;
-            }
-            if (agentHash != null && !deposit.getAgentHash().getDigestHex().equals(agentHash)) {
-                continue;
+        ConsensusQueryIndex.Snapshot snapshot = ConsensusQueryIndex.getInstance().getSnapshot();
+        List<Deposit> depositList = snapshot.getDepositListByAddress(AddressTool.getAddress(address));
+        if (agentHash != null) {
+            List<Deposit> filteredList = new ArrayList<>();
+            for (Deposit deposit : depositList) {
+                if (deposit.getAgentHash().getDigestHex().equals(agentHash)) {
+                    filteredList.add(deposit);
+                }
             }
-            depositList.add(deposit);
+            depositList = filteredList;
         }
         int start = pageNumber * pageSize - pageSize;
         Page<DepositDTO> page = new Page<>(pageNumber, pageSize, depositList.size());
@@ -998,24 +919,11 @@ public class PocConsensusResource {
             result.setData(page);
             return result.toRpcClientResult();
         }
-        Map<NulsDigestData, Agent> map = new HashMap<>();
-        for (MeetingMember member : PocConsensusContext.getChainManager().getMasterChain().getCurrentRound().getMemberList()) {
-            if (null != member.getAgent()) {
-                map.put(member.getAgent().getTxHash(), member.getAgent());
-            }
-        }
         List<DepositDTO> resultList = new ArrayList<>();
 
         for (int i = start; i < depositList.size() && i < (start + pageSize); i++) {
             Deposit deposit = depositList.get(i);
-            List<Agent> agentList = PocConsensusContext.getChainManager().getMasterChain().getChain().getAgentList();
-            Agent agent = null;
-            for (Agent a : agentList) {
-                if (a.getTxHash().equals(deposit.getAgentHash())) {
-                    agent = a;
-                    break;
-                }
-            }
+            Agent agent = snapshot.getAgent(deposit.getAgentHash());
             deposit.setStatus(agent == null ? 0 : agent.getStatus());
             resultList.add(new DepositDTO(deposit, agent));
         }
@@ -1049,22 +957,8 @@ public class PocConsensusResource {
             return Result.getFailed(KernelErrorCode.PARAMETER_ERROR).toRpcClientResult();
         }
         Result result = Result.getSuccess();
-        List<Deposit> allList = PocConsensusContext.getChainManager().getMasterChain().getChain().getDepositList();
-        List<Deposit> depositList = new ArrayList<>();
-        long startBlockHeight = NulsContext.getInstance().getBestHeight();
         NulsDigestData agentDigestData = NulsDigestData.fromDigestHex(agentHash);
-        for (Deposit deposit : allList) {
-            if (deposit.getDelHeight() != -1L && deposit.getDelHeight() <= startBlockHeight) {
-                continue;
-            }
-            if (deposit.getBlockHeight() > startBlockHeight || deposit.getBlockHeight() < 0L) {
-                continue;
-            }
-            if (!deposit.getAgentHash().equals(agentDigestData)) {
-                continue;
-            }
-            depositList.add(deposit);
-        }
+        List<Deposit> depositList = ConsensusQueryIndex.getInstance().getSnapshot().getDepositListByAgent(agentDigestData);
         int start = pageNumber * pageSize - pageSize;
         Page<DepositDTO> page = new Page<>(pageNumber, pageSize, depositList.size());
         if (start >= depositList.size()) {
@@ -0,0 +1,276 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.consensus.poc.rpc.utils;
+
+import io.nuls.consensus.poc.container.ChainContainer;
+import io.nuls.consensus.poc.context.PocConsensusContext;
+import io.nuls.consensus.poc.model.Chain;
+import io.nuls.consensus.poc.model.MeetingMember;
+import io.nuls.consensus.poc.model.MeetingRound;
+import io.nuls.consensus.poc.protocol.entity.Agent;
+import io.nuls.consensus.poc.protocol.entity.Deposit;
+import io.nuls.kernel.context.NulsContext;
+import io.nuls.kernel.model.BlockHeader;
+import io.nuls.kernel.model.Na;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.utils.AddressTool;
+import io.nuls.kernel.utils.ByteArrayWrapper;
+
+import java.util.*;
+
+/**
+ * 共识查询索引，按主链的最新区块重建一次，供RPC查询节点和委托信息使用
+ * Read-optimized view of the master chain's agents and deposits for the consensus rpc queries.
+ * A snapshot is rebuilt at most once per block (or round change) and shared by all requests until then.
+ */
+public class ConsensusQueryIndex {
+
+    private static final ConsensusQueryIndex INSTANCE = new ConsensusQueryIndex();
+
+    private volatile Snapshot snapshot;
+
+    private ConsensusQueryIndex() {
+    }
+
+    public static ConsensusQueryIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 获取当前主链对应的索引快照
+     * Get the index snapshot of the current master chain, rebuilding it when the chain tip or the round has moved.
+     */
+    public Snapshot getSnapshot() {
+        ChainContainer masterChain = PocConsensusContext.getChainManager().getMasterChain();
+        Snapshot current = this.snapshot;
+        if (null != current && current.isValid(masterChain)) {
+            return current;
+        }
+        synchronized (this) {
+            current = this.snapshot;
+            if (null == current || !current.isValid(masterChain)) {
+                current = new Snapshot(masterChain);
+                this.snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    public static final class Snapshot {
+
+        private final NulsDigestData endBlockHash;
+        private final long bestHeight;
+        private final long roundIndex;
+        private final int agentCount;
+        private final int depositCount;
+
+        private final MeetingRound round;
+
+        /**
+         * 所有节点（包括已注销的）
+         * all agents of the chain, including the stopped ones
+         */
+        private final Map<NulsDigestData, Agent> allAgentMap;
+        /**
+         * 当前有效的节点，保持链上顺序
+         * agents that are active at the best height, in chain order
+         */
+        private final List<Agent> agentList;
+        private final Map<NulsDigestData, Integer> agentPositionMap;
+        private final Map<ByteArrayWrapper, Agent> agentAddressMap;
+        private final Map<ByteArrayWrapper, Agent> packingAddressMap;
+        /**
+         * 未退出的委托，用于计算节点的委托总额
+         * deposits that are not cancelled, grouped by agent, used for the agent's total deposit
+         */
+        private final Map<NulsDigestData, List<Deposit>> unstoppedDepositMap;
+        private final Map<NulsDigestData, List<Deposit>> depositAgentMap;
+        private final Map<ByteArrayWrapper, List<Deposit>> depositAddressMap;
+        private final List<Agent>[] sortedAgentLists;
+
+        @SuppressWarnings("unchecked")
+        private Snapshot(ChainContainer masterChain) {
+            Chain chain = masterChain.getChain();
+            BlockHeader endBlockHeader = chain.getEndBlockHeader();
+            this.endBlockHash = null == endBlockHeader ? null : endBlockHeader.getHash();
+            this.bestHeight = NulsContext.getInstance().getBestHeight();
+            this.round = masterChain.getCurrentRound();
+            this.roundIndex = null == round ? -1L : round.getIndex();
+
+            List<Agent> allAgents = new ArrayList<>(chain.getAgentList());
+            List<Deposit> allDeposits = new ArrayList<>(chain.getDepositList());
+            this.agentCount = allAgents.size();
+            this.depositCount = allDeposits.size();
+
+            this.unstoppedDepositMap = new HashMap<>();
+            this.depositAgentMap = new HashMap<>();
+            this.depositAddressMap = new HashMap<>();
+            for (Deposit deposit : allDeposits) {
+                if (deposit.getDelHeight() < 0) {
+                    unstoppedDepositMap.computeIfAbsent(deposit.getAgentHash(), k -> new ArrayList<>()).add(deposit);
+                }
+                if (!isActive(deposit.getBlockHeight(), deposit.getDelHeight(), bestHeight)) {
+                    continue;
+                }
+                depositAgentMap.computeIfAbsent(deposit.getAgentHash(), k -> new ArrayList<>()).add(deposit);
+                depositAddressMap.computeIfAbsent(new ByteArrayWrapper(deposit.getAddress()), k -> new ArrayList<>()).add(deposit);
+            }
+
+            this.allAgentMap = new HashMap<>();
+            this.agentList = new ArrayList<>();
+            this.agentPositionMap = new HashMap<>();
+            this.agentAddressMap = new HashMap<>();
+            this.packingAddressMap = new HashMap<>();
+            for (Agent agent : allAgents) {
+                allAgentMap.put(agent.getTxHash(), agent);
+                if (!isActive(agent.getBlockHeight(), agent.getDelHeight(), bestHeight)) {
+                    continue;
+                }
+                fillAgent(agent, round, unstoppedDepositMap.get(agent.getTxHash()));
+                agentPositionMap.put(agent.getTxHash(), agentList.size());
+                agentList.add(agent);
+                agentAddressMap.put(new ByteArrayWrapper(agent.getAgentAddress()), agent);
+                packingAddressMap.put(new ByteArrayWrapper(agent.getPackingAddress()), agent);
+            }
+
+            this.sortedAgentLists = new List[AgentComparator.COMPREHENSIVE + 1];
+            for (int type = 0; type < sortedAgentLists.length; type++) {
+                List<Agent> sortedList = new ArrayList<>(agentList);
+                Collections.sort(sortedList, AgentComparator.getInstance(type));
+                sortedAgentLists[type] = Collections.unmodifiableList(sortedList);
+            }
+        }
+
+        private boolean isValid(ChainContainer masterChain) {
+            Chain chain = masterChain.getChain();
+            BlockHeader endBlockHeader = chain.getEndBlockHeader();
+            NulsDigestData hash = null == endBlockHeader ? null : endBlockHeader.getHash();
+            if (!Objects.equals(hash, endBlockHash) || bestHeight != NulsContext.getInstance().getBestHeight()) {
+                return false;
+            }
+            MeetingRound currentRound = masterChain.getCurrentRound();
+            if ((null == currentRound ? -1L : currentRound.getIndex()) != roundIndex) {
+                return false;
+            }
+            return agentCount == chain.getAgentList().size() && depositCount == chain.getDepositList().size();
+        }
+
+        private static boolean isActive(long blockHeight, long delHeight, long bestHeight) {
+            if (delHeight != -1L && delHeight <= bestHeight) {
+                return false;
+            }
+            return blockHeight <= bestHeight && blockHeight >= 0L;
+        }
+
+        public MeetingRound getRound() {
+            return round;
+        }
+
+        /**
+         * 当前有效的节点列表，按指定方式排序
+         * Active agents ordered by the given {@link AgentComparator} sort type.
+         */
+        public List<Agent> getSortedAgentList(int sortType) {
+            if (sortType < 0 || sortType >= sortedAgentLists.length) {
+                sortType = AgentComparator.CREDIT_VALUE;
+            }
+            return sortedAgentLists[sortType];
+        }
+
+        /**
+         * 当前有效的节点列表，保持链上顺序
+         * Active agents in chain order.
+         */
+        public List<Agent> getAgentList() {
+            return Collections.unmodifiableList(agentList);
+        }
+
+        /**
+         * 根据节点hash查询节点，包括已注销的节点
+         * Get an agent by its hash, including stopped agents.
+         */
+        public Agent getAgent(NulsDigestData agentHash) {
+            return allAgentMap.get(agentHash);
+        }
+
+        public int getAgentPosition(NulsDigestData agentHash) {
+            Integer position = agentPositionMap.get(agentHash);
+            return null == position ? -1 : position;
+        }
+
+        public Agent getAgentByAddress(byte[] agentAddress) {
+            return agentAddressMap.get(new ByteArrayWrapper(agentAddress));
+        }
+
+        public Agent getAgentByPackingAddress(byte[] packingAddress) {
+            return packingAddressMap.get(new ByteArrayWrapper(packingAddress));
+        }
+
+        public List<Deposit> getDepositListByAgent(NulsDigestData agentHash) {
+            List<Deposit> list = depositAgentMap.get(agentHash);
+            return null == list ? Collections.emptyList() : Collections.unmodifiableList(list);
+        }
+
+        public List<Deposit> getDepositListByAddress(byte[] address) {
+            List<Deposit> list = depositAddressMap.get(new ByteArrayWrapper(address));
+            return null == list ? Collections.emptyList() : Collections.unmodifiableList(list);
+        }
+
+        /**
+         * 计算节点的委托人数、委托总额和信用值
+         * Fill the member count, total deposit, status and credit value of an agent.
+         */
+        public void fillAgent(Agent agent) {
+            fillAgent(agent, round, unstoppedDepositMap.get(agent.getTxHash()));
+        }
+
+        private static void fillAgent(Agent agent, MeetingRound round, List<Deposit> depositList) {
+            Set<String> memberSet = new HashSet<>();
+            Na total = Na.ZERO;
+            if (null != depositList) {
+                for (Deposit deposit : depositList) {
+                    total = total.add(deposit.getDeposit());
+                    memberSet.add(AddressTool.getStringAddressByBytes(deposit.getAddress()));
+                }
+            }
+            agent.setMemberCount(memberSet.size());
+            agent.setTotalDeposit(total.getValue());
+
+            if (round == null) {
+                return;
+            }
+            MeetingMember member = round.getMember(agent.getPackingAddress());
+            if (null == member) {
+                agent.setStatus(0);
+                agent.setCreditVal(0);
+                return;
+            }
+            agent.setStatus(1);
+            agent.setCreditVal(member.getCreditVal());
+        }
+    }
+}
@@ -33,7 +33,23 @@ public interface ConsensusStorageConstant {
     String DB_NAME_CONSENSUS_BIFURCATION_EVIDENCE = "consensus_bifurcation_evidence";
     String DB_BIFURCATION_EVIDENCE_KEY = "bifurcation_evidence_key";
     String DB_NAME_RANDOM_SEEDS = "random_seed";
+    String DB_NAME_CONSENSUS_SNAPSHOT = "consensus_snapshot";
+    byte[] DB_CONSENSUS_SNAPSHOT_KEY = "consensus_snapshot_key".getBytes();
 
     byte[] EMPTY_SEED = new byte[32];
 
+    String CFG_CONSENSUS_SECTION = "consensus";
+    String CFG_TX_QUEUE_MEMORY_LIMIT = "tx.queue.memory.limit";
+    String CFG_TX_QUEUE_SPILL_LIMIT = "tx.queue.spill.limit";
+
+    /**
+     * 交易接收队列内存预算，超出后溢出到磁盘
+     * Memory budget of the tx ingress queue, txs beyond it spill to disk.
+     */
+    long DEFAULT_TX_QUEUE_MEMORY_LIMIT = 64L * 1024 * 1024;
+    long DEFAULT_TX_QUEUE_SPILL_LIMIT = 4L * 1024 * 1024 * 1024;
+    int TX_QUEUE_SPILL_REGION_SIZE = 64 * 1024 * 1024;
+    String TX_QUEUE_SPILL_DIR = "tx_queue";
+    String TX_QUEUE_SPILL_FILE = "tx_queue.log";
+
 }
@@ -0,0 +1,212 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.consensus.poc.storage.po;
+
+import io.nuls.kernel.exception.NulsException;
+import io.nuls.kernel.model.BaseNulsData;
+import io.nuls.kernel.model.BlockHeader;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.utils.NulsByteBuffer;
+import io.nuls.kernel.utils.NulsOutputStreamBuffer;
+import io.nuls.kernel.utils.SerializeUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 共识内存状态快照，启动时加载快照后只需重放快照之后的区块
+ * Snapshot of the in-memory consensus state, on startup only the blocks after the snapshot have to be replayed.
+ */
+public class ConsensusSnapshotPo extends BaseNulsData {
+
+    public static final int CURRENT_VERSION = 1;
+
+    private int version = CURRENT_VERSION;
+
+    private long height;
+
+    private NulsDigestData hash;
+
+    private List<BlockHeader> blockHeaderList = new ArrayList<>();
+
+    private List<AgentPo> agentList = new ArrayList<>();
+
+    private List<DepositPo> depositList = new ArrayList<>();
+
+    private List<PunishLogPo> yellowPunishList = new ArrayList<>();
+
+    private List<PunishLogPo> redPunishList = new ArrayList<>();
+
+    @Override
+    protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
+        stream.writeUint16(version);
+        stream.writeVarInt(height);
+        stream.writeNulsData(hash);
+        stream.writeVarInt(blockHeaderList.size());
+        for (BlockHeader header : blockHeaderList) {
+            stream.writeNulsData(header);
+        }
+        stream.writeVarInt(agentList.size());
+        for (AgentPo agentPo : agentList) {
+            stream.writeNulsData(agentPo);
+        }
+        stream.writeVarInt(depositList.size());
+        for (DepositPo depositPo : depositList) {
+            stream.writeNulsData(depositPo);
+        }
+        stream.writeVarInt(yellowPunishList.size());
+        for (PunishLogPo po : yellowPunishList) {
+            stream.writeNulsData(po);
+        }
+        stream.writeVarInt(redPunishList.size());
+        for (PunishLogPo po : redPunishList) {
+            stream.writeNulsData(po);
+        }
+    }
+
+    @Override
+    public void parse(NulsByteBuffer byteBuffer) throws NulsException {
+        this.version = byteBuffer.readUint16();
+        if (version != CURRENT_VERSION) {
+            return;
+        }
+        this.height = byteBuffer.readVarInt();
+        this.hash = byteBuffer.readHash();
+        long size = byteBuffer.readVarInt();
+        for (int i = 0; i < size; i++) {
+            blockHeaderList.add(byteBuffer.readNulsData(new BlockHeader()));
+        }
+        size = byteBuffer.readVarInt();
+        for (int i = 0; i < size; i++) {
+            agentList.add(byteBuffer.readNulsData(new AgentPo()));
+        }
+        size = byteBuffer.readVarInt();
+        for (int i = 0; i < size; i++) {
+            depositList.add(byteBuffer.readNulsData(new DepositPo()));
+        }
+        size = byteBuffer.readVarInt();
+        for (int i = 0; i < size; i++) {
+            yellowPunishList.add(byteBuffer.readNulsData(new PunishLogPo()));
+        }
+        size = byteBuffer.readVarInt();
+        for (int i = 0; i < size; i++) {
+            redPunishList.add(byteBuffer.readNulsData(new PunishLogPo()));
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = SerializeUtils.sizeOfUint16();
+        size += SerializeUtils.sizeOfVarInt(height);
+        size += SerializeUtils.sizeOfNulsData(hash);
+        size += SerializeUtils.sizeOfVarInt(blockHeaderList.size());
+        for (BlockHeader header : blockHeaderList) {
+            size += SerializeUtils.sizeOfNulsData(header);
+        }
+        size += SerializeUtils.sizeOfVarInt(agentList.size());
+        for (AgentPo agentPo : agentList) {
+            size += SerializeUtils.sizeOfNulsData(agentPo);
+        }
+        size += SerializeUtils.sizeOfVarInt(depositList.size());
+        for (DepositPo depositPo : depositList) {
+            size += SerializeUtils.sizeOfNulsData(depositPo);
+        }
+        size += SerializeUtils.sizeOfVarInt(yellowPunishList.size());
+        for (PunishLogPo po : yellowPunishList) {
+            size += SerializeUtils.sizeOfNulsData(po);
+        }
+        size += SerializeUtils.sizeOfVarInt(redPunishList.size());
+        for (PunishLogPo po : redPunishList) {
+            size += SerializeUtils.sizeOfNulsData(po);
+        }
+        return size;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public long getHeight() {
+        return height;
+    }
+
+    public void setHeight(long height) {
+        this.height = height;
+    }
+
+    public NulsDigestData getHash() {
+        return hash;
+    }
+
+    public void setHash(NulsDigestData hash) {
+        this.hash = hash;
+    }
+
+    public List<BlockHeader> getBlockHeaderList() {
+        return blockHeaderList;
+    }
+
+    public void setBlockHeaderList(List<BlockHeader> blockHeaderList) {
+        this.blockHeaderList = blockHeaderList;
+    }
+
+    public List<AgentPo> getAgentList() {
+        return agentList;
+    }
+
+    public void setAgentList(List<AgentPo> agentList) {
+        this.agentList = agentList;
+    }
+
+    public List<DepositPo> getDepositList() {
+        return depositList;
+    }
+
+    public void setDepositList(List<DepositPo> depositList) {
+        this.depositList = depositList;
+    }
+
+    public List<PunishLogPo> getYellowPunishList() {
+        return yellowPunishList;
+    }
+
+    public void setYellowPunishList(List<PunishLogPo> yellowPunishList) {
+        this.yellowPunishList = yellowPunishList;
+    }
+
+    public List<PunishLogPo> getRedPunishList() {
+        return redPunishList;
+    }
+
+    public void setRedPunishList(List<PunishLogPo> redPunishList) {
+        this.redPunishList = redPunishList;
+    }
+}
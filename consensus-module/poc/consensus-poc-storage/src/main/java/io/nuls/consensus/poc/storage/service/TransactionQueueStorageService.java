@@ -31,4 +31,12 @@ public interface TransactionQueueStorageService {
     boolean putTx(Transaction tx);
 
     Transaction pollTx();
+
+    /**
+     * 清空队列中所有待处理的交易
+     * Drop every pending transaction in the queue.
+     */
+    void clear();
+
+    long size();
 }
@@ -25,42 +25,130 @@
 
 package io.nuls.consensus.poc.storage.service.impl;
 
+import io.nuls.consensus.poc.storage.constant.ConsensusStorageConstant;
 import io.nuls.consensus.poc.storage.service.TransactionQueueStorageService;
+import io.nuls.consensus.poc.storage.utils.MappedAppendLog;
 import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.args.NULSParams;
+import io.nuls.kernel.cfg.NulsConfig;
+import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.lite.annotation.Component;
+import io.nuls.kernel.lite.core.bean.InitializingBean;
 import io.nuls.kernel.model.Transaction;
 import io.nuls.kernel.utils.NulsByteBuffer;
 import io.nuls.kernel.utils.TransactionManager;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayDeque;
 
 /**
+ * 交易接收队列：在内存预算内直接缓存已解析的交易对象，超出预算后按顺序溢出到内存映射文件，消费时按原顺序回放
+ * <p>
+ * Transaction ingress queue: parsed transactions are kept in memory while within the byte budget,
+ * beyond it they spill in order to a memory-mapped append log and are replayed in the original order.
+ *
  * @author: Niels Wang
  * @date: 2018/7/8
  */
 @Component
-public class TransactionQueueStorageServiceImpl implements TransactionQueueStorageService {
+public class TransactionQueueStorageServiceImpl implements TransactionQueueStorageService, InitializingBean {
+
+    private final ArrayDeque<Transaction> memoryQueue = new ArrayDeque<>();
+
+    private long memoryBytes;
+
+    private long memoryLimit = ConsensusStorageConstant.DEFAULT_TX_QUEUE_MEMORY_LIMIT;
 
-    private LinkedBlockingQueue<byte[]> queue = new LinkedBlockingQueue(10000000);
+    private long spillLimit = ConsensusStorageConstant.DEFAULT_TX_QUEUE_SPILL_LIMIT;
+
+    private MappedAppendLog spillLog;
 
     public TransactionQueueStorageServiceImpl() throws Exception {
     }
 
+    TransactionQueueStorageServiceImpl(long memoryLimit, long spillLimit, File spillFile, int regionSize) throws IOException {
+        this.memoryLimit = memoryLimit;
+        this.spillLimit = spillLimit;
+        this.spillLog = new MappedAppendLog(spillFile, regionSize);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws NulsException {
+        if (null != NulsConfig.MODULES_CONFIG) {
+            memoryLimit = NulsConfig.MODULES_CONFIG.getCfgValue(ConsensusStorageConstant.CFG_CONSENSUS_SECTION, ConsensusStorageConstant.CFG_TX_QUEUE_MEMORY_LIMIT, memoryLimit);
+            spillLimit = NulsConfig.MODULES_CONFIG.getCfgValue(ConsensusStorageConstant.CFG_CONSENSUS_SECTION, ConsensusStorageConstant.CFG_TX_QUEUE_SPILL_LIMIT, spillLimit);
+        }
+        String dir = NULSParams.BOOTSTRAP.getDataDir();
+        if (null == dir) {
+            dir = System.getProperty("java.io.tmpdir");
+        }
+        File file = new File(dir + File.separator + ConsensusStorageConstant.TX_QUEUE_SPILL_DIR, ConsensusStorageConstant.TX_QUEUE_SPILL_FILE);
+        try {
+            spillLog = new MappedAppendLog(file, ConsensusStorageConstant.TX_QUEUE_SPILL_REGION_SIZE);
+        } catch (IOException e) {
+            Log.error("tx queue spill log unavailable, path: " + file.getPath(), e);
+        }
+    }
+
     @Override
     public boolean putTx(Transaction tx) {
+        if (null == tx) {
+            return false;
+        }
+        int size = tx.size();
+        synchronized (this) {
+            // 一旦开始溢出，新交易必须排在溢出数据之后，直到溢出数据被消费完
+            // Once spilling has started new txs must queue behind the spilled ones until they are drained.
+            boolean spilling = null != spillLog && !spillLog.isEmpty();
+            if (!spilling && memoryBytes + size <= memoryLimit) {
+                memoryQueue.offer(tx);
+                memoryBytes += size;
+                return true;
+            }
+        }
+        return spill(tx);
+    }
+
+    private boolean spill(Transaction tx) {
+        if (null == spillLog) {
+            return false;
+        }
+        byte[] bytes;
         try {
-            queue.offer(tx.serialize());
-            return true;
+            bytes = tx.serialize();
         } catch (IOException e) {
             Log.error(e);
+            return false;
+        }
+        synchronized (this) {
+            if (spillLog.getPendingBytes() + MappedAppendLog.RECORD_HEADER_SIZE + bytes.length > spillLimit) {
+                return false;
+            }
+            try {
+                spillLog.append(bytes);
+                return true;
+            } catch (IOException e) {
+                Log.error(e);
+            }
         }
         return false;
     }
 
     @Override
     public Transaction pollTx() {
-        byte[] bytes = queue.poll();
+        byte[] bytes;
+        synchronized (this) {
+            Transaction tx = memoryQueue.poll();
+            if (null != tx) {
+                memoryBytes -= tx.size();
+                return tx;
+            }
+            if (null == spillLog) {
+                return null;
+            }
+            bytes = spillLog.poll();
+        }
         if (null == bytes) {
             return null;
         }
@@ -71,4 +159,22 @@ public class TransactionQueueStorageServiceImpl implements TransactionQueueStora
         }
         return null;
     }
+
+    @Override
+    public synchronized void clear() {
+        memoryQueue.clear();
+        memoryBytes = 0;
+        if (null != spillLog) {
+            spillLog.reset();
+        }
+    }
+
+    @Override
+    public synchronized long size() {
+        long size = memoryQueue.size();
+        if (null != spillLog) {
+            size += spillLog.size();
+        }
+        return size;
+    }
 }
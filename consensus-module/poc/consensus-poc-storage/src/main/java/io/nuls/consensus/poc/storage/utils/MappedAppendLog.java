@@ -0,0 +1,211 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.consensus.poc.storage.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+
+/**
+ * 基于内存映射文件的先进先出追加日志，每条记录格式为：4字节长度 + 数据
+ * 日志由若干定长分段文件组成，分段被读完后立即解除映射并删除，磁盘与映射占用只与未读数据量相关
+ * <p>
+ * A FIFO append log backed by memory-mapped files, each record is a 4-byte length followed by the payload.
+ * The log is made of fixed size segment files, a segment is unmapped and deleted as soon as it has been read,
+ * so disk and mapped memory only grow with the unread data.
+ */
+public class MappedAppendLog implements Closeable {
+
+    public static final int RECORD_HEADER_SIZE = 4;
+
+    private final File dir;
+    private final String name;
+    private final int regionSize;
+
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+    private long nextSegmentId;
+    private long pendingBytes;
+    private long mappedBytes;
+    private long count;
+
+    public MappedAppendLog(File file, int regionSize) throws IOException {
+        this.dir = null == file.getParentFile() ? new File(".") : file.getParentFile();
+        this.name = file.getName();
+        this.regionSize = regionSize;
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("can not create directory " + dir.getPath());
+        }
+        // 清理上次运行遗留的分段文件
+        // remove segment files left by a previous run
+        File[] stale = dir.listFiles((d, fileName) -> fileName.equals(name) || fileName.startsWith(name + "."));
+        if (null != stale) {
+            for (File f : stale) {
+                f.delete();
+            }
+        }
+    }
+
+    public synchronized void append(byte[] record) throws IOException {
+        int length = RECORD_HEADER_SIZE + record.length;
+        Segment tail = segments.peekLast();
+        if (null == tail || tail.writeView.remaining() < length) {
+            tail = newSegment(Math.max(regionSize, length));
+            segments.addLast(tail);
+        }
+        tail.writeView.putInt(record.length);
+        tail.writeView.put(record);
+        pendingBytes += length;
+        count++;
+    }
+
+    public synchronized byte[] poll() {
+        if (count == 0) {
+            return null;
+        }
+        Segment head = segments.peekFirst();
+        while (!head.hasUnread()) {
+            release(segments.pollFirst());
+            head = segments.peekFirst();
+        }
+        int length = head.readView.getInt();
+        byte[] record = new byte[length];
+        head.readView.get(record);
+        pendingBytes -= RECORD_HEADER_SIZE + length;
+        count--;
+        if (count == 0) {
+            // 全部读完：只保留最后一个分段并从头复用
+            // fully drained: keep only the last segment and reuse it from the start
+            while (segments.size() > 1) {
+                release(segments.pollFirst());
+            }
+            segments.peekFirst().rewind();
+        } else if (!head.hasUnread() && head != segments.peekLast()) {
+            release(segments.pollFirst());
+        }
+        return record;
+    }
+
+    private Segment newSegment(int size) throws IOException {
+        File file = new File(dir, name + "." + nextSegmentId++);
+        MappedByteBuffer buffer;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        mappedBytes += size;
+        return new Segment(file, buffer);
+    }
+
+    private void release(Segment segment) {
+        mappedBytes -= segment.buffer.capacity();
+        unmap(segment.buffer);
+        segment.file.delete();
+    }
+
+    /**
+     * 主动解除映射，避免等待GC；不支持时交给GC回收
+     * Unmap eagerly instead of waiting for the GC, falls back to the GC where unsupported.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (null != cleaner) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (Exception e) {
+            // left to the GC
+        }
+    }
+
+    public synchronized void reset() {
+        while (!segments.isEmpty()) {
+            release(segments.pollFirst());
+        }
+        pendingBytes = 0;
+        count = 0;
+    }
+
+    public synchronized boolean isEmpty() {
+        return count == 0;
+    }
+
+    public synchronized long size() {
+        return count;
+    }
+
+    /**
+     * 未读取的数据字节数（含记录头）
+     * Bytes of unread records, record headers included.
+     */
+    public synchronized long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * 当前映射的字节数，即所有未删除分段的大小之和
+     * Bytes currently mapped, the total size of all live segments.
+     */
+    public synchronized long getMappedBytes() {
+        return mappedBytes;
+    }
+
+    @Override
+    public synchronized void close() {
+        reset();
+    }
+
+    private static class Segment {
+        private final File file;
+        private final MappedByteBuffer buffer;
+        private final ByteBuffer writeView;
+        private final ByteBuffer readView;
+
+        private Segment(File file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+            this.writeView = buffer.duplicate();
+            this.readView = buffer.duplicate();
+        }
+
+        private boolean hasUnread() {
+            return readView.position() < writeView.position();
+        }
+
+        private void rewind() {
+            writeView.clear();
+            readView.clear();
+        }
+    }
+}
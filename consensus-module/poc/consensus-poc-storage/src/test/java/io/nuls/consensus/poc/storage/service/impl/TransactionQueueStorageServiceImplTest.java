@@ -0,0 +1,129 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.consensus.poc.storage.service.impl;
+
+import io.nuls.kernel.exception.NulsException;
+import io.nuls.kernel.model.Transaction;
+import io.nuls.kernel.model.TransactionLogicData;
+import io.nuls.kernel.utils.NulsByteBuffer;
+import io.nuls.kernel.utils.TransactionManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class TransactionQueueStorageServiceImplTest {
+
+    private static final int TX_TYPE = 1001;
+
+    private TransactionQueueStorageServiceImpl queue;
+
+    private int txSize;
+
+    @Before
+    public void init() throws Exception {
+        TransactionManager.putTx(QueueTestTransaction.class, null);
+        txSize = createTx(0).size();
+        File file = new File(System.getProperty("java.io.tmpdir") + File.separator + "nuls_tx_queue_test", "queue.log");
+        // 内存可容纳3笔交易，溢出日志可容纳4笔
+        // memory holds 3 txs, the spill log holds 4
+        queue = new TransactionQueueStorageServiceImpl(3L * txSize, 4L * (txSize + 4), file, 256);
+    }
+
+    @After
+    public void destroy() {
+        queue.clear();
+    }
+
+    @Test
+    public void keepsArrivalOrderAcrossSpill() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(queue.putTx(createTx(i)));
+        }
+        assertEquals(5, queue.size());
+
+        // 内存有空位，但溢出数据未消费完时新交易仍需排在其后
+        // memory has room again, but new txs still queue behind the spilled ones
+        assertEquals(0, queue.pollTx().getTime());
+        assertTrue(queue.putTx(createTx(5)));
+
+        for (int i = 1; i <= 5; i++) {
+            Transaction tx = queue.pollTx();
+            assertNotNull(tx);
+            assertEquals(i, tx.getTime());
+        }
+        assertNull(queue.pollTx());
+        assertEquals(0, queue.size());
+
+        // 全部消费后重新使用内存
+        // once drained the memory queue is used again
+        assertTrue(queue.putTx(createTx(6)));
+        assertEquals(6, queue.pollTx().getTime());
+    }
+
+    @Test
+    public void rejectsBeyondSpillBudget() {
+        for (int i = 0; i < 7; i++) {
+            assertTrue(queue.putTx(createTx(i)));
+        }
+        assertFalse(queue.putTx(createTx(7)));
+        assertEquals(7, queue.size());
+
+        queue.clear();
+        assertEquals(0, queue.size());
+        assertNull(queue.pollTx());
+        assertTrue(queue.putTx(createTx(8)));
+        assertEquals(8, queue.pollTx().getTime());
+    }
+
+    private static Transaction createTx(long time) {
+        Transaction tx = new QueueTestTransaction();
+        tx.setTime(time);
+        tx.setRemark("tx queue test".getBytes());
+        return tx;
+    }
+
+    public static class QueueTestTransaction extends Transaction {
+
+        public QueueTestTransaction() {
+            super(TX_TYPE);
+        }
+
+        @Override
+        protected TransactionLogicData parseTxData(NulsByteBuffer byteBuffer) throws NulsException {
+            byteBuffer.readBytes(4);
+            return null;
+        }
+
+        @Override
+        public String getInfo(byte[] address) {
+            return null;
+        }
+    }
+}
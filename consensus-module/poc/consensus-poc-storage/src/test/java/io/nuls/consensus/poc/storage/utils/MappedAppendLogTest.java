@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.consensus.poc.storage.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class MappedAppendLogTest {
+
+    private MappedAppendLog log;
+
+    @Before
+    public void init() throws Exception {
+        File file = new File(System.getProperty("java.io.tmpdir") + File.separator + "nuls_append_log_test", "test.log");
+        log = new MappedAppendLog(file, 64);
+    }
+
+    @After
+    public void destroy() throws Exception {
+        log.close();
+    }
+
+    @Test
+    public void appendAndPollInOrder() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            log.append(record(i, i % 50));
+        }
+        assertEquals(100, log.size());
+        for (int i = 0; i < 100; i++) {
+            assertArrayEquals(record(i, i % 50), log.poll());
+        }
+        assertNull(log.poll());
+        assertTrue(log.isEmpty());
+        assertEquals(0, log.getPendingBytes());
+    }
+
+    @Test
+    public void interleavedAndLargeRecords() throws Exception {
+        log.append(record(1, 10));
+        log.append(record(2, 300));
+        assertArrayEquals(record(1, 10), log.poll());
+        log.append(record(3, 5));
+        assertArrayEquals(record(2, 300), log.poll());
+        assertArrayEquals(record(3, 5), log.poll());
+        assertNull(log.poll());
+
+        log.append(record(4, 20));
+        assertArrayEquals(record(4, 20), log.poll());
+    }
+
+    @Test
+    public void consumedSegmentsAreReleased() throws Exception {
+        // 持续写入并读取，读过的分段被释放，映射大小不随写入总量增长
+        // sustained load without ever draining: consumed segments are released, so the mapping does not grow
+        log.append(record(0, 20));
+        for (int i = 1; i < 10000; i++) {
+            log.append(record(i, 20));
+            assertArrayEquals(record(i - 1, 20), log.poll());
+            assertTrue(log.getMappedBytes() <= 3 * 64);
+        }
+        assertEquals(1, log.size());
+        assertArrayEquals(record(9999, 20), log.poll());
+        assertEquals(64, log.getMappedBytes());
+
+        log.reset();
+        assertEquals(0, log.getMappedBytes());
+    }
+
+    private byte[] record(int seed, int length) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) seed);
+        return bytes;
+    }
+}
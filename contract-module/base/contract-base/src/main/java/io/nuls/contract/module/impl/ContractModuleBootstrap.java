@@ -35,6 +35,7 @@ import io.nuls.core.tools.json.JSONUtils;
 import io.nuls.core.tools.log.Log;
 import io.nuls.kernel.cfg.NulsConfig;
 import io.nuls.kernel.context.NulsContext;
+import org.ethereum.config.CommonConfig;
 
 import java.util.Map;
 
@@ -92,11 +93,23 @@ public class ContractModuleBootstrap extends AbstractContractModule {
         ContractBalanceManager balanceManager = NulsContext.getServiceBean(ContractBalanceManager.class);
         balanceManager.initContractBalance();
         balanceManager.initAllTokensForAllAccounts();
+        checkStateFlushed();
+    }
+
+    /**
+     * 合约状态每个区块都在后台刷盘，只有异常退出时正在刷盘的区块可能丢失
+     */
+    private void checkStateFlushed() {
+        long flushedHeight = CommonConfig.getDefault().dbFlushManager().getFlushedHeight();
+        long bestHeight = NulsContext.getInstance().getBestHeight();
+        if (flushedHeight >= 0 && flushedHeight < bestHeight) {
+            Log.warn("contract state is flushed up to height {}, best height is {}, the state of the later blocks may be incomplete", flushedHeight, bestHeight);
+        }
     }
 
     @Override
     public void shutdown() {
-        //TODO do something or not
+        CommonConfig.getDefault().dbFlushManager().flushSync();
     }
 
     @Override
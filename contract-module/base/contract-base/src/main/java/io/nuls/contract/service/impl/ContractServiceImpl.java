@@ -52,6 +52,7 @@ import io.nuls.contract.storage.service.ContractExecuteResultStorageService;
 import io.nuls.contract.storage.service.ContractTokenTransferStorageService;
 import io.nuls.contract.storage.service.ContractTransferTransactionStorageService;
 import io.nuls.contract.util.ContractCoinComparator;
+import io.nuls.contract.util.ContractSpeculation;
 import io.nuls.contract.util.ContractUtil;
 import io.nuls.contract.util.VMContext;
 import io.nuls.contract.vm.program.*;
@@ -69,6 +70,8 @@ import io.nuls.kernel.lite.annotation.Service;
 import io.nuls.kernel.lite.core.bean.InitializingBean;
 import io.nuls.kernel.model.*;
 import io.nuls.kernel.script.SignatureUtil;
+import io.nuls.kernel.thread.manager.NulsThreadFactory;
+import io.nuls.kernel.thread.manager.TaskManager;
 import io.nuls.kernel.utils.AddressTool;
 import io.nuls.kernel.utils.VarInt;
 import io.nuls.kernel.validate.ValidateResult;
@@ -78,6 +81,7 @@ import io.nuls.protocol.constant.ProtocolConstant;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
@@ -137,9 +141,25 @@ public class ContractServiceImpl implements ContractService, InitializingBean {
 
     private ThreadLocal<ProgramExecutor> localProgramExecutor = new ThreadLocal<>();
 
+    private ThreadLocal<ContractSpeculation> localSpeculation = new ThreadLocal<>();
+
+    /**
+     * 合约调用交易的并行预执行线程池，未开启时为null
+     */
+    private ExecutorService speculativeExecutor;
+
     @Override
     public void afterPropertiesSet() throws NulsException {
         programExecutor = vmHelper.getProgramExecutor();
+        boolean parallelExecute = DEFAULT_PARALLEL_EXECUTE;
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (null != NulsConfig.MODULES_CONFIG) {
+            parallelExecute = NulsConfig.MODULES_CONFIG.getCfgValue(CFG_CONTRACT_SECTION, CFG_CONTRACT_PARALLEL_EXECUTE, parallelExecute);
+            threads = NulsConfig.MODULES_CONFIG.getCfgValue(CFG_CONTRACT_SECTION, CFG_CONTRACT_PARALLEL_THREADS, threads);
+        }
+        if (parallelExecute && threads > 0) {
+            speculativeExecutor = TaskManager.createThreadPool(threads, Integer.MAX_VALUE, new NulsThreadFactory(MODULE_ID_CONTRACT, "contract-speculative"));
+        }
     }
 
     /**
@@ -176,7 +196,7 @@ public class ContractServiceImpl implements ContractService, InitializingBean {
             if (executor == null) {
                 track = programExecutor.begin(prevStateRoot);
             } else {
-                track = executor.startTracking();
+                track = startTracking(executor);
             }
             ProgramResult programResult = track.create(programCreate);
             // 批量提交方式，交易track放置到外部处理合约执行结果的方法里去提交
@@ -248,9 +268,10 @@ public class ContractServiceImpl implements ContractService, InitializingBean {
      * @param number        当前块编号
      * @param prevStateRoot 上一区块状态根
      * @param call          调用智能合约的参数
+     * @param hash          交易hash, 批量提交方式用于查找并行预执行的结果
      * @return
      */
-    private Result<ContractResult> callContract(ProgramExecutor executor, long number, byte[] prevStateRoot, CallContractData call) {
+    private Result<ContractResult> callContract(ProgramExecutor executor, long number, byte[] prevStateRoot, CallContractData call, NulsDigestData hash) {
         if (number < 0) {
             return Result.getFailed(ContractErrorCode.PARAMETER_ERROR);
         }
@@ -261,26 +282,45 @@ public class ContractServiceImpl implements ContractService, InitializingBean {
             byte[] contractAddress = call.getContractAddress();
             byte[] sender = call.getSender();
             long price = call.getPrice();
-            ProgramCall programCall = new ProgramCall();
-            programCall.setContractAddress(contractAddress);
-            programCall.setSender(sender);
-            programCall.setValue(BigInteger.valueOf(call.getValue()));
-            programCall.setPrice(price);
-            programCall.setGasLimit(call.getGasLimit());
-            programCall.setNumber(number);
-            programCall.setMethodName(call.getMethodName());
-            programCall.setMethodDesc(call.getMethodDesc());
-            programCall.setArgs(call.getArgs());
+            ProgramCall programCall = toProgramCall(number, call);
 
             ProgramExecutor track;
+            ProgramResult programResult;
+            ContractSpeculation speculation = executor == null ? null : localSpeculation.get();
             if (executor == null) {
                 track = programExecutor.begin(prevStateRoot);
-            } else {
+                programResult = track.call(programCall);
+            } else if (speculation == null) {
                 track = executor.startTracking();
+                programResult = track.call(programCall);
+            } else {
+                ContractSpeculation.Speculation speculated = speculation.take(hash);
+                if (speculated != null) {
+                    // 预执行读取的数据没有被之前的交易修改，重放写入即可得到与串行执行相同的状态
+                    track = executor.replay(speculated.getAccessSet());
+                    programResult = speculated.getProgramResult();
+                    // 只读方法的结果没有nonce，串行执行也不会设置
+                    if (programResult.isSuccess() && programResult.getNonce() != null) {
+                        programResult.setNonce(track.getNonce(contractAddress));
+                    }
+                    speculation.getWritten().addWrites(speculated.getAccessSet());
+                } else {
+                    track = executor.startTracking(speculation.getWritten());
+                    programResult = track.call(programCall);
+                }
+                // 合约余额的变化在交易处理后才刷新到临时余额中，记录到写入集合
+                if (call.getValue() > 0) {
+                    speculation.getWritten().writeBalance(contractAddress);
+                }
+                List<ProgramTransfer> transfers = programResult.getTransfers();
+                if (transfers != null) {
+                    for (ProgramTransfer transfer : transfers) {
+                        speculation.getWritten().writeBalance(transfer.getFrom());
+                        speculation.getWritten().writeBalance(transfer.getTo());
+                    }
+                }
             }
 
-            ProgramResult programResult = track.call(programCall);
-
             // 批量提交方式，交易track放置到外部处理合约执行结果的方法里去提交
             if (executor == null) {
                 track.commit();
@@ -297,7 +337,7 @@ public class ContractServiceImpl implements ContractService, InitializingBean {
             contractResult.setBalance(programResult.getBalance());
             contractResult.setContractAddress(contractAddress);
             contractResult.setSender(sender);
-            contractResult.setValue(programCall.getValue().longValue());
+            contractResult.setValue(call.getValue());
             contractResult.setRemark(ContractConstant.CALL);
             // 批量提交方式，交易track放置到外部处理合约执行结果的方法里去提交
             contractResult.setTxTrack(track);
@@ -331,6 +371,31 @@ public class ContractServiceImpl implements ContractService, InitializingBean {
         }
     }
 
+    private ProgramCall toProgramCall(long number, CallContractData call) {
+        ProgramCall programCall = new ProgramCall();
+        programCall.setContractAddress(call.getContractAddress());
+        programCall.setSender(call.getSender());
+        programCall.setValue(BigInteger.valueOf(call.getValue()));
+        programCall.setPrice(call.getPrice());
+        programCall.setGasLimit(call.getGasLimit());
+        programCall.setNumber(number);
+        programCall.setMethodName(call.getMethodName());
+        programCall.setMethodDesc(call.getMethodDesc());
+        programCall.setArgs(call.getArgs());
+        return programCall;
+    }
+
+    /**
+     * 批量提交方式开启预执行时，串行执行的写入也需要记录，用于判断之后交易的预执行结果是否有效
+     */
+    private ProgramExecutor startTracking(ProgramExecutor executor) {
+        ContractSpeculation speculation = localSpeculation.get();
+        if (speculation == null) {
+            return executor.startTracking();
+        }
+        return executor.startTracking(speculation.getWritten());
+    }
+
     /**
      * @param executor
      * @param number        当前块编号
@@ -353,7 +418,7 @@ public class ContractServiceImpl implements ContractService, InitializingBean {
             if (executor == null) {
                 track = programExecutor.begin(prevStateRoot);
             } else {
-                track = executor.startTracking();
+                track = startTracking(executor);
             }
             ProgramResult programResult = track.stop(contractAddress, sender);
             // 批量提交方式，交易track放置到外部处理合约执行结果的方法里去提交
@@ -799,7 +864,7 @@ public class ContractServiceImpl implements ContractService, InitializingBean {
             if (!ContractUtil.checkPrice(callContractData.getPrice())) {
                 return Result.getFailed(ContractErrorCode.CONTRACT_MINIMUM_PRICE);
             }
-            Result<ContractResult> result = callContract(track, height, stateRoot, callContractData);
+            Result<ContractResult> result = callContract(track, height, stateRoot, callContractData, tx.getHash());
             byte[] contractAddress = callContractData.getContractAddress();
             BigInteger preBalance = vmContext.getBalance(contractAddress, height);
             ContractResult contractResult = result.getData();
@@ -1512,15 +1577,20 @@ public class ContractServiceImpl implements ContractService, InitializingBean {
     @Override
     public void createBatchExecute(byte[] stateRoot) {
         localProgramExecutor.remove();
+        removeSpeculation();
         if (stateRoot == null) {
             return;
         }
         ProgramExecutor executor = programExecutor.begin(stateRoot);
         localProgramExecutor.set(executor);
+        if (speculativeExecutor != null) {
+            localSpeculation.set(new ContractSpeculation(stateRoot));
+        }
     }
 
     @Override
     public Result<byte[]> commitBatchExecute() {
+        removeSpeculation();
         ProgramExecutor executor = localProgramExecutor.get();
         if (executor == null) {
             return Result.getSuccess();
@@ -1533,6 +1603,50 @@ public class ContractServiceImpl implements ContractService, InitializingBean {
     @Override
     public void removeBatchExecute() {
         localProgramExecutor.remove();
+        removeSpeculation();
+    }
+
+    private void removeSpeculation() {
+        ContractSpeculation speculation = localSpeculation.get();
+        if (speculation != null) {
+            speculation.cancel();
+            localSpeculation.remove();
+        }
+    }
+
+    @Override
+    public void speculativeExecute(List<Transaction> txs, long bestHeight, BlockHeader blockHeader, boolean isForkChain) {
+        ContractSpeculation speculation = localSpeculation.get();
+        if (speculation == null || txs == null) {
+            return;
+        }
+        byte[] stateRoot = speculation.getStateRoot();
+        for (Transaction tx : txs) {
+            if (tx.getType() != TX_TYPE_CALL_CONTRACT || speculation.contains(tx.getHash())) {
+                continue;
+            }
+            CallContractTransaction callContractTransaction = (CallContractTransaction) tx;
+            // 打包、验证区块时已有执行结果的交易不再执行
+            if (!isForkChain && (callContractTransaction.getContractResult() != null || getContractExecuteResult(tx.getHash()) != null)) {
+                continue;
+            }
+            CallContractData callContractData = callContractTransaction.getTxData();
+            if (!ContractUtil.checkPrice(callContractData.getPrice())) {
+                continue;
+            }
+            ProgramCall programCall = toProgramCall(bestHeight, callContractData);
+            speculation.put(tx.getHash(), speculativeExecutor.submit(() -> {
+                vmContext.createCurrentBlockHeader(blockHeader);
+                try {
+                    ProgramAccessSet accessSet = new ProgramAccessSet();
+                    ProgramExecutor executor = programExecutor.beginSpeculation(stateRoot, accessSet);
+                    ProgramResult programResult = executor.call(programCall);
+                    return new ContractSpeculation.Speculation(accessSet, programResult);
+                } finally {
+                    vmContext.removeCurrentBlockHeader();
+                }
+            }));
+        }
     }
 
     @Override
@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.contract.util;
+
+import io.nuls.contract.vm.program.ProgramAccessSet;
+import io.nuls.contract.vm.program.ProgramResult;
+import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.model.NulsDigestData;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * 一个区块内合约调用交易的并行预执行上下文
+ * 预执行基于区块开始时的状态根，按区块顺序处理交易时，读取集合与之前交易的写入没有交集的结果直接重放，否则串行重新执行
+ * Speculative execution context of the contract calls in one block. Results whose reads don't intersect
+ * the writes of the transactions before them are replayed, the others are executed again serially.
+ */
+public class ContractSpeculation {
+
+    private final byte[] stateRoot;
+
+    private final Map<NulsDigestData, Future<Speculation>> speculations = new HashMap<>();
+
+    /**
+     * 区块内已处理交易的写入集合
+     */
+    private final ProgramAccessSet written = new ProgramAccessSet();
+
+    public ContractSpeculation(byte[] stateRoot) {
+        this.stateRoot = stateRoot;
+    }
+
+    public byte[] getStateRoot() {
+        return stateRoot;
+    }
+
+    public ProgramAccessSet getWritten() {
+        return written;
+    }
+
+    public boolean contains(NulsDigestData hash) {
+        return speculations.containsKey(hash);
+    }
+
+    public void put(NulsDigestData hash, Future<Speculation> future) {
+        speculations.put(hash, future);
+    }
+
+    /**
+     * 取出交易的预执行结果，预执行失败或结果与之前交易的写入冲突时返回null
+     */
+    public Speculation take(NulsDigestData hash) {
+        Future<Speculation> future = speculations.remove(hash);
+        if (future == null) {
+            return null;
+        }
+        Speculation speculation;
+        try {
+            speculation = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            Log.error(e);
+            return null;
+        }
+        ProgramAccessSet accessSet = speculation.getAccessSet();
+        if (!accessSet.isReplayable() || accessSet.conflictsWith(written)) {
+            return null;
+        }
+        return speculation;
+    }
+
+    public void cancel() {
+        for (Future<Speculation> future : speculations.values()) {
+            future.cancel(false);
+        }
+        speculations.clear();
+    }
+
+    public static class Speculation {
+
+        private final ProgramAccessSet accessSet;
+
+        private final ProgramResult programResult;
+
+        public Speculation(ProgramAccessSet accessSet, ProgramResult programResult) {
+            this.accessSet = accessSet;
+            this.programResult = programResult;
+        }
+
+        public ProgramAccessSet getAccessSet() {
+            return accessSet;
+        }
+
+        public ProgramResult getProgramResult() {
+            return programResult;
+        }
+    }
+}
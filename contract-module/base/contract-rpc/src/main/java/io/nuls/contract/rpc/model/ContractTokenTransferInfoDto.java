@@ -0,0 +1,95 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2017-2019 nuls.io
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.contract.rpc.model;
+
+import io.nuls.contract.dto.ContractTokenTransferInfoPo;
+import io.nuls.core.tools.crypto.Hex;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel(value = "ContractTokenTransferInfoDtoJSON")
+public class ContractTokenTransferInfoDto extends ContractTokenTransferDto {
+
+    @ApiModelProperty(name = "txHash", value = "交易hash")
+    private String txHash;
+    @ApiModelProperty(name = "blockHeight", value = "区块高度，未确认为-1")
+    private long blockHeight;
+    @ApiModelProperty(name = "time", value = "交易时间")
+    private long time;
+    @ApiModelProperty(name = "status", value = "状态 0: 未确认, 1: 已确认, 2: 失败")
+    private byte status;
+    @ApiModelProperty(name = "info", value = "账户的token变动金额")
+    private String info;
+
+    public ContractTokenTransferInfoDto(ContractTokenTransferInfoPo po, byte[] address) {
+        super(po);
+        if (po.getTxHash() != null) {
+            this.txHash = Hex.encode(po.getTxHash());
+        }
+        this.blockHeight = po.getBlockHeight();
+        this.time = po.getTime();
+        this.status = po.getStatus();
+        this.info = po.getInfo(address);
+    }
+
+    public String getTxHash() {
+        return txHash;
+    }
+
+    public void setTxHash(String txHash) {
+        this.txHash = txHash;
+    }
+
+    public long getBlockHeight() {
+        return blockHeight;
+    }
+
+    public void setBlockHeight(long blockHeight) {
+        this.blockHeight = blockHeight;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    public byte getStatus() {
+        return status;
+    }
+
+    public void setStatus(byte status) {
+        this.status = status;
+    }
+
+    public String getInfo() {
+        return info;
+    }
+
+    public void setInfo(String info) {
+        this.info = info;
+    }
+}
@@ -78,6 +78,8 @@ import io.nuls.kernel.lite.annotation.Autowired;
 import io.nuls.kernel.lite.annotation.Component;
 import io.nuls.kernel.lite.core.bean.InitializingBean;
 import io.nuls.kernel.model.*;
+import io.nuls.kernel.rpc.RpcExecutors;
+import io.nuls.kernel.rpc.RpcTaskGroup;
 import io.nuls.kernel.utils.AddressTool;
 import io.nuls.kernel.utils.TransactionFeeCalculator;
 import io.nuls.kernel.utils.VarInt;
@@ -90,6 +92,9 @@ import org.glassfish.jersey.media.multipart.FormDataParam;
 
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import java.io.IOException;
@@ -111,6 +116,9 @@ import static org.apache.commons.lang3.StringUtils.EMPTY;
 @Component
 public class ContractResource implements InitializingBean {
 
+    @Context
+    private ResourceInfo resourceInfo;
+
     @Autowired
     private ContractTxService contractTxService;
 
@@ -378,7 +386,11 @@ public class ContractResource implements InitializingBean {
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "success")
     })
-    public RpcClientResult callContract(@ApiParam(name = "callForm", value = "调用智能合约", required = true) ContractCall call) {
+    public void callContract(@Suspended AsyncResponse asyncResponse, @ApiParam(name = "callForm", value = "调用智能合约", required = true) ContractCall call) {
+        RpcExecutors.submit(RpcTaskGroup.TX, resourceInfo, asyncResponse, () -> doCallContract(call));
+    }
+
+    private RpcClientResult doCallContract(ContractCall call) {
         if (call == null || call.getValue() < 0 || call.getGasLimit() < 0 || call.getPrice() < 0) {
             return Result.getFailed(ContractErrorCode.PARAMETER_ERROR).toRpcClientResult();
         }
@@ -613,8 +625,13 @@ public class ContractResource implements InitializingBean {
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "success")
     })
-    public RpcClientResult invokeViewContract(
+    public void invokeViewContract(
+            @Suspended AsyncResponse asyncResponse,
             @ApiParam(name = "constantCallForm", value = "调用不上链的智能合约函数表单数据", required = true) ContractViewCall viewCall) {
+        RpcExecutors.submit(RpcTaskGroup.CONTRACT, resourceInfo, asyncResponse, () -> doInvokeViewContract(viewCall));
+    }
+
+    private RpcClientResult doInvokeViewContract(ContractViewCall viewCall) {
         try {
             String contractAddress = viewCall.getContractAddress();
             String methodName = viewCall.getMethodName();
@@ -666,7 +683,11 @@ public class ContractResource implements InitializingBean {
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "success")
     })
-    public RpcClientResult imputedGasCallContract(@ApiParam(name = "imputedGasCallForm", value = "估算调用智能合约的Gas消耗", required = true) ImputedGasContractCall call) {
+    public void imputedGasCallContract(@Suspended AsyncResponse asyncResponse, @ApiParam(name = "imputedGasCallForm", value = "估算调用智能合约的Gas消耗", required = true) ImputedGasContractCall call) {
+        RpcExecutors.submit(RpcTaskGroup.CONTRACT, resourceInfo, asyncResponse, () -> doImputedGasCallContract(call));
+    }
+
+    private RpcClientResult doImputedGasCallContract(ImputedGasContractCall call) {
         try {
 
             Map<String, Object> resultMap = MapUtil.createHashMap(1);
@@ -1475,7 +1496,8 @@ public class ContractResource implements InitializingBean {
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "success", response = ContractTransactionInfoDto.class)
     })
-    public RpcClientResult getTxList(
+    public void getTxList(
+            @Suspended AsyncResponse asyncResponse,
             @ApiParam(name="contractAddress", value="智能合约地址", required = true)
             @PathParam("contractAddress") String contractAddress,
             @ApiParam(name = "pageNumber", value = "页码", required = true)
@@ -1484,6 +1506,10 @@ public class ContractResource implements InitializingBean {
             @QueryParam("pageSize") Integer pageSize,
             @ApiParam(name = "accountAddress", value = "钱包账户地址")
             @QueryParam("accountAddress") String accountAddress) {
+        RpcExecutors.submit(RpcTaskGroup.LEDGER, resourceInfo, asyncResponse, () -> doGetTxList(contractAddress, pageNumber, pageSize, accountAddress));
+    }
+
+    private RpcClientResult doGetTxList(String contractAddress, Integer pageNumber, Integer pageSize, String accountAddress) {
         try {
             if (null == pageNumber || pageNumber == 0) {
                 pageNumber = 1;
@@ -1698,6 +1724,70 @@ public class ContractResource implements InitializingBean {
         }
     }
 
+    @GET
+    @Path("/token/transfer/list/{address}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "分页获取账户的NRC20 token转账记录，按区块高度从新到旧排列，未确认的在最前")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "success", response = ContractTokenTransferPageDto.class)
+    })
+    public RpcClientResult getTokenTransferList(
+            @ApiParam(name = "address", value = "钱包账户地址", required = true)
+            @PathParam("address") String address,
+            @ApiParam(name = "cursor", value = "上一页返回的游标，获取第一页时为空", required = false)
+            @QueryParam("cursor") String cursor,
+            @ApiParam(name = "pageSize", value = "每页条数", required = false)
+            @QueryParam("pageSize") Integer pageSize) {
+        try {
+            if (null == pageSize || pageSize == 0) {
+                pageSize = 10;
+            }
+            if (pageSize < 0 || pageSize > 100) {
+                return Result.getFailed(KernelErrorCode.PARAMETER_ERROR).toRpcClientResult();
+            }
+
+            if (StringUtils.isBlank(address)) {
+                return Result.getFailed(LedgerErrorCode.NULL_PARAMETER).toRpcClientResult();
+            }
+
+            Result<Account> accountResult = accountService.getAccount(address);
+            if (accountResult.isFailed()) {
+                return accountResult.toRpcClientResult();
+            }
+            byte[] addressBytes = AddressTool.getAddress(address);
+
+            byte[] cursorBytes = null;
+            if (StringUtils.isNotBlank(cursor)) {
+                cursorBytes = Hex.decode(cursor);
+                if (cursorBytes.length <= addressBytes.length
+                        || !Arrays.equals(addressBytes, Arrays.copyOf(cursorBytes, addressBytes.length))) {
+                    return Result.getFailed(KernelErrorCode.PARAMETER_ERROR).toRpcClientResult();
+                }
+            }
+
+            // 多取一条用于判断是否还有下一页
+            List<Entry<byte[], ContractTokenTransferInfoPo>> entryList =
+                    contractTokenTransferStorageService.getTokenTransferInfoListByAddress(addressBytes, cursorBytes, pageSize + 1);
+            String nextCursor = null;
+            if (entryList.size() > pageSize) {
+                entryList = entryList.subList(0, pageSize);
+                nextCursor = Hex.encode(entryList.get(pageSize - 1).getKey());
+            }
+            List<ContractTokenTransferInfoDto> transferList = new ArrayList<>();
+            for (Entry<byte[], ContractTokenTransferInfoPo> entry : entryList) {
+                transferList.add(new ContractTokenTransferInfoDto(entry.getValue(), addressBytes));
+            }
+
+            Result result = Result.getSuccess();
+            result.setData(new ContractTokenTransferPageDto(transferList, nextCursor));
+            return result.toRpcClientResult();
+        } catch (Exception e) {
+            Log.error(e);
+            Result result = Result.getFailed(LedgerErrorCode.SYS_UNKOWN_EXCEPTION);
+            return result.toRpcClientResult();
+        }
+    }
+
     @POST
     @Path("/collection")
     @Produces(MediaType.APPLICATION_JSON)
@@ -41,4 +41,14 @@ public interface ContractStorageConstant {
     String DB_NAME_CONTRACT_COLLECTION = "contract_collection";
 
     String DB_NAME_CONTRACT_NRC20_TOKEN_TRANSFER = "contract_nrc20_token_transfer";
+
+    /**
+     * token转账按地址和区块高度排列的索引，与转账记录存放在同一个area中，key为 索引前缀 + 地址 + 倒序高度 + 交易hash + 序号，
+     * value为转账记录的key
+     * Index of token transfers ordered by address and block height, stored in the same area as the transfer records.
+     * The key is index prefix + address + reversed height + tx hash + index, and the value is the key of the transfer record.
+     */
+    String NRC20_TOKEN_TRANSFER_INDEX_PREFIX = "nrc20_token_transfer_index";
+    String NRC20_TOKEN_TRANSFER_INDEX_VERSION_KEY = "nrc20_token_transfer_index_version";
+    int NRC20_TOKEN_TRANSFER_INDEX_VERSION = 2;
 }
@@ -25,6 +25,7 @@
 package io.nuls.contract.storage.service;
 
 import io.nuls.contract.dto.ContractTokenTransferInfoPo;
+import io.nuls.db.model.Entry;
 import io.nuls.kernel.model.Result;
 
 import java.util.List;
@@ -45,4 +46,15 @@ public interface ContractTokenTransferStorageService {
     List<ContractTokenTransferInfoPo> getTokenTransferInfoListByAddress(byte[] address);
 
     List<ContractTokenTransferInfoPo> getTokenTransferInfoListByAddress(byte[] address, byte[] txHash);
+
+    /**
+     * 按区块高度从新到旧分页获取地址的token转账，未确认的转账排在最前
+     * Gets a page of the token transfers of the address from the newest block to the oldest, unconfirmed transfers first.
+     *
+     * @param address 账户地址/account address
+     * @param cursor  上一页最后一条的索引key，获取第一页时为null/index key of the last entry of the previous page, null for the first page
+     * @param size    每页条数/page size
+     * @return 索引key与转账记录，索引key可作为下一页的游标/index keys with the transfers, an index key is the cursor of the next page
+     */
+    List<Entry<byte[], ContractTokenTransferInfoPo>> getTokenTransferInfoListByAddress(byte[] address, byte[] cursor, int size);
 }
@@ -27,28 +27,53 @@ package io.nuls.contract.storage.service.impl;
 import io.nuls.contract.storage.constant.ContractStorageConstant;
 import io.nuls.contract.dto.ContractTokenTransferInfoPo;
 import io.nuls.contract.storage.service.ContractTokenTransferStorageService;
+import io.nuls.core.tools.array.ArraysTool;
+import io.nuls.core.tools.log.Log;
 import io.nuls.db.constant.DBErrorCode;
+import io.nuls.db.model.Entry;
+import io.nuls.db.service.BatchOperation;
 import io.nuls.db.service.DBService;
 import io.nuls.kernel.exception.NulsRuntimeException;
 import io.nuls.kernel.lite.annotation.Autowired;
 import io.nuls.kernel.lite.annotation.Component;
 import io.nuls.kernel.lite.core.bean.InitializingBean;
 import io.nuls.kernel.model.Address;
+import io.nuls.kernel.model.NulsDigestData;
 import io.nuls.kernel.model.Result;
+import io.nuls.kernel.utils.SerializeUtils;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
+ * 转账记录的key为 地址 + 交易hash + 序号，按地址或地址加交易hash查询时直接做前缀区间读取，
+ * 分页查询则使用按 地址 + 倒序高度 排列的索引。索引和记录在同一个area中，同一批次写入
+ * The key of a transfer record is address + tx hash + index, queries by address or by address and tx hash read
+ * the prefix range directly, and the paged query uses the index ordered by address + reversed height. The index
+ * lives in the same area as the records and is written in the same batch.
+ *
  * @desription:
  * @author: PierreLuo
  * @date: 2018/6/5
  */
 @Component
 public class ContractTokenTransferStorageServiceImpl implements ContractTokenTransferStorageService, InitializingBean {
+
+    private static final int HEIGHT_KEY_LENGTH = 8;
+
+    /**
+     * 前缀区间的结束key的填充长度，大于key中前缀之后的最大长度
+     * Padding length of the end key of a prefix range, longer than anything following the prefix in a key.
+     */
+    private static final int PREFIX_END_PADDING = 64;
+
     @Autowired
     private DBService dbService;
     private String area;
+    private byte[] indexPrefix;
+    private byte[] indexVersionKey;
 
     @Override
     public void afterPropertiesSet() {
@@ -57,78 +82,155 @@ public class ContractTokenTransferStorageServiceImpl implements ContractTokenTra
         if (result.isFailed() && !DBErrorCode.DB_AREA_EXIST.equals(result.getErrorCode())) {
             throw new NulsRuntimeException(result.getErrorCode());
         }
+        try {
+            indexPrefix = NulsDigestData.calcDigestData(ContractStorageConstant.NRC20_TOKEN_TRANSFER_INDEX_PREFIX.getBytes()).serialize();
+            indexVersionKey = NulsDigestData.calcDigestData(ContractStorageConstant.NRC20_TOKEN_TRANSFER_INDEX_VERSION_KEY.getBytes()).serialize();
+        } catch (IOException e) {
+            throw new NulsRuntimeException(e.getCause());
+        }
+        buildTransferIndex();
     }
 
-    @Override
-    public Result saveTokenTransferInfo(byte[] infoKey, ContractTokenTransferInfoPo infoPo) {
-        return dbService.putModel(this.area, infoKey, infoPo);
-    }
-
-    @Override
-    public List<ContractTokenTransferInfoPo> getTokenTransferInfoListByAddress(byte[] address) {
-        List<ContractTokenTransferInfoPo> infoPoList = new ArrayList<>();
-        List<byte[]> keyList = dbService.keyList(this.area);
-        if (keyList == null || keyList.isEmpty()) {
-            return infoPoList;
+    /**
+     * 为已有的转账记录建立索引，然后写入版本标记，中断后下次启动会重新建立
+     * Build the index of the existing transfer records, then write the version marker. An interrupted build is
+     * redone on the next start.
+     */
+    private void buildTransferIndex() {
+        byte[] version = dbService.get(this.area, indexVersionKey);
+        if (null != version && SerializeUtils.readInt32LE(version, 0) == ContractStorageConstant.NRC20_TOKEN_TRANSFER_INDEX_VERSION) {
+            return;
         }
-
-        ContractTokenTransferInfoPo tokenTransferInfoPo;
-        for (byte[] key : keyList) {
-            if (isAddressEquals(key, address)) {
-                tokenTransferInfoPo = dbService.getModel(this.area, key, ContractTokenTransferInfoPo.class);
-                infoPoList.add(tokenTransferInfoPo);
+        List<byte[]> keyList = dbService.keyList(this.area);
+        BatchOperation batch = dbService.createWriteBatch(this.area);
+        int count = 0;
+        if (keyList != null) {
+            for (byte[] key : keyList) {
+                if (isIndexKey(key) || Arrays.equals(key, indexVersionKey)) {
+                    continue;
+                }
+                ContractTokenTransferInfoPo infoPo = dbService.getModel(this.area, key, ContractTokenTransferInfoPo.class);
+                if (infoPo != null) {
+                    batch.put(indexKey(key, infoPo), key);
+                    count++;
+                }
             }
         }
-        return infoPoList;
+        Log.info("build nrc20 token transfer index, records: " + count);
+        batch.put(indexVersionKey, SerializeUtils.int32ToBytes(ContractStorageConstant.NRC20_TOKEN_TRANSFER_INDEX_VERSION));
+        Result result = batch.executeBatch();
+        if (result.isFailed()) {
+            throw new NulsRuntimeException(result.getErrorCode());
+        }
     }
 
-    private boolean isAddressEquals(byte[] key, byte[] address) {
-        int length = Address.ADDRESS_LENGTH;
-        for(int i = 0; i < length; i++) {
-            if(key[i] != address[i]) {
+    private boolean isIndexKey(byte[] key) {
+        if (key.length < indexPrefix.length) {
+            return false;
+        }
+        for (int i = 0; i < indexPrefix.length; i++) {
+            if (key[i] != indexPrefix[i]) {
                 return false;
             }
         }
         return true;
     }
 
+    /**
+     * 索引key: 索引前缀 + 地址 + 倒序高度 + 交易hash + 序号，未确认的转账高度部分为0，排在最前
+     * Index key: index prefix + address + reversed height + tx hash + index, the height part of an unconfirmed
+     * transfer is 0 so it comes first.
+     */
+    private byte[] indexKey(byte[] infoKey, ContractTokenTransferInfoPo infoPo) {
+        long height = infoPo.getBlockHeight();
+        long reversed = height < 0 ? 0 : Long.MAX_VALUE - height;
+        byte[] heightKey = new byte[HEIGHT_KEY_LENGTH];
+        for (int i = HEIGHT_KEY_LENGTH - 1; i >= 0; i--) {
+            heightKey[i] = (byte) (reversed & 0xFF);
+            reversed >>>= 8;
+        }
+        return ArraysTool.concatenate(
+                indexPrefix,
+                Arrays.copyOfRange(infoKey, 0, Address.ADDRESS_LENGTH),
+                heightKey,
+                Arrays.copyOfRange(infoKey, Address.ADDRESS_LENGTH, infoKey.length));
+    }
+
+    private static byte[] prefixEnd(byte[] prefix) {
+        byte[] padding = new byte[PREFIX_END_PADDING];
+        Arrays.fill(padding, (byte) 0xFF);
+        return ArraysTool.concatenate(prefix, padding);
+    }
+
+    @Override
+    public Result saveTokenTransferInfo(byte[] infoKey, ContractTokenTransferInfoPo infoPo) {
+        ContractTokenTransferInfoPo oldPo = dbService.getModel(this.area, infoKey, ContractTokenTransferInfoPo.class);
+        BatchOperation batch = dbService.createWriteBatch(this.area);
+        if (oldPo != null && oldPo.getBlockHeight() != infoPo.getBlockHeight()) {
+            batch.delete(indexKey(infoKey, oldPo));
+        }
+        batch.putModel(infoKey, infoPo);
+        batch.put(indexKey(infoKey, infoPo), infoKey);
+        return batch.executeBatch();
+    }
+
+    @Override
+    public List<ContractTokenTransferInfoPo> getTokenTransferInfoListByAddress(byte[] address) {
+        return getTokenTransferInfoListByPrefix(address);
+    }
+
     @Override
     public List<ContractTokenTransferInfoPo> getTokenTransferInfoListByAddress(byte[] address, byte[] txHash) {
+        return getTokenTransferInfoListByPrefix(ArraysTool.concatenate(address, txHash));
+    }
+
+    private List<ContractTokenTransferInfoPo> getTokenTransferInfoListByPrefix(byte[] prefix) {
         List<ContractTokenTransferInfoPo> infoPoList = new ArrayList<>();
-        List<byte[]> keyList = dbService.keyList(this.area);
-        if (keyList == null || keyList.isEmpty()) {
+        List<Entry<byte[], ContractTokenTransferInfoPo>> entryList = dbService.entryList(this.area, prefix, prefixEnd(prefix), ContractTokenTransferInfoPo.class);
+        if (entryList == null || entryList.isEmpty()) {
             return infoPoList;
         }
-
-        ContractTokenTransferInfoPo tokenTransferInfoPo;
-        for (byte[] key : keyList) {
-            if (isAddressAndHashEquals(key, address, txHash)) {
-                tokenTransferInfoPo = dbService.getModel(this.area, key, ContractTokenTransferInfoPo.class);
-                infoPoList.add(tokenTransferInfoPo);
-            }
+        for (Entry<byte[], ContractTokenTransferInfoPo> entry : entryList) {
+            infoPoList.add(entry.getValue());
         }
         return infoPoList;
     }
 
-    private boolean isAddressAndHashEquals(byte[] key, byte[] address, byte[] txHash) {
-        int length = Address.ADDRESS_LENGTH + txHash.length;
-        for(int i = 0, k = 0; i < length; i++) {
-            if(i < Address.ADDRESS_LENGTH) {
-                if(key[i] != address[i]) {
-                    return false;
-                }
-            } else {
-                if(key[i] != txHash[k++]) {
-                    return false;
-                }
+    @Override
+    public List<Entry<byte[], ContractTokenTransferInfoPo>> getTokenTransferInfoListByAddress(byte[] address, byte[] cursor, int size) {
+        List<Entry<byte[], ContractTokenTransferInfoPo>> infoList = new ArrayList<>();
+        // 游标是去掉索引前缀的索引key
+        byte[] startKey;
+        if (cursor == null) {
+            startKey = ArraysTool.concatenate(indexPrefix, address);
+        } else {
+            // 游标之后的第一个key
+            startKey = ArraysTool.concatenate(indexPrefix, cursor, new byte[1]);
+        }
+        List<Entry<byte[], byte[]>> indexList = dbService.entryList(this.area, startKey, prefixEnd(ArraysTool.concatenate(indexPrefix, address)), size);
+        if (indexList == null || indexList.isEmpty()) {
+            return infoList;
+        }
+        ContractTokenTransferInfoPo tokenTransferInfoPo;
+        for (Entry<byte[], byte[]> index : indexList) {
+            tokenTransferInfoPo = dbService.getModel(this.area, index.getValue(), ContractTokenTransferInfoPo.class);
+            if (tokenTransferInfoPo != null) {
+                byte[] indexKey = index.getKey();
+                infoList.add(new Entry<>(Arrays.copyOfRange(indexKey, indexPrefix.length, indexKey.length), tokenTransferInfoPo));
             }
         }
-        return true;
+        return infoList;
     }
 
     @Override
     public Result deleteTokenTransferInfo(byte[] infoKey) {
-        return dbService.delete(this.area, infoKey);
+        ContractTokenTransferInfoPo tokenTransferInfoPo = dbService.getModel(this.area, infoKey, ContractTokenTransferInfoPo.class);
+        BatchOperation batch = dbService.createWriteBatch(this.area);
+        if (tokenTransferInfoPo != null) {
+            batch.delete(indexKey(infoKey, tokenTransferInfoPo));
+        }
+        batch.delete(infoKey);
+        return batch.executeBatch();
     }
 
     @Override
@@ -23,6 +23,8 @@
  */
 package io.nuls.contract.helper;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.nuls.account.service.AccountService;
 import io.nuls.contract.constant.ContractConstant;
 import io.nuls.contract.constant.ContractErrorCode;
@@ -44,6 +46,7 @@ import io.nuls.core.tools.log.Log;
 import io.nuls.core.tools.map.MapUtil;
 import io.nuls.core.tools.str.StringUtils;
 import io.nuls.db.service.DBService;
+import io.nuls.kernel.cfg.NulsConfig;
 import io.nuls.kernel.context.NulsContext;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.lite.annotation.Autowired;
@@ -54,12 +57,16 @@ import io.nuls.kernel.model.Result;
 import io.nuls.kernel.model.Transaction;
 import io.nuls.kernel.utils.AddressTool;
 import io.nuls.kernel.utils.VarInt;
+import org.ethereum.config.CommonConfig;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import static io.nuls.contract.constant.ContractConstant.*;
 
@@ -86,9 +93,29 @@ public class VMHelper implements InitializingBean {
     private static final BigInteger MAXIMUM_DECIMALS = BigInteger.valueOf(18L);
     private static final BigInteger MAXIMUM_TOTAL_SUPPLY = BigInteger.valueOf(2L).pow(256).subtract(BigInteger.ONE);
 
+    /**
+     * 每个RPC线程基于当前状态根预热的执行器，状态根不变时复用其中已读取的数据
+     */
+    private final ThreadLocal<ViewExecutor> localViewExecutor = new ThreadLocal<>();
+
+    /**
+     * 只读调用结果缓存，键中包含状态根和区块高度，状态根变化后旧的结果自然失效
+     */
+    private final Cache<ViewCallKey, ProgramResult> viewResultCache = CacheBuilder.newBuilder()
+            .maximumSize(VIEW_CALL_CACHE_SIZE)
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .build();
+
     @Override
     public void afterPropertiesSet() throws NulsException {
-        programExecutor = new ProgramExecutorImpl(vmContext, dbService);
+        int stateCacheSize = DEFAULT_STATE_CACHE_SIZE;
+        boolean heapStateCache = DEFAULT_HEAP_STATE_CACHE;
+        if (null != NulsConfig.MODULES_CONFIG) {
+            stateCacheSize = NulsConfig.MODULES_CONFIG.getCfgValue(CFG_CONTRACT_SECTION, CFG_CONTRACT_STATE_CACHE_SIZE, stateCacheSize);
+            heapStateCache = NulsConfig.MODULES_CONFIG.getCfgValue(CFG_CONTRACT_SECTION, CFG_CONTRACT_HEAP_STATE_CACHE, heapStateCache);
+        }
+        programExecutor = new ProgramExecutorImpl(vmContext, dbService, heapStateCache);
+        CommonConfig.getDefault().stateSource().setReadCacheSize(Math.max(1, stateCacheSize) * 1024L * 1024L);
     }
 
     public ProgramExecutor getProgramExecutor() {
@@ -178,7 +205,7 @@ public class VMHelper implements InitializingBean {
         // 当前区块状态根
         byte[] currentStateRoot = ContractUtil.getStateRoot(blockHeader);
 
-        return this.invokeViewMethod(null, false, currentStateRoot, blockHeight, contractAddressBytes, methodName, methodDesc, args);
+        return this.invokeCachedViewMethod(false, currentStateRoot, blockHeight, contractAddressBytes, methodName, methodDesc, args);
     }
 
     public ProgramResult invokeCustomGasViewMethod(byte[] contractAddressBytes, String methodName, String methodDesc, String[][] args) {
@@ -188,7 +215,7 @@ public class VMHelper implements InitializingBean {
         // 当前区块状态根
         byte[] currentStateRoot = ContractUtil.getStateRoot(blockHeader);
 
-        return this.invokeViewMethod(null, true, currentStateRoot, blockHeight, contractAddressBytes, methodName, methodDesc, args);
+        return this.invokeCachedViewMethod(true, currentStateRoot, blockHeight, contractAddressBytes, methodName, methodDesc, args);
     }
 
     private ProgramResult invokeViewMethod(ProgramExecutor executor, byte[] stateRoot, long blockHeight, byte[] contractAddressBytes, String methodName, String methodDesc, Object... args) {
@@ -199,8 +226,38 @@ public class VMHelper implements InitializingBean {
         return this.invokeViewMethod(null, false, stateRoot, blockHeight, contractAddressBytes, methodName, methodDesc, args);
     }
 
+    /**
+     * 在调用线程上直接执行，区块处理等内部调用使用，不经过只读调用线程池和结果缓存
+     */
     public ProgramResult invokeViewMethod(ProgramExecutor executor, boolean customGasLimit, byte[] stateRoot, long blockHeight, byte[] contractAddressBytes, String methodName, String methodDesc, String[][] args) {
+        ProgramCall programCall = this.newViewCall(customGasLimit, blockHeight, contractAddressBytes, methodName, methodDesc, args);
+        ProgramExecutor track;
+        if(executor == null) {
+            track = programExecutor.begin(stateRoot);
+        } else {
+            track = executor.startTracking();
+        }
+        return track.call(programCall);
+    }
 
+    /**
+     * RPC入口使用，RPC线程池(contract任务组)已经限制了并发，这里在调用线程上执行，结果按状态根缓存，返回的是缓存结果的副本
+     */
+    private ProgramResult invokeCachedViewMethod(boolean customGasLimit, byte[] stateRoot, long blockHeight, byte[] contractAddressBytes, String methodName, String methodDesc, String[][] args) {
+        ProgramCall programCall = this.newViewCall(customGasLimit, blockHeight, contractAddressBytes, methodName, methodDesc, args);
+        ViewCallKey key = new ViewCallKey(stateRoot, programCall);
+        ProgramResult programResult = viewResultCache.getIfPresent(key);
+        if(programResult != null) {
+            return programResult.copy();
+        }
+        programResult = this.callView(stateRoot, programCall);
+        if(programResult.isSuccess()) {
+            viewResultCache.put(key, programResult.copy());
+        }
+        return programResult;
+    }
+
+    private ProgramCall newViewCall(boolean customGasLimit, long blockHeight, byte[] contractAddressBytes, String methodName, String methodDesc, String[][] args) {
         long gasLimit;
         if(customGasLimit) {
             gasLimit = vmContext.getCustomMaxViewGasLimit();
@@ -217,16 +274,19 @@ public class VMHelper implements InitializingBean {
         programCall.setMethodDesc(methodDesc);
         programCall.setArgs(args);
         programCall.setViewMethod(customGasLimit);
+        return programCall;
+    }
 
-        ProgramExecutor track;
-        if(executor == null) {
-            track = programExecutor.begin(stateRoot);
-        } else {
-            track = executor.startTracking();
+    /**
+     * 状态根不变时复用当前线程预热的执行器，执行结果不会被提交
+     */
+    private ProgramResult callView(byte[] stateRoot, ProgramCall programCall) {
+        ViewExecutor viewExecutor = localViewExecutor.get();
+        if(viewExecutor == null || !viewExecutor.isReusable(stateRoot)) {
+            viewExecutor = new ViewExecutor(stateRoot, programExecutor.begin(stateRoot));
+            localViewExecutor.set(viewExecutor);
         }
-        ProgramResult programResult = track.call(programCall);
-
-        return programResult;
+        return viewExecutor.call(programCall);
     }
 
     public void updateLastedPriceForAccount(byte[] sender, long price) {
@@ -300,12 +360,18 @@ public class VMHelper implements InitializingBean {
                     tokenTransferInfoPo.setTxHash(txHashBytes);
                     tokenTransferInfoPo.setStatus((byte) (contractResult.isSuccess() ? 1 : 2));
 
+                    // 只有本地账户才缓存token余额, 非本地账户无需调用虚拟机查询余额
+                    // Only local accounts keep a token balance cache, skip the balanceOf vm call for the others
                     if(from != null) {
-                        this.refreshTokenBalance(newestStateRoot, contractAddressInfo, AddressTool.getStringAddressByBytes(from), contractAddress);
+                        if(accountService.getLocalAccount(from) != null) {
+                            this.refreshTokenBalance(newestStateRoot, contractAddressInfo, AddressTool.getStringAddressByBytes(from), contractAddress);
+                        }
                         this.saveTokenTransferInfo(from, txHashBytes, new VarInt(i).encode(), tokenTransferInfoPo);
                     }
                     if(to != null) {
-                        this.refreshTokenBalance(newestStateRoot, contractAddressInfo, AddressTool.getStringAddressByBytes(to), contractAddress);
+                        if(accountService.getLocalAccount(to) != null) {
+                            this.refreshTokenBalance(newestStateRoot, contractAddressInfo, AddressTool.getStringAddressByBytes(to), contractAddress);
+                        }
                         this.saveTokenTransferInfo(to, txHashBytes, new VarInt(i).encode(), tokenTransferInfoPo);
                     }
                 }
@@ -384,6 +450,87 @@ public class VMHelper implements InitializingBean {
         return false;
     }
 
+    private static class ViewExecutor {
+
+        private final byte[] stateRoot;
+
+        private final ProgramExecutor executor;
+
+        private int calls;
+
+        ViewExecutor(byte[] stateRoot, ProgramExecutor executor) {
+            this.stateRoot = stateRoot;
+            this.executor = executor;
+        }
+
+        /**
+         * 调用次数达到上限后重建，避免已读取的数据无限增长
+         */
+        boolean isReusable(byte[] stateRoot) {
+            return calls < VIEW_EXECUTOR_MAX_CALLS && Arrays.equals(this.stateRoot, stateRoot);
+        }
+
+        ProgramResult call(ProgramCall programCall) {
+            calls++;
+            return executor.startTracking().call(programCall);
+        }
+    }
+
+    private static class ViewCallKey {
+
+        private final byte[] stateRoot;
+        private final long number;
+        private final byte[] contractAddress;
+        private final String methodName;
+        private final String methodDesc;
+        private final String[][] args;
+        private final long gasLimit;
+        private final boolean viewMethod;
+        private final int hashCode;
+
+        ViewCallKey(byte[] stateRoot, ProgramCall programCall) {
+            this.stateRoot = stateRoot;
+            this.number = programCall.getNumber();
+            this.contractAddress = programCall.getContractAddress();
+            this.methodName = programCall.getMethodName();
+            this.methodDesc = programCall.getMethodDesc();
+            this.args = programCall.getArgs();
+            this.gasLimit = programCall.getGasLimit();
+            this.viewMethod = programCall.isViewMethod();
+            int result = Arrays.hashCode(stateRoot);
+            result = 31 * result + Long.hashCode(number);
+            result = 31 * result + Arrays.hashCode(contractAddress);
+            result = 31 * result + (methodName == null ? 0 : methodName.hashCode());
+            result = 31 * result + (methodDesc == null ? 0 : methodDesc.hashCode());
+            result = 31 * result + Arrays.deepHashCode(args);
+            this.hashCode = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ViewCallKey)) {
+                return false;
+            }
+            ViewCallKey that = (ViewCallKey) o;
+            return number == that.number
+                    && gasLimit == that.gasLimit
+                    && viewMethod == that.viewMethod
+                    && Arrays.equals(stateRoot, that.stateRoot)
+                    && Arrays.equals(contractAddress, that.contractAddress)
+                    && Objects.equals(methodName, that.methodName)
+                    && Objects.equals(methodDesc, that.methodDesc)
+                    && Arrays.deepEquals(args, that.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
     public Result validateNrc20Contract(ProgramExecutor track, CreateContractTransaction tx, ContractResult contractResult) {
         if(contractResult == null) {
             return Result.getFailed(ContractErrorCode.NULL_PARAMETER);
@@ -68,9 +68,18 @@ public class Frame {
         this.currentInsnNode = this.methodCode.instructions.getFirst();
     }
 
+    /**
+     * 前进到下一条真实指令，标签、行号和栈帧等伪指令不消耗gas，直接跳过
+     * Advance to the next real instruction, pseudo nodes (labels, line numbers, frames) cost no gas and are skipped
+     */
     public void step() {
-        if (this.currentInsnNode != null) {
-            this.currentInsnNode = this.currentInsnNode.getNext();
+        AbstractInsnNode insnNode = this.currentInsnNode;
+        if (insnNode != null) {
+            insnNode = insnNode.getNext();
+            while (insnNode != null && insnNode.getOpcode() < 0) {
+                insnNode = insnNode.getNext();
+            }
+            this.currentInsnNode = insnNode;
         }
     }
 
@@ -66,6 +66,15 @@ public class Heap {
 
     private BigInteger objectRefCount;
 
+    private HeapStateCache stateCache;
+
+    /**
+     * 从缓存中取得、尚未复制的对象和数组块，修改前需要先复制
+     */
+    private final Set<ObjectRef> sharedObjects = new HashSet<>();
+
+    private final Set<String> sharedArrays = new HashSet<>();
+
     private static final DataWord OBJECT_REF_COUNT = new DataWord("objectRefCount");
 
     public Heap(BigInteger objectRefCount) {
@@ -76,6 +85,10 @@ public class Heap {
         this.vm = vm;
     }
 
+    public void setStateCache(HeapStateCache stateCache) {
+        this.stateCache = stateCache;
+    }
+
     public void loadClassCodes(Map<String, ClassCode> classCodes) {
         if (classCodes != null) {
             int i = 0;
@@ -93,6 +106,7 @@ public class Heap {
         }
         ObjectRef objectRef = new ObjectRef(ref, desc, dimensions);
         objects.put(objectRef, new LinkedHashMap<>());
+        sharedObjects.remove(objectRef);
         change(objectRef);
         return objectRef;
     }
@@ -142,6 +156,7 @@ public class Heap {
 
     public void putFields(ObjectRef objectRef, Map<String, Object> fields) {
         objects.put(objectRef, fields);
+        sharedObjects.remove(objectRef);
         change(objectRef);
     }
 
@@ -159,6 +174,10 @@ public class Heap {
                 }
             }
         }
+        if (fields != null && sharedObjects.remove(objectRef)) {
+            fields = CloneUtils.clone(fields);
+            objects.put(objectRef, fields);
+        }
         return fields;
     }
 
@@ -172,7 +191,17 @@ public class Heap {
             return null;
         }
         byte[] value = dataWord.getNoLeadZeroesData();
-        Map<String, Object> map = (Map<String, Object>) JsonUtils.decode(new String(value), classNames);
+        Map<String, Object> map;
+        if (stateCache != null) {
+            map = (Map<String, Object>) stateCache.get(this.address, key, value);
+            if (map == null) {
+                map = (Map<String, Object>) JsonUtils.decode(new String(value), classNames);
+                stateCache.put(this.address, key, value, map);
+            }
+            sharedObjects.add(objectRef);
+        } else {
+            map = (Map<String, Object>) JsonUtils.decode(new String(value), classNames);
+        }
         return map;
     }
 
@@ -234,6 +263,9 @@ public class Heap {
                 object = CloneUtils.cloneObject(object);
                 arrays.put(arrayKey, object);
             }
+        } else if (sharedArrays.remove(arrayKey)) {
+            object = CloneUtils.cloneObject(object);
+            arrays.put(arrayKey, object);
         }
         return object;
     }
@@ -252,6 +284,9 @@ public class Heap {
             value = getArrayChunkFromState(arrayRef, arrayKey);
             if (value != null) {
                 arrays.put(arrayKey, value);
+                if (write) {
+                    putArrayInit(arrayRef, chunkNum);
+                }
             }
         }
         if (value == null) {
@@ -287,7 +322,17 @@ public class Heap {
         if (!arrayRef.getVariableType().getComponentType().isPrimitive()) {
             clazz = ObjectRef.class;
         }
-        Object object = JsonUtils.decodeArray(new String(value), clazz, classNames);
+        Object object;
+        if (stateCache != null) {
+            object = stateCache.get(this.address, arrayKey, value);
+            if (object == null) {
+                object = JsonUtils.decodeArray(new String(value), clazz, classNames);
+                stateCache.put(this.address, arrayKey, value, object);
+            }
+            sharedArrays.add(arrayKey);
+        } else {
+            object = JsonUtils.decodeArray(new String(value), clazz, classNames);
+        }
         return object;
     }
 
@@ -579,6 +624,10 @@ public class Heap {
                         continue;
                     }
                     String arrayKey = objectRef.getRef() + "_" + k;
+                    // 未被修改的数组块与存储中的值相同，不需要重新编码
+                    if (sharedArrays.contains(arrayKey)) {
+                        continue;
+                    }
                     Object object = getArrayInit(objectRef, i);
                     if (object != null) {
                         Class clazz = objectRef.getVariableType().getPrimitiveTypeClass();
@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.contract.vm;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 合约状态解码结果的缓存，在同一个批量执行器(一个区块)的所有调用之间共享
+ * 缓存以存储中的原始值校验，值变化后旧的结果不会被命中；缓存的对象不能被修改，写入前由Heap复制
+ * Cache of decoded contract state shared by all calls of one batch executor (one block).
+ * Entries are checked against the raw stored value, and cached objects are never mutated:
+ * the heap copies them before the first write.
+ */
+public class HeapStateCache {
+
+    private static final int MAX_ENTRIES = 16384;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public Object get(byte[] address, String key, byte[] value) {
+        Entry entry = entries.get(new Key(address, key));
+        if (entry == null || !Arrays.equals(entry.value, value)) {
+            return null;
+        }
+        return entry.decoded;
+    }
+
+    public void put(byte[] address, String key, byte[] value, Object decoded) {
+        entries.put(new Key(address, key), new Entry(value, decoded));
+    }
+
+    private static class Key {
+
+        private final byte[] address;
+
+        private final String key;
+
+        private final int hashCode;
+
+        Key(byte[] address, String key) {
+            this.address = address;
+            this.key = key;
+            this.hashCode = 31 * Arrays.hashCode(address) + key.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return key.equals(that.key) && Arrays.equals(address, that.address);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static class Entry {
+
+        private final byte[] value;
+
+        private final Object decoded;
+
+        Entry(byte[] value, Object decoded) {
+            this.value = value;
+            this.decoded = decoded;
+        }
+    }
+
+}
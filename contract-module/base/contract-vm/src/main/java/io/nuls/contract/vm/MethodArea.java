@@ -64,6 +64,10 @@ public class MethodArea {
         } else {
             fullName = className + "." + methodName;
         }
+        return loadMethod(className, methodName, methodDesc, fullName);
+    }
+
+    public MethodCode loadMethod(String className, String methodName, String methodDesc, String fullName) {
         MethodCode methodCode = INIT_METHOD_CODES.get(fullName);
         if (methodCode != null) {
             return methodCode;
@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.contract.vm.code;
+
+import io.nuls.contract.vm.MethodArea;
+import org.objectweb.asm.tree.MethodInsnNode;
+
+import java.util.List;
+import java.util.Objects;
+
+import static io.nuls.contract.vm.MethodArea.INIT_METHOD_CODES;
+
+/**
+ * 方法调用点的预解码形式，在方法加载时构建一次，
+ * 缓存描述符解析结果、方法全名以及最近一次解析到的预加载方法。
+ * <p>
+ * Pre-decoded form of a method invocation instruction. It is built once when the
+ * owning method is loaded and caches the parsed descriptor, the method full name and
+ * the last resolved preloaded target, so that an invoke no longer re-parses or
+ * re-concatenates strings on every execution.
+ */
+public class InvokeSite {
+
+    public final String owner;
+
+    public final String name;
+
+    public final String desc;
+
+    public final List<VariableType> argsVariableType;
+
+    private final String nameDesc;
+
+    /**
+     * 单态内联缓存，只缓存来自预加载类的方法，因为它们的解析没有副作用
+     * Monomorphic inline cache, only holds methods of preloaded classes whose lookup has no side effects
+     */
+    private volatile Target target;
+
+    public InvokeSite(MethodInsnNode methodInsnNode) {
+        this.owner = methodInsnNode.owner;
+        this.name = methodInsnNode.name;
+        this.desc = methodInsnNode.desc;
+        this.argsVariableType = VariableType.parseArgs(desc);
+        this.nameDesc = "." + name + desc;
+    }
+
+    public MethodCode loadMethod(MethodArea methodArea) {
+        return loadMethod(methodArea, owner);
+    }
+
+    public MethodCode loadMethod(MethodArea methodArea, String className) {
+        Target target = this.target;
+        if (target == null || !Objects.equals(target.className, className)) {
+            target = new Target(className, className + nameDesc, null);
+            this.target = target;
+        }
+        if (target.methodCode != null) {
+            return target.methodCode;
+        }
+        MethodCode methodCode = INIT_METHOD_CODES.get(target.fullName);
+        if (methodCode != null) {
+            this.target = new Target(className, target.fullName, methodCode);
+            return methodCode;
+        }
+        return methodArea.loadMethod(className, name, desc, target.fullName);
+    }
+
+    private static class Target {
+
+        private final String className;
+
+        private final String fullName;
+
+        private final MethodCode methodCode;
+
+        private Target(String className, String fullName, MethodCode methodCode) {
+            this.className = className;
+            this.fullName = fullName;
+            this.methodCode = methodCode;
+        }
+
+    }
+
+}
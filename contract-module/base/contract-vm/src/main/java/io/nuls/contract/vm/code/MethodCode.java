@@ -35,7 +35,9 @@ import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static io.nuls.contract.vm.util.Utils.arrayListInitialCapacity;
 
@@ -215,6 +217,12 @@ public class MethodCode {
 
     public final String normalDesc;
 
+    /**
+     * 预解码的方法调用点
+     * Pre-decoded invocation sites of this method
+     */
+    private final Map<MethodInsnNode, InvokeSite> invokeSites;
+
     public MethodCode(ClassCode classCode, MethodNode methodNode) {
         access = methodNode.access;
         name = methodNode.name;
@@ -256,6 +264,13 @@ public class MethodCode {
         returnVariableType = variableTypes.get(last);
         argsVariableType = variableTypes.subList(0, last);
 
+        invokeSites = new IdentityHashMap<>();
+        for (AbstractInsnNode insnNode = instructions.getFirst(); insnNode != null; insnNode = insnNode.getNext()) {
+            if (insnNode instanceof MethodInsnNode) {
+                invokeSites.put((MethodInsnNode) insnNode, new InvokeSite((MethodInsnNode) insnNode));
+            }
+        }
+
         final List<LocalVariableNode> localVariableNodes = ListUtils.emptyIfNull(methodNode.localVariables);
         localVariables = new ArrayList<>(arrayListInitialCapacity(localVariableNodes.size()));
         for (LocalVariableNode localVariableNode : localVariableNodes) {
@@ -312,6 +327,14 @@ public class MethodCode {
 //        }
     }
 
+    public InvokeSite invokeSite(MethodInsnNode methodInsnNode) {
+        InvokeSite invokeSite = invokeSites.get(methodInsnNode);
+        if (invokeSite == null) {
+            invokeSite = new InvokeSite(methodInsnNode);
+        }
+        return invokeSite;
+    }
+
     public boolean hasViewAnnotation() {
         return hasAnnotation(VIEW_ANNOTATION_DESC);
     }
@@ -27,23 +27,16 @@ package io.nuls.contract.vm.instructions.references;
 import io.nuls.contract.vm.Frame;
 import io.nuls.contract.vm.MethodArgs;
 import io.nuls.contract.vm.ObjectRef;
+import io.nuls.contract.vm.code.InvokeSite;
 import io.nuls.contract.vm.code.MethodCode;
-import io.nuls.contract.vm.code.VariableType;
 import io.nuls.contract.vm.util.Log;
-import org.objectweb.asm.tree.MethodInsnNode;
-
-import java.util.List;
 
 public class Invokeinterface {
 
     public static void invokeinterface(Frame frame) {
-        MethodInsnNode methodInsnNode = frame.methodInsnNode();
-        String interfaceName = methodInsnNode.owner;
-        String interfaceMethodName = methodInsnNode.name;
-        String interfaceMethodDesc = methodInsnNode.desc;
+        InvokeSite invokeSite = frame.methodCode.invokeSite(frame.methodInsnNode());
 
-        List<VariableType> variableTypes = VariableType.parseArgs(interfaceMethodDesc);
-        MethodArgs methodArgs = new MethodArgs(variableTypes, frame.operandStack, false);
+        MethodArgs methodArgs = new MethodArgs(invokeSite.argsVariableType, frame.operandStack, false);
         ObjectRef objectRef = methodArgs.objectRef;
         if (objectRef == null) {
             frame.throwNullPointerException();
@@ -51,9 +44,9 @@ public class Invokeinterface {
         }
 
         String className = objectRef.getVariableType().getType();
-        MethodCode methodCode = frame.methodArea.loadMethod(className, interfaceMethodName, interfaceMethodDesc);
+        MethodCode methodCode = invokeSite.loadMethod(frame.methodArea, className);
 
-        //Log.opcode(frame.getCurrentOpCode(), className, interfaceMethodName, interfaceMethodDesc);
+        //Log.opcode(frame.getCurrentOpCode(), className, invokeSite.name, invokeSite.desc);
 
         frame.vm.run(methodCode, methodArgs.frameArgs, true);
     }
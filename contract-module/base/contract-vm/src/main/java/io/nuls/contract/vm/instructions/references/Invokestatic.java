@@ -27,20 +27,17 @@ package io.nuls.contract.vm.instructions.references;
 import io.nuls.contract.vm.Frame;
 import io.nuls.contract.vm.MethodArgs;
 import io.nuls.contract.vm.Result;
+import io.nuls.contract.vm.code.InvokeSite;
 import io.nuls.contract.vm.code.MethodCode;
 import io.nuls.contract.vm.natives.NativeMethod;
 import io.nuls.contract.vm.util.Log;
-import org.objectweb.asm.tree.MethodInsnNode;
 
 public class Invokestatic {
 
     public static void invokestatic(Frame frame) {
-        MethodInsnNode methodInsnNode = frame.methodInsnNode();
-        String className = methodInsnNode.owner;
-        String methodName = methodInsnNode.name;
-        String methodDesc = methodInsnNode.desc;
+        InvokeSite invokeSite = frame.methodCode.invokeSite(frame.methodInsnNode());
 
-        MethodCode methodCode = frame.methodArea.loadMethod(className, methodName, methodDesc);
+        MethodCode methodCode = invokeSite.loadMethod(frame.methodArea);
 
         MethodArgs methodArgs = new MethodArgs(methodCode.argsVariableType, frame.operandStack, true);
 
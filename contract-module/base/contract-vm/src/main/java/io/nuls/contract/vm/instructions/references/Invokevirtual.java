@@ -28,26 +28,21 @@ import io.nuls.contract.vm.Frame;
 import io.nuls.contract.vm.MethodArgs;
 import io.nuls.contract.vm.ObjectRef;
 import io.nuls.contract.vm.Result;
+import io.nuls.contract.vm.code.InvokeSite;
 import io.nuls.contract.vm.code.MethodCode;
-import io.nuls.contract.vm.code.VariableType;
 import io.nuls.contract.vm.natives.NativeMethod;
 import io.nuls.contract.vm.util.Constants;
 import io.nuls.contract.vm.util.Log;
-import org.objectweb.asm.tree.MethodInsnNode;
 
-import java.util.List;
 import java.util.Objects;
 
 public class Invokevirtual {
 
     public static void invokevirtual(Frame frame) {
-        MethodInsnNode methodInsnNode = frame.methodInsnNode();
-        String className = methodInsnNode.owner;
-        String methodName = methodInsnNode.name;
-        String methodDesc = methodInsnNode.desc;
+        InvokeSite invokeSite = frame.methodCode.invokeSite(frame.methodInsnNode());
+        String className = invokeSite.owner;
 
-        List<VariableType> variableTypes = VariableType.parseArgs(methodDesc);
-        MethodArgs methodArgs = new MethodArgs(variableTypes, frame.operandStack, false);
+        MethodArgs methodArgs = new MethodArgs(invokeSite.argsVariableType, frame.operandStack, false);
         ObjectRef objectRef = methodArgs.objectRef;
         if (objectRef == null) {
             frame.throwNullPointerException();
@@ -68,9 +63,9 @@ public class Invokevirtual {
             className = Constants.OBJECT_CLASS_NAME;
         }
 
-        MethodCode methodCode = frame.methodArea.loadMethod(className, methodName, methodDesc);
+        MethodCode methodCode = invokeSite.loadMethod(frame.methodArea, className);
 
-        //Log.opcode(frame.getCurrentOpCode(), objectRef, methodName, methodDesc);
+        //Log.opcode(frame.getCurrentOpCode(), objectRef, invokeSite.name, invokeSite.desc);
 
         Result result = NativeMethod.run(methodCode, methodArgs, frame);
         if (result != null) {
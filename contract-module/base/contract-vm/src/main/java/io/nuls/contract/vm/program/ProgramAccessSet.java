@@ -0,0 +1,196 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.contract.vm.program;
+
+import org.ethereum.core.Repository;
+import org.ethereum.db.ByteArrayWrapper;
+import org.ethereum.vm.DataWord;
+
+import java.util.*;
+
+/**
+ * 合约执行的读写集合，用于区块内合约交易的并行预执行与冲突检测
+ * Read/write set of a contract execution, used to detect conflicts between
+ * transactions that were executed speculatively in parallel within one block.
+ */
+public class ProgramAccessSet {
+
+    /**
+     * 读取过的合约存储键
+     */
+    private final Map<ByteArrayWrapper, Set<DataWord>> storageReads = new HashMap<>();
+
+    /**
+     * 枚举过全部存储(键集合、存储大小)的合约地址，该合约的任何存储写入都构成冲突
+     */
+    private final Set<ByteArrayWrapper> storageScans = new HashSet<>();
+
+    /**
+     * 读取过账户结构(账户状态、代码、nonce)的合约地址
+     */
+    private final Set<ByteArrayWrapper> accountReads = new HashSet<>();
+
+    /**
+     * 读取过余额的合约地址
+     */
+    private final Set<ByteArrayWrapper> balanceReads = new HashSet<>();
+
+    /**
+     * 写入的合约存储，按写入顺序保存最后的值
+     */
+    private final Map<ByteArrayWrapper, Map<DataWord, DataWord>> storageWrites = new LinkedHashMap<>();
+
+    /**
+     * 合约nonce的递增次数，递增之间可交换顺序，不构成冲突
+     */
+    private final Map<ByteArrayWrapper, Integer> nonceIncrements = new LinkedHashMap<>();
+
+    /**
+     * 账户结构的写入(创建、保存代码、删除、设置nonce)
+     */
+    private final Set<ByteArrayWrapper> accountWrites = new HashSet<>();
+
+    /**
+     * 余额发生变化的合约地址
+     */
+    private final Set<ByteArrayWrapper> balanceWrites = new HashSet<>();
+
+    public void readStorage(byte[] address, DataWord key) {
+        ByteArrayWrapper wrapper = new ByteArrayWrapper(address);
+        accountReads.add(wrapper);
+        storageReads.computeIfAbsent(wrapper, k -> new HashSet<>()).add(key);
+    }
+
+    public void scanStorage(byte[] address) {
+        ByteArrayWrapper wrapper = new ByteArrayWrapper(address);
+        accountReads.add(wrapper);
+        storageScans.add(wrapper);
+    }
+
+    public void writeStorage(byte[] address, DataWord key, DataWord value) {
+        storageWrites.computeIfAbsent(new ByteArrayWrapper(address), k -> new LinkedHashMap<>()).put(key, value);
+    }
+
+    public void readAccount(byte[] address) {
+        accountReads.add(new ByteArrayWrapper(address));
+    }
+
+    public void writeAccount(byte[] address) {
+        accountWrites.add(new ByteArrayWrapper(address));
+    }
+
+    public void increaseNonce(byte[] address) {
+        nonceIncrements.merge(new ByteArrayWrapper(address), 1, Integer::sum);
+    }
+
+    public void readBalance(byte[] address) {
+        balanceReads.add(new ByteArrayWrapper(address));
+    }
+
+    public void writeBalance(byte[] address) {
+        balanceWrites.add(new ByteArrayWrapper(address));
+    }
+
+    /**
+     * 只包含存储写入和nonce递增的执行结果可以在另一个状态上重放
+     * Only storage rows and nonce increments can be replayed onto a different base state.
+     */
+    public boolean isReplayable() {
+        return accountWrites.isEmpty();
+    }
+
+    /**
+     * 执行被回滚时，写入不会被提交
+     */
+    public void discardWrites() {
+        storageWrites.clear();
+        nonceIncrements.clear();
+        accountWrites.clear();
+    }
+
+    /**
+     * 判断当前执行读取的数据是否被之前的交易修改过
+     * Whether anything this execution read has been written by {@code written}.
+     */
+    public boolean conflictsWith(ProgramAccessSet written) {
+        for (ByteArrayWrapper address : accountReads) {
+            if (written.accountWrites.contains(address)) {
+                return true;
+            }
+        }
+        for (ByteArrayWrapper address : balanceReads) {
+            if (written.balanceWrites.contains(address)) {
+                return true;
+            }
+        }
+        for (ByteArrayWrapper address : storageScans) {
+            if (written.storageWrites.containsKey(address)) {
+                return true;
+            }
+        }
+        for (Map.Entry<ByteArrayWrapper, Set<DataWord>> entry : storageReads.entrySet()) {
+            Map<DataWord, DataWord> rows = written.storageWrites.get(entry.getKey());
+            if (rows == null) {
+                continue;
+            }
+            for (DataWord key : entry.getValue()) {
+                if (rows.containsKey(key)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 把另一个执行的写入合并到当前集合，用于累计区块内已提交交易的写入
+     */
+    public void addWrites(ProgramAccessSet other) {
+        for (Map.Entry<ByteArrayWrapper, Map<DataWord, DataWord>> entry : other.storageWrites.entrySet()) {
+            storageWrites.computeIfAbsent(entry.getKey(), k -> new LinkedHashMap<>()).putAll(entry.getValue());
+        }
+        accountWrites.addAll(other.accountWrites);
+        balanceWrites.addAll(other.balanceWrites);
+    }
+
+    /**
+     * 在指定的仓库上重放写入，结果与串行执行一致
+     */
+    public void replayTo(Repository repository) {
+        for (Map.Entry<ByteArrayWrapper, Map<DataWord, DataWord>> entry : storageWrites.entrySet()) {
+            byte[] address = entry.getKey().getData();
+            for (Map.Entry<DataWord, DataWord> row : entry.getValue().entrySet()) {
+                repository.addStorageRow(address, row.getKey(), row.getValue());
+            }
+        }
+        for (Map.Entry<ByteArrayWrapper, Integer> entry : nonceIncrements.entrySet()) {
+            byte[] address = entry.getKey().getData();
+            for (int i = 0; i < entry.getValue(); i++) {
+                repository.increaseNonce(address);
+            }
+        }
+    }
+
+}
@@ -24,6 +24,7 @@
  */
 package io.nuls.contract.vm.program;
 
+import java.math.BigInteger;
 import java.util.List;
 
 public interface ProgramExecutor {
@@ -32,6 +33,23 @@ public interface ProgramExecutor {
 
     ProgramExecutor startTracking();
 
+    /**
+     * 开始跟踪，并把执行的读写记录到accessSet中
+     */
+    ProgramExecutor startTracking(ProgramAccessSet accessSet);
+
+    /**
+     * 在当前线程上基于prevStateRoot开始一次预执行，预执行的结果不能提交，只能通过replay重放
+     * Begin a speculative execution on the calling thread; it can't be committed, only replayed.
+     */
+    ProgramExecutor beginSpeculation(byte[] prevStateRoot, ProgramAccessSet accessSet);
+
+    /**
+     * 把预执行的写入重放到一个新的跟踪上
+     * Replay the writes of a speculative execution onto a new track of this executor.
+     */
+    ProgramExecutor replay(ProgramAccessSet accessSet);
+
     void commit();
 
     byte[] getRoot();
@@ -48,4 +66,6 @@ public interface ProgramExecutor {
 
     ProgramStatus status(byte[] address);
 
+    BigInteger getNonce(byte[] address);
+
 }
@@ -70,6 +70,24 @@ public class ProgramResult {
     public ProgramResult() {
     }
 
+    /**
+     * 复制一份结果，缓存中的结果不会被调用方修改
+     */
+    public ProgramResult copy() {
+        ProgramResult copy = new ProgramResult();
+        copy.gasUsed = this.gasUsed;
+        copy.result = this.result;
+        copy.revert = this.revert;
+        copy.error = this.error;
+        copy.errorMessage = this.errorMessage;
+        copy.stackTrace = this.stackTrace;
+        copy.balance = this.balance;
+        copy.nonce = this.nonce;
+        copy.transfers = this.transfers == null ? null : new ArrayList<>(this.transfers);
+        copy.events = this.events == null ? null : new ArrayList<>(this.events);
+        return copy;
+    }
+
     public boolean isSuccess() {
         return !error && !revert;
     }
@@ -0,0 +1,257 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.contract.vm.program.impl;
+
+import io.nuls.contract.vm.program.ProgramAccessSet;
+import org.ethereum.core.AccountState;
+import org.ethereum.core.Block;
+import org.ethereum.core.Repository;
+import org.ethereum.db.ByteArrayWrapper;
+import org.ethereum.db.ContractDetails;
+import org.ethereum.vm.DataWord;
+
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 记录合约执行读写集合的仓库，其余操作委托给被包装的仓库
+ * Repository that records every contract read and write into a {@link ProgramAccessSet}
+ * and delegates the actual work to the wrapped repository.
+ */
+public class AccessRecordingRepository implements Repository {
+
+    private final Repository repository;
+
+    private final ProgramAccessSet accessSet;
+
+    public AccessRecordingRepository(Repository repository, ProgramAccessSet accessSet) {
+        this.repository = repository;
+        this.accessSet = accessSet;
+    }
+
+    @Override
+    public AccountState createAccount(byte[] addr, byte[] creater) {
+        accessSet.writeAccount(addr);
+        return repository.createAccount(addr, creater);
+    }
+
+    @Override
+    public boolean isExist(byte[] addr) {
+        accessSet.readAccount(addr);
+        return repository.isExist(addr);
+    }
+
+    @Override
+    public AccountState getAccountState(byte[] addr) {
+        accessSet.readAccount(addr);
+        return repository.getAccountState(addr);
+    }
+
+    @Override
+    public void delete(byte[] addr) {
+        accessSet.writeAccount(addr);
+        repository.delete(addr);
+    }
+
+    @Override
+    public BigInteger increaseNonce(byte[] addr) {
+        accessSet.increaseNonce(addr);
+        return repository.increaseNonce(addr);
+    }
+
+    @Override
+    public BigInteger setNonce(byte[] addr, BigInteger nonce) {
+        accessSet.writeAccount(addr);
+        return repository.setNonce(addr, nonce);
+    }
+
+    @Override
+    public BigInteger getNonce(byte[] addr) {
+        accessSet.readAccount(addr);
+        return repository.getNonce(addr);
+    }
+
+    @Override
+    public ContractDetails getContractDetails(byte[] addr) {
+        accessSet.scanStorage(addr);
+        return repository.getContractDetails(addr);
+    }
+
+    @Override
+    public boolean hasContractDetails(byte[] addr) {
+        accessSet.readAccount(addr);
+        return repository.hasContractDetails(addr);
+    }
+
+    @Override
+    public void saveCode(byte[] addr, byte[] code) {
+        accessSet.writeAccount(addr);
+        repository.saveCode(addr, code);
+    }
+
+    @Override
+    public byte[] getCode(byte[] addr) {
+        accessSet.readAccount(addr);
+        return repository.getCode(addr);
+    }
+
+    @Override
+    public byte[] getCodeHash(byte[] addr) {
+        accessSet.readAccount(addr);
+        return repository.getCodeHash(addr);
+    }
+
+    @Override
+    public void addStorageRow(byte[] addr, DataWord key, DataWord value) {
+        accessSet.writeStorage(addr, key, value);
+        repository.addStorageRow(addr, key, value);
+    }
+
+    @Override
+    public DataWord getStorageValue(byte[] addr, DataWord key) {
+        accessSet.readStorage(addr, key);
+        return repository.getStorageValue(addr, key);
+    }
+
+    @Override
+    public BigInteger getBalance(byte[] addr) {
+        accessSet.readAccount(addr);
+        return repository.getBalance(addr);
+    }
+
+    @Override
+    public BigInteger addBalance(byte[] addr, BigInteger value) {
+        accessSet.writeAccount(addr);
+        return repository.addBalance(addr, value);
+    }
+
+    @Override
+    public int getStorageSize(byte[] addr) {
+        accessSet.scanStorage(addr);
+        return repository.getStorageSize(addr);
+    }
+
+    @Override
+    public Set<DataWord> getStorageKeys(byte[] addr) {
+        accessSet.scanStorage(addr);
+        return repository.getStorageKeys(addr);
+    }
+
+    @Override
+    public Map<DataWord, DataWord> getStorage(byte[] addr, Collection<DataWord> keys) {
+        if (keys == null) {
+            accessSet.scanStorage(addr);
+        } else {
+            for (DataWord key : keys) {
+                accessSet.readStorage(addr, key);
+            }
+        }
+        return repository.getStorage(addr, keys);
+    }
+
+    @Override
+    public Set<byte[]> getAccountsKeys() {
+        return repository.getAccountsKeys();
+    }
+
+    @Override
+    public void dumpState(Block block, long gasUsed, int txNumber, byte[] txHash) {
+        repository.dumpState(block, gasUsed, txNumber, txHash);
+    }
+
+    @Override
+    public Repository startTracking() {
+        return new AccessRecordingRepository(repository.startTracking(), accessSet);
+    }
+
+    @Override
+    public void flush() {
+        repository.flush();
+    }
+
+    @Override
+    public void flushNoReconnect() {
+        repository.flushNoReconnect();
+    }
+
+    @Override
+    public void commit() {
+        repository.commit();
+    }
+
+    @Override
+    public void rollback() {
+        repository.rollback();
+    }
+
+    @Override
+    public void syncToRoot(byte[] root) {
+        repository.syncToRoot(root);
+    }
+
+    @Override
+    public boolean isClosed() {
+        return repository.isClosed();
+    }
+
+    @Override
+    public void close() {
+        repository.close();
+    }
+
+    @Override
+    public void reset() {
+        repository.reset();
+    }
+
+    @Override
+    public void updateBatch(HashMap<ByteArrayWrapper, AccountState> accountStates, HashMap<ByteArrayWrapper, ContractDetails> contractDetailes) {
+        repository.updateBatch(accountStates, contractDetailes);
+    }
+
+    @Override
+    public byte[] getRoot() {
+        return repository.getRoot();
+    }
+
+    @Override
+    public void loadAccount(byte[] addr, HashMap<ByteArrayWrapper, AccountState> cacheAccounts, HashMap<ByteArrayWrapper, ContractDetails> cacheDetails) {
+        repository.loadAccount(addr, cacheAccounts, cacheDetails);
+    }
+
+    @Override
+    public Repository getSnapshotTo(byte[] root) {
+        return repository.getSnapshotTo(root);
+    }
+
+    @Override
+    public Repository clone() {
+        return repository.clone();
+    }
+
+}
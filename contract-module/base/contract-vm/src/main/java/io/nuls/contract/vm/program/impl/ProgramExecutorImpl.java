@@ -26,6 +26,7 @@ package io.nuls.contract.vm.program.impl;
 
 import io.nuls.contract.entity.BlockHeaderDto;
 import io.nuls.contract.util.VMContext;
+import io.nuls.contract.vm.HeapStateCache;
 import io.nuls.contract.vm.ObjectRef;
 import io.nuls.contract.vm.Result;
 import io.nuls.contract.vm.VM;
@@ -46,6 +47,7 @@ import org.ethereum.config.SystemProperties;
 import org.ethereum.core.AccountState;
 import org.ethereum.core.Block;
 import org.ethereum.core.Repository;
+import org.ethereum.datasource.ReadCache;
 import org.ethereum.datasource.Source;
 import org.ethereum.datasource.leveldb.LevelDbDataSource;
 import org.ethereum.db.ByteArrayWrapper;
@@ -87,12 +89,37 @@ public class ProgramExecutorImpl implements ProgramExecutor {
 
     private final Thread thread;
 
+    private final ProgramAccessSet accessSet;
+
+    private final boolean speculative;
+
+    /**
+     * 同一个批量执行器内共享的合约状态解码缓存
+     */
+    private final HeapStateCache stateCache;
+
+    /**
+     * begin()时是否为批量执行器创建解码缓存，默认关闭
+     */
+    private boolean stateCacheEnabled = false;
+
     public ProgramExecutorImpl(VMContext vmContext, DBService dbService) {
         this(vmContext, stateSource(dbService), null, null, null, null);
     }
 
+    public ProgramExecutorImpl(VMContext vmContext, DBService dbService, boolean stateCacheEnabled) {
+        this(vmContext, dbService);
+        this.stateCacheEnabled = stateCacheEnabled;
+    }
+
     private ProgramExecutorImpl(VMContext vmContext, Source<byte[], byte[]> source, Repository repository, byte[] prevStateRoot,
                                 Map<ByteArrayWrapper, ProgramAccount> accounts, Thread thread) {
+        this(vmContext, source, repository, prevStateRoot, accounts, thread, null, false, null);
+    }
+
+    private ProgramExecutorImpl(VMContext vmContext, Source<byte[], byte[]> source, Repository repository, byte[] prevStateRoot,
+                                Map<ByteArrayWrapper, ProgramAccount> accounts, Thread thread,
+                                ProgramAccessSet accessSet, boolean speculative, HeapStateCache stateCache) {
         this.parent = this;
         this.vmContext = vmContext;
         this.source = source;
@@ -101,10 +128,13 @@ public class ProgramExecutorImpl implements ProgramExecutor {
         this.beginTime = this.currentTime = System.currentTimeMillis();
         this.accounts = accounts;
         this.thread = thread;
+        this.accessSet = accessSet;
+        this.speculative = speculative;
+        this.stateCache = stateCache;
     }
 
     public ProgramExecutor callProgramExecutor() {
-        return new ProgramExecutorImpl(vmContext, source, repository, prevStateRoot, accounts, thread);
+        return new ProgramExecutorImpl(vmContext, source, repository, prevStateRoot, accounts, thread, accessSet, false, stateCache);
     }
 
     @Override
@@ -113,22 +143,71 @@ public class ProgramExecutorImpl implements ProgramExecutor {
             log.debug("begin vm root: {}", Hex.toHexString(prevStateRoot));
         }
         Repository repository = new RepositoryRoot(source, prevStateRoot);
-        return new ProgramExecutorImpl(vmContext, source, repository, prevStateRoot, new HashMap<>(), Thread.currentThread());
+        return new ProgramExecutorImpl(vmContext, source, repository, prevStateRoot, new HashMap<>(), Thread.currentThread(),
+                null, false, newStateCache());
     }
 
     @Override
     public ProgramExecutor startTracking() {
+        return startTracking(null);
+    }
+
+    @Override
+    public ProgramExecutor startTracking(ProgramAccessSet accessSet) {
         checkThread();
         if (log.isDebugEnabled()) {
             log.debug("startTracking");
         }
         Repository track = repository.startTracking();
-        return new ProgramExecutorImpl(vmContext, source, track, null, new HashMap<>(), thread);
+        if (accessSet != null) {
+            track = new AccessRecordingRepository(track, accessSet);
+        }
+        return new ProgramExecutorImpl(vmContext, source, track, null, new HashMap<>(), thread, accessSet, false, stateCache);
+    }
+
+    @Override
+    public ProgramExecutor beginSpeculation(byte[] prevStateRoot, ProgramAccessSet accessSet) {
+        if (log.isDebugEnabled()) {
+            log.debug("begin speculation vm root: {}", Hex.toHexString(prevStateRoot));
+        }
+        // 每个预执行线程使用自己的RepositoryRoot，trie不是线程安全的
+        Repository repository = new RepositoryRoot(source, prevStateRoot).startTracking();
+        Repository track = new AccessRecordingRepository(repository, accessSet);
+        // 解码缓存不是线程安全的，每个预执行使用自己的缓存
+        return new ProgramExecutorImpl(vmContext, source, track, null, new HashMap<>(), Thread.currentThread(), accessSet, true,
+                newStateCache());
+    }
+
+    @Override
+    public ProgramExecutor replay(ProgramAccessSet accessSet) {
+        checkThread();
+        if (log.isDebugEnabled()) {
+            log.debug("replay");
+        }
+        Repository track = repository.startTracking();
+        accessSet.replayTo(track);
+        return new ProgramExecutorImpl(vmContext, source, track, null, new HashMap<>(), thread, null, false, stateCache);
+    }
+
+    @Override
+    public BigInteger getNonce(byte[] address) {
+        checkThread();
+        return repository.getNonce(address);
+    }
+
+    /**
+     * 当前执行器使用的仓库，预执行时为记录读写集合的仓库
+     */
+    Repository getRepository() {
+        return repository;
     }
 
     @Override
     public void commit() {
         checkThread();
+        if (speculative) {
+            throw new RuntimeException("speculative execution can't be committed");
+        }
         if (!revert) {
             repository.commit();
             if (prevStateRoot == null) {
@@ -152,7 +231,12 @@ public class ProgramExecutorImpl implements ProgramExecutor {
                     DefaultConfig.getDefault().blockStore().saveBlock(block, BigInteger.ONE, true);
                     DefaultConfig.getDefault().pruneManager().blockCommitted(block.getHeader());
                 }
-                CommonConfig.getDefault().dbFlushManager().flush();
+                // 每个区块都在后台刷盘，已落盘的区块高度与状态在同一批次写入
+                CommonConfig.getDefault().dbFlushManager().commit(blockNumber);
+                if (log.isDebugEnabled()) {
+                    ReadCache<byte[], byte[]> readCache = CommonConfig.getDefault().stateSource().getReadCache();
+                    log.debug("state read cache: hits: {}, misses: {}, size: {}", readCache.getHits(), readCache.getMisses(), readCache.estimateCacheSize());
+                }
             }
             logTime("commit");
         }
@@ -191,7 +275,7 @@ public class ProgramExecutorImpl implements ProgramExecutor {
         programInvoke.setCreate(true);
         programInvoke.setInternalCall(false);
         programInvoke.setViewMethod(false);
-        return execute(programInvoke);
+        return finish(execute(programInvoke));
     }
 
     @Override
@@ -212,7 +296,15 @@ public class ProgramExecutorImpl implements ProgramExecutor {
         programInvoke.setCreate(false);
         programInvoke.setInternalCall(programCall.isInternalCall());
         programInvoke.setViewMethod(programCall.isViewMethod());
-        return execute(programInvoke);
+        return finish(execute(programInvoke));
+    }
+
+    private ProgramResult finish(ProgramResult programResult) {
+        // 回滚的预执行不会产生写入，内部调用共享同一个accessSet，只在最外层处理
+        if (speculative && revert) {
+            accessSet.discardWrites();
+        }
+        return programResult;
     }
 
     private ProgramResult execute(ProgramInvoke programInvoke) {
@@ -279,6 +371,7 @@ public class ProgramExecutorImpl implements ProgramExecutor {
             logTime("load vm");
 
             vm.heap.loadClassCodes(classCodes);
+            vm.heap.setStateCache(stateCache);
             vm.methodArea.loadClassCodes(classCodes);
 
             logTime("load classes");
@@ -462,6 +555,9 @@ public class ProgramExecutorImpl implements ProgramExecutor {
         ByteArrayWrapper addressWrapper = new ByteArrayWrapper(address);
         ProgramAccount account = accounts.get(addressWrapper);
         if (account == null) {
+            if (accessSet != null) {
+                accessSet.readBalance(address);
+            }
             BigInteger balance = getBalance(address, blockNumber);
             account = new ProgramAccount(address, balance);
             accounts.put(addressWrapper, account);
@@ -597,6 +693,10 @@ public class ProgramExecutorImpl implements ProgramExecutor {
                 .collect(Collectors.toList());
     }
 
+    private HeapStateCache newStateCache() {
+        return stateCacheEnabled ? new HeapStateCache() : null;
+    }
+
     private static Source<byte[], byte[]> stateSource(DBService dbService) {
         LevelDbDataSource.dbService = dbService;
         SystemProperties config = SystemProperties.getDefault();
@@ -209,6 +209,7 @@ public class CommonConfig {
     public DbFlushManager dbFlushManager() {
         if (dbFlushManager == null) {
             dbFlushManager = new DbFlushManager(systemProperties(), dbSources, blockchainDbCache());
+            dbFlushManager.setFlushMarkerSource(blockchainSource("flushMarker"));
         }
         return dbFlushManager;
     }
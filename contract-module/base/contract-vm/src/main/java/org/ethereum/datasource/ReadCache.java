@@ -21,10 +21,9 @@ import org.apache.commons.collections4.map.LRUMap;
 import org.ethereum.db.ByteArrayWrapper;
 import org.ethereum.util.ByteArrayMap;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 
 /**
  * Caches entries get/updated and use LRU algo to purge them if the number
@@ -38,6 +37,10 @@ import java.util.Map;
  * SoftReferences, when the cache occupies all the available heap
  * but get shrink when low heap
  * <p>
+ * With {@link #withMaxSize(long)} the cache is bounded by the estimated
+ * memory of its entries instead, which requires the key/value size
+ * estimators to be set. Hits and misses are counted in both modes.
+ * <p>
  * Created by Anton Nashatyrev on 05.10.2016.
  */
 public class ReadCache<Key, Value> extends AbstractCachedSource<Key, Value> {
@@ -47,6 +50,12 @@ public class ReadCache<Key, Value> extends AbstractCachedSource<Key, Value> {
     private Map<Key, Value> cache;
     private boolean byteKeyMap;
 
+    private long maxSize = -1;
+    private BooleanSupplier evictEldest;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
     public ReadCache(Source<Key, Value> src) {
         super(src);
         withCache(new HashMap<Key, Value>());
@@ -58,6 +67,9 @@ public class ReadCache<Key, Value> extends AbstractCachedSource<Key, Value> {
     public ReadCache<Key, Value> withCache(Map<Key, Value> cache) {
         byteKeyMap = cache instanceof ByteArrayMap;
         this.cache = Collections.synchronizedMap(cache);
+        this.maxSize = -1;
+        this.evictEldest = null;
+        cacheCleared();
         return this;
     }
 
@@ -68,12 +80,65 @@ public class ReadCache<Key, Value> extends AbstractCachedSource<Key, Value> {
         return withCache(new LRUMap<Key, Value>(maxCapacity) {
             @Override
             protected boolean removeLRU(LinkEntry<Key, Value> entry) {
-                cacheRemoved(entry.getKey(), entry.getValue());
+                cacheRemoved(entry.getKey(), unwrap(entry.getValue()));
                 return super.removeLRU(entry);
             }
         });
     }
 
+    /**
+     * Sets the max estimated memory size of the cached entries in bytes,
+     * the least recently used entries are purged when it is exceeded
+     */
+    public ReadCache<Key, Value> withMaxSize(long maxSize) {
+        LinkedHashMap<Key, Value> lru = new LinkedHashMap<>(16, 0.75f, true);
+        withCache(lru);
+        withEviction(maxSize, () -> {
+            Iterator<Map.Entry<Key, Value>> it = lru.entrySet().iterator();
+            if (!it.hasNext()) {
+                return false;
+            }
+            Map.Entry<Key, Value> eldest = it.next();
+            it.remove();
+            cacheRemoved(eldest.getKey(), unwrap(eldest.getValue()));
+            return true;
+        });
+        return this;
+    }
+
+    protected void withEviction(long maxSize, BooleanSupplier evictEldest) {
+        this.maxSize = maxSize;
+        this.evictEldest = evictEldest;
+    }
+
+    private void evict() {
+        if (evictEldest == null) {
+            return;
+        }
+        synchronized (cache) {
+            boolean evicted = true;
+            while (evicted && estimateCacheSize() > maxSize) {
+                evicted = evictEldest.getAsBoolean();
+            }
+        }
+    }
+
+    protected Value unwrap(Value value) {
+        return value == NULL ? null : value;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
     // the guard against incorrect Map implementation for byte[] keys
     private boolean checked = false;
 
@@ -96,8 +161,12 @@ public class ReadCache<Key, Value> extends AbstractCachedSource<Key, Value> {
         if (val == null) {
             delete(key);
         } else {
-            cache.put(key, val);
+            Value old = cache.put(key, val);
+            if (old != null) {
+                cacheRemoved(key, unwrap(old));
+            }
             cacheAdded(key, val);
+            evict();
             getSource().put(key, val);
         }
     }
@@ -107,12 +176,20 @@ public class ReadCache<Key, Value> extends AbstractCachedSource<Key, Value> {
         checkByteArrKey(key);
         Value ret = cache.get(key);
         if (ret == NULL) {
+            hits.incrementAndGet();
             return null;
         }
         if (ret == null) {
+            misses.incrementAndGet();
             ret = getSource().get(key);
-            cache.put(key, ret == null ? NULL : ret);
+            Value old = cache.put(key, ret == null ? NULL : ret);
+            if (old != null) {
+                cacheRemoved(key, unwrap(old));
+            }
             cacheAdded(key, ret);
+            evict();
+        } else {
+            hits.incrementAndGet();
         }
         return ret;
     }
@@ -121,7 +198,9 @@ public class ReadCache<Key, Value> extends AbstractCachedSource<Key, Value> {
     public void delete(Key key) {
         checkByteArrKey(key);
         Value value = cache.remove(key);
-        cacheRemoved(key, value);
+        if (value != null) {
+            cacheRemoved(key, unwrap(value));
+        }
         getSource().delete(key);
     }
 
@@ -162,11 +241,28 @@ public class ReadCache<Key, Value> extends AbstractCachedSource<Key, Value> {
             withCache(new ByteArrayMap<V>(new LRUMap<ByteArrayWrapper, V>(maxCapacity) {
                 @Override
                 protected boolean removeLRU(LinkEntry<ByteArrayWrapper, V> entry) {
-                    cacheRemoved(entry.getKey().getData(), entry.getValue());
+                    cacheRemoved(entry.getKey().getData(), unwrap(entry.getValue()));
                     return super.removeLRU(entry);
                 }
             }));
             return this;
         }
+
+        @Override
+        public ReadCache.BytesKey<V> withMaxSize(long maxSize) {
+            LinkedHashMap<ByteArrayWrapper, V> lru = new LinkedHashMap<>(16, 0.75f, true);
+            withCache(new ByteArrayMap<V>(lru));
+            withEviction(maxSize, () -> {
+                Iterator<Map.Entry<ByteArrayWrapper, V>> it = lru.entrySet().iterator();
+                if (!it.hasNext()) {
+                    return false;
+                }
+                Map.Entry<ByteArrayWrapper, V> eldest = it.next();
+                it.remove();
+                cacheRemoved(eldest.getKey().getData(), unwrap(eldest.getValue()));
+                return true;
+            });
+            return this;
+        }
     }
 }
@@ -17,6 +17,7 @@
  */
 package org.ethereum.db;
 
+import com.google.common.primitives.Longs;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.ethereum.config.SystemProperties;
@@ -52,6 +53,14 @@ public class DbFlushManager {
 
     int commitCount = 0;
 
+    /**
+     * The flushed block height is stored under this key, in the same DB batch as the state of that block
+     */
+    static final byte[] FLUSH_MARKER_KEY = "flushedBlockHeight".getBytes();
+
+    Source<byte[], byte[]> flushMarkerSource;
+    long committedHeight = -1;
+
     private final BlockingQueue<Runnable> executorQueue = new ArrayBlockingQueue<>(1);
     private final ExecutorService flushThread = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
             executorQueue, new ThreadFactoryBuilder().setNameFormat("DbFlushManagerThread-%d").build());
@@ -70,6 +79,22 @@ public class DbFlushManager {
         this.sizeThreshold = sizeThreshold;
     }
 
+    public void setFlushMarkerSource(Source<byte[], byte[]> flushMarkerSource) {
+        this.flushMarkerSource = flushMarkerSource;
+    }
+
+    /**
+     * Returns the height of the last block whose state was completely flushed to the DB,
+     * or -1 if unknown. State of the blocks above it may be lost after a crash
+     */
+    public long getFlushedHeight() {
+        if (flushMarkerSource == null) {
+            return -1;
+        }
+        byte[] bytes = flushMarkerSource.get(FLUSH_MARKER_KEY);
+        return bytes == null ? -1 : Longs.fromByteArray(bytes);
+    }
+
     public void addCache(AbstractCachedSource<byte[], ?> cache) {
         writeCaches.add(cache);
     }
@@ -91,6 +116,15 @@ public class DbFlushManager {
         commit();
     }
 
+    /**
+     * Commits the state of the block with the given height and flushes it in background,
+     * so at most the block being flushed can be lost after a crash
+     */
+    public synchronized void commit(long blockHeight) {
+        committedHeight = Math.max(committedHeight, blockHeight);
+        flush();
+    }
+
     public synchronized void commit() {
         long cacheSize = getCacheSize();
         if (sizeThreshold >= 0 && cacheSize >= sizeThreshold) {
@@ -135,6 +169,8 @@ public class DbFlushManager {
             }
         }
 
+        final long flushHeight = committedHeight;
+
         logger.debug("Submitting flush task");
         return lastFlush = flushThread.submit(() -> {
             boolean ret = false;
@@ -154,6 +190,10 @@ public class DbFlushManager {
                     ret |= writeCache.flush();
                 }
             }
+            if (flushMarkerSource != null && flushHeight >= 0) {
+                // the marker goes through the state DB cache, so it is written in the same batch as the state
+                flushMarkerSource.put(FLUSH_MARKER_KEY, Longs.toByteArray(flushHeight));
+            }
             if (stateDbCache != null) {
                 logger.debug("Flushing to DB");
                 stateDbCache.flush();
@@ -39,7 +39,9 @@ public class StateSource extends SourceChainBox<byte[], byte[], byte[], byte[]>
     public StateSource(Source<byte[], byte[]> src, boolean pruningEnabled) {
         super(src);
         INST = this;
-        add(readCache = new ReadCache.BytesKey<>(src).withMaxCapacity(16 * 1024 * 1024 / 512)); // 512 - approx size of a node
+        readCache = new ReadCache.BytesKey<>(src);
+        readCache.withSizeEstimators(MemSizeEstimator.ByteArrayEstimator, MemSizeEstimator.ByteArrayEstimator);
+        add(readCache.withMaxSize(16 * 1024 * 1024));
         readCache.setFlushSource(true);
         writeCache = new AsyncWriteCache<byte[], byte[]>(readCache) {
             @Override
@@ -62,7 +64,16 @@ public class StateSource extends SourceChainBox<byte[], byte[], byte[], byte[]>
 
     public void setConfig(SystemProperties config) {
         int size = config.getConfig().getInt("cache.stateCacheSize");
-        readCache.withMaxCapacity(size * 1024 * 1024 / 512); // 512 - approx size of a node
+        setReadCacheSize(size * 1024L * 1024L);
+    }
+
+    /**
+     * Sets the memory budget of the trie node read cache in bytes, the cached nodes are dropped
+     */
+    public void setReadCacheSize(long size) {
+        if (readCache.getMaxSize() != size) {
+            readCache.withMaxSize(size);
+        }
     }
 
     public void setCommonConfig(CommonConfig commonConfig) {
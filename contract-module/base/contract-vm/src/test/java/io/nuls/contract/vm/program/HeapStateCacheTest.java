@@ -0,0 +1,170 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.contract.vm.program;
+
+import io.nuls.contract.vm.code.ClassCodeLoader;
+import io.nuls.contract.vm.natives.io.nuls.contract.sdk.NativeAddress;
+import io.nuls.contract.vm.program.impl.ProgramExecutorImpl;
+import io.nuls.db.service.DBService;
+import io.nuls.db.service.impl.LevelDBServiceImpl;
+import io.nuls.kernel.args.NULSParams;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.spongycastle.util.encoders.Hex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 合约状态解码缓存的差异测试：同一批合约调用分别在开启和关闭缓存时执行，状态根和执行结果必须一致
+ */
+public class HeapStateCacheTest {
+
+    private static final byte[] EMPTY_ROOT = Hex.decode("56e81f171bcc55a6ff8345e692c0f86e5b48e01b996cadc001622fb5e363b421");
+
+    private static final String TOKEN = "TTavpNMqB5XnrzmypowtGaSQ7Gw9u63m";
+    private static final String SENDER = "TTaqTVJSPgw3RU9cgjQ5WdhpufmRT343";
+    private static final String[] RECEIVERS = {"TTapY7gpBm1DHEgwguSFFtuK3JvGZVKK", "TTahpgXMLVGMqgN8F5BLaAsm8M3ebtna",
+            "TTaicwPZ3dGbWQ5NKg9QTrFuKiKSF8Cp"};
+
+    private static ProgramExecutor cached;
+    private static ProgramExecutor uncached;
+    private static byte[] deployedRoot;
+
+    @BeforeClass
+    public static void initClass() throws Exception {
+        // 虚拟机依赖打包的JDK类(used_classes)，缺少时无法执行合约
+        Assume.assumeNotNull(ClassCodeLoader.class.getResource("/used_classes"));
+        NULSParams.BOOTSTRAP.setDataDir(Files.createTempDirectory("heap-state-cache").toString());
+        DBService dbService = new LevelDBServiceImpl();
+        cached = new ProgramExecutorImpl(null, dbService, true);
+        uncached = new ProgramExecutorImpl(null, dbService, false);
+
+        ProgramCreate programCreate = new ProgramCreate();
+        programCreate.setContractAddress(NativeAddress.toBytes(TOKEN));
+        programCreate.setSender(NativeAddress.toBytes(SENDER));
+        programCreate.setPrice(1);
+        programCreate.setGasLimit(1000000);
+        programCreate.setNumber(1);
+        programCreate.setContractCode(tokenJar());
+        programCreate.args("token", "TK", "100000000", "2");
+        ProgramExecutor track = uncached.begin(EMPTY_ROOT);
+        ProgramExecutor txTrack = track.startTracking();
+        ProgramResult result = txTrack.create(programCreate);
+        assertTrue(result.getErrorMessage(), result.isSuccess());
+        txTrack.commit();
+        track.commit();
+        deployedRoot = track.getRoot();
+    }
+
+    /**
+     * 同一批中反复读写同一个合约，包括失败后未提交的调用，缓存中的对象不能把未提交或已修改的数据带给后面的调用
+     */
+    @Test
+    public void sameRootWithAndWithoutCache() {
+        List<ProgramCall> calls = new ArrayList<>();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < RECEIVERS.length; i++) {
+                calls.add(call(SENDER, "transfer", RECEIVERS[i], String.valueOf(100 + round * 10 + i)));
+                calls.add(call(SENDER, "balanceOf", RECEIVERS[i]));
+            }
+            calls.add(call(RECEIVERS[0], "transfer", RECEIVERS[1], "99999999999"));
+            calls.add(call(RECEIVERS[0], "approve", RECEIVERS[2], "50"));
+            calls.add(call(RECEIVERS[2], "transferFrom", RECEIVERS[0], SENDER, "20"));
+            calls.add(call(SENDER, "allowance", RECEIVERS[0], RECEIVERS[2]));
+        }
+
+        Execution withCache = execute(cached, calls);
+        Execution withoutCache = execute(uncached, calls);
+        assertEquals(Hex.toHexString(withoutCache.root), Hex.toHexString(withCache.root));
+        for (int i = 0; i < calls.size(); i++) {
+            assertEquals("result of call " + i, withoutCache.results.get(i), withCache.results.get(i));
+        }
+        assertFalse(withCache.results.get(RECEIVERS.length * 2).isSuccess());
+        assertEquals("30", withCache.results.get(calls.size() - 1).getResult());
+    }
+
+    /**
+     * 与批量执行的方式一致：每笔调用一个track，执行失败的track不提交
+     */
+    private static Execution execute(ProgramExecutor programExecutor, List<ProgramCall> calls) {
+        Execution execution = new Execution();
+        ProgramExecutor batch = programExecutor.begin(deployedRoot);
+        for (ProgramCall call : calls) {
+            ProgramExecutor track = batch.startTracking();
+            ProgramResult result = track.call(call);
+            if (result.isSuccess()) {
+                track.commit();
+            }
+            execution.results.add(result);
+        }
+        batch.commit();
+        execution.root = batch.getRoot();
+        return execution;
+    }
+
+    private static ProgramCall call(String sender, String method, String... args) {
+        ProgramCall programCall = new ProgramCall();
+        programCall.setContractAddress(NativeAddress.toBytes(TOKEN));
+        programCall.setSender(NativeAddress.toBytes(sender));
+        programCall.setPrice(1);
+        programCall.setGasLimit(1000000);
+        programCall.setNumber(2);
+        programCall.setMethodName(method);
+        programCall.setMethodDesc("");
+        programCall.args(args);
+        return programCall;
+    }
+
+    private static byte[] tokenJar() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JarOutputStream jar = new JarOutputStream(out)) {
+            for (String name : Arrays.asList("SimpleToken", "NRC20", "NRC20$TransferEvent", "NRC20$ApprovalEvent")) {
+                String path = "testcontract/nrc20/" + name + ".class";
+                jar.putNextEntry(new JarEntry(path));
+                try (InputStream in = HeapStateCacheTest.class.getClassLoader().getResourceAsStream(path)) {
+                    jar.write(IOUtils.toByteArray(in));
+                }
+                jar.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static class Execution {
+        private final List<ProgramResult> results = new ArrayList<>();
+        private byte[] root;
+    }
+}
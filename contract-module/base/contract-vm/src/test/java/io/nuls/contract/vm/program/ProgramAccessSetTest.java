@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.contract.vm.program;
+
+import org.ethereum.vm.DataWord;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProgramAccessSetTest {
+
+    private static final byte[] CONTRACT_A = new byte[]{1, 1, 1};
+    private static final byte[] CONTRACT_B = new byte[]{2, 2, 2};
+
+    @Test
+    public void storageConflict() {
+        ProgramAccessSet written = new ProgramAccessSet();
+        written.writeStorage(CONTRACT_A, new DataWord("balances_x"), new DataWord("100"));
+
+        ProgramAccessSet reader = new ProgramAccessSet();
+        reader.readStorage(CONTRACT_A, new DataWord("balances_y"));
+        reader.readStorage(CONTRACT_B, new DataWord("balances_x"));
+        assertFalse(reader.conflictsWith(written));
+
+        reader.readStorage(CONTRACT_A, new DataWord("balances_x"));
+        assertTrue(reader.conflictsWith(written));
+    }
+
+    @Test
+    public void nonceIncrementIsNotConflict() {
+        ProgramAccessSet written = new ProgramAccessSet();
+        written.increaseNonce(CONTRACT_A);
+
+        ProgramAccessSet reader = new ProgramAccessSet();
+        reader.readAccount(CONTRACT_A);
+        assertFalse(reader.conflictsWith(written));
+        assertTrue(reader.isReplayable());
+
+        written.writeAccount(CONTRACT_A);
+        assertTrue(reader.conflictsWith(written));
+    }
+
+    @Test
+    public void balanceConflict() {
+        ProgramAccessSet written = new ProgramAccessSet();
+        ProgramAccessSet reader = new ProgramAccessSet();
+        reader.readBalance(CONTRACT_B);
+        assertFalse(reader.conflictsWith(written));
+
+        ProgramAccessSet transfer = new ProgramAccessSet();
+        transfer.writeBalance(CONTRACT_B);
+        written.addWrites(transfer);
+        assertTrue(reader.conflictsWith(written));
+    }
+
+    @Test
+    public void storageScanConflict() {
+        ProgramAccessSet written = new ProgramAccessSet();
+        written.writeStorage(CONTRACT_A, new DataWord("balances_x"), new DataWord("100"));
+
+        ProgramAccessSet reader = new ProgramAccessSet();
+        reader.scanStorage(CONTRACT_B);
+        assertFalse(reader.conflictsWith(written));
+
+        reader.scanStorage(CONTRACT_A);
+        assertTrue(reader.conflictsWith(written));
+    }
+
+    @Test
+    public void discardWrites() {
+        ProgramAccessSet accessSet = new ProgramAccessSet();
+        accessSet.writeAccount(CONTRACT_A);
+        accessSet.writeStorage(CONTRACT_A, new DataWord("key"), new DataWord("value"));
+        assertFalse(accessSet.isReplayable());
+
+        accessSet.discardWrites();
+        assertTrue(accessSet.isReplayable());
+
+        ProgramAccessSet reader = new ProgramAccessSet();
+        reader.readStorage(CONTRACT_A, new DataWord("key"));
+        assertFalse(reader.conflictsWith(accessSet));
+    }
+
+}
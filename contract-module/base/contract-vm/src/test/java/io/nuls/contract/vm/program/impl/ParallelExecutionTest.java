@@ -0,0 +1,275 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.contract.vm.program.impl;
+
+import io.nuls.contract.vm.natives.io.nuls.contract.sdk.NativeAddress;
+import io.nuls.contract.vm.program.ProgramAccessSet;
+import io.nuls.contract.vm.program.ProgramCall;
+import io.nuls.contract.vm.program.ProgramExecutor;
+import io.nuls.contract.vm.program.ProgramResult;
+import io.nuls.db.service.impl.LevelDBServiceImpl;
+import io.nuls.kernel.args.NULSParams;
+import org.ethereum.core.Repository;
+import org.ethereum.vm.DataWord;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.spongycastle.util.encoders.Hex;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * 并行预执行与串行执行的差异测试：同一批代币转账分别串行和并行执行，状态根、gas和执行结果必须一致
+ * <p>
+ * 虚拟机依赖打包的JDK类(used_classes)，源码中没有这个资源，所以代币合约在这里直接读写执行器的仓库，
+ * 与execute()写回合约状态的方式相同。预执行、冲突检测、重放和提交走的都是ProgramExecutorImpl本身的路径。
+ */
+public class ParallelExecutionTest {
+
+    private static final byte[] EMPTY_ROOT = Hex.decode("56e81f171bcc55a6ff8345e692c0f86e5b48e01b996cadc001622fb5e363b421");
+
+    private static final String TOKEN_A = "TTavpNMqB5XnrzmypowtGaSQ7Gw9u63m";
+    private static final String TOKEN_B = "TTaqbjUJSz2xm9Y5G3ELDkDMBDTzcY8T";
+    private static final String SENDER = "TTaqTVJSPgw3RU9cgjQ5WdhpufmRT343";
+    private static final String[] RECEIVERS = {"TTapY7gpBm1DHEgwguSFFtuK3JvGZVKK", "TTahpgXMLVGMqgN8F5BLaAsm8M3ebtna",
+            "TTaicwPZ3dGbWQ5NKg9QTrFuKiKSF8Cp"};
+
+    private static final long BASE_GAS = 1000;
+    private static final long READ_GAS = 50;
+    private static final long WRITE_GAS = 200;
+
+    private static ExecutorService workers;
+    private static ProgramExecutor programExecutor;
+    private static byte[] deployedRoot;
+
+    @BeforeClass
+    public static void initClass() throws Exception {
+        NULSParams.BOOTSTRAP.setDataDir(Files.createTempDirectory("parallel-execution").toString());
+        programExecutor = new ProgramExecutorImpl(null, new LevelDBServiceImpl());
+        workers = Executors.newFixedThreadPool(4);
+
+        ProgramExecutor batch = programExecutor.begin(EMPTY_ROOT);
+        for (String token : new String[]{TOKEN_A, TOKEN_B}) {
+            ProgramExecutor track = batch.startTracking();
+            Repository repository = ((ProgramExecutorImpl) track).getRepository();
+            byte[] contractAddress = NativeAddress.toBytes(token);
+            repository.createAccount(contractAddress, NativeAddress.toBytes(SENDER));
+            repository.saveCode(contractAddress, token.getBytes());
+            repository.addStorageRow(contractAddress, holderKey(NativeAddress.toBytes(SENDER)), new DataWord(new BigInteger("100000000")));
+            repository.increaseNonce(contractAddress);
+            track.commit();
+        }
+        batch.commit();
+        deployedRoot = batch.getRoot();
+    }
+
+    @AfterClass
+    public static void destroyClass() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void independentContracts() throws Exception {
+        List<ProgramCall> calls = new ArrayList<>();
+        calls.add(call(TOKEN_A, SENDER, "transfer", RECEIVERS[0], "100"));
+        calls.add(call(TOKEN_B, SENDER, "transfer", RECEIVERS[1], "200"));
+        calls.add(call(TOKEN_A, RECEIVERS[1], "balanceOf", RECEIVERS[2]));
+        calls.add(call(TOKEN_B, RECEIVERS[0], "balanceOf", RECEIVERS[2]));
+        Execution parallel = assertSameAsSerial(calls);
+        assertEquals(calls.size(), parallel.replayed);
+        assertEquals("100", parallel.results.get(0).getResult());
+        assertEquals("0", parallel.results.get(3).getResult());
+    }
+
+    @Test
+    public void conflictingCalls() throws Exception {
+        List<ProgramCall> calls = new ArrayList<>();
+        calls.add(call(TOKEN_A, SENDER, "transfer", RECEIVERS[0], "1000"));
+        calls.add(call(TOKEN_A, RECEIVERS[0], "transfer", RECEIVERS[1], "600"));
+        calls.add(call(TOKEN_A, RECEIVERS[1], "transfer", RECEIVERS[2], "500"));
+        calls.add(call(TOKEN_B, SENDER, "transfer", RECEIVERS[2], "7"));
+        calls.add(call(TOKEN_A, SENDER, "balanceOf", RECEIVERS[2]));
+        calls.add(call(TOKEN_A, RECEIVERS[2], "transfer", SENDER, "99999999999"));
+        calls.add(call(TOKEN_B, SENDER, "balanceOf", RECEIVERS[2]));
+        Execution parallel = assertSameAsSerial(calls);
+        assertTrue(parallel.serial > 0);
+        assertTrue(parallel.replayed > 0);
+        assertTrue(parallel.results.get(1).isSuccess());
+        assertTrue(parallel.results.get(2).isSuccess());
+        assertEquals("500", parallel.results.get(4).getResult());
+        assertFalse(parallel.results.get(5).isSuccess());
+        assertEquals("7", parallel.results.get(6).getResult());
+    }
+
+    private Execution assertSameAsSerial(List<ProgramCall> calls) throws Exception {
+        Execution serial = executeSerially(calls);
+        Execution parallel = executeInParallel(calls);
+        assertEquals(Hex.toHexString(serial.root), Hex.toHexString(parallel.root));
+        assertEquals(serial.results.size(), parallel.results.size());
+        for (int i = 0; i < calls.size(); i++) {
+            ProgramResult expected = serial.results.get(i);
+            ProgramResult actual = parallel.results.get(i);
+            assertEquals("gas of call " + i, expected.getGasUsed(), actual.getGasUsed());
+            assertEquals("result of call " + i, expected, actual);
+        }
+        return parallel;
+    }
+
+    private Execution executeSerially(List<ProgramCall> calls) {
+        Execution execution = new Execution();
+        ProgramExecutor batch = programExecutor.begin(deployedRoot);
+        for (ProgramCall call : calls) {
+            ProgramExecutor track = batch.startTracking();
+            execution.results.add(invoke(track, call));
+            track.commit();
+
+            execution.serial++;
+        }
+        batch.commit();
+        execution.root = batch.getRoot();
+        return execution;
+    }
+
+    /**
+     * 与ContractServiceImpl批量执行的方式一致：预执行结果的读取没有被之前的交易修改时重放，否则串行执行
+     */
+    private Execution executeInParallel(List<ProgramCall> calls) throws Exception {
+        List<Future<Object[]>> futures = new ArrayList<>();
+        for (ProgramCall call : calls) {
+            futures.add(workers.submit(() -> {
+                ProgramAccessSet accessSet = new ProgramAccessSet();
+                ProgramResult result = invoke(programExecutor.beginSpeculation(deployedRoot, accessSet), call);
+                return new Object[]{accessSet, result};
+            }));
+        }
+        Execution execution = new Execution();
+        ProgramAccessSet written = new ProgramAccessSet();
+        ProgramExecutor batch = programExecutor.begin(deployedRoot);
+        for (int i = 0; i < calls.size(); i++) {
+            Object[] speculated = futures.get(i).get();
+            ProgramAccessSet accessSet = (ProgramAccessSet) speculated[0];
+            ProgramExecutor track;
+            ProgramResult result;
+            if (accessSet.isReplayable() && !accessSet.conflictsWith(written)) {
+                track = batch.replay(accessSet);
+                result = (ProgramResult) speculated[1];
+                if (result.isSuccess() && result.getNonce() != null) {
+                    result.setNonce(track.getNonce(calls.get(i).getContractAddress()));
+                }
+                written.addWrites(accessSet);
+                execution.replayed++;
+            } else {
+                track = batch.startTracking(written);
+                result = invoke(track, calls.get(i));
+                execution.serial++;
+            }
+            execution.results.add(result);
+            track.commit();
+        }
+        batch.commit();
+        execution.root = batch.getRoot();
+        return execution;
+    }
+
+    /**
+     * NRC20的transfer和balanceOf：每个持有人的余额是一行合约存储，
+     * 执行成功后写回存储并递增合约nonce，gas按读写次数计算
+     */
+    private static ProgramResult invoke(ProgramExecutor executor, ProgramCall call) {
+        Repository repository = ((ProgramExecutorImpl) executor).getRepository();
+        byte[] contractAddress = call.getContractAddress();
+        ProgramResult result = new ProgramResult();
+        long gasUsed = BASE_GAS;
+        if (repository.getAccountState(contractAddress) == null) {
+            return result.revert("contract does not exist");
+        }
+        String[][] args = call.getArgs();
+        if ("balanceOf".equals(call.getMethodName())) {
+            BigInteger balance = balanceOf(repository, contractAddress, NativeAddress.toBytes(args[0][0]));
+            gasUsed += READ_GAS;
+            result.setResult(balance.toString());
+            result.view();
+            result.setGasUsed(gasUsed);
+            return result;
+        }
+        byte[] from = call.getSender();
+        byte[] to = NativeAddress.toBytes(args[0][0]);
+        BigInteger value = new BigInteger(args[1][0]);
+        BigInteger fromBalance = balanceOf(repository, contractAddress, from);
+        gasUsed += READ_GAS;
+        if (fromBalance.compareTo(value) < 0) {
+            result.setGasUsed(gasUsed);
+            return result.revert("No enough balance");
+        }
+        BigInteger toBalance = balanceOf(repository, contractAddress, to);
+        gasUsed += READ_GAS;
+        repository.addStorageRow(contractAddress, holderKey(from), new DataWord(fromBalance.subtract(value)));
+        repository.addStorageRow(contractAddress, holderKey(to), new DataWord(toBalance.add(value)));
+        gasUsed += 2 * WRITE_GAS;
+        repository.increaseNonce(contractAddress);
+        result.setResult(value.toString());
+        result.setNonce(repository.getNonce(contractAddress));
+        result.setGasUsed(gasUsed);
+        return result;
+    }
+
+    private static BigInteger balanceOf(Repository repository, byte[] contractAddress, byte[] holder) {
+        DataWord balance = repository.getStorageValue(contractAddress, holderKey(holder));
+        return balance == null ? BigInteger.ZERO : balance.toBigInteger();
+    }
+
+    private static DataWord holderKey(byte[] holder) {
+        return DataWord.of(holder);
+    }
+
+    private static ProgramCall call(String contract, String sender, String method, String... args) {
+        ProgramCall programCall = new ProgramCall();
+        programCall.setContractAddress(NativeAddress.toBytes(contract));
+        programCall.setSender(NativeAddress.toBytes(sender));
+        programCall.setPrice(1);
+        programCall.setGasLimit(1000000);
+        programCall.setNumber(2);
+        programCall.setMethodName(method);
+        programCall.setMethodDesc("");
+        programCall.args(args);
+        return programCall;
+    }
+
+    private static class Execution {
+        private final List<ProgramResult> results = new ArrayList<>();
+        private byte[] root;
+        private int replayed;
+        private int serial;
+    }
+}
@@ -106,4 +106,29 @@ public interface ContractConstant extends NulsConstant {
     String CFG_CONTRACT_SECTION = "contract";
     String CFG_CONTRACT_MAX_VIEW_GAS = "max.view.gas";
     int DEFAULT_MAX_VIEW_GAS = 100000000;
+
+    /**
+     * 区块内合约调用交易的并行预执行
+     */
+    String CFG_CONTRACT_PARALLEL_EXECUTE = "parallel.execute";
+    String CFG_CONTRACT_PARALLEL_THREADS = "parallel.threads";
+    boolean DEFAULT_PARALLEL_EXECUTE = false;
+
+    /**
+     * 只读合约方法(view)调用的结果缓存
+     */
+    int VIEW_CALL_CACHE_SIZE = 10000;
+    int VIEW_EXECUTOR_MAX_CALLS = 1000;
+
+    /**
+     * 合约状态树节点读缓存的内存上限(MB)
+     */
+    String CFG_CONTRACT_STATE_CACHE_SIZE = "state.cache.size";
+    int DEFAULT_STATE_CACHE_SIZE = 384;
+
+    /**
+     * 批量执行时共享的合约状态解码缓存，默认关闭
+     */
+    String CFG_CONTRACT_HEAP_STATE_CACHE = "heap.state.cache";
+    boolean DEFAULT_HEAP_STATE_CACHE = false;
 }
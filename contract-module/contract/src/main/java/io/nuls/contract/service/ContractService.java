@@ -179,6 +179,17 @@ public interface ContractService {
 
     void removeBatchExecute();
 
+    /**
+     * 在批量执行开始后，把区块内的合约调用交易提交到工作线程上并行预执行
+     * 按区块顺序处理交易时，未与之前交易冲突的预执行结果直接重放，冲突的交易串行重新执行
+     *
+     * @param txs         区块内的交易
+     * @param bestHeight  执行合约使用的高度
+     * @param blockHeader 当前区块头
+     * @param isForkChain 分叉链切换时合约全部重新执行
+     */
+    void speculativeExecute(List<Transaction> txs, long bestHeight, BlockHeader blockHeader, boolean isForkChain);
+
     void createCurrentBlockHeader(BlockHeader tempHeader);
 
     void removeCurrentBlockHeader();
@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.kernel.codegen;
+
+/**
+ * 字段的编码格式，与NulsOutputStreamBuffer/NulsByteBuffer的读写方法一一对应
+ * Wire formats of a field, each one maps to a write method of NulsOutputStreamBuffer and a read method of NulsByteBuffer.
+ */
+public enum FieldType {
+
+    /**
+     * 单字节 / one byte
+     */
+    BYTE,
+
+    /**
+     * 单字节布尔值 / boolean as one byte
+     */
+    BOOLEAN,
+
+    /**
+     * 2字节有符号整数，小端 / signed 16 bit integer, little endian
+     */
+    INT16,
+
+    /**
+     * 2字节无符号整数，小端 / unsigned 16 bit integer, little endian
+     */
+    UINT16,
+
+    /**
+     * 4字节无符号整数，小端 / unsigned 32 bit integer, little endian
+     */
+    UINT32,
+
+    /**
+     * 8字节有符号整数，小端 / signed 64 bit integer, little endian
+     */
+    INT64,
+
+    /**
+     * 6字节无符号整数，小端 / unsigned 48 bit integer, little endian
+     */
+    UINT48,
+
+    /**
+     * 变长整数 / variable length integer
+     */
+    VAR_INT,
+
+    /**
+     * 8字节浮点数 / 8 byte double
+     */
+    DOUBLE,
+
+    /**
+     * 带变长长度前缀的字符串 / string prefixed with a var int length
+     */
+    STRING,
+
+    /**
+     * 带变长长度前缀的字节数组 / byte array prefixed with a var int length
+     */
+    BYTES,
+
+    /**
+     * 定长字节数组，不带长度前缀，长度由{@link SerializeField#length()}指定 / fixed length byte array without a length
+     * prefix, the length comes from {@link SerializeField#length()}
+     */
+    FIXED_BYTES,
+
+    /**
+     * 金额(Na)，按8字节整数编码 / amount (Na), encoded as a 64 bit integer
+     */
+    NA,
+
+    /**
+     * 嵌套的BaseNulsData，空值写入占位符 / nested BaseNulsData, null is written as the place holder
+     */
+    NULS_DATA,
+
+    /**
+     * BaseNulsData列表，变长整数表示个数 / list of BaseNulsData prefixed with a var int count
+     */
+    NULS_DATA_LIST
+}
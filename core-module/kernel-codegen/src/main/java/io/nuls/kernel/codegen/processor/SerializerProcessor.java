@@ -0,0 +1,458 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.kernel.codegen.processor;
+
+import io.nuls.kernel.codegen.FieldType;
+import io.nuls.kernel.codegen.NulsSerializable;
+import io.nuls.kernel.codegen.SerializeField;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 为{@link NulsSerializable}标记的类生成序列化代码
+ * 生成的size方法直接累加每个字段的长度，serialize方法把字段依次写入调用方提供的流，
+ * parse方法依次从NulsByteBuffer中读取，所有方法都不创建中间字节数组
+ * <p>
+ * Generates the serialization code of classes marked with {@link NulsSerializable}.
+ * The generated size method adds up the exact length of every field, serialize writes the fields straight into the
+ * stream given by the caller and parse reads them back from a NulsByteBuffer, none of them creates intermediate byte arrays.
+ */
+@SupportedAnnotationTypes("io.nuls.kernel.codegen.NulsSerializable")
+public class SerializerProcessor extends AbstractProcessor {
+
+    private static final String SERIALIZER_SUFFIX = "Serializer";
+
+    private static final String SERIALIZE_UTILS = "io.nuls.kernel.utils.SerializeUtils";
+    private static final String VAR_INT = "io.nuls.kernel.utils.VarInt";
+    private static final String NA = "io.nuls.kernel.model.Na";
+    private static final String OUTPUT_BUFFER = "io.nuls.kernel.utils.NulsOutputStreamBuffer";
+    private static final String INPUT_BUFFER = "io.nuls.kernel.utils.NulsByteBuffer";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(NulsSerializable.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@NulsSerializable can only be used on classes");
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            if (type.getNestingKind() != NestingKind.TOP_LEVEL || !type.getTypeParameters().isEmpty()) {
+                error(type, "@NulsSerializable can only be used on top level, non generic classes");
+                continue;
+            }
+            List<FieldInfo> fields = collectFields(type);
+            if (null == fields) {
+                continue;
+            }
+            try {
+                write(type, fields);
+            } catch (IOException e) {
+                error(type, "failed to write serializer: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private List<FieldInfo> collectFields(TypeElement type) {
+        List<FieldInfo> fields = new ArrayList<>();
+        Set<Integer> orders = new HashSet<>();
+        boolean valid = true;
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            SerializeField annotation = field.getAnnotation(SerializeField.class);
+            if (null == annotation) {
+                continue;
+            }
+            if (field.getModifiers().contains(Modifier.STATIC) || field.getModifiers().contains(Modifier.FINAL)) {
+                error(field, "@SerializeField can not be used on static or final fields");
+                valid = false;
+                continue;
+            }
+            if (!orders.add(annotation.order())) {
+                error(field, "duplicate @SerializeField order " + annotation.order());
+                valid = false;
+                continue;
+            }
+            if (annotation.type() == FieldType.FIXED_BYTES && annotation.length() <= 0) {
+                error(field, "FIXED_BYTES fields need a positive length");
+                valid = false;
+                continue;
+            }
+            FieldInfo info = new FieldInfo(field, annotation.order(), annotation.type(), annotation.length());
+            if (!resolveAccess(type, info) || !resolveElementType(info)) {
+                valid = false;
+                continue;
+            }
+            fields.add(info);
+        }
+        if (!valid) {
+            return null;
+        }
+        fields.sort(Comparator.comparingInt(f -> f.order));
+        return fields;
+    }
+
+    /**
+     * 非私有字段直接访问，私有字段通过getter/setter访问
+     * Non private fields are accessed directly, private fields through their getter and setter.
+     */
+    private boolean resolveAccess(TypeElement type, FieldInfo info) {
+        String name = info.field.getSimpleName().toString();
+        if (!info.field.getModifiers().contains(Modifier.PRIVATE)) {
+            info.getter = "data." + name;
+            info.setter = "data." + name + " = %s;";
+            return true;
+        }
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        String getter = null;
+        String setter = null;
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            String methodName = method.getSimpleName().toString();
+            int params = method.getParameters().size();
+            if (params == 0 && (methodName.equals("get" + capitalized) || methodName.equals("is" + capitalized))) {
+                getter = methodName;
+            } else if (params == 1 && methodName.equals("set" + capitalized)) {
+                setter = methodName;
+            }
+        }
+        if (null == getter || null == setter) {
+            error(info.field, "private @SerializeField needs a getter and a setter");
+            return false;
+        }
+        info.getter = "data." + getter + "()";
+        info.setter = "data." + setter + "(%s);";
+        return true;
+    }
+
+    private boolean resolveElementType(FieldInfo info) {
+        TypeMirror type = info.field.asType();
+        if (info.type == FieldType.NULS_DATA) {
+            if (type.getKind() != TypeKind.DECLARED) {
+                error(info.field, "NULS_DATA fields must be a BaseNulsData type");
+                return false;
+            }
+            info.elementType = erasure(type);
+        } else if (info.type == FieldType.NULS_DATA_LIST) {
+            if (type.getKind() != TypeKind.DECLARED || ((DeclaredType) type).getTypeArguments().size() != 1) {
+                error(info.field, "NULS_DATA_LIST fields must be a java.util.List of a BaseNulsData type");
+                return false;
+            }
+            info.elementType = erasure(((DeclaredType) type).getTypeArguments().get(0));
+        }
+        return true;
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private void write(TypeElement type, List<FieldInfo> fields) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String dataType = type.getQualifiedName().toString();
+        String className = type.getSimpleName() + SERIALIZER_SUFFIX;
+
+        StringBuilder code = new StringBuilder();
+        code.append("package ").append(packageName).append(";\n\n");
+        code.append("/**\n");
+        code.append(" * Generated by ").append(SerializerProcessor.class.getName()).append(" from ")
+                .append(dataType).append(", do not edit.\n");
+        code.append(" */\n");
+        code.append("final class ").append(className).append(" {\n\n");
+        code.append("    private ").append(className).append("() {\n    }\n\n");
+
+        code.append("    static int size(").append(dataType).append(" data) {\n");
+        code.append("        int size = 0;\n");
+        for (FieldInfo field : fields) {
+            appendSize(code, field);
+        }
+        code.append("        return size;\n");
+        code.append("    }\n\n");
+
+        code.append("    static void serialize(").append(dataType).append(" data, ").append(OUTPUT_BUFFER)
+                .append(" stream) throws java.io.IOException {\n");
+        for (FieldInfo field : fields) {
+            appendWrite(code, field);
+        }
+        code.append("    }\n\n");
+
+        code.append("    static void parse(").append(dataType).append(" data, ").append(INPUT_BUFFER)
+                .append(" buffer) throws io.nuls.kernel.exception.NulsException {\n");
+        for (FieldInfo field : fields) {
+            appendRead(code, field);
+        }
+        code.append("    }\n");
+        code.append("}\n");
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(packageName + "." + className, type).openWriter()) {
+            writer.write(code.toString());
+        }
+    }
+
+    private void appendSize(StringBuilder code, FieldInfo field) {
+        String value = field.getter;
+        switch (field.type) {
+            case BYTE:
+            case BOOLEAN:
+                code.append("        size += 1;\n");
+                break;
+            case INT16:
+            case UINT16:
+                code.append("        size += 2;\n");
+                break;
+            case UINT32:
+                code.append("        size += 4;\n");
+                break;
+            case UINT48:
+                code.append("        size += 6;\n");
+                break;
+            case INT64:
+            case DOUBLE:
+            case NA:
+                code.append("        size += 8;\n");
+                break;
+            case VAR_INT:
+                code.append("        size += ").append(VAR_INT).append(".sizeOf(").append(value).append(");\n");
+                break;
+            case STRING:
+                code.append("        size += ").append(SERIALIZE_UTILS).append(".sizeOfString(").append(value).append(");\n");
+                break;
+            case BYTES:
+                code.append("        size += ").append(SERIALIZE_UTILS).append(".sizeOfBytes(").append(value).append(");\n");
+                break;
+            case FIXED_BYTES:
+                code.append("        size += ").append(field.length).append(";\n");
+                break;
+            case NULS_DATA:
+                code.append("        size += ").append(SERIALIZE_UTILS).append(".sizeOfNulsData(").append(value).append(");\n");
+                break;
+            case NULS_DATA_LIST:
+                code.append("        {\n");
+                code.append("            java.util.List<").append(field.elementType).append("> list = ").append(value).append(";\n");
+                code.append("            size += ").append(VAR_INT).append(".sizeOf(list == null ? 0 : list.size());\n");
+                code.append("            if (null != list) {\n");
+                code.append("                for (").append(field.elementType).append(" item : list) {\n");
+                code.append("                    size += ").append(SERIALIZE_UTILS).append(".sizeOfNulsData(item);\n");
+                code.append("                }\n");
+                code.append("            }\n");
+                code.append("        }\n");
+                break;
+            default:
+                throw new IllegalStateException("unknown field type " + field.type);
+        }
+    }
+
+    private void appendWrite(StringBuilder code, FieldInfo field) {
+        String value = field.getter;
+        switch (field.type) {
+            case BYTE:
+                code.append("        stream.write(").append(value).append(");\n");
+                break;
+            case BOOLEAN:
+                code.append("        stream.writeBoolean(").append(value).append(");\n");
+                break;
+            case INT16:
+                code.append("        stream.writeShort(").append(value).append(");\n");
+                break;
+            case UINT16:
+                code.append("        stream.writeUint16(").append(value).append(");\n");
+                break;
+            case UINT32:
+                code.append("        stream.writeUint32(").append(value).append(");\n");
+                break;
+            case INT64:
+                code.append("        stream.writeInt64(").append(value).append(");\n");
+                break;
+            case UINT48:
+                code.append("        stream.writeUint48(").append(value).append(");\n");
+                break;
+            case VAR_INT:
+                code.append("        stream.writeVarInt(").append(value).append(");\n");
+                break;
+            case DOUBLE:
+                code.append("        stream.writeDouble(").append(value).append(");\n");
+                break;
+            case STRING:
+                code.append("        stream.writeString(").append(value).append(");\n");
+                break;
+            case BYTES:
+                code.append("        stream.writeBytesWithLength(").append(value).append(");\n");
+                break;
+            case FIXED_BYTES:
+                code.append("        stream.write(").append(value).append(");\n");
+                break;
+            case NA:
+                code.append("        stream.writeInt64(").append(value).append(".getValue());\n");
+                break;
+            case NULS_DATA:
+                code.append("        stream.writeNulsData(").append(value).append(");\n");
+                break;
+            case NULS_DATA_LIST:
+                code.append("        {\n");
+                code.append("            java.util.List<").append(field.elementType).append("> list = ").append(value).append(";\n");
+                code.append("            stream.writeVarInt(list == null ? 0 : list.size());\n");
+                code.append("            if (null != list) {\n");
+                code.append("                for (").append(field.elementType).append(" item : list) {\n");
+                code.append("                    stream.writeNulsData(item);\n");
+                code.append("                }\n");
+                code.append("            }\n");
+                code.append("        }\n");
+                break;
+            default:
+                throw new IllegalStateException("unknown field type " + field.type);
+        }
+    }
+
+    private void appendRead(StringBuilder code, FieldInfo field) {
+        String read;
+        TypeKind returnKind;
+        switch (field.type) {
+            case BYTE:
+                read = "buffer.readByte()";
+                returnKind = TypeKind.BYTE;
+                break;
+            case BOOLEAN:
+                read = "buffer.readBoolean()";
+                returnKind = TypeKind.BOOLEAN;
+                break;
+            case INT16:
+                read = "buffer.readShort()";
+                returnKind = TypeKind.SHORT;
+                break;
+            case UINT16:
+                read = "buffer.readUint16()";
+                returnKind = TypeKind.INT;
+                break;
+            case UINT32:
+                read = "buffer.readUint32()";
+                returnKind = TypeKind.LONG;
+                break;
+            case INT64:
+                read = "buffer.readInt64()";
+                returnKind = TypeKind.LONG;
+                break;
+            case UINT48:
+                read = "buffer.readUint48()";
+                returnKind = TypeKind.LONG;
+                break;
+            case VAR_INT:
+                read = "buffer.readVarInt()";
+                returnKind = TypeKind.LONG;
+                break;
+            case DOUBLE:
+                read = "buffer.readDouble()";
+                returnKind = TypeKind.DOUBLE;
+                break;
+            case STRING:
+                read = "buffer.readString()";
+                returnKind = TypeKind.DECLARED;
+                break;
+            case BYTES:
+                read = "buffer.readByLengthByte()";
+                returnKind = TypeKind.ARRAY;
+                break;
+            case FIXED_BYTES:
+                read = "buffer.readBytes(" + field.length + ")";
+                returnKind = TypeKind.ARRAY;
+                break;
+            case NA:
+                read = NA + ".valueOf(buffer.readInt64())";
+                returnKind = TypeKind.DECLARED;
+                break;
+            case NULS_DATA:
+                read = "buffer.readNulsData(new " + field.elementType + "())";
+                returnKind = TypeKind.DECLARED;
+                break;
+            case NULS_DATA_LIST:
+                code.append("        {\n");
+                code.append("            int count = (int) buffer.readVarInt();\n");
+                code.append("            if (0 < count) {\n");
+                code.append("                java.util.List<").append(field.elementType).append("> list = new java.util.ArrayList<>();\n");
+                code.append("                for (int i = 0; i < count; i++) {\n");
+                code.append("                    list.add(buffer.readNulsData(new ").append(field.elementType).append("()));\n");
+                code.append("                }\n");
+                code.append("                ").append(String.format(field.setter, "list")).append("\n");
+                code.append("            }\n");
+                code.append("        }\n");
+                return;
+            default:
+                throw new IllegalStateException("unknown field type " + field.type);
+        }
+        TypeMirror fieldType = field.field.asType();
+        if (fieldType.getKind().isPrimitive() && fieldType.getKind() != returnKind) {
+            read = "(" + fieldType + ") " + read;
+        }
+        code.append("        ").append(String.format(field.setter, read)).append("\n");
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static class FieldInfo {
+        private final VariableElement field;
+        private final int order;
+        private final FieldType type;
+        private final int length;
+        private String getter;
+        private String setter;
+        private String elementType;
+
+        private FieldInfo(VariableElement field, int order, FieldType type, int length) {
+            this.field = field;
+            this.order = order;
+            this.type = type;
+            this.length = length;
+        }
+    }
+}
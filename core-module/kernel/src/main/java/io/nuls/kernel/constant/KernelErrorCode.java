@@ -70,4 +70,5 @@ public interface KernelErrorCode {
     ErrorCode NONEWVER = ErrorCode.init("10035");
     ErrorCode WALLET_STATUS_SYNCHING = ErrorCode.init("10036");
     ErrorCode WALLET_STATUS_ROLLBACK = ErrorCode.init("10037");
+    ErrorCode SERVER_BUSY = ErrorCode.init("10038");
 }
\ No newline at end of file
@@ -87,6 +87,33 @@ public interface NulsConstant {
      */
     String CFG_SYSTEM_DEFAULT_CHAIN_ID = "chain.id";
 
+    /**
+     * ----[ RPC ] ----
+     */
+    /**
+     * RPC配置项section名称
+     * The configuration item section name of the rpc server.
+     */
+    String CFG_RPC_SECTION = "client";
+
+    /**
+     * RPC任务组的线程数, 格式化参数为任务组名称
+     * Worker threads of a rpc task group, formatted with the group name.
+     */
+    String CFG_RPC_GROUP_THREADS = "rpc.%s.threads";
+
+    /**
+     * RPC任务组的等待队列长度
+     * Queue limit of a rpc task group.
+     */
+    String CFG_RPC_GROUP_QUEUE = "rpc.%s.queue";
+
+    /**
+     * RPC任务组中单个接口的最大并发数
+     * Max concurrent executions of a single endpoint in a rpc task group.
+     */
+    String CFG_RPC_GROUP_ENDPOINT_CONCURRENCY = "rpc.%s.endpoint.concurrency";
+
     /**
      * 内核模块的模块id
      * The module id of micro kernel module
@@ -24,18 +24,17 @@
  */
 package io.nuls.kernel.model;
 
-import io.nuls.core.tools.crypto.UnsafeByteArrayOutputStream;
 import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.constant.NulsConstant;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.exception.NulsRuntimeException;
 import io.nuls.kernel.exception.NulsVerificationException;
+import io.nuls.kernel.utils.FixedByteArrayOutputStream;
 import io.nuls.kernel.utils.NulsByteBuffer;
 import io.nuls.kernel.utils.NulsOutputStreamBuffer;
 import io.nuls.kernel.validate.ValidateResult;
 import io.nuls.kernel.validate.ValidatorManager;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.Arrays;
@@ -47,29 +46,46 @@ public abstract class BaseNulsData implements NulsData, Serializable, Cloneable
 
     @Override
     public final byte[] serialize() throws IOException {
-        ByteArrayOutputStream bos = null;
+        int size = size();
+        byte[] bytes = new byte[size];
+        write(bytes, 0, size);
+        return bytes;
+    }
+
+    /**
+     * 序列化到调用方提供的字节数组中，从offset开始写入，返回写入的字节数
+     * Serialize into a byte array given by the caller starting at offset, returns the number of bytes written.
+     */
+    public final int serialize(byte[] buffer, int offset) throws IOException {
+        return write(buffer, offset, size());
+    }
+
+    private int write(byte[] buffer, int offset, int size) throws IOException {
+        FixedByteArrayOutputStream out = new FixedByteArrayOutputStream(buffer, offset);
         try {
-            int size = size();
-            bos = new UnsafeByteArrayOutputStream(size);
-            NulsOutputStreamBuffer buffer = new NulsOutputStreamBuffer(bos);
-            if (size == 0) {
-                bos.write(NulsConstant.PLACE_HOLDER);
-            } else {
-                serializeToStream(buffer);
-            }
-            byte[] bytes = bos.toByteArray();
-            if (bytes.length != this.size()) {
-                throw new NulsRuntimeException(KernelErrorCode.SERIALIZE_ERROR);
-            }
-            return bytes;
-        } finally {
-            if (bos != null) {
-                try {
-                    bos.close();
-                } catch (IOException e) {
-                    throw e;
-                }
-            }
+            write(new NulsOutputStreamBuffer(out), size);
+        } catch (IndexOutOfBoundsException e) {
+            throw new NulsRuntimeException(KernelErrorCode.SERIALIZE_ERROR);
+        }
+        if (out.getPosition() - offset != size) {
+            throw new NulsRuntimeException(KernelErrorCode.SERIALIZE_ERROR);
+        }
+        return size;
+    }
+
+    /**
+     * 直接写入已有的流，嵌套对象不再单独创建字节数组
+     * Write straight into an existing stream, so nested data no longer creates its own byte array.
+     */
+    public final void serialize(NulsOutputStreamBuffer stream) throws IOException {
+        write(stream, size());
+    }
+
+    private void write(NulsOutputStreamBuffer stream, int size) throws IOException {
+        if (size == 0) {
+            stream.write(NulsConstant.PLACE_HOLDER);
+        } else {
+            serializeToStream(stream);
         }
     }
 
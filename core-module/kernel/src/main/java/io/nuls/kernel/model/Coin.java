@@ -27,6 +27,9 @@
 package io.nuls.kernel.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.nuls.kernel.codegen.FieldType;
+import io.nuls.kernel.codegen.NulsSerializable;
+import io.nuls.kernel.codegen.SerializeField;
 import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.constant.NulsConstant;
 import io.nuls.kernel.context.NulsContext;
@@ -37,19 +40,22 @@ import io.nuls.kernel.script.Script;
 import io.nuls.kernel.utils.AddressTool;
 import io.nuls.kernel.utils.NulsByteBuffer;
 import io.nuls.kernel.utils.NulsOutputStreamBuffer;
-import io.nuls.kernel.utils.SerializeUtils;
 
 import java.io.IOException;
 
 /**
  * @author ln
  */
+@NulsSerializable
 public class Coin extends BaseNulsData {
 
+    @SerializeField(order = 1, type = FieldType.BYTES)
     private byte[] owner;
 
+    @SerializeField(order = 2, type = FieldType.NA)
     private Na na;
 
+    @SerializeField(order = 3, type = FieldType.UINT48)
     private long lockTime;
 
     private transient Coin from;
@@ -77,25 +83,17 @@ public class Coin extends BaseNulsData {
 
     @Override
     protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
-        stream.writeBytesWithLength(owner);
-        stream.writeInt64(na.getValue());
-        stream.writeUint48(lockTime);
+        CoinSerializer.serialize(this, stream);
     }
 
     @Override
     public void parse(NulsByteBuffer byteBuffer) throws NulsException {
-        this.owner = byteBuffer.readByLengthByte();
-        this.na = Na.valueOf(byteBuffer.readInt64());
-        this.lockTime = byteBuffer.readUint48();
+        CoinSerializer.parse(this, byteBuffer);
     }
 
     @Override
     public int size() {
-        int size = 0;
-        size += SerializeUtils.sizeOfBytes(owner);
-        size += SerializeUtils.sizeOfInt64();
-        size += SerializeUtils.sizeOfUint48();
-        return size;
+        return CoinSerializer.size(this);
     }
 
 
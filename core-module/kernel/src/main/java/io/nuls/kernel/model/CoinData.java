@@ -27,13 +27,15 @@
 package io.nuls.kernel.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.nuls.kernel.codegen.FieldType;
+import io.nuls.kernel.codegen.NulsSerializable;
+import io.nuls.kernel.codegen.SerializeField;
 import io.nuls.kernel.context.NulsContext;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.script.Script;
 import io.nuls.kernel.script.SignatureUtil;
 import io.nuls.kernel.utils.NulsByteBuffer;
 import io.nuls.kernel.utils.NulsOutputStreamBuffer;
-import io.nuls.kernel.utils.SerializeUtils;
 
 import java.io.IOException;
 import java.util.*;
@@ -41,10 +43,13 @@ import java.util.*;
 /**
  * @author ln
  */
+@NulsSerializable
 public class CoinData extends BaseNulsData {
 
+    @SerializeField(order = 1, type = FieldType.NULS_DATA_LIST)
     private List<Coin> from;
 
+    @SerializeField(order = 2, type = FieldType.NULS_DATA_LIST)
     private List<Coin> to;
 
     public CoinData() {
@@ -57,60 +62,17 @@ public class CoinData extends BaseNulsData {
      */
     @Override
     protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
-        int fromCount = from == null ? 0 : from.size();
-        stream.writeVarInt(fromCount);
-        if (null != from) {
-            for (Coin coin : from) {
-                stream.writeNulsData(coin);
-            }
-        }
-        int toCount = to == null ? 0 : to.size();
-        stream.writeVarInt(toCount);
-        if (null != to) {
-            for (Coin coin : to) {
-                stream.writeNulsData(coin);
-            }
-        }
+        CoinDataSerializer.serialize(this, stream);
     }
 
     @Override
     public void parse(NulsByteBuffer byteBuffer) throws NulsException {
-        int fromCount = (int) byteBuffer.readVarInt();
-
-        if (0 < fromCount) {
-            List<Coin> from = new ArrayList<>();
-            for (int i = 0; i < fromCount; i++) {
-                from.add(byteBuffer.readNulsData(new Coin()));
-            }
-            this.from = from;
-        }
-
-        int toCount = (int) byteBuffer.readVarInt();
-
-        if (0 < toCount) {
-            List<Coin> to = new ArrayList<>();
-            for (int i = 0; i < toCount; i++) {
-                to.add(byteBuffer.readNulsData(new Coin()));
-            }
-            this.to = to;
-        }
+        CoinDataSerializer.parse(this, byteBuffer);
     }
 
     @Override
     public int size() {
-        int size = SerializeUtils.sizeOfVarInt(from == null ? 0 : from.size());
-        if (null != from) {
-            for (Coin coin : from) {
-                size += SerializeUtils.sizeOfNulsData(coin);
-            }
-        }
-        size += SerializeUtils.sizeOfVarInt(to == null ? 0 : to.size());
-        if (null != to) {
-            for (Coin coin : to) {
-                size += SerializeUtils.sizeOfNulsData(coin);
-            }
-        }
-        return size;
+        return CoinDataSerializer.size(this);
     }
 
     public List<Coin> getFrom() {
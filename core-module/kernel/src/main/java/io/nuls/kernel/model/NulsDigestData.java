@@ -28,6 +28,9 @@ package io.nuls.kernel.model;
 import io.nuls.core.tools.crypto.Hex;
 import io.nuls.core.tools.crypto.Sha256Hash;
 import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.codegen.FieldType;
+import io.nuls.kernel.codegen.NulsSerializable;
+import io.nuls.kernel.codegen.SerializeField;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.utils.NulsByteBuffer;
 import io.nuls.kernel.utils.NulsOutputStreamBuffer;
@@ -41,12 +44,15 @@ import java.util.List;
 /**
  * @author facjas
  */
+@NulsSerializable
 public class NulsDigestData extends BaseNulsData {
 
     public static final int HASH_LENGTH = 34;
 
+    @SerializeField(order = 1, type = FieldType.BYTE)
     protected byte digestAlgType = DIGEST_ALG_SHA256;
 
+    @SerializeField(order = 2, type = FieldType.BYTES)
     protected byte[] digestBytes;
 
     public static byte DIGEST_ALG_SHA256 = 0;
@@ -62,19 +68,17 @@ public class NulsDigestData extends BaseNulsData {
 
     @Override
     public int size() {
-        return SerializeUtils.sizeOfBytes(digestBytes) + 1;
+        return NulsDigestDataSerializer.size(this);
     }
 
     @Override
     protected void serializeToStream(NulsOutputStreamBuffer buffer) throws IOException {
-        buffer.write(digestAlgType);
-        buffer.writeBytesWithLength(digestBytes);
+        NulsDigestDataSerializer.serialize(this, buffer);
     }
 
     @Override
     public void parse(NulsByteBuffer byteBuffer) throws NulsException {
-        digestAlgType = byteBuffer.readByte();
-        this.digestBytes = byteBuffer.readByLengthByte();
+        NulsDigestDataSerializer.parse(this, byteBuffer);
     }
 
     public byte getDigestAlgType() {
@@ -27,10 +27,12 @@ package io.nuls.kernel.model;
 import io.nuls.core.tools.crypto.ECKey;
 import io.nuls.core.tools.crypto.Hex;
 import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.codegen.FieldType;
+import io.nuls.kernel.codegen.NulsSerializable;
+import io.nuls.kernel.codegen.SerializeField;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.utils.NulsByteBuffer;
 import io.nuls.kernel.utils.NulsOutputStreamBuffer;
-import io.nuls.kernel.utils.SerializeUtils;
 
 import java.io.IOException;
 import java.math.BigInteger;
@@ -38,6 +40,7 @@ import java.math.BigInteger;
 /**
  * @author facjas
  */
+@NulsSerializable
 public class NulsSignData extends BaseNulsData {
 
     public static byte SIGN_ALG_ECC = (short) 0;
@@ -45,11 +48,13 @@ public class NulsSignData extends BaseNulsData {
     /**
      * 算法类型
      */
+    @SerializeField(order = 1, type = FieldType.BYTE)
     protected byte signAlgType;
 
     /**
      * 签名字节组
      */
+    @SerializeField(order = 2, type = FieldType.BYTES)
     protected byte[] signBytes;
 
     public byte getSignAlgType() {
@@ -65,19 +70,17 @@ public class NulsSignData extends BaseNulsData {
 
     @Override
     public int size() {
-        return SerializeUtils.sizeOfBytes(signBytes) + 1;
+        return NulsSignDataSerializer.size(this);
     }
 
     @Override
     public void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
-        stream.write(signAlgType);
-        stream.writeBytesWithLength(signBytes);
+        NulsSignDataSerializer.serialize(this, stream);
     }
 
     @Override
     public void parse(NulsByteBuffer byteBuffer) throws NulsException {
-        this.signAlgType = byteBuffer.readByte();
-        this.signBytes = byteBuffer.readByLengthByte();
+        NulsSignDataSerializer.parse(this, byteBuffer);
     }
 
 
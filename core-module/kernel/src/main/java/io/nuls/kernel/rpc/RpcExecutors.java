@@ -0,0 +1,169 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.kernel.rpc;
+
+import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.cfg.NulsConfig;
+import io.nuls.kernel.constant.KernelErrorCode;
+import io.nuls.kernel.constant.NulsConstant;
+import io.nuls.kernel.model.RpcClientResult;
+import io.nuls.kernel.thread.manager.NulsThreadFactory;
+import io.nuls.kernel.thread.manager.TaskManager;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.ResourceInfo;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * RPC异步执行器, 资源方法挂起{@link AsyncResponse}后, grizzly工作线程立即释放,
+ * 实际的存储或虚拟机操作在所属任务组的线程池中执行, 完成后恢复响应
+ * Rpc async executors. A resource method suspending its {@link AsyncResponse} releases the grizzly worker
+ * thread at once, the storage or vm work runs on the thread pool of its task group and resumes the response.
+ * <p>
+ * 任务组线程池满或单个接口并发数超限时, 直接返回服务器繁忙, 不排队等待
+ * When the pool of the group is full or an endpoint exceeds its concurrency cap, the request fails fast with server busy.
+ */
+public class RpcExecutors {
+
+    private static final Map<RpcTaskGroup, GroupExecutor> EXECUTORS = new EnumMap<>(RpcTaskGroup.class);
+
+    private RpcExecutors() {
+    }
+
+    /**
+     * 在指定任务组中异步执行接口请求
+     * Execute an endpoint request asynchronously on the given task group
+     *
+     * @param group         task group
+     * @param resourceInfo  the matched resource method, the concurrency cap is counted per endpoint
+     * @param asyncResponse suspended response, resumed with the result of the task, or with server busy if the request is rejected
+     * @param task          the request work, returns the response entity, usually a {@link RpcClientResult}
+     */
+    public static void submit(RpcTaskGroup group, ResourceInfo resourceInfo, AsyncResponse asyncResponse, Supplier<?> task) {
+        String endpoint = RpcStatistics.getEndpoint(resourceInfo.getResourceClass(), resourceInfo.getResourceMethod());
+        getExecutor(group).submit(endpoint, asyncResponse, task);
+    }
+
+    /**
+     * 获取所有任务组线程池的运行状态
+     * Get the runtime statistics of every task group pool
+     */
+    public static Map<String, Object> getStatistics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        synchronized (EXECUTORS) {
+            for (GroupExecutor executor : EXECUTORS.values()) {
+                map.put(executor.group.getName(), executor.getStatistics());
+            }
+        }
+        return map;
+    }
+
+    private static GroupExecutor getExecutor(RpcTaskGroup group) {
+        synchronized (EXECUTORS) {
+            GroupExecutor executor = EXECUTORS.get(group);
+            if (executor == null) {
+                executor = new GroupExecutor(group);
+                EXECUTORS.put(group, executor);
+            }
+            return executor;
+        }
+    }
+
+    private static int getCfgValue(String key, RpcTaskGroup group, int defaultValue) {
+        if (null == NulsConfig.MODULES_CONFIG) {
+            return defaultValue;
+        }
+        int value = NulsConfig.MODULES_CONFIG.getCfgValue(NulsConstant.CFG_RPC_SECTION, String.format(key, group.getName()), defaultValue);
+        return value > 0 ? value : defaultValue;
+    }
+
+    private static final class GroupExecutor {
+
+        private final RpcTaskGroup group;
+        private final int threads;
+        private final int queue;
+        private final int endpointConcurrency;
+        private final ThreadPoolExecutor pool;
+        private final Map<String, Semaphore> endpointPermits = new ConcurrentHashMap<>();
+        private final AtomicLong rejected = new AtomicLong();
+
+        GroupExecutor(RpcTaskGroup group) {
+            this.group = group;
+            this.threads = getCfgValue(NulsConstant.CFG_RPC_GROUP_THREADS, group, group.getDefaultThreads());
+            this.queue = getCfgValue(NulsConstant.CFG_RPC_GROUP_QUEUE, group, group.getDefaultQueue());
+            this.endpointConcurrency = getCfgValue(NulsConstant.CFG_RPC_GROUP_ENDPOINT_CONCURRENCY, group, group.getDefaultEndpointConcurrency());
+            this.pool = TaskManager.createThreadPool(threads, queue,
+                    new NulsThreadFactory(NulsConstant.MODULE_ID_MICROKERNEL, "rpc-" + group.getName()));
+        }
+
+        void submit(String endpoint, AsyncResponse asyncResponse, Supplier<?> task) {
+            Semaphore permits = endpointPermits.computeIfAbsent(endpoint, key -> new Semaphore(endpointConcurrency));
+            if (!permits.tryAcquire()) {
+                busy(asyncResponse, endpoint);
+                return;
+            }
+            try {
+                pool.execute(() -> {
+                    try {
+                        asyncResponse.resume(task.get());
+                    } catch (Throwable e) {
+                        // 原样抛出, 由RPC的异常处理统一转换
+                        // Keep the original exception for the rpc exception mapper
+                        asyncResponse.resume(e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                busy(asyncResponse, endpoint);
+            }
+        }
+
+        private void busy(AsyncResponse asyncResponse, String endpoint) {
+            rejected.incrementAndGet();
+            Log.warn("rpc {} pool is busy, reject request: {}", group.getName(), endpoint);
+            asyncResponse.resume(RpcClientResult.getFailed(KernelErrorCode.SERVER_BUSY));
+        }
+
+        Map<String, Object> getStatistics() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("threads", threads);
+            map.put("queueLimit", queue);
+            map.put("endpointConcurrency", endpointConcurrency);
+            map.put("active", pool.getActiveCount());
+            map.put("queued", pool.getQueue().size());
+            map.put("completed", pool.getCompletedTaskCount());
+            map.put("rejected", rejected.get());
+            return map;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.kernel.rpc;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Path;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * RPC接口耗时统计, 每个接口一个按耗时分桶的直方图
+ * Rpc endpoint latency statistics, one bucketed histogram per endpoint
+ */
+public class RpcStatistics {
+
+    /**
+     * 直方图各个桶的上限(毫秒), 最后一个桶统计超过最大上限的请求
+     * Upper bounds (millis) of the histogram buckets, the last bucket counts everything above the largest bound
+     */
+    private static final long[] BUCKET_BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000};
+
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    private static final Map<Method, String> ENDPOINTS = new ConcurrentHashMap<>();
+
+    private RpcStatistics() {
+    }
+
+    /**
+     * 根据资源类和方法上的注解得到接口名称, 如"GET /accountledger/tx/list/{address}"
+     * Get the endpoint name from the annotations of the resource class and method, e.g. "GET /accountledger/tx/list/{address}"
+     */
+    public static String getEndpoint(Class<?> resourceClass, Method method) {
+        return ENDPOINTS.computeIfAbsent(method, key -> {
+            String httpMethod = "";
+            for (Annotation annotation : key.getAnnotations()) {
+                HttpMethod type = annotation.annotationType().getAnnotation(HttpMethod.class);
+                if (type != null) {
+                    httpMethod = type.value();
+                    break;
+                }
+            }
+            return httpMethod + " " + getPath(resourceClass.getAnnotation(Path.class)) + getPath(key.getAnnotation(Path.class));
+        });
+    }
+
+    private static String getPath(Path path) {
+        if (path == null) {
+            return "";
+        }
+        String value = path.value();
+        return value.startsWith("/") ? value : "/" + value;
+    }
+
+    /**
+     * 记录一次接口请求的耗时
+     * Record the latency of one endpoint request
+     */
+    public static void recordLatency(String endpoint, long millis) {
+        HISTOGRAMS.computeIfAbsent(endpoint, key -> new LatencyHistogram()).record(millis);
+    }
+
+    /**
+     * 获取所有接口的耗时统计, 按接口名称排序
+     * Get the latency statistics of every endpoint, sorted by endpoint
+     */
+    public static Map<String, Object> getLatencyStatistics() {
+        Map<String, Object> map = new TreeMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : HISTOGRAMS.entrySet()) {
+            map.put(entry.getKey(), entry.getValue().toMap());
+        }
+        return map;
+    }
+
+    private static final class LatencyHistogram {
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS.length + 1);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long millis) {
+            if (millis < 0) {
+                millis = 0;
+            }
+            int i = 0;
+            while (i < BUCKET_BOUNDS.length && millis > BUCKET_BOUNDS[i]) {
+                i++;
+            }
+            buckets.incrementAndGet(i);
+            count.incrementAndGet();
+            total.addAndGet(millis);
+            long current;
+            while (millis > (current = max.get()) && !max.compareAndSet(current, millis)) {
+            }
+        }
+
+        Map<String, Object> toMap() {
+            long[] counts = new long[buckets.length()];
+            long sum = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+                sum += counts[i];
+            }
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", sum);
+            map.put("avg", sum == 0 ? 0 : total.get() / count.get());
+            map.put("max", max.get());
+            map.put("p50", percentile(counts, sum, 0.5));
+            map.put("p90", percentile(counts, sum, 0.9));
+            map.put("p99", percentile(counts, sum, 0.99));
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    continue;
+                }
+                histogram.put(i < BUCKET_BOUNDS.length ? "<=" + BUCKET_BOUNDS[i] : ">" + BUCKET_BOUNDS[BUCKET_BOUNDS.length - 1], counts[i]);
+            }
+            map.put("histogram", histogram);
+            return map;
+        }
+
+        /**
+         * 返回百分位所在桶的上限, 落在最后一个桶时返回最大耗时
+         * Returns the upper bound of the bucket holding the percentile, or the max latency for the last bucket
+         */
+        private long percentile(long[] counts, long sum, double percentile) {
+            if (sum == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(sum * percentile);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(BUCKET_BOUNDS[i], max.get());
+                }
+            }
+            return max.get();
+        }
+    }
+}
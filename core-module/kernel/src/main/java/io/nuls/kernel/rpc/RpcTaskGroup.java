@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.kernel.rpc;
+
+/**
+ * RPC异步任务组, 每个任务组使用独立的线程池, 慢接口只会占满自己所在的任务组, 不会阻塞其它RPC请求
+ * Rpc async task groups. Every group runs on its own thread pool, so slow endpoints can only saturate
+ * their own group instead of blocking every other rpc request.
+ */
+public enum RpcTaskGroup {
+
+    /**
+     * 账本查询: 交易记录、锁定utxo等历史数据查询
+     * Ledger queries: transaction history, locked utxo and other history lookups
+     */
+    LEDGER("ledger", 4, 200, 2),
+
+    /**
+     * 合约只读调用: 视图方法、gas估算等需要执行虚拟机的请求
+     * Contract views: view methods, gas estimation and other requests executing the vm
+     */
+    CONTRACT("contract", 4, 200, 2),
+
+    /**
+     * 交易提交: 创建、签名并广播交易
+     * Transaction submission: create, sign and broadcast transactions
+     */
+    TX("tx", 2, 500, 2);
+
+    private final String name;
+    private final int defaultThreads;
+    private final int defaultQueue;
+    private final int defaultEndpointConcurrency;
+
+    RpcTaskGroup(String name, int defaultThreads, int defaultQueue, int defaultEndpointConcurrency) {
+        this.name = name;
+        this.defaultThreads = defaultThreads;
+        this.defaultQueue = defaultQueue;
+        this.defaultEndpointConcurrency = defaultEndpointConcurrency;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDefaultThreads() {
+        return defaultThreads;
+    }
+
+    public int getDefaultQueue() {
+        return defaultQueue;
+    }
+
+    public int getDefaultEndpointConcurrency() {
+        return defaultEndpointConcurrency;
+    }
+}
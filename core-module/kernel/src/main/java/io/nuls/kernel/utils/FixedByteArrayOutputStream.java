@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.kernel.utils;
+
+import java.io.OutputStream;
+
+/**
+ * 写入调用方提供的定长字节数组的输出流，不做扩容也不复制
+ * An output stream writing into a fixed byte array given by the caller, it never grows or copies the array.
+ */
+public class FixedByteArrayOutputStream extends OutputStream {
+
+    private final byte[] buffer;
+
+    private final int limit;
+
+    private int position;
+
+    public FixedByteArrayOutputStream(byte[] buffer, int offset) {
+        if (null == buffer || offset < 0 || offset > buffer.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        this.buffer = buffer;
+        this.limit = buffer.length;
+        this.position = offset;
+    }
+
+    @Override
+    public void write(int b) {
+        if (position >= limit) {
+            throw new IndexOutOfBoundsException();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || off + len > b.length || len > limit - position) {
+            throw new IndexOutOfBoundsException();
+        }
+        System.arraycopy(b, off, buffer, position, len);
+        position += len;
+    }
+
+    /**
+     * 下一个字节将要写入的位置
+     * The index the next byte will be written to.
+     */
+    public int getPosition() {
+        return position;
+    }
+}
@@ -36,7 +36,6 @@ import io.nuls.kernel.model.NulsSignData;
 import io.nuls.kernel.model.Transaction;
 
 import java.io.UnsupportedEncodingException;
-import java.util.Arrays;
 
 import static io.nuls.core.tools.str.StringUtils.EMPTY;
 
@@ -118,9 +117,24 @@ public class NulsByteBuffer {
 
     public long readVarInt(int offset) throws NulsException {
         try {
-            VarInt varint = new VarInt(payload, cursor + offset);
-            cursor += offset + varint.getOriginalSizeInBytes();
-            return varint.value;
+            int index = cursor + offset;
+            int first = 0xFF & payload[index];
+            long value;
+            if (first < 253) {
+                value = first;
+                index += 1;
+            } else if (first == 253) {
+                value = SerializeUtils.readUint16LE(payload, index + 1);
+                index += 3;
+            } else if (first == 254) {
+                value = SerializeUtils.readUint32LE(payload, index + 1);
+                index += 5;
+            } else {
+                value = SerializeUtils.readInt64LE(payload, index + 1);
+                index += 9;
+            }
+            cursor = index;
+            return value;
         } catch (ArrayIndexOutOfBoundsException e) {
             throw new NulsException(KernelErrorCode.DATA_PARSE_ERROR, e);
         }
@@ -220,18 +234,23 @@ public class NulsByteBuffer {
         if (length <= 0) {
             return null;
         }
-        if (length >= 4) {
-            byte[] byte4 = new byte[4];
-            System.arraycopy(payload, cursor, byte4, 0, 4);
-            if (Arrays.equals(NulsConstant.PLACE_HOLDER, byte4)) {
-                cursor += 4;
-                return null;
-            }
+        if (length >= NulsConstant.PLACE_HOLDER.length && isPlaceHolder()) {
+            cursor += NulsConstant.PLACE_HOLDER.length;
+            return null;
         }
         nulsData.parse(this);
         return nulsData;
     }
 
+    private boolean isPlaceHolder() {
+        for (int i = 0; i < NulsConstant.PLACE_HOLDER.length; i++) {
+            if (payload[cursor + i] != NulsConstant.PLACE_HOLDER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public NulsSignData readSign() throws NulsException {
         return this.readNulsData(new NulsSignData());
     }
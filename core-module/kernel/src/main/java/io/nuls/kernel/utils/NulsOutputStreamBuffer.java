@@ -54,19 +54,38 @@ public class NulsOutputStreamBuffer {
     }
 
     public void writeVarInt(int val) throws IOException {
-        out.write(new VarInt(val).encode());
+        writeVarInt((long) val);
     }
 
+    /**
+     * 按VarInt编码直接写入流中，不创建临时数组
+     * Write the VarInt encoding straight into the stream without a temporary array.
+     */
     public void writeVarInt(long val) throws IOException {
-        out.write(new VarInt(val).encode());
+        switch (VarInt.sizeOf(val)) {
+            case 1:
+                out.write((int) val);
+                break;
+            case 3:
+                out.write(253);
+                SerializeUtils.uint16ToByteStreamLE((int) val, out);
+                break;
+            case 5:
+                out.write(254);
+                SerializeUtils.uint32ToByteStreamLE(val, out);
+                break;
+            default:
+                out.write(255);
+                SerializeUtils.int64ToByteStreamLE(val, out);
+        }
     }
 
 
     public void writeBytesWithLength(byte[] bytes) throws IOException {
         if (null == bytes || bytes.length == 0) {
-            out.write(new VarInt(0).encode());
+            out.write(0);
         } else {
-            out.write(new VarInt(bytes.length).encode());
+            writeVarInt(bytes.length);
             out.write(bytes);
         }
     }
@@ -98,7 +117,7 @@ public class NulsOutputStreamBuffer {
     public void writeString(String val) {
         if (StringUtils.isBlank(val)) {
             try {
-                out.write(new VarInt(0).encode());
+                out.write(0);
             } catch (IOException e) {
                 Log.error(e);
                 throw new NulsRuntimeException(e);
@@ -117,12 +136,13 @@ public class NulsOutputStreamBuffer {
         if (null == data) {
             write(NulsConstant.PLACE_HOLDER);
         } else {
-            this.write(data.serialize());
+            data.serialize(this);
         }
     }
 
     public void writeUint48(long time) throws IOException {
-        byte[] bytes = SerializeUtils.uint48ToBytes(time);
-        this.write(bytes);
+        for (int i = 0; i < NulsConstant.INT48_VALUE_LENGTH; i++) {
+            out.write((int) (0xFF & (time >> (i * 8))));
+        }
     }
 }
@@ -22,11 +22,9 @@
  * SOFTWARE.
  *
  */
+
 package io.nuls.kernel.validate;
 
-import io.nuls.core.tools.log.Log;
-import io.nuls.kernel.constant.KernelErrorCode;
-import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.model.NulsData;
 
 import java.util.ArrayList;
@@ -35,54 +33,19 @@ import java.util.List;
 import java.util.Set;
 
 /**
+ * 注册在某个数据类型上的验证器, 由{@link ValidatorManager}组合成各具体类型的{@link ValidatorPipeline}
+ * Validators registered on one data class, combined by {@link ValidatorManager} into the pipeline of each concrete class
+ *
  * @author Niels
  */
 public class DataValidatorChain {
 
-    private List<NulsDataValidator<NulsData>> list = new ArrayList<>();
+    private List<ValidatorStage> list = new ArrayList<>();
     private Set<Class> classSet = new HashSet<>();
-    private ThreadLocal<Integer> index = new ThreadLocal<>();
+    private volatile ValidatorPipeline pipeline = new ValidatorPipeline(list);
 
     public ValidateResult startDoValidator(NulsData data) {
-        if (list.isEmpty()) {
-            return ValidateResult.getSuccessResult();
-        }
-        index.set(-1);
-        ValidateResult result;
-        try {
-            result = doValidate(data);
-        } catch (Exception e) {
-            Log.error(e);
-            result = ValidateResult.getFailedResult(this.getClass().getName(), KernelErrorCode.SYS_UNKOWN_EXCEPTION);
-        }
-        boolean b = index.get() == list.size();
-        index.remove();
-        if (!b && result.isSuccess()) {
-            return ValidateResult.getFailedResult(this.getClass().getName(), KernelErrorCode.VALIDATORS_NOT_FULLY_EXECUTED);
-        }
-        return result;
-    }
-
-    private ValidateResult doValidate(NulsData data) {
-        index.set(1 + index.get());
-        if (index.get() == list.size()) {
-            return ValidateResult.getSuccessResult();
-        }
-        NulsDataValidator validator = list.get(index.get());
-        ValidateResult result = null;
-        try {
-            result = validator.validate(data);
-        } catch (NulsException e) {
-            Log.error(e);
-            return ValidateResult.getFailedResult(this.getClass().getName(), e.getErrorCode());
-        }
-        if (null == result) {
-            Log.error(validator.getClass() + " has null result!");
-        }
-        if (!result.isSuccess()) {
-            return result;
-        }
-        return this.doValidate(data);
+        return pipeline.validate(data);
     }
 
     public void addValidator(NulsDataValidator validator) {
@@ -91,7 +54,12 @@ public class DataValidatorChain {
         }
 
         if (classSet.add(validator.getClass())) {
-            list.add(validator);
+            list.add(new ValidatorStage(validator));
+            pipeline = new ValidatorPipeline(list);
         }
     }
+
+    List<ValidatorStage> getStageList() {
+        return list;
+    }
 }
@@ -32,18 +32,31 @@ import io.nuls.kernel.model.BaseNulsData;
 import io.nuls.kernel.model.NulsData;
 
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
+ * 验证器管理, 每个具体数据类型的验证器在首次验证时解析为{@link ValidatorPipeline}并缓存, 之后直接按数组顺序执行
+ * Validator manager. The validators of each concrete data class are resolved into a {@link ValidatorPipeline} on the
+ * first validation and cached, later validations just loop over its array.
+ *
  * @author Niels
  */
 public class ValidatorManager {
 
     private static Map<Class, DataValidatorChain> chainMap = new ConcurrentHashMap<>();
 
+    private static Map<Class, ValidatorPipeline> pipelineMap = new ConcurrentHashMap<>();
+
+    /**
+     * 注册验证器与解析流水线互斥, 避免注册前解析出的旧流水线在清空缓存后又被放回
+     * Registering validators and resolving pipelines exclude each other, so a pipeline resolved before a registration
+     * can not be put back into the cache after it was cleared
+     */
+    private static final Object LOCK = new Object();
+
     private static boolean success;
 
     public static void init() {
@@ -74,35 +87,83 @@ public class ValidatorManager {
     }
 
     public static void addValidator(Class<? extends NulsData> clazz, NulsDataValidator<? extends NulsData> validator) {
-        DataValidatorChain chain = chainMap.get(clazz);
-        if (null == chain) {
-            chain = new DataValidatorChain();
-            chainMap.put(clazz, chain);
+        synchronized (LOCK) {
+            DataValidatorChain chain = chainMap.get(clazz);
+            if (null == chain) {
+                chain = new DataValidatorChain();
+                chainMap.put(clazz, chain);
+            }
+            chain.addValidator(validator);
+            // 已解析的流水线需要重新解析
+            // Resolved pipelines must be resolved again
+            pipelineMap.clear();
         }
-        chain.addValidator(validator);
     }
 
     public static ValidateResult startDoValidator(NulsData data) {
         if (data == null) {
             return ValidateResult.getFailedResult(ValidatorManager.class.getName(), KernelErrorCode.NULL_PARAMETER);
         }
-        List<DataValidatorChain> chainList = new ArrayList<>();
-        Class<NulsData> clazz = (Class<NulsData>) data.getClass();
-        while (!clazz.equals(BaseNulsData.class)) {
+        return getPipeline(data.getClass()).validate(data);
+    }
+
+    /**
+     * 拆分验证: 在当前线程执行结构验证, 通过后把签名等高成本验证交给指定线程池
+     * Split validation: the cheap structural validators run on the calling thread, once they pass the expensive
+     * ones, like signature checks, run on the given executor.
+     */
+    public static CompletableFuture<ValidateResult> startDoValidator(NulsData data, Executor expensiveExecutor) {
+        if (data == null) {
+            return CompletableFuture.completedFuture(ValidateResult.getFailedResult(ValidatorManager.class.getName(), KernelErrorCode.NULL_PARAMETER));
+        }
+        ValidatorPipeline pipeline = getPipeline(data.getClass());
+        ValidateResult result = pipeline.validateCheap(data);
+        if (result.isFailed() || !pipeline.hasExpensiveValidator()) {
+            return CompletableFuture.completedFuture(result);
+        }
+        return CompletableFuture.supplyAsync(() -> pipeline.validateExpensive(data), expensiveExecutor);
+    }
+
+    public static ValidatorPipeline getPipeline(Class<? extends NulsData> clazz) {
+        ValidatorPipeline pipeline = pipelineMap.get(clazz);
+        if (null != pipeline) {
+            return pipeline;
+        }
+        synchronized (LOCK) {
+            return pipelineMap.computeIfAbsent(clazz, ValidatorManager::resolvePipeline);
+        }
+    }
+
+    /**
+     * 从具体类型向父类依次收集验证器, 与逐级执行各类型验证链的顺序一致
+     * Collect the validators from the concrete class up to its super classes, the order the chains ran in before
+     */
+    private static ValidatorPipeline resolvePipeline(Class clazz) {
+        List<ValidatorStage> stageList = new ArrayList<>();
+        while (clazz != null && !clazz.equals(BaseNulsData.class)) {
             DataValidatorChain chain = chainMap.get(clazz);
             if (null != chain) {
-                chainList.add(chain);
+                stageList.addAll(chain.getStageList());
             }
-            clazz = (Class<NulsData>) clazz.getSuperclass();
+            clazz = clazz.getSuperclass();
         }
-        for (DataValidatorChain chain : chainList) {
-            ValidateResult result = chain.startDoValidator(data);
-            if (result.isFailed()) {
-                return result;
+        return new ValidatorPipeline(stageList);
+    }
+
+    /**
+     * 各验证器的执行次数、失败次数及耗时
+     * Calls, failures and time spent of each validator
+     */
+    public static Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> map = new TreeMap<>();
+        synchronized (LOCK) {
+            for (DataValidatorChain chain : chainMap.values()) {
+                for (ValidatorStage stage : chain.getStageList()) {
+                    map.put(stage.getValidator().getClass().getName(), stage.getStatistics());
+                }
             }
         }
-        return ValidateResult.getSuccessResult();
+        return map;
     }
 
 }
-
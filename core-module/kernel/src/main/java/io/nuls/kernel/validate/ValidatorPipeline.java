@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.kernel.validate;
+
+import io.nuls.kernel.model.NulsData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 某个具体数据类型的验证流水线, 由该类及其父类上注册的验证器按顺序一次性解析而成, 创建后不再变化
+ * The validation pipeline of one concrete data class. It is resolved once from the validators registered on the
+ * class and its super classes, in the order they would run, and never changes afterwards.
+ */
+public final class ValidatorPipeline {
+
+    private static final ValidatorStage[] EMPTY = new ValidatorStage[0];
+
+    private final ValidatorStage[] stages;
+    private final ValidatorStage[] cheapStages;
+    private final ValidatorStage[] expensiveStages;
+
+    ValidatorPipeline(List<ValidatorStage> stageList) {
+        List<ValidatorStage> cheap = new ArrayList<>();
+        List<ValidatorStage> expensive = new ArrayList<>();
+        for (ValidatorStage stage : stageList) {
+            if (stage.isExpensive()) {
+                expensive.add(stage);
+            } else {
+                cheap.add(stage);
+            }
+        }
+        this.stages = stageList.toArray(EMPTY);
+        this.cheapStages = cheap.toArray(EMPTY);
+        this.expensiveStages = expensive.toArray(EMPTY);
+    }
+
+    /**
+     * 按注册顺序执行全部验证器
+     * Run all validators in registration order
+     */
+    public ValidateResult validate(NulsData data) {
+        return run(stages, data);
+    }
+
+    /**
+     * 只执行结构类的低成本验证器
+     * Run only the cheap structural validators
+     */
+    public ValidateResult validateCheap(NulsData data) {
+        return run(cheapStages, data);
+    }
+
+    /**
+     * 只执行签名等高成本验证器
+     * Run only the expensive validators, like signature checks
+     */
+    public ValidateResult validateExpensive(NulsData data) {
+        return run(expensiveStages, data);
+    }
+
+    public boolean hasExpensiveValidator() {
+        return expensiveStages.length > 0;
+    }
+
+    private static ValidateResult run(ValidatorStage[] stages, NulsData data) {
+        for (ValidatorStage stage : stages) {
+            ValidateResult result = stage.validate(data);
+            if (result.isFailed()) {
+                return result;
+            }
+        }
+        return ValidateResult.getSuccessResult();
+    }
+}
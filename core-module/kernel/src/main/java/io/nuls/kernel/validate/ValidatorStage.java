@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.kernel.validate;
+
+import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.constant.KernelErrorCode;
+import io.nuls.kernel.exception.NulsException;
+import io.nuls.kernel.model.NulsData;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 验证流水线中的一个验证器及其执行计数和耗时
+ * One validator of a pipeline together with its call, failure and time counters
+ */
+final class ValidatorStage {
+
+    private final NulsDataValidator<NulsData> validator;
+    private final boolean expensive;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    ValidatorStage(NulsDataValidator<NulsData> validator) {
+        this.validator = validator;
+        this.expensive = validator.getClass().isAnnotationPresent(ExpensiveValidator.class);
+    }
+
+    ValidateResult validate(NulsData data) {
+        long start = System.nanoTime();
+        ValidateResult result;
+        try {
+            result = validator.validate(data);
+            if (null == result) {
+                Log.error(validator.getClass() + " has null result!");
+                result = ValidateResult.getFailedResult(validator.getClass().getName(), KernelErrorCode.SYS_UNKOWN_EXCEPTION);
+            }
+        } catch (NulsException e) {
+            Log.error(e);
+            result = ValidateResult.getFailedResult(validator.getClass().getName(), e.getErrorCode());
+        } catch (Exception e) {
+            Log.error(e);
+            result = ValidateResult.getFailedResult(validator.getClass().getName(), KernelErrorCode.SYS_UNKOWN_EXCEPTION);
+        }
+        nanos.add(System.nanoTime() - start);
+        count.increment();
+        if (result.isFailed()) {
+            failed.increment();
+        }
+        return result;
+    }
+
+    NulsDataValidator<NulsData> getValidator() {
+        return validator;
+    }
+
+    boolean isExpensive() {
+        return expensive;
+    }
+
+    Map<String, Object> getStatistics() {
+        long calls = count.sum();
+        long totalNanos = nanos.sum();
+        Map<String, Object> map = new HashMap<>();
+        map.put("expensive", expensive);
+        map.put("count", calls);
+        map.put("failed", failed.sum());
+        map.put("totalMillis", TimeUnit.NANOSECONDS.toMillis(totalNanos));
+        map.put("avgMicros", calls == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos / calls));
+        return map;
+    }
+}
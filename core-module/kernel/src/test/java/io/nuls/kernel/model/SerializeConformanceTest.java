@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.kernel.model;
+
+import io.nuls.core.tools.crypto.Hex;
+import io.nuls.kernel.script.P2PHKSignature;
+import io.nuls.kernel.utils.NulsByteBuffer;
+import io.nuls.kernel.utils.NulsOutputStreamBuffer;
+import io.nuls.kernel.utils.VarInt;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 生成的序列化代码必须与主网数据逐字节一致
+ * The generated serialization code must reproduce main net data byte for byte.
+ */
+public class SerializeConformanceTest {
+
+    private static final String DIGEST = "0020a2075608eb8b0468413e0537d909196dc16ad1567f5b957237e68ce9deba21e4";
+
+    private static final String COIN = "230020a2075608eb8b0468413e0537d909196dc16ad1567f5b957237e68ce9deba21e40000204aa9d1010000ffffffffffff";
+
+    private static final String COIN_DATA = "02230020a2075608eb8b0468413e0537d909196dc16ad1567f5b957237e68ce9deba21e40000204aa9d1010000ffffffffffff230020407969ea49a0f74c5874c725296a6043c30391293fc56f8327201841f80ef65b000080ca3961240000ffffffffffff0217042301dbdb74f285112040dc80c56fe086c16e192d4e9700204aa9d10100007f2dd4d3660117042301dbdb74f285112040dc80c56fe086c16e192d4e970080ca3961240000000000000000";
+
+    private static final String P2PHK_SIGNATURE = "2102ac3f8f73d6a0f23d9ecd797fb14f96e82a032bb972f1ee39b4bf443d07a5d55e004630440220668f5538cdbbd90e3dfc1ea1197ddb03cd8628dedfc77afad795140f3867560302202453d0991dc254ae2a5f40f915ef22e0c0e9ba315516d22eaa2e002fc9239147";
+
+    @Test
+    public void digestData() throws Exception {
+        NulsDigestData digest = roundTrip(new NulsDigestData(), DIGEST);
+        assertEquals(NulsDigestData.DIGEST_ALG_SHA256, digest.getDigestAlgType());
+        assertEquals(32, digest.getDigestBytes().length);
+    }
+
+    @Test
+    public void coin() throws Exception {
+        Coin coin = roundTrip(new Coin(), COIN);
+        assertEquals(35, coin.getOwner().length);
+        assertEquals(2000000000000L, coin.getNa().getValue());
+        assertEquals(-1L, coin.getLockTime());
+    }
+
+    @Test
+    public void coinData() throws Exception {
+        CoinData coinData = roundTrip(new CoinData(), COIN_DATA);
+        assertEquals(2, coinData.getFrom().size());
+        assertEquals(2, coinData.getTo().size());
+    }
+
+    @Test
+    public void signature() throws Exception {
+        P2PHKSignature signature = roundTrip(new P2PHKSignature(), P2PHK_SIGNATURE);
+        assertEquals(33, signature.getPublicKey().length);
+        assertEquals(70, signature.getSignData().getSignBytes().length);
+    }
+
+    @Test
+    public void serializeIntoBuffer() throws Exception {
+        CoinData coinData = new CoinData();
+        coinData.parse(new NulsByteBuffer(Hex.decode(COIN_DATA)));
+        byte[] expected = Hex.decode(COIN_DATA);
+        byte[] buffer = new byte[expected.length + 10];
+        assertEquals(expected.length, coinData.serialize(buffer, 5));
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], buffer[i + 5]);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        coinData.serialize(new NulsOutputStreamBuffer(out));
+        assertArrayEquals(expected, out.toByteArray());
+    }
+
+    @Test
+    public void varInt() throws Exception {
+        long[] values = {0, 252, 253, 0xFFFFL, 0x10000L, 0xFFFFFFFFL, 0x100000000L, Long.MAX_VALUE, -1L};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NulsOutputStreamBuffer stream = new NulsOutputStreamBuffer(out);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (long value : values) {
+            stream.writeVarInt(value);
+            expected.write(new VarInt(value).encode());
+        }
+        assertArrayEquals(expected.toByteArray(), out.toByteArray());
+
+        NulsByteBuffer buffer = new NulsByteBuffer(out.toByteArray());
+        for (long value : values) {
+            assertEquals(value, buffer.readVarInt());
+        }
+        assertTrue(buffer.isFinished());
+    }
+
+    private static <T extends BaseNulsData> T roundTrip(T data, String hex) throws Exception {
+        byte[] bytes = Hex.decode(hex);
+        data.parse(new NulsByteBuffer(bytes));
+        assertEquals(bytes.length, data.size());
+        assertArrayEquals(bytes, data.serialize());
+        return data;
+    }
+}
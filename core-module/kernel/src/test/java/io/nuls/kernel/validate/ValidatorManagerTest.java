@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.kernel.validate;
+
+import io.nuls.kernel.constant.KernelErrorCode;
+import io.nuls.kernel.exception.NulsException;
+import io.nuls.kernel.model.BaseNulsData;
+import io.nuls.kernel.utils.NulsByteBuffer;
+import io.nuls.kernel.utils.NulsOutputStreamBuffer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+public class ValidatorManagerTest {
+
+    private static List<String> calls = new ArrayList<>();
+
+    @Test
+    public void testPipeline() throws ExecutionException, InterruptedException {
+        ValidatorManager.addValidator(ParentData.class, new ParentValidator());
+        ValidatorManager.addValidator(ChildData.class, new ChildSignValidator());
+        ValidatorManager.addValidator(ChildData.class, new ChildValidator());
+
+        calls.clear();
+        assertTrue(new ChildData().verify().isSuccess());
+        assertEquals("[childSign, child, parent]", calls.toString());
+        assertSame(ValidatorManager.getPipeline(ChildData.class), ValidatorManager.getPipeline(ChildData.class));
+
+        calls.clear();
+        ValidateResult result = ValidatorManager.startDoValidator(new ChildData(), Runnable::run).get();
+        assertTrue(result.isSuccess());
+        assertEquals("[child, parent, childSign]", calls.toString());
+
+        calls.clear();
+        ChildData failed = new ChildData();
+        failed.fail = true;
+        result = failed.verify();
+        assertTrue(result.isFailed());
+        assertEquals(KernelErrorCode.DATA_ERROR.getCode(), result.getErrorCode().getCode());
+        assertEquals("[childSign, child]", calls.toString());
+
+        assertEquals(3L, ValidatorManager.getStatistics().get(ChildValidator.class.getName()).get("count"));
+        assertEquals(true, ValidatorManager.getStatistics().get(ChildSignValidator.class.getName()).get("expensive"));
+    }
+
+    static class ParentData extends BaseNulsData {
+        boolean fail;
+
+        @Override
+        protected void serializeToStream(NulsOutputStreamBuffer stream) {
+        }
+
+        @Override
+        public void parse(NulsByteBuffer byteBuffer) throws NulsException {
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+    }
+
+    static class ChildData extends ParentData {
+    }
+
+    static class ParentValidator implements NulsDataValidator<ParentData> {
+        @Override
+        public ValidateResult validate(ParentData data) {
+            calls.add("parent");
+            return ValidateResult.getSuccessResult();
+        }
+    }
+
+    static class ChildValidator implements NulsDataValidator<ChildData> {
+        @Override
+        public ValidateResult validate(ChildData data) {
+            calls.add("child");
+            if (data.fail) {
+                return ValidateResult.getFailedResult(getClass().getName(), KernelErrorCode.DATA_ERROR);
+            }
+            return ValidateResult.getSuccessResult();
+        }
+    }
+
+    @ExpensiveValidator
+    static class ChildSignValidator implements NulsDataValidator<ChildData> {
+        @Override
+        public ValidateResult validate(ChildData data) {
+            calls.add("childSign");
+            return ValidateResult.getSuccessResult();
+        }
+    }
+}
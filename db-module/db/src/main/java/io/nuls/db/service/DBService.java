@@ -196,6 +196,46 @@ public interface DBService {
      */
     List<Entry<byte[], byte[]>> entryList(String area);
 
+    /**
+     * 获取数据区域中key位于[startKey, endKey]闭区间内的key-value，按key的字节序排列
+     * 只做一次迭代器定位后顺序读取，适合定长且按字节序可比较的key
+     * Gets the key-values whose key is in the closed range [startKey, endKey], ordered by the key bytes.
+     * It seeks once and then reads sequentially, which suits fixed-width keys that compare in byte order.
+     *
+     * @param area
+     * @param startKey 起始key（包含）/start key, inclusive
+     * @param endKey   结束key（包含）/end key, inclusive
+     * @return
+     */
+    List<Entry<byte[], byte[]>> entryList(String area, byte[] startKey, byte[] endKey);
+
+    /**
+     * 获取数据区域中key位于[startKey, endKey]闭区间内的前limit个key-value，用于分页
+     * Gets at most limit key-values whose key is in the closed range [startKey, endKey], for paging.
+     *
+     * @param area
+     * @param startKey 起始key（包含）/start key, inclusive
+     * @param endKey   结束key（包含）/end key, inclusive
+     * @param limit    最大条数/max count
+     * @return
+     */
+    List<Entry<byte[], byte[]>> entryList(String area, byte[] startKey, byte[] endKey, int limit);
+
+    /**
+     * 获取数据区域中key位于[startKey, endKey]闭区间内的key-value，并指定返回的value对象
+     * 前提是这个数据区域的存储方式是putModel
+     * Gets the key-values whose key is in the closed range [startKey, endKey] and specifies the returned value object.
+     * The premise is that the storage mode in this data area is the putModel.
+     *
+     * @param area
+     * @param startKey 起始key（包含）/start key, inclusive
+     * @param endKey   结束key（包含）/end key, inclusive
+     * @param clazz    指定对象的class/Specifies the class of the object.
+     * @param <T>
+     * @return
+     */
+    <T> List<Entry<byte[], T>> entryList(String area, byte[] startKey, byte[] endKey, Class<T> clazz);
+
 
     /**
      * 获取数据区域的所有key-value的有序集合，并指定返回的value对象
@@ -795,6 +795,99 @@ public class LevelDBManager {
         return entryList;
     }
 
+    /**
+     * 按key的字节序顺序扫描[startKey, endKey]闭区间内的数据，只需要一次迭代器定位
+     * Scan the entries in the closed range [startKey, endKey] in the byte order of the keys with a single iterator seek.
+     */
+    public static List<Entry<byte[], byte[]>> entryList(String area, byte[] startKey, byte[] endKey) {
+        return entryList(area, startKey, endKey, Integer.MAX_VALUE);
+    }
+
+    public static List<Entry<byte[], byte[]>> entryList(String area, byte[] startKey, byte[] endKey, int limit) {
+        if (!baseCheckArea(area) || startKey == null || endKey == null) {
+            return null;
+        }
+        DBIterator iterator = null;
+        List<Entry<byte[], byte[]>> entryList;
+        try {
+            DB db = AREAS.get(area);
+            entryList = new ArrayList<>();
+            iterator = db.iterator();
+            Map.Entry<byte[], byte[]> entry;
+            Comparator<byte[]> comparator = AREAS_COMPARATOR.get(area);
+            for (iterator.seek(startKey); iterator.hasNext() && entryList.size() < limit; iterator.next()) {
+                entry = iterator.peekNext();
+                if (compareUnsigned(entry.getKey(), endKey) > 0) {
+                    break;
+                }
+                entryList.add(new Entry<byte[], byte[]>(entry.getKey(), entry.getValue(), comparator));
+            }
+        } catch (Exception e) {
+            Log.error(e);
+            return null;
+        } finally {
+            // Make sure you close the iterator to avoid resource leaks.
+            if (iterator != null) {
+                try {
+                    iterator.close();
+                } catch (Exception e) {
+                    //skip it
+                }
+            }
+        }
+        return entryList;
+    }
+
+    public static <T> List<Entry<byte[], T>> entryList(String area, byte[] startKey, byte[] endKey, Class<T> clazz) {
+        if (!baseCheckArea(area) || startKey == null || endKey == null) {
+            return null;
+        }
+        DBIterator iterator = null;
+        List<Entry<byte[], T>> entryList;
+        try {
+            DB db = AREAS.get(area);
+            entryList = new ArrayList<>();
+            iterator = db.iterator();
+            Map.Entry<byte[], byte[]> entry;
+            Comparator<byte[]> comparator = AREAS_COMPARATOR.get(area);
+            for (iterator.seek(startKey); iterator.hasNext(); iterator.next()) {
+                entry = iterator.peekNext();
+                if (compareUnsigned(entry.getKey(), endKey) > 0) {
+                    break;
+                }
+                entryList.add(new Entry<byte[], T>(entry.getKey(), getModel(entry.getValue(), clazz), comparator));
+            }
+        } catch (Exception e) {
+            Log.error(e);
+            return null;
+        } finally {
+            // Make sure you close the iterator to avoid resource leaks.
+            if (iterator != null) {
+                try {
+                    iterator.close();
+                } catch (Exception e) {
+                    //skip it
+                }
+            }
+        }
+        return entryList;
+    }
+
+    /**
+     * 与LevelDB默认比较器一致的无符号字节序比较
+     * Unsigned lexicographic comparison, the same order as the default LevelDB comparator.
+     */
+    private static int compareUnsigned(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return a.length - b.length;
+    }
+
     public static <T> List<Entry<byte[], T>> entryList(String area, Class<T> clazz) {
         if (!baseCheckArea(area)) {
             return null;
@@ -125,6 +125,21 @@ public class LevelDBServiceImpl implements DBService {
         return LevelDBManager.entryList(area);
     }
 
+    @Override
+    public List<Entry<byte[], byte[]>> entryList(String area, byte[] startKey, byte[] endKey) {
+        return LevelDBManager.entryList(area, startKey, endKey);
+    }
+
+    @Override
+    public List<Entry<byte[], byte[]>> entryList(String area, byte[] startKey, byte[] endKey, int limit) {
+        return LevelDBManager.entryList(area, startKey, endKey, limit);
+    }
+
+    @Override
+    public <T> List<Entry<byte[], T>> entryList(String area, byte[] startKey, byte[] endKey, Class<T> clazz) {
+        return LevelDBManager.entryList(area, startKey, endKey, clazz);
+    }
+
     @Override
     public <T> List<Entry<byte[], T>> entryList(String area, Class<T> clazz) {
         return LevelDBManager.entryList(area, clazz);
@@ -33,4 +33,12 @@ public interface LedgerConstant extends NulsConstant {
 
     short MODULE_ID_LEDGER = 8;
 
+    /**
+     * 供应量审计任务的执行间隔（秒），配置为0时关闭审计
+     * Interval of the supply audit task in seconds, 0 disables the audit.
+     */
+    String CFG_LEDGER_SECTION = "ledger";
+    String CFG_SUPPLY_AUDIT_INTERVAL = "supply.audit.interval";
+    long DEFAULT_SUPPLY_AUDIT_INTERVAL = 30 * 60;
+
 }
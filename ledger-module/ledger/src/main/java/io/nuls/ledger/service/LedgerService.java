@@ -146,6 +146,22 @@ public interface LedgerService {
      */
     long getWholeUTXO();
 
+    /**
+     * Get the locked part of the entire network of UTXO
+     *
+     * 获取全网处于锁定状态的UTXO资金之和
+     * @return long
+     */
+    long getLockedUTXO();
+
+    /**
+     * Get the UTXO sent to the black hole address
+     *
+     * 获取全网已销毁（黑洞地址）的UTXO资金之和
+     * @return long
+     */
+    long getBurnedUTXO();
+
     /**
      * get UTXO by key
      *
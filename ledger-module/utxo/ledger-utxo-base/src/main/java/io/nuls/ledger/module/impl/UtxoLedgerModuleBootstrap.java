@@ -24,10 +24,13 @@
 package io.nuls.ledger.module.impl;
 
 
+import io.nuls.kernel.cfg.NulsConfig;
+import io.nuls.kernel.context.NulsContext;
 import io.nuls.kernel.thread.manager.NulsThreadFactory;
 import io.nuls.kernel.thread.manager.TaskManager;
 import io.nuls.ledger.constant.LedgerConstant;
 import io.nuls.ledger.module.AbstractLedgerModule;
+import io.nuls.ledger.service.impl.CoinSupplyTracker;
 import io.nuls.ledger.task.TotalCoinTask;
 
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -49,9 +52,14 @@ public class UtxoLedgerModuleBootstrap extends AbstractLedgerModule {
 
     @Override
     public void start() {
+        NulsContext.getServiceBean(CoinSupplyTracker.class).load();
         executorService = TaskManager.createScheduledThreadPool(1,
                 new NulsThreadFactory(LedgerConstant.MODULE_ID_LEDGER, "ledger-task-thread-pool"));
-        executorService.scheduleAtFixedRate(new TotalCoinTask(), 10, 30 * 60, TimeUnit.SECONDS);
+        long auditInterval = NulsConfig.MODULES_CONFIG.getCfgValue(LedgerConstant.CFG_LEDGER_SECTION,
+                LedgerConstant.CFG_SUPPLY_AUDIT_INTERVAL, LedgerConstant.DEFAULT_SUPPLY_AUDIT_INTERVAL);
+        if (auditInterval > 0) {
+            executorService.scheduleAtFixedRate(new TotalCoinTask(), 10, auditInterval, TimeUnit.SECONDS);
+        }
     }
 
     @Override
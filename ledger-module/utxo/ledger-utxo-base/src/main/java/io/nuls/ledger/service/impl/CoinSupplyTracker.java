@@ -0,0 +1,373 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2017-2019 nuls.io
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.ledger.service.impl;
+
+import io.nuls.core.tools.log.Log;
+import io.nuls.db.model.Entry;
+import io.nuls.db.service.BatchOperation;
+import io.nuls.kernel.constant.NulsConstant;
+import io.nuls.kernel.context.NulsContext;
+import io.nuls.kernel.exception.NulsException;
+import io.nuls.kernel.lite.annotation.Autowired;
+import io.nuls.kernel.lite.annotation.Component;
+import io.nuls.kernel.model.Coin;
+import io.nuls.kernel.model.Result;
+import io.nuls.kernel.utils.SerializeUtils;
+import io.nuls.ledger.storage.service.UtxoLedgerSupplyStorageService;
+import io.nuls.ledger.storage.service.UtxoLedgerUtxoStorageService;
+
+import java.util.*;
+
+/**
+ * 全网代币供应量的增量统计，替代对所有UTXO的全量扫描
+ * Incremental statistics of the whole network coin supply, replacing full scans of all UTXOs.
+ * <p>
+ * 总量、销毁量、永久锁定量以常量时间维护；按时间、按高度锁定的金额按解锁点分桶，
+ * 已经解锁的桶会被裁剪掉，因此查询锁定量只需要累加尚未解锁的桶
+ * Total, burned and permanently locked amounts are kept in constant time; time and height locked amounts are
+ * bucketed by their unlock point, and buckets that are already unlocked get pruned, so a locked query only adds up
+ * the buckets that are still locked.
+ */
+@Component
+public class CoinSupplyTracker {
+
+    /**
+     * 小于该值的锁定时间视为锁定高度，与TotalCoinTask的判断保持一致
+     * Lock times below this value are lock heights, consistent with TotalCoinTask.
+     */
+    private static final long LOCK_TIME_HEIGHT_LIMIT = 1531152000000L;
+
+    /**
+     * 裁剪时保留的余量，避免时钟调整或少量区块回滚后锁定量失真
+     * Margins kept while pruning, so clock adjustments or shallow rollbacks do not skew the locked amount.
+     */
+    private static final long TIME_PRUNE_MARGIN = 10 * 60 * 1000L;
+    private static final long HEIGHT_PRUNE_MARGIN = 1000L;
+
+    private static final byte KEY_TYPE_SCALAR = 0;
+    private static final byte KEY_TYPE_TIME = 1;
+    private static final byte KEY_TYPE_HEIGHT = 2;
+
+    private static final long SCALAR_TOTAL = 0;
+    private static final long SCALAR_BURNED = 1;
+    private static final long SCALAR_PERMANENT_LOCKED = 2;
+    private static final long SCALAR_TIME_BOUND = 3;
+    private static final long SCALAR_HEIGHT_BOUND = 4;
+
+    @Autowired
+    private UtxoLedgerUtxoStorageService utxoLedgerUtxoStorageService;
+    @Autowired
+    private UtxoLedgerSupplyStorageService utxoLedgerSupplyStorageService;
+
+    private long total;
+    private long burned;
+    private long permanentLocked;
+    private long timeBound;
+    private long heightBound;
+    private final TreeMap<Long, Long> timeLocked = new TreeMap<>();
+    private final TreeMap<Long, Long> heightLocked = new TreeMap<>();
+
+    /**
+     * 每次UTXO写入都会递增，审计扫描据此判断扫描期间账本是否发生变化
+     * Bumped on every UTXO write; the audit scan uses it to tell whether the ledger moved during the scan.
+     */
+    private long modCount;
+
+    public CoinSupplyTracker() {
+    }
+
+    CoinSupplyTracker(UtxoLedgerUtxoStorageService utxoLedgerUtxoStorageService, UtxoLedgerSupplyStorageService utxoLedgerSupplyStorageService) {
+        this.utxoLedgerUtxoStorageService = utxoLedgerUtxoStorageService;
+        this.utxoLedgerSupplyStorageService = utxoLedgerSupplyStorageService;
+    }
+
+    /**
+     * 执行UTXO批量操作，成功后把新增和删除的UTXO计入统计并持久化
+     * Execute a UTXO batch and, once it succeeds, apply the added and removed UTXOs to the counters and persist them.
+     */
+    public Result executeBatch(BatchOperation batch, List<Coin> addedCoins, List<Coin> removedCoins) {
+        return executeBatch(batch, addedCoins, removedCoins, Collections.emptyList());
+    }
+
+    /**
+     * 同上，另外把交易输入计为删除的UTXO
+     * Same as above, additionally counting transaction inputs as removed UTXOs.
+     * <p>
+     * 输入的金额和锁定时间在验证时已与被花费的UTXO核对一致，因此无需再读取UTXO；
+     * 黑洞地址的UTXO不能被花费，所以输入不会影响销毁量
+     * The amount and lock time of an input were checked against the spent UTXO during validation, so the UTXO does
+     * not have to be read again; black hole UTXOs cannot be spent, so inputs never affect the burned amount.
+     */
+    public synchronized Result executeBatch(BatchOperation batch, List<Coin> addedCoins, List<Coin> removedCoins, List<Coin> spentInputs) {
+        modCount++;
+        Result result = batch.executeBatch();
+        if (result.isFailed()) {
+            return result;
+        }
+        Set<Long> touchedTime = new HashSet<>();
+        Set<Long> touchedHeight = new HashSet<>();
+        for (Coin coin : removedCoins) {
+            apply(coin, -1, touchedTime, touchedHeight);
+        }
+        for (Coin coin : spentInputs) {
+            applyAmount(coin, -coin.getNa().getValue(), touchedTime, touchedHeight);
+        }
+        for (Coin coin : addedCoins) {
+            apply(coin, 1, touchedTime, touchedHeight);
+        }
+        prune(touchedTime, touchedHeight);
+        persist(touchedTime, touchedHeight, false);
+        return result;
+    }
+
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    public synchronized long getBurned() {
+        return burned;
+    }
+
+    public synchronized long getLocked() {
+        long locked = permanentLocked;
+        for (Long value : timeLocked.tailMap(System.currentTimeMillis(), false).values()) {
+            locked += value;
+        }
+        for (Long value : heightLocked.tailMap(NulsContext.getInstance().getBestHeight(), false).values()) {
+            locked += value;
+        }
+        return locked;
+    }
+
+    /**
+     * 全量扫描UTXO核对计数器，不一致时以扫描结果为准重建
+     * Scan all UTXOs to check the counters and rebuild from the scan when they have drifted.
+     * <p>
+     * 扫描在锁外进行，如果扫描期间有新的写入则放弃本次结果，等待下一次审计
+     * The scan runs outside the lock; if a write lands meanwhile the result is discarded until the next audit.
+     *
+     * @return 审计是否完成 / whether the audit completed
+     */
+    public boolean audit() {
+        long startModCount;
+        synchronized (this) {
+            startModCount = modCount;
+        }
+        CoinSupplyTracker scanned = scan();
+        if (scanned == null) {
+            return false;
+        }
+        synchronized (this) {
+            if (startModCount != modCount) {
+                return false;
+            }
+            if (!sameCounters(scanned)) {
+                Log.warn("coin supply counters drifted, rebuilt from a full scan. total: " + total + " -> " + scanned.total);
+                copyFrom(scanned);
+                persist(null, null, true);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 模块启动时加载计数器，升级后首次启动时没有计数器，由一次全量扫描生成
+     * Load the counters when the module starts; the first start after an upgrade has none and builds them from a
+     * single full scan.
+     */
+    public synchronized void load() {
+        List<Entry<byte[], byte[]>> entries = utxoLedgerSupplyStorageService.getAllSupplyEntryBytes();
+        if (entries == null || entries.isEmpty()) {
+            CoinSupplyTracker scanned = scan();
+            if (scanned != null) {
+                copyFrom(scanned);
+                persist(null, null, true);
+            }
+        } else {
+            for (Entry<byte[], byte[]> entry : entries) {
+                byte[] key = entry.getKey();
+                long id = SerializeUtils.readInt64LE(key, 1);
+                long value = SerializeUtils.readInt64LE(entry.getValue(), 0);
+                if (key[0] == KEY_TYPE_TIME) {
+                    timeLocked.put(id, value);
+                } else if (key[0] == KEY_TYPE_HEIGHT) {
+                    heightLocked.put(id, value);
+                } else if (id == SCALAR_TOTAL) {
+                    total = value;
+                } else if (id == SCALAR_BURNED) {
+                    burned = value;
+                } else if (id == SCALAR_PERMANENT_LOCKED) {
+                    permanentLocked = value;
+                } else if (id == SCALAR_TIME_BOUND) {
+                    timeBound = value;
+                } else if (id == SCALAR_HEIGHT_BOUND) {
+                    heightBound = value;
+                }
+            }
+        }
+    }
+
+    private CoinSupplyTracker scan() {
+        CoinSupplyTracker scanned = new CoinSupplyTracker();
+        scanned.timeBound = Math.max(timeBound, System.currentTimeMillis() - TIME_PRUNE_MARGIN);
+        scanned.heightBound = Math.max(heightBound, NulsContext.getInstance().getBestHeight() - HEIGHT_PRUNE_MARGIN);
+        List<byte[]> list = utxoLedgerUtxoStorageService.getAllUtxoBytes();
+        if (list == null) {
+            return scanned;
+        }
+        try {
+            for (byte[] utxoBytes : list) {
+                if (utxoBytes != null) {
+                    Coin coin = new Coin();
+                    coin.parse(utxoBytes, 0);
+                    scanned.apply(coin, 1, null, null);
+                }
+            }
+        } catch (NulsException e) {
+            Log.error(e);
+            return null;
+        }
+        return scanned;
+    }
+
+    private void apply(Coin coin, int sign, Set<Long> touchedTime, Set<Long> touchedHeight) {
+        long value = sign * coin.getNa().getValue();
+        if (isBurned(coin)) {
+            burned += value;
+        }
+        applyAmount(coin, value, touchedTime, touchedHeight);
+    }
+
+    private void applyAmount(Coin coin, long value, Set<Long> touchedTime, Set<Long> touchedHeight) {
+        total += value;
+        long lockTime = coin.getLockTime();
+        if (lockTime == -1) {
+            permanentLocked += value;
+        } else if (lockTime >= LOCK_TIME_HEIGHT_LIMIT) {
+            if (lockTime > timeBound) {
+                addToBucket(timeLocked, lockTime, value, touchedTime);
+            }
+        } else if (lockTime > 0 && lockTime > heightBound) {
+            addToBucket(heightLocked, lockTime, value, touchedHeight);
+        }
+    }
+
+    private void addToBucket(TreeMap<Long, Long> buckets, long key, long value, Set<Long> touched) {
+        Long old = buckets.get(key);
+        long now = (old == null ? 0L : old) + value;
+        if (now == 0L) {
+            buckets.remove(key);
+        } else {
+            buckets.put(key, now);
+        }
+        if (touched != null) {
+            touched.add(key);
+        }
+    }
+
+    /**
+     * 裁剪已经解锁的桶，边界只增不减，保证后续删除与之前的新增落在同一侧
+     * Prune buckets that have unlocked. Bounds only move forward, so a later removal falls on the same side of the
+     * bound as the earlier addition.
+     */
+    private void prune(Set<Long> touchedTime, Set<Long> touchedHeight) {
+        timeBound = Math.max(timeBound, System.currentTimeMillis() - TIME_PRUNE_MARGIN);
+        heightBound = Math.max(heightBound, NulsContext.getInstance().getBestHeight() - HEIGHT_PRUNE_MARGIN);
+        pruneBuckets(timeLocked, timeBound, touchedTime);
+        pruneBuckets(heightLocked, heightBound, touchedHeight);
+    }
+
+    private void pruneBuckets(TreeMap<Long, Long> buckets, long bound, Set<Long> touched) {
+        SortedMap<Long, Long> unlocked = buckets.headMap(bound, true);
+        touched.addAll(unlocked.keySet());
+        unlocked.clear();
+    }
+
+    private void persist(Set<Long> touchedTime, Set<Long> touchedHeight, boolean full) {
+        if (full) {
+            Result result = utxoLedgerSupplyStorageService.clear();
+            if (result.isFailed()) {
+                Log.error("clear coin supply counters failed: " + result.getErrorCode());
+            }
+        }
+        BatchOperation batch = utxoLedgerSupplyStorageService.createWriteBatch();
+        batch.put(key(KEY_TYPE_SCALAR, SCALAR_TOTAL), SerializeUtils.uint64ToByteArray(total));
+        batch.put(key(KEY_TYPE_SCALAR, SCALAR_BURNED), SerializeUtils.uint64ToByteArray(burned));
+        batch.put(key(KEY_TYPE_SCALAR, SCALAR_PERMANENT_LOCKED), SerializeUtils.uint64ToByteArray(permanentLocked));
+        batch.put(key(KEY_TYPE_SCALAR, SCALAR_TIME_BOUND), SerializeUtils.uint64ToByteArray(timeBound));
+        batch.put(key(KEY_TYPE_SCALAR, SCALAR_HEIGHT_BOUND), SerializeUtils.uint64ToByteArray(heightBound));
+        writeBuckets(batch, KEY_TYPE_TIME, timeLocked, full ? timeLocked.keySet() : touchedTime);
+        writeBuckets(batch, KEY_TYPE_HEIGHT, heightLocked, full ? heightLocked.keySet() : touchedHeight);
+        Result result = batch.executeBatch();
+        if (result.isFailed()) {
+            // 计数器落后于UTXO时由审计任务纠正
+            // Counters lagging behind the UTXOs are corrected by the audit task.
+            Log.error("persist coin supply counters failed: " + result.getErrorCode());
+        }
+    }
+
+    private void writeBuckets(BatchOperation batch, byte type, TreeMap<Long, Long> buckets, Set<Long> keys) {
+        for (Long lock : keys) {
+            Long value = buckets.get(lock);
+            if (value == null) {
+                batch.delete(key(type, lock));
+            } else {
+                batch.put(key(type, lock), SerializeUtils.uint64ToByteArray(value));
+            }
+        }
+    }
+
+    private static byte[] key(byte type, long id) {
+        byte[] key = new byte[9];
+        key[0] = type;
+        SerializeUtils.uint64ToByteArrayLE(id, key, 1);
+        return key;
+    }
+
+    private static boolean isBurned(Coin coin) {
+        try {
+            return Arrays.equals(coin.getAddress(), NulsConstant.BLACK_HOLE_ADDRESS);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private boolean sameCounters(CoinSupplyTracker other) {
+        return total == other.total && burned == other.burned && permanentLocked == other.permanentLocked
+                && timeLocked.tailMap(other.timeBound, false).equals(other.timeLocked)
+                && heightLocked.tailMap(other.heightBound, false).equals(other.heightLocked);
+    }
+
+    private void copyFrom(CoinSupplyTracker other) {
+        total = other.total;
+        burned = other.burned;
+        permanentLocked = other.permanentLocked;
+        timeBound = other.timeBound;
+        heightBound = other.heightBound;
+        timeLocked.clear();
+        timeLocked.putAll(other.timeLocked);
+        heightLocked.clear();
+        heightLocked.putAll(other.heightLocked);
+    }
+}
@@ -27,7 +27,6 @@ import io.nuls.contract.constant.ContractConstant;
 import io.nuls.contract.constant.ContractErrorCode;
 import io.nuls.contract.service.ContractService;
 import io.nuls.core.tools.array.ArraysTool;
-import io.nuls.core.tools.calc.LongUtils;
 import io.nuls.core.tools.log.Log;
 import io.nuls.core.tools.map.MapUtil;
 import io.nuls.core.tools.param.AssertUtil;
@@ -74,6 +73,8 @@ public class UtxoLedgerServiceImpl implements LedgerService {
     private UtxoLedgerTransactionStorageService utxoLedgerTransactionStorageService;
     @Autowired
     private ContractService contractService;
+    @Autowired
+    private CoinSupplyTracker coinSupplyTracker;
 
     @Override
     public Result saveTx(Transaction tx) throws NulsException {
@@ -132,18 +133,28 @@ public class UtxoLedgerServiceImpl implements LedgerService {
             // 保存utxo - to
             byte[] txHashBytes = tx.getHash().serialize();
             List<Coin> tos = coinData.getTo();
+            List<Coin> addedCoins = new ArrayList<>();
             for (int i = 0, length = tos.size(); i < length; i++) {
                 try {
                     byte[] owner = Arrays.concatenate(txHashBytes, new VarInt(i).encode());
 //                    Log.info("129 save utxo:::" + Hex.encode(owner));
+                    if (utxoLedgerUtxoStorageService.getUtxoBytes(owner) == null) {
+                        addedCoins.add(tos.get(i));
+                    }
                     batch.put(owner, tos.get(i).serialize());
                 } catch (IOException e) {
                     Log.error(e);
                     return Result.getFailed(KernelErrorCode.IO_ERROR);
                 }
             }
+            // 输出已全部存在说明这笔交易已经保存过，输入也已删除，不再重复统计
+            // All outputs already present means the transaction was saved before and its inputs are gone already.
+            List<Coin> spentInputs = froms;
+            if (!tos.isEmpty() && addedCoins.isEmpty()) {
+                spentInputs = Collections.emptyList();
+            }
             // 执行批量
-            Result batchResult = batch.executeBatch();
+            Result batchResult = coinSupplyTracker.executeBatch(batch, addedCoins, Collections.emptyList(), spentInputs);
             if (batchResult.isFailed()) {
                 return batchResult;
             }
@@ -192,6 +203,7 @@ public class UtxoLedgerServiceImpl implements LedgerService {
         if (coinData != null) {
             // 保存utxo已花费 - from
             List<Coin> froms = coinData.getFrom();
+            List<Coin> recoveredCoins = new ArrayList<>();
             Coin recovery;
             for (Coin from : froms) {
                 try {
@@ -204,6 +216,9 @@ public class UtxoLedgerServiceImpl implements LedgerService {
                     Transaction fromTx = utxoLedgerTransactionStorageService.getTx(fromTxHash);
                     recovery = fromTx.getCoinData().getTo().get(fromIndex);
                     recovery.setFrom(from.getFrom());
+                    if (utxoLedgerUtxoStorageService.getUtxoBytes(from.getOwner()) == null) {
+                        recoveredCoins.add(recovery);
+                    }
                     batch.put(from.getOwner(), recovery.serialize());
                 } catch (IOException e) {
                     Log.error(e);
@@ -212,13 +227,17 @@ public class UtxoLedgerServiceImpl implements LedgerService {
             }
             // 删除utxo - to
             List<Coin> tos = coinData.getTo();
+            List<Coin> deletedCoins = new ArrayList<>();
             for (int i = 0, length = tos.size(); i < length; i++) {
                 byte[] owner = Arrays.concatenate(txHashBytes, new VarInt(i).encode());
 //                Log.info("批量删除：" + Hex.encode(owner));
+                if (utxoLedgerUtxoStorageService.getUtxoBytes(owner) != null) {
+                    deletedCoins.add(tos.get(i));
+                }
                 batch.delete(owner);
             }
             // 执行批量
-            Result batchResult = batch.executeBatch();
+            Result batchResult = coinSupplyTracker.executeBatch(batch, recoveredCoins, deletedCoins);
             if (batchResult.isFailed()) {
                 return batchResult;
             }
@@ -540,7 +559,7 @@ public class UtxoLedgerServiceImpl implements LedgerService {
             byte[] txHashBytes = txHashBytes = tx.getHash().serialize();
             Coin needUnLockUtxoNew = new Coin(needUnLockUtxo.getOwner(), needUnLockUtxo.getNa(), newockTime);
             needUnLockUtxoNew.setFrom(needUnLockUtxo.getFrom());
-            Result result = utxoLedgerUtxoStorageService.saveUtxo(Arrays.concatenate(txHashBytes, new VarInt(needUnLockUtxoIndex).encode()), needUnLockUtxoNew);
+            Result result = replaceUtxo(Arrays.concatenate(txHashBytes, new VarInt(needUnLockUtxoIndex).encode()), needUnLockUtxoNew);
             if (result.isFailed()) {
                 Result rollbackResult = rollbackUnlockTxCoinData(tx);
                 if (rollbackResult.isFailed()) {
@@ -581,7 +600,7 @@ public class UtxoLedgerServiceImpl implements LedgerService {
                 return ValidateResult.getFailedResult(CLASS_NAME, LedgerErrorCode.UTXO_STATUS_CHANGE);
             }
             byte[] txHashBytes = tx.getHash().serialize();
-            Result result = utxoLedgerUtxoStorageService.saveUtxo(Arrays.concatenate(txHashBytes, new VarInt(needUnLockUtxoIndex).encode()), needUnLockUtxo);
+            Result result = replaceUtxo(Arrays.concatenate(txHashBytes, new VarInt(needUnLockUtxoIndex).encode()), needUnLockUtxo);
             if (result.isFailed()) {
                 throw new NulsException(result.getErrorCode());
             }
@@ -592,27 +611,31 @@ public class UtxoLedgerServiceImpl implements LedgerService {
         }
     }
 
+    /**
+     * 覆盖一条UTXO（解锁及其回滚），同时更新供应量统计
+     * Overwrite a single UTXO (unlock and its rollback) and keep the supply counters in step.
+     */
+    private Result replaceUtxo(byte[] owner, Coin coin) throws IOException {
+        BatchOperation batch = utxoLedgerUtxoStorageService.createWriteBatch();
+        batch.put(owner, coin.serialize());
+        Coin old = utxoLedgerUtxoStorageService.getUtxo(owner);
+        List<Coin> removedCoins = old == null ? Collections.emptyList() : Collections.singletonList(old);
+        return coinSupplyTracker.executeBatch(batch, Collections.singletonList(coin), removedCoins);
+    }
+
     @Override
     public long getWholeUTXO() {
-        long result = 0L;
-        List<byte[]> list = utxoLedgerUtxoStorageService.getAllUtxoBytes();
-        if (list == null || list.size() == 0) {
-            return result;
-        }
-        Coin coin = null;
-        try {
-            for (byte[] utxoBytes : list) {
-                if (utxoBytes != null) {
-                    coin = new Coin();
-                    coin.parse(utxoBytes, 0);
-                    result = LongUtils.add(result, coin.getNa().getValue());
-                }
-            }
-            return result;
-        } catch (NulsException e) {
-            Log.error(e);
-            return 0L;
-        }
+        return coinSupplyTracker.getTotal();
+    }
+
+    @Override
+    public long getLockedUTXO() {
+        return coinSupplyTracker.getLocked();
+    }
+
+    @Override
+    public long getBurnedUTXO() {
+        return coinSupplyTracker.getBurned();
     }
 
     @Override
@@ -1,20 +1,17 @@
 package io.nuls.ledger.task;
 
-import io.nuls.core.tools.calc.DoubleUtils;
 import io.nuls.core.tools.log.Log;
-import io.nuls.db.model.Entry;
 import io.nuls.kernel.context.NulsContext;
-import io.nuls.kernel.exception.NulsException;
-import io.nuls.kernel.lite.annotation.Autowired;
-import io.nuls.kernel.model.Coin;
-import io.nuls.ledger.storage.service.UtxoLedgerUtxoStorageService;
-
-import java.util.List;
+import io.nuls.ledger.service.impl.CoinSupplyTracker;
 
+/**
+ * 供应量审计任务：供应量由CoinSupplyTracker增量维护，这里定期全量扫描核对并刷新上下文中的统计值
+ * Supply audit task: the supply is maintained incrementally by CoinSupplyTracker, this task periodically
+ * cross-checks it with a full scan and refreshes the statistics in the context.
+ */
 public class TotalCoinTask implements Runnable {
 
-    @Autowired
-    private UtxoLedgerUtxoStorageService utxoLedgerUtxoStorageService;
+    private CoinSupplyTracker coinSupplyTracker;
 
     @Override
     public void run() {
@@ -25,28 +22,17 @@ public class TotalCoinTask implements Runnable {
         }
     }
 
-    private void doStatistics() throws NulsException {
-        long height = NulsContext.getInstance().getBestHeight();
-        List<Entry<byte[], byte[]>> coinBytesList = getUtxoLedgerUtxoStorageService().getAllUtxoEntryBytes();
-        long totalNuls = 0;
-        long lockedNuls = 0;
-        Coin coin = new Coin();
-        for (Entry<byte[], byte[]> coinEntryBytes : coinBytesList) {
-            coin.parse(coinEntryBytes.getValue(), 0);
-
-            totalNuls += coin.getNa().getValue();
-            if (coin.getLockTime() == -1 || coin.getLockTime() > System.currentTimeMillis() || (coin.getLockTime() < 1531152000000L && coin.getLockTime() > height)) {
-                lockedNuls += coin.getNa().getValue();
-            }
-        }
-        NulsContext.totalNuls = totalNuls;
-        NulsContext.lockedNuls = lockedNuls;
+    private void doStatistics() {
+        CoinSupplyTracker tracker = getCoinSupplyTracker();
+        tracker.audit();
+        NulsContext.totalNuls = tracker.getTotal();
+        NulsContext.lockedNuls = tracker.getLocked();
     }
 
-    private UtxoLedgerUtxoStorageService getUtxoLedgerUtxoStorageService() {
-        if (utxoLedgerUtxoStorageService == null) {
-            utxoLedgerUtxoStorageService = NulsContext.getServiceBean(UtxoLedgerUtxoStorageService.class);
+    private CoinSupplyTracker getCoinSupplyTracker() {
+        if (coinSupplyTracker == null) {
+            coinSupplyTracker = NulsContext.getServiceBean(CoinSupplyTracker.class);
         }
-        return utxoLedgerUtxoStorageService;
+        return coinSupplyTracker;
     }
 }
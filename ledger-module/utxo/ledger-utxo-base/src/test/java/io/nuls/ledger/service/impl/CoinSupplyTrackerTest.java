@@ -0,0 +1,360 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2017-2019 nuls.io
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.ledger.service.impl;
+
+import io.nuls.core.tools.array.ArraysTool;
+import io.nuls.core.tools.crypto.Hex;
+import io.nuls.db.model.Entry;
+import io.nuls.db.service.BatchOperation;
+import io.nuls.kernel.constant.NulsConstant;
+import io.nuls.kernel.context.NulsContext;
+import io.nuls.kernel.exception.NulsException;
+import io.nuls.kernel.model.*;
+import io.nuls.kernel.utils.NulsByteBuffer;
+import io.nuls.kernel.utils.VarInt;
+import io.nuls.ledger.storage.service.UtxoLedgerSupplyStorageService;
+import io.nuls.ledger.storage.service.UtxoLedgerTransactionStorageService;
+import io.nuls.ledger.storage.service.UtxoLedgerUtxoStorageService;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CoinSupplyTrackerTest {
+
+    private static final long ONE_DAY = 24 * 60 * 60 * 1000L;
+
+    private MemoryArea utxoArea;
+    private MemoryArea supplyArea;
+    private Map<NulsDigestData, Transaction> txMap;
+    private CoinSupplyTracker tracker;
+    private UtxoLedgerServiceImpl ledgerService;
+
+    @BeforeClass
+    public static void initClass() {
+        Block block = new Block();
+        BlockHeader header = new BlockHeader();
+        header.setHeight(100L);
+        block.setHeader(header);
+        NulsContext.getInstance().setBestBlock(block);
+    }
+
+    @Before
+    public void init() throws Exception {
+        utxoArea = new MemoryArea();
+        supplyArea = new MemoryArea();
+        txMap = new HashMap<>();
+        UtxoStorage utxoStorage = new UtxoStorage(utxoArea);
+        tracker = new CoinSupplyTracker(utxoStorage, new SupplyStorage(supplyArea));
+        tracker.load();
+        ledgerService = new UtxoLedgerServiceImpl();
+        inject(ledgerService, "utxoLedgerUtxoStorageService", utxoStorage);
+        inject(ledgerService, "utxoLedgerTransactionStorageService", new TxStorage(txMap));
+        inject(ledgerService, "coinSupplyTracker", tracker);
+    }
+
+    @Test
+    public void countsSavedAndSpentCoins() throws Exception {
+        Transaction coinBase = newTx(1L, Collections.emptyList(), Arrays.asList(
+                new Coin(address(1), Na.valueOf(100), 0),
+                new Coin(address(2), Na.valueOf(50), -1),
+                new Coin(address(3), Na.valueOf(30), System.currentTimeMillis() + ONE_DAY),
+                new Coin(address(4), Na.valueOf(20), 200L),
+                new Coin(NulsConstant.BLACK_HOLE_ADDRESS, Na.valueOf(10), 0)));
+        assertTrue(ledgerService.saveTx(coinBase).isSuccess());
+        assertCounters(210, 100, 10);
+
+        Transaction transfer = newTx(2L, Arrays.asList(spend(coinBase, 0), spend(coinBase, 3)),
+                Arrays.asList(new Coin(address(5), Na.valueOf(115), 0)));
+        assertTrue(ledgerService.saveTx(transfer).isSuccess());
+        assertCounters(205, 80, 10);
+
+        assertTrue(tracker.audit());
+        assertCounters(205, 80, 10);
+    }
+
+    @Test
+    public void savingTwiceCountsOnce() throws Exception {
+        Transaction coinBase = newTx(1L, Collections.emptyList(), Arrays.asList(new Coin(address(1), Na.valueOf(100), 0)));
+        assertTrue(ledgerService.saveTx(coinBase).isSuccess());
+        assertTrue(ledgerService.saveTx(coinBase).isSuccess());
+        assertCounters(100, 0, 0);
+
+        Transaction transfer = newTx(2L, Arrays.asList(spend(coinBase, 0)), Arrays.asList(new Coin(address(2), Na.valueOf(90), 0)));
+        assertTrue(ledgerService.saveTx(transfer).isSuccess());
+        assertTrue(ledgerService.saveTx(transfer).isSuccess());
+        assertCounters(90, 0, 0);
+        assertEquals(1, utxoArea.map.size());
+
+        assertTrue(tracker.audit());
+        assertCounters(90, 0, 0);
+    }
+
+    @Test
+    public void rollbackRestoresCountersOnce() throws Exception {
+        Transaction coinBase = newTx(1L, Collections.emptyList(), Arrays.asList(
+                new Coin(address(1), Na.valueOf(100), -1),
+                new Coin(NulsConstant.BLACK_HOLE_ADDRESS, Na.valueOf(10), 0)));
+        assertTrue(ledgerService.saveTx(coinBase).isSuccess());
+        Transaction unlock = newTx(2L, Arrays.asList(spend(coinBase, 0)), Arrays.asList(new Coin(address(1), Na.valueOf(100), 0)));
+        assertTrue(ledgerService.saveTx(unlock).isSuccess());
+        assertCounters(110, 0, 10);
+
+        assertTrue(ledgerService.rollbackTx(unlock).isSuccess());
+        assertCounters(110, 100, 10);
+        assertTrue(ledgerService.rollbackTx(unlock).isSuccess());
+        assertCounters(110, 100, 10);
+
+        assertTrue(ledgerService.rollbackTx(coinBase).isSuccess());
+        assertCounters(0, 0, 0);
+        assertTrue(utxoArea.map.isEmpty());
+    }
+
+    @Test
+    public void loadsPersistedCounters() throws Exception {
+        Transaction coinBase = newTx(1L, Collections.emptyList(), Arrays.asList(
+                new Coin(address(1), Na.valueOf(100), System.currentTimeMillis() + ONE_DAY),
+                new Coin(NulsConstant.BLACK_HOLE_ADDRESS, Na.valueOf(10), 0)));
+        assertTrue(ledgerService.saveTx(coinBase).isSuccess());
+
+        CoinSupplyTracker reloaded = new CoinSupplyTracker(new UtxoStorage(utxoArea), new SupplyStorage(supplyArea));
+        reloaded.load();
+        assertEquals(110, reloaded.getTotal());
+        assertEquals(100, reloaded.getLocked());
+        assertEquals(10, reloaded.getBurned());
+
+        // 没有计数器时由全量扫描生成
+        // Without counters they are built from a full scan.
+        supplyArea.map.clear();
+        CoinSupplyTracker scanned = new CoinSupplyTracker(new UtxoStorage(utxoArea), new SupplyStorage(supplyArea));
+        scanned.load();
+        assertEquals(110, scanned.getTotal());
+        assertEquals(100, scanned.getLocked());
+        assertEquals(10, scanned.getBurned());
+        assertFalse(supplyArea.map.isEmpty());
+    }
+
+    private void assertCounters(long total, long locked, long burned) {
+        assertEquals(total, tracker.getTotal());
+        assertEquals(locked, tracker.getLocked());
+        assertEquals(burned, tracker.getBurned());
+    }
+
+    private Coin spend(Transaction tx, int index) throws Exception {
+        Coin to = (Coin) tx.getCoinData().getTo().get(index);
+        byte[] owner = ArraysTool.concatenate(tx.getHash().serialize(), new VarInt(index).encode());
+        return new Coin(owner, to.getNa(), to.getLockTime());
+    }
+
+    private Transaction newTx(long time, List<Coin> froms, List<Coin> tos) {
+        Transaction tx = new Transaction(1) {
+            @Override
+            protected TransactionLogicData parseTxData(NulsByteBuffer byteBuffer) throws NulsException {
+                return null;
+            }
+
+            @Override
+            public String getInfo(byte[] address) {
+                return null;
+            }
+        };
+        tx.setTime(time);
+        CoinData coinData = new CoinData();
+        coinData.setFrom(new ArrayList<>(froms));
+        coinData.setTo(new ArrayList<>(tos));
+        tx.setCoinData(coinData);
+        return tx;
+    }
+
+    private byte[] address(int seed) {
+        byte[] address = new byte[Address.ADDRESS_LENGTH];
+        Arrays.fill(address, (byte) seed);
+        return address;
+    }
+
+    private static void inject(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private static class MemoryArea {
+        private final Map<String, byte[]> map = new HashMap<>();
+
+        BatchOperation createWriteBatch() {
+            return new BatchOperation() {
+                private final List<Object[]> ops = new ArrayList<>();
+
+                @Override
+                public Result put(byte[] key, byte[] value) {
+                    ops.add(new Object[]{key, value});
+                    return Result.getSuccess();
+                }
+
+                @Override
+                public <T> Result putModel(byte[] key, T value) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public Result delete(byte[] key) {
+                    ops.add(new Object[]{key, null});
+                    return Result.getSuccess();
+                }
+
+                @Override
+                public Result executeBatch() {
+                    for (Object[] op : ops) {
+                        if (op[1] == null) {
+                            map.remove(Hex.encode((byte[]) op[0]));
+                        } else {
+                            map.put(Hex.encode((byte[]) op[0]), (byte[]) op[1]);
+                        }
+                    }
+                    return Result.getSuccess();
+                }
+            };
+        }
+    }
+
+    private static class UtxoStorage implements UtxoLedgerUtxoStorageService {
+        private final MemoryArea area;
+
+        UtxoStorage(MemoryArea area) {
+            this.area = area;
+        }
+
+        @Override
+        public BatchOperation createWriteBatch() {
+            return area.createWriteBatch();
+        }
+
+        @Override
+        public Result saveUtxo(byte[] owner, Coin coin) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Coin getUtxo(byte[] owner) {
+            byte[] bytes = getUtxoBytes(owner);
+            if (bytes == null) {
+                return null;
+            }
+            Coin coin = new Coin();
+            try {
+                coin.parse(bytes, 0);
+            } catch (NulsException e) {
+                throw new RuntimeException(e);
+            }
+            return coin;
+        }
+
+        @Override
+        public Result deleteUtxo(byte[] owner) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[] getUtxoBytes(byte[] owner) {
+            return area.map.get(Hex.encode(owner));
+        }
+
+        @Override
+        public List<byte[]> getAllUtxoBytes() {
+            return new ArrayList<>(area.map.values());
+        }
+
+        @Override
+        public List<Entry<byte[], byte[]>> getAllUtxoEntryBytes() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Entry<byte[], byte[]>> getUtxoEntryBytes(byte[] startKey, int limit) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class SupplyStorage implements UtxoLedgerSupplyStorageService {
+        private final MemoryArea area;
+
+        SupplyStorage(MemoryArea area) {
+            this.area = area;
+        }
+
+        @Override
+        public BatchOperation createWriteBatch() {
+            return area.createWriteBatch();
+        }
+
+        @Override
+        public List<Entry<byte[], byte[]>> getAllSupplyEntryBytes() {
+            List<Entry<byte[], byte[]>> list = new ArrayList<>();
+            for (Map.Entry<String, byte[]> entry : area.map.entrySet()) {
+                list.add(new Entry<>(Hex.decode(entry.getKey()), entry.getValue()));
+            }
+            return list;
+        }
+
+        @Override
+        public Result clear() {
+            area.map.clear();
+            return Result.getSuccess();
+        }
+    }
+
+    private static class TxStorage implements UtxoLedgerTransactionStorageService {
+        private final Map<NulsDigestData, Transaction> txMap;
+
+        TxStorage(Map<NulsDigestData, Transaction> txMap) {
+            this.txMap = txMap;
+        }
+
+        @Override
+        public Result saveTx(Transaction tx) {
+            txMap.put(tx.getHash(), tx);
+            return Result.getSuccess();
+        }
+
+        @Override
+        public Transaction getTx(NulsDigestData hash) {
+            return txMap.get(hash);
+        }
+
+        @Override
+        public Result deleteTx(Transaction tx) {
+            txMap.remove(tx.getHash());
+            return Result.getSuccess();
+        }
+
+        @Override
+        public byte[] getTxBytes(byte[] txBytes) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
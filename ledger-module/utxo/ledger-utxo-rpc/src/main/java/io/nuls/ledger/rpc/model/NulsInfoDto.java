@@ -16,6 +16,9 @@ public class NulsInfoDto {
     @ApiModelProperty(name = "totalNuls", value = "总的nuls数量")
     private Long lockedNuls;
 
+    @ApiModelProperty(name = "burnedNuls", value = "已销毁的nuls数量")
+    private Long burnedNuls;
+
     public Long getTotalNuls() {
         return totalNuls;
     }
@@ -31,4 +34,12 @@ public class NulsInfoDto {
     public void setLockedNuls(Long lockedNuls) {
         this.lockedNuls = lockedNuls;
     }
+
+    public Long getBurnedNuls() {
+        return burnedNuls;
+    }
+
+    public void setBurnedNuls(Long burnedNuls) {
+        this.burnedNuls = burnedNuls;
+    }
 }
@@ -38,6 +38,7 @@ import io.nuls.kernel.model.RpcClientResult;
 import io.nuls.kernel.utils.AddressTool;
 import io.nuls.ledger.constant.LedgerErrorCode;
 import io.nuls.ledger.rpc.model.*;
+import io.nuls.ledger.service.LedgerService;
 import io.nuls.ledger.storage.service.UtxoLedgerUtxoStorageService;
 import io.nuls.ledger.storage.util.CoinComparator;
 import io.swagger.annotations.*;
@@ -60,6 +61,8 @@ public class UtxoResource {
 
     @Autowired
     private UtxoLedgerUtxoStorageService utxoLedgerUtxoStorageService;
+    @Autowired
+    private LedgerService ledgerService;
 
     @GET
     @Path("/limit/{address}/{limit}")
@@ -240,8 +243,9 @@ public class UtxoResource {
     public RpcClientResult getTotalCoins() throws NulsException {
         Result<NulsInfoDto> result = Result.getSuccess();
         NulsInfoDto info = new NulsInfoDto();
-        info.setTotalNuls(NulsContext.totalNuls);
-        info.setLockedNuls(NulsContext.lockedNuls);
+        info.setTotalNuls(ledgerService.getWholeUTXO());
+        info.setLockedNuls(ledgerService.getLockedUTXO());
+        info.setBurnedNuls(ledgerService.getBurnedUTXO());
         result.setData(info);
         return result.toRpcClientResult();
     }
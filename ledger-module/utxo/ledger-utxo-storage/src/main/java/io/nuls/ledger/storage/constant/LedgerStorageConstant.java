@@ -34,5 +34,6 @@ public interface LedgerStorageConstant {
 
     String DB_NAME_LEDGER_TX = "ledger_tx";
     String DB_NAME_LEDGER_UTXO = "ledger_utxo";
+    String DB_NAME_LEDGER_SUPPLY = "ledger_supply";
 
 }
@@ -49,4 +49,14 @@ public interface UtxoLedgerUtxoStorageService {
     List<byte[]> getAllUtxoBytes();
 
     List<Entry<byte[], byte[]>> getAllUtxoEntryBytes();
+
+    /**
+     * 按key的字节顺序分页读取UTXO, 返回key大于等于startKey的至多limit条记录, 遍历全部UTXO时不必一次载入内存
+     * Page through the utxo in the byte order of the keys, returns at most limit entries whose key is not less than startKey,
+     * so a full scan does not have to hold the whole utxo set in memory.
+     *
+     * @param startKey the first key of the page, an empty array starts from the beginning
+     * @param limit    max entries of the page
+     */
+    List<Entry<byte[], byte[]>> getUtxoEntryBytes(byte[] startKey, int limit);
 }
@@ -41,6 +41,7 @@ import io.nuls.ledger.storage.constant.LedgerStorageConstant;
 import io.nuls.ledger.storage.service.UtxoLedgerUtxoStorageService;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -50,6 +51,12 @@ import java.util.List;
 @Service
 public class UtxoLedgerUtxoStorageServiceImpl implements UtxoLedgerUtxoStorageService, InitializingBean {
 
+    /**
+     * UTXO的key为交易hash加序号, 不会超过该长度, 用作分页读取的结束key
+     * The utxo key is the tx hash plus the index and never exceeds this length, used as the end key of paged reads.
+     */
+    private static final byte[] MAX_UTXO_KEY = maxKey(64);
+
     /**
      * 通用数据存储服务
      * Universal data storage services.
@@ -124,4 +131,15 @@ public class UtxoLedgerUtxoStorageServiceImpl implements UtxoLedgerUtxoStorageSe
         return dbService.entryList(LedgerStorageConstant.DB_NAME_LEDGER_UTXO);
     }
 
+    @Override
+    public List<Entry<byte[], byte[]>> getUtxoEntryBytes(byte[] startKey, int limit) {
+        return dbService.entryList(LedgerStorageConstant.DB_NAME_LEDGER_UTXO, startKey, MAX_UTXO_KEY, limit);
+    }
+
+    private static byte[] maxKey(int length) {
+        byte[] key = new byte[length];
+        Arrays.fill(key, (byte) 0xFF);
+        return key;
+    }
+
 }
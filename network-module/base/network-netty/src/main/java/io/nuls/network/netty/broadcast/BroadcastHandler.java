@@ -25,9 +25,8 @@
 
 package io.nuls.network.netty.broadcast;
 
-import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
-import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelPromise;
 import io.nuls.core.tools.log.Log;
 import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.model.BaseNulsData;
@@ -40,7 +39,6 @@ import io.nuls.network.netty.manager.NodeManager;
 import io.nuls.protocol.message.base.BaseMessage;
 import io.nuls.protocol.message.base.MessageHeader;
 
-import java.io.IOException;
 import java.util.*;
 
 public class BroadcastHandler {
@@ -119,32 +117,25 @@ public class BroadcastHandler {
                 if (needCount < minCount) {
                     needCount = minCount;
                 }
-                Set<Integer> set = new HashSet<>();
-                while (true) {
-                    Random rand = new Random();
-                    int ran = rand.nextInt(nodeList.size());
-                    set.add(ran);
-                    if (set.size() == needCount + 1) {
-                        break;
-                    }
-                }
-
-                int nodeListIndex = 0;
-                Collection<Node> nodeBroadcastList = new ArrayList<>();
+                //随机选择节点，评分过低的节点只在其他节点不足时使用；每个节点只读取一次评分
+                //pick peers at random, misbehaving peers are only used when there are not enough others;
+                //the score of each peer is read once, so it can not change while the peers are split
+                List<Node> candidates = new ArrayList<>(nodeList.size());
+                List<Node> misbehavingNodes = new ArrayList<>();
                 for (Node node : nodeList) {
-                    if (set.contains(nodeListIndex)) {
-                        if (excludeNode != null && node.getId().equals(excludeNode.getId())) {
-                            nodeListIndex++;
-                            continue;
-                        }
-                        nodeBroadcastList.add(node);
-                        if (nodeBroadcastList.size() == needCount) {
-                            break;
-                        }
+                    if (excludeNode != null && node.getId().equals(excludeNode.getId())) {
+                        continue;
+                    }
+                    if (node.getMetrics().isMisbehaving()) {
+                        misbehavingNodes.add(node);
+                    } else {
+                        candidates.add(node);
                     }
-                    nodeListIndex++;
                 }
-                nodeList = nodeBroadcastList;
+                Collections.shuffle(candidates);
+                Collections.shuffle(misbehavingNodes);
+                candidates.addAll(misbehavingNodes);
+                nodeList = candidates.subList(0, Math.min(needCount, candidates.size()));
             }
             for (Node node : nodeList) {
                 if (excludeNode != null && node.getId().equals(excludeNode.getId())) {
@@ -184,22 +175,21 @@ public class BroadcastHandler {
             BaseNulsData body = message.getMsgBody();
             header.setLength(body.size());
 
-            if(asyn) {
-                node.getChannel().eventLoop().execute(() -> {
-                    try {
-                        Channel channel = node.getChannel();
-                        if (channel != null) {
-                            channel.writeAndFlush(Unpooled.wrappedBuffer(message.serialize()));
-                        }
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                });
-            } else {
-                ChannelFuture future = node.getChannel().writeAndFlush(Unpooled.wrappedBuffer(message.serialize()));
-                future.await();
-                boolean success = future.isSuccess();
-                if (!success) {
+            Channel channel = node.getChannel();
+            if (channel == null) {
+                return new BroadcastResult(false, NetworkErrorCode.NET_NODE_MISS_CHANNEL);
+            }
+            //消息进入节点的出站队列，按优先级合并发送；慢节点的低优先级消息会被丢弃
+            //queue the message on the node's outbound queue, low priority messages to slow peers are dropped
+            ChannelPromise promise = asyn ? null : channel.newPromise();
+            byte[] data = message.serialize();
+            if (!OutboundQueue.of(channel).offer(data, OutboundQueue.getPriority(header), promise)) {
+                return new BroadcastResult(false, NetworkErrorCode.NET_BROADCAST_FAIL);
+            }
+            node.getMetrics().recordOut(header.getModuleId(), header.getMsgType(), data.length);
+            if (!asyn) {
+                promise.await();
+                if (!promise.isSuccess()) {
                     return new BroadcastResult(false, NetworkErrorCode.NET_BROADCAST_FAIL);
                 }
             }
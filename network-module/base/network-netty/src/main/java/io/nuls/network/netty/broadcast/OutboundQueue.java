@@ -0,0 +1,247 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.network.netty.broadcast;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.Attribute;
+import io.netty.util.internal.ThrowableUtil;
+import io.nuls.core.tools.log.Log;
+import io.nuls.network.constant.NetworkConstant;
+import io.nuls.network.constant.NetworkParam;
+import io.nuls.network.netty.conn.NodeAttributeKey;
+import io.nuls.protocol.constant.ProtocolConstant;
+import io.nuls.protocol.message.base.MessageHeader;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 节点连接的出站消息队列
+ * 消息按优先级排队，每次事件循环只flush一次；连接不可写时暂停发送，慢节点的低优先级消息直接丢弃
+ * <p>
+ * Outbound message queue of a node connection.
+ * Messages are queued by priority and written in one batch with a single flush per event loop tick.
+ * Writing pauses while the channel is not writable, and low priority messages to slow peers are dropped
+ * instead of piling up in the channel's outbound buffer. High priority messages are never dropped, a peer
+ * whose high priority backlog exceeds its byte budget is disconnected instead.
+ */
+public class OutboundQueue {
+
+    /**
+     * 网络控制消息和区块消息
+     * network control and block propagation messages
+     */
+    public static final int PRIORITY_HIGH = 0;
+    public static final int PRIORITY_NORMAL = 1;
+    /**
+     * 交易广播消息
+     * transaction gossip
+     */
+    public static final int PRIORITY_LOW = 2;
+
+    private static final ClosedChannelException CLOSED_CHANNEL_EXCEPTION = ThrowableUtil.unknownStackTrace(
+            new ClosedChannelException(), OutboundQueue.class, "discard()");
+
+    private final Channel channel;
+
+    private final Queue<PendingWrite>[] queues;
+
+    private final AtomicInteger[] sizes;
+
+    private final AtomicLong highQueueBytes = new AtomicLong();
+
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+
+    private final Runnable drainTask = this::drain;
+
+    @SuppressWarnings("unchecked")
+    private OutboundQueue(Channel channel) {
+        this.channel = channel;
+        this.queues = new Queue[PRIORITY_LOW + 1];
+        this.sizes = new AtomicInteger[PRIORITY_LOW + 1];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ConcurrentLinkedQueue<>();
+            sizes[i] = new AtomicInteger();
+        }
+    }
+
+    public static OutboundQueue of(Channel channel) {
+        Attribute<OutboundQueue> attribute = channel.attr(NodeAttributeKey.OUTBOUND_QUEUE_KEY);
+        OutboundQueue queue = attribute.get();
+        if (queue == null) {
+            OutboundQueue newQueue = new OutboundQueue(channel);
+            queue = attribute.setIfAbsent(newQueue);
+            if (queue == null) {
+                queue = newQueue;
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * 根据消息头确定消息的发送优先级
+     * Get the send priority of a message from its header.
+     */
+    public static int getPriority(MessageHeader header) {
+        if (header.getModuleId() == NetworkConstant.NETWORK_MODULE_ID) {
+            return PRIORITY_HIGH;
+        }
+        if (header.getModuleId() != ProtocolConstant.MODULE_ID_PROTOCOL) {
+            return PRIORITY_NORMAL;
+        }
+        switch (header.getMsgType()) {
+            case ProtocolConstant.PROTOCOL_NEW_TX:
+            case ProtocolConstant.PROTOCOL_FORWARD_NEW_TX:
+                return PRIORITY_LOW;
+            case ProtocolConstant.PROTOCOL_BLOCK:
+            case ProtocolConstant.PROTOCOL_NEW_BLOCK:
+            case ProtocolConstant.PROTOCOL_FORWARD_NEW_BLOCK:
+            case ProtocolConstant.PROTOCOL_GET_SMALL_BLOCK:
+            case ProtocolConstant.PROTOCOL_GET_TX_GROUP:
+            case ProtocolConstant.PROTOCOL_TX_GROUP:
+            case ProtocolConstant.PROTOCOL_GET_BLOCK:
+            case ProtocolConstant.PROTOCOL_GET_BLOCKS_BY_HASH:
+            case ProtocolConstant.PROTOCOL_GET_BLOCKS_BY_HEIGHT:
+            case ProtocolConstant.PROTOCOL_GET_BLOCK_HEADER:
+            case ProtocolConstant.PROTOCOL_BLOCK_HEADER:
+                return PRIORITY_HIGH;
+            default:
+                return PRIORITY_NORMAL;
+        }
+    }
+
+    /**
+     * 将消息放入队列，队列已满或连接已关闭时返回false；高优先级消息积压超过字节上限时断开连接
+     * Queue a serialized message, returns false when the message is dropped.
+     * When the high priority backlog exceeds its byte budget the channel is closed.
+     *
+     * @param data     serialized message
+     * @param priority send priority
+     * @param promise  completed when the message is written, may be null
+     */
+    public boolean offer(byte[] data, int priority, ChannelPromise promise) {
+        if (!channel.isActive()) {
+            return false;
+        }
+        if (priority == PRIORITY_LOW && !channel.isWritable()) {
+            return false;
+        }
+        if (priority == PRIORITY_HIGH) {
+            long maxBytes = NetworkParam.getInstance().getOutboundHighQueueBytes();
+            if (highQueueBytes.addAndGet(data.length) > maxBytes) {
+                highQueueBytes.addAndGet(-data.length);
+                Log.warn("outbound queue of {} exceeds {} bytes, close the channel", channel.remoteAddress(), maxBytes);
+                channel.close();
+                return false;
+            }
+        } else if (sizes[priority].get() >= NetworkParam.getInstance().getOutboundQueueSize()) {
+            return false;
+        }
+        sizes[priority].incrementAndGet();
+        queues[priority].offer(new PendingWrite(data, promise));
+        scheduleDrain();
+        return true;
+    }
+
+    public int size() {
+        int size = 0;
+        for (AtomicInteger count : sizes) {
+            size += count.get();
+        }
+        return size;
+    }
+
+    /**
+     * 连接恢复可写时继续发送
+     * Resume writing, called when the channel becomes writable again.
+     */
+    public void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            channel.eventLoop().execute(drainTask);
+        }
+    }
+
+    /**
+     * 连接关闭时丢弃所有未发送的消息
+     * Drop all queued messages, called when the channel is closed.
+     */
+    public void discard() {
+        for (int priority = 0; priority < queues.length; priority++) {
+            PendingWrite write;
+            while ((write = queues[priority].poll()) != null) {
+                dequeued(priority, write);
+                if (write.promise != null) {
+                    write.promise.tryFailure(CLOSED_CHANNEL_EXCEPTION);
+                }
+            }
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        if (!channel.isActive()) {
+            discard();
+            return;
+        }
+        boolean written = false;
+        for (int priority = 0; priority < queues.length && channel.isWritable(); priority++) {
+            Queue<PendingWrite> queue = queues[priority];
+            PendingWrite write;
+            while (channel.isWritable() && (write = queue.poll()) != null) {
+                dequeued(priority, write);
+                ChannelPromise promise = write.promise == null ? channel.voidPromise() : write.promise;
+                channel.write(Unpooled.wrappedBuffer(write.data), promise);
+                written = true;
+            }
+        }
+        if (written) {
+            channel.flush();
+        }
+    }
+
+    private void dequeued(int priority, PendingWrite write) {
+        sizes[priority].decrementAndGet();
+        if (priority == PRIORITY_HIGH) {
+            highQueueBytes.addAndGet(-write.data.length);
+        }
+    }
+
+    private static final class PendingWrite {
+        private final byte[] data;
+        private final ChannelPromise promise;
+
+        private PendingWrite(byte[] data, ChannelPromise promise) {
+            this.data = data;
+            this.promise = promise;
+        }
+    }
+}
@@ -28,9 +28,8 @@ package io.nuls.network.netty.conn;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.nuls.core.tools.log.Log;
+import io.nuls.network.constant.NetworkParam;
 import io.nuls.network.model.Node;
 import io.nuls.network.netty.conn.handler.ClientChannelHandler;
 import io.nuls.network.netty.conn.initializer.NulsChannelInitializer;
@@ -40,8 +39,6 @@ import static io.nuls.network.constant.NetworkConstant.CONNETCI_TIME_OUT;
 
 public class NettyClient {
 
-    public static EventLoopGroup worker = new NioEventLoopGroup();
-
     private Bootstrap boot;
 
     private Node node;
@@ -51,15 +48,18 @@ public class NettyClient {
         boot = new Bootstrap();
 
         boot.attr(NodeAttributeKey.NODE_KEY, node);
-        boot.group(worker)
-                .channel(NioSocketChannel.class)
+        NetworkParam networkParam = NetworkParam.getInstance();
+        boot.group(NettyTransport.getClientWorkerGroup())
+                .channel(NettyTransport.socketChannelClass())
 //                .option(ChannelOption.SO_BACKLOG, 1024)
                 .option(ChannelOption.TCP_NODELAY, true)            //Send messages immediately
                 .option(ChannelOption.SO_KEEPALIVE, true)
-                .option(ChannelOption.SO_SNDBUF, 128 * 1024)
-                .option(ChannelOption.SO_RCVBUF, 128 * 1024)
+                .option(ChannelOption.SO_SNDBUF, networkParam.getSendBufferSize())
+                .option(ChannelOption.SO_RCVBUF, networkParam.getReceiveBufferSize())
                 .option(ChannelOption.RCVBUF_ALLOCATOR, AdaptiveRecvByteBufAllocator.DEFAULT)
                 .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                .option(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(
+                        networkParam.getWriteBufferLowWaterMark(), networkParam.getWriteBufferHighWaterMark()))
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, CONNETCI_TIME_OUT)
                 .handler(new NulsChannelInitializer<>(new ClientChannelHandler()));
     }
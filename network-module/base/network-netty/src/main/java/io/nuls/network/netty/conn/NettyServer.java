@@ -31,10 +31,10 @@ import io.netty.channel.AdaptiveRecvByteBufAllocator;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.WriteBufferWaterMark;
 import io.nuls.kernel.thread.manager.TaskManager;
 import io.nuls.network.constant.NetworkConstant;
+import io.nuls.network.constant.NetworkParam;
 import io.nuls.network.netty.conn.handler.ServerChannelHandler;
 import io.nuls.network.netty.conn.initializer.NulsChannelInitializer;
 
@@ -65,18 +65,21 @@ public class NettyServer implements Runnable {
     }
 
     public void init() {
-        boss = new NioEventLoopGroup();
-        worker = new NioEventLoopGroup();
+        NetworkParam networkParam = NetworkParam.getInstance();
+        boss = NettyTransport.newEventLoopGroup(networkParam.getBossThreads(), "nuls-server-boss");
+        worker = NettyTransport.newEventLoopGroup(networkParam.getWorkerThreads(), "nuls-server-io");
         serverBootstrap = new ServerBootstrap();
         serverBootstrap.group(boss, worker)
-                .channel(NioServerSocketChannel.class)
+                .channel(NettyTransport.serverChannelClass())
 //                .childOption(ChannelOption.SO_BACKLOG, 2048)
                 .childOption(ChannelOption.TCP_NODELAY, true)            //Send messages immediately
                 .childOption(ChannelOption.SO_KEEPALIVE, true)
-                .childOption(ChannelOption.SO_SNDBUF, 128 * 1024)
-                .childOption(ChannelOption.SO_RCVBUF, 128 * 1024)
+                .childOption(ChannelOption.SO_SNDBUF, networkParam.getSendBufferSize())
+                .childOption(ChannelOption.SO_RCVBUF, networkParam.getReceiveBufferSize())
                 .option(ChannelOption.RCVBUF_ALLOCATOR, AdaptiveRecvByteBufAllocator.DEFAULT)
                 .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(
+                        networkParam.getWriteBufferLowWaterMark(), networkParam.getWriteBufferHighWaterMark()))
                 .childHandler(new NulsChannelInitializer<>(new ServerChannelHandler()));
     }
 
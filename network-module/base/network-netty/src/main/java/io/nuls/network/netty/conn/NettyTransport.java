@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.network.netty.conn;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.Attribute;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.nuls.core.tools.log.Log;
+import io.nuls.network.constant.NetworkParam;
+
+/**
+ * 网络传输层配置：Linux下可用时使用epoll，否则使用NIO；并提供消息反序列化线程组
+ * Transport selection for the netty server and clients: native epoll on Linux when available,
+ * NIO otherwise. Also owns the executor group that deserializes messages off the IO threads.
+ */
+public class NettyTransport {
+
+    private static final boolean EPOLL = NetworkParam.getInstance().isEpollEnabled() && Epoll.isAvailable();
+
+    private static volatile EventLoopGroup clientWorkerGroup;
+
+    private static volatile EventExecutorGroup decodeGroup;
+
+    private static volatile boolean decodeGroupInited;
+
+    static {
+        Log.info("network transport: {}", EPOLL ? "epoll" : "nio");
+    }
+
+    public static boolean isEpoll() {
+        return EPOLL;
+    }
+
+    /**
+     * @param threads 线程数，0表示使用netty默认值(cpu核数*2)
+     *                thread count, 0 for netty's default (2 * cores)
+     * @param name    线程名前缀 / thread name prefix
+     */
+    public static EventLoopGroup newEventLoopGroup(int threads, String name) {
+        DefaultThreadFactory threadFactory = new DefaultThreadFactory(name, true);
+        if (EPOLL) {
+            return new EpollEventLoopGroup(threads, threadFactory);
+        }
+        return new NioEventLoopGroup(threads, threadFactory);
+    }
+
+    public static Class<? extends ServerChannel> serverChannelClass() {
+        return EPOLL ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+    }
+
+    public static Class<? extends SocketChannel> socketChannelClass() {
+        return EPOLL ? EpollSocketChannel.class : NioSocketChannel.class;
+    }
+
+    /**
+     * 所有主动连接共用的IO线程组
+     * IO group shared by all outbound connections.
+     */
+    public static EventLoopGroup getClientWorkerGroup() {
+        if (clientWorkerGroup == null) {
+            synchronized (NettyTransport.class) {
+                if (clientWorkerGroup == null) {
+                    clientWorkerGroup = newEventLoopGroup(NetworkParam.getInstance().getWorkerThreads(), "nuls-client-io");
+                }
+            }
+        }
+        return clientWorkerGroup;
+    }
+
+    /**
+     * 获取连接绑定的反序列化线程，同一连接的消息始终在同一线程中按顺序处理
+     * Get the decode executor bound to a channel. A channel always uses the same executor,
+     * so its messages are still handled in order. Returns null when decoding runs on the IO thread.
+     */
+    public static EventExecutor getDecodeExecutor(Channel channel) {
+        EventExecutorGroup group = getDecodeGroup();
+        if (group == null || channel == null) {
+            return null;
+        }
+        Attribute<EventExecutor> attribute = channel.attr(NodeAttributeKey.DECODE_EXECUTOR_KEY);
+        EventExecutor executor = attribute.get();
+        if (executor == null) {
+            executor = group.next();
+            EventExecutor old = attribute.setIfAbsent(executor);
+            if (old != null) {
+                executor = old;
+            }
+        }
+        return executor;
+    }
+
+    private static EventExecutorGroup getDecodeGroup() {
+        if (!decodeGroupInited) {
+            synchronized (NettyTransport.class) {
+                if (!decodeGroupInited) {
+                    int threads = NetworkParam.getInstance().getDecodeThreads();
+                    if (threads > 0) {
+                        decodeGroup = new DefaultEventExecutorGroup(threads, new DefaultThreadFactory("nuls-decode", true));
+                    }
+                    decodeGroupInited = true;
+                }
+            }
+        }
+        return decodeGroup;
+    }
+}
@@ -26,8 +26,15 @@
 package io.nuls.network.netty.conn;
 
 import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.EventExecutor;
 import io.nuls.network.model.Node;
+import io.nuls.network.netty.broadcast.OutboundQueue;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class NodeAttributeKey {
     public static AttributeKey<Node> NODE_KEY = AttributeKey.valueOf("node");
+    public static AttributeKey<OutboundQueue> OUTBOUND_QUEUE_KEY = AttributeKey.valueOf("outboundQueue");
+    public static AttributeKey<EventExecutor> DECODE_EXECUTOR_KEY = AttributeKey.valueOf("decodeExecutor");
+    public static AttributeKey<AtomicInteger> DECODE_PENDING_KEY = AttributeKey.valueOf("decodePending");
 }
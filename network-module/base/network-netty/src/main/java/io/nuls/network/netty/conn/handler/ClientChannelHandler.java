@@ -95,7 +95,7 @@ public class ClientChannelHandler extends SimpleChannelInboundHandler {
             Node node = nodeAttribute.get();
             ByteBuf buf = (ByteBuf) msg;
 
-            messageProcessor.processor(buf, node);
+            messageProcessor.processor(ctx.channel(), buf, node);
         } catch (Exception e) {
             Log.error("----------------exceptionCaught   111 ---------");
             throw e;
@@ -23,51 +23,34 @@
  *
  */
 
-package io.nuls.protocol.utils;
+package io.nuls.network.netty.conn.handler;
 
-import io.nuls.kernel.model.NulsDigestData;
-
-import java.util.HashSet;
-import java.util.Set;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.nuls.network.netty.broadcast.OutboundQueue;
+import io.nuls.network.netty.conn.NodeAttributeKey;
 
 /**
- * @author: Niels Wang
- * @date: 2018/7/9
+ * 根据连接的可写状态驱动出站消息队列
+ * Drives the outbound queue of a connection from its writability and lifecycle events.
  */
-public class HashSetDuplicateProcessor {
-
-    private Set<NulsDigestData> set1 = new HashSet<>();
-    private Set<NulsDigestData> set2 = new HashSet<>();
-    private final int maxSize;
-    private final int percent90;
-
-    public HashSetDuplicateProcessor(int maxSize) {
-        this.maxSize = maxSize;
-        this.percent90 = maxSize * 9 / 10;
-    }
+public class OutboundQueueHandler extends ChannelInboundHandlerAdapter {
 
-    public boolean insertAndCheck(NulsDigestData hash) {
-        boolean result = set1.add(hash);
-        if (!result) {
-            return result;
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        OutboundQueue queue = ctx.channel().attr(NodeAttributeKey.OUTBOUND_QUEUE_KEY).get();
+        if (queue != null && ctx.channel().isWritable()) {
+            queue.scheduleDrain();
         }
-        int size = set1.size();
-        if (size >= maxSize) {
-            set1.clear();
-            set1.addAll(set2);
-            set2.clear();
-        } else if (size >= percent90) {
-            set2.add(hash);
-        }
-        return result;
-    }
-
-    public boolean check(NulsDigestData hash) {
-        return !set1.contains(hash);
+        super.channelWritabilityChanged(ctx);
     }
 
-    public void remove(NulsDigestData hash) {
-        set1.remove(hash);
-        set2.remove(hash);
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        OutboundQueue queue = ctx.channel().attr(NodeAttributeKey.OUTBOUND_QUEUE_KEY).get();
+        if (queue != null) {
+            queue.discard();
+        }
+        super.channelInactive(ctx);
     }
 }
@@ -77,7 +77,7 @@ public class ServerChannelHandler extends SimpleChannelInboundHandler {
         Node node = nodeAttribute.get();
         ByteBuf buf = (ByteBuf) msg;
 
-        messageProcessor.processor(buf, node);
+        messageProcessor.processor(channel, buf, node);
     }
 
     @Override
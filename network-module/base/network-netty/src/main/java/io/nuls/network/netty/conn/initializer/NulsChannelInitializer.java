@@ -31,6 +31,7 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.timeout.IdleStateHandler;
 import io.nuls.network.netty.conn.handler.HeartbeatServerHandler;
+import io.nuls.network.netty.conn.handler.OutboundQueueHandler;
 import io.nuls.network.netty.conn.serialization.NulsMessageDecoder;
 import io.nuls.network.netty.conn.serialization.NulsMessageEncoder;
 
@@ -57,6 +58,7 @@ public class NulsChannelInitializer<T extends ChannelInboundHandlerAdapter> exte
         p.addLast("decoder", new NulsMessageDecoder());
         p.addLast("encoder0", new NulsMessageEncoder());
         p.addLast("heartbeat", new HeartbeatServerHandler());
+        p.addLast("outbound", new OutboundQueueHandler());
         p.addLast(t);
     }
 }
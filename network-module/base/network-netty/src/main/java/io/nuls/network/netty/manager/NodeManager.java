@@ -36,6 +36,7 @@ import io.nuls.network.constant.NetworkParam;
 import io.nuls.network.model.Node;
 import io.nuls.network.model.NodeConnectStatusEnum;
 import io.nuls.network.model.NodeGroup;
+import io.nuls.network.model.NodeMetrics;
 import io.nuls.network.model.NodeStatusEnum;
 import io.nuls.network.netty.broadcast.BroadcastHandler;
 import io.nuls.network.netty.container.GroupContainer;
@@ -257,9 +258,35 @@ public class NodeManager {
         this.nodesContainer = nodesContainer;
     }
 
+    /**
+     * 找出指定类型的已连接节点中评分最低的异常节点
+     * Find the lowest scoring misbehaving peer among the connected nodes of the given type.
+     *
+     * @param type Node.IN or Node.OUT
+     * @return the peer to evict, or null if every peer behaves
+     */
+    public Node getEvictableNode(int type) {
+        Node evictNode = null;
+        int evictScore = 0;
+        for (Node node : nodesContainer.getConnectedNodes().values()) {
+            if (node.getType() != type) {
+                continue;
+            }
+            int score = node.getMetrics().getScore();
+            if (score > NodeMetrics.MISBEHAVING_SCORE) {
+                continue;
+            }
+            if (evictNode == null || score < evictScore) {
+                evictNode = node;
+                evictScore = score;
+            }
+        }
+        return evictNode;
+    }
+
     /**
      * 服务器被动连接规则
-     * 1. 不超过最大被动连接数
+     * 1. 不超过最大被动连接数，已满时断开评分最低的异常节点
      * 2. 如果自己已经主动连接了对方，不接受对方的被动连接
      * 3. 相同的IP的被动连接不超过10次
      *
@@ -270,8 +297,12 @@ public class NodeManager {
     private boolean canConnectIn(String ip, int port) {
 
         int size = nodesContainer.getConnectedCount(Node.IN);
+        Node evictNode = null;
         if (size >= networkParam.getMaxInCount()) {
-            return false;
+            evictNode = getEvictableNode(Node.IN);
+            if (evictNode == null) {
+                return false;
+            }
         }
 
         Map<String, Node> connectedNodes = nodesContainer.getConnectedNodes();
@@ -292,6 +323,10 @@ public class NodeManager {
             }
         }
 
+        if (evictNode != null && evictNode.getChannel() != null) {
+            Log.info("evict node {} with score {}", evictNode.getId(), evictNode.getMetrics().getScore());
+            evictNode.getChannel().close();
+        }
         return true;
     }
 
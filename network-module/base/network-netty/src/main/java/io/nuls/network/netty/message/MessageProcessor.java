@@ -1,19 +1,27 @@
 package io.nuls.network.netty.message;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.util.Attribute;
+import io.netty.util.concurrent.EventExecutor;
+import io.nuls.core.tools.log.Log;
 import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.context.NulsContext;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.utils.NulsByteBuffer;
 import io.nuls.message.bus.service.MessageBusService;
 import io.nuls.network.constant.NetworkConstant;
+import io.nuls.network.constant.NetworkParam;
 import io.nuls.network.model.Node;
+import io.nuls.network.netty.conn.NettyTransport;
+import io.nuls.network.netty.conn.NodeAttributeKey;
 import io.nuls.network.netty.message.filter.MessageFilterChain;
 import io.nuls.protocol.message.base.BaseMessage;
 import io.nuls.protocol.message.base.MessageHeader;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MessageProcessor {
 
@@ -29,17 +37,75 @@ public class MessageProcessor {
         return INSTANCE;
     }
 
-    public void processor(ByteBuf buffer, Node node) throws NulsException {
-        List<BaseMessage> messageList = analysisMessage(buffer);
+    /**
+     * IO线程只负责拷贝帧数据，反序列化和分发在连接绑定的反序列化线程中执行
+     * 等待处理的帧数超过上限时关闭连接的自动读取，处理到上限的一半以下时恢复，避免慢速处理时帧数据无限堆积
+     * The IO thread only copies the frame, deserialization and dispatch run on the channel's decode executor.
+     * When more frames than the limit are waiting, auto read of the channel is turned off until they drain below
+     * half of the limit, so frames can not pile up without bound behind a slow handler.
+     */
+    public void processor(Channel channel, ByteBuf buffer, Node node) throws NulsException {
+        byte[] bytes = new byte[buffer.readableBytes()];
+        buffer.readBytes(bytes);
+        EventExecutor executor = NettyTransport.getDecodeExecutor(channel);
+        if (executor == null) {
+            processor(bytes, node);
+            return;
+        }
+        AtomicInteger pending = getPending(channel);
+        int maxPending = NetworkParam.getInstance().getDecodePendingMax();
+        if (pending.incrementAndGet() > maxPending && channel.config().isAutoRead()) {
+            channel.config().setAutoRead(false);
+            // 设置前任务可能已处理完，重新检查一次
+            // the tasks may have drained before auto read was turned off, check again
+            resumeIfDrained(channel, pending.get(), maxPending);
+        }
+        executor.execute(() -> {
+            try {
+                processor(bytes, node);
+            } catch (Exception e) {
+                Log.error("process message from node {} error : {}", node.getId(), e.getMessage());
+                channel.close();
+            } finally {
+                resumeIfDrained(channel, pending.decrementAndGet(), maxPending);
+            }
+        });
+    }
+
+    private static AtomicInteger getPending(Channel channel) {
+        Attribute<AtomicInteger> attribute = channel.attr(NodeAttributeKey.DECODE_PENDING_KEY);
+        AtomicInteger pending = attribute.get();
+        if (pending == null) {
+            AtomicInteger newPending = new AtomicInteger();
+            pending = attribute.setIfAbsent(newPending);
+            if (pending == null) {
+                pending = newPending;
+            }
+        }
+        return pending;
+    }
+
+    private static void resumeIfDrained(Channel channel, int pending, int maxPending) {
+        if (pending <= maxPending / 2 && !channel.config().isAutoRead()) {
+            channel.config().setAutoRead(true);
+        }
+    }
+
+    private void processor(byte[] bytes, Node node) throws NulsException {
+        List<BaseMessage> messageList;
+        try {
+            messageList = analysisMessage(bytes);
+        } catch (NulsException e) {
+            node.getMetrics().recordInvalidMessage();
+            throw e;
+        }
         handlerMessage(messageList, node);
     }
 
-    private List<BaseMessage> analysisMessage(ByteBuf buffer) throws NulsException {
+    private List<BaseMessage> analysisMessage(byte[] bytes) throws NulsException {
         List<BaseMessage> messageList;
         try {
             messageList = new ArrayList<>();
-            byte[] bytes = new byte[buffer.readableBytes()];
-            buffer.readBytes(bytes);
             NulsByteBuffer byteBuffer = new NulsByteBuffer(bytes);
             while (!byteBuffer.isFinished()) {
                 MessageHeader header = byteBuffer.readNulsData(new MessageHeader());
@@ -51,8 +117,6 @@ public class MessageProcessor {
 
         } catch (Exception e) {
             throw new NulsException(KernelErrorCode.DATA_ERROR, e);
-        } finally {
-            buffer.clear();
         }
         return messageList;
     }
@@ -65,9 +129,11 @@ public class MessageProcessor {
                 if (node.getMagicNumber() == 0L) {
                     node.setMagicNumber(header.getMagicNumber());
                 }
+                node.getMetrics().recordIn(header.getModuleId(), header.getMsgType(), header.size() + header.getLength());
 
                 handler(message, node);
             } else {
+                node.getMetrics().recordInvalidMessage();
                 node.getChannel().close();
                 if(node.getDisconnectListener() != null) {
                     node.getDisconnectListener().action();
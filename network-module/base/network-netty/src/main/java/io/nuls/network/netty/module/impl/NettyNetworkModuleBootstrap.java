@@ -116,6 +116,17 @@ public class NettyNetworkModuleBootstrap extends AbstractNetworkModule {
         networkParam.setPacketMagic(NulsConfig.MODULES_CONFIG.getCfgValue(NETWORK_SECTION, NETWORK_MAGIC, 20180712));
         networkParam.setMaxInCount(NulsConfig.MODULES_CONFIG.getCfgValue(NETWORK_SECTION, NETWORK_NODE_MAX_IN, 100));
         networkParam.setMaxOutCount(NulsConfig.MODULES_CONFIG.getCfgValue(NETWORK_SECTION, NETWORK_NODE_MAX_OUT, 20));
+        networkParam.setWriteBufferHighWaterMark(NulsConfig.MODULES_CONFIG.getCfgValue(NETWORK_SECTION, NETWORK_WRITE_BUFFER_HIGH, 2 * 1024 * 1024));
+        networkParam.setWriteBufferLowWaterMark(NulsConfig.MODULES_CONFIG.getCfgValue(NETWORK_SECTION, NETWORK_WRITE_BUFFER_LOW, 512 * 1024));
+        networkParam.setOutboundQueueSize(NulsConfig.MODULES_CONFIG.getCfgValue(NETWORK_SECTION, NETWORK_OUTBOUND_QUEUE_SIZE, 1024));
+        networkParam.setOutboundHighQueueBytes(NulsConfig.MODULES_CONFIG.getCfgValue(NETWORK_SECTION, NETWORK_OUTBOUND_HIGH_QUEUE_BYTES, 32 * 1024 * 1024));
+        networkParam.setEpollEnabled(NulsConfig.MODULES_CONFIG.getCfgValue(NETWORK_SECTION, NETWORK_EPOLL, true));
+        networkParam.setBossThreads(NulsConfig.MODULES_CONFIG.getCfgValue(NETWORK_SECTION, NETWORK_BOSS_THREADS, 1));
+        networkParam.setWorkerThreads(NulsConfig.MODULES_CONFIG.getCfgValue(NETWORK_SECTION, NETWORK_WORKER_THREADS, 0));
+        networkParam.setDecodeThreads(NulsConfig.MODULES_CONFIG.getCfgValue(NETWORK_SECTION, NETWORK_DECODE_THREADS, Runtime.getRuntime().availableProcessors()));
+        networkParam.setDecodePendingMax(NulsConfig.MODULES_CONFIG.getCfgValue(NETWORK_SECTION, NETWORK_DECODE_PENDING_MAX, 256));
+        networkParam.setSendBufferSize(NulsConfig.MODULES_CONFIG.getCfgValue(NETWORK_SECTION, NETWORK_SO_SNDBUF, 128 * 1024));
+        networkParam.setReceiveBufferSize(NulsConfig.MODULES_CONFIG.getCfgValue(NETWORK_SECTION, NETWORK_SO_RCVBUF, 128 * 1024));
         networkParam.setLocalIps(IpUtil.getIps());
         String seedIp = NulsConfig.MODULES_CONFIG.getCfgValue(NetworkConstant.NETWORK_SECTION, NetworkConstant.NETWORK_SEED_IP, "47.254.71.213:8016,47.90.204.15:8016,47.254.152.83:8016,149.129.130.203:8016,211.149.191.152:8016,122.114.0.96:8016");
         List<String> ipList = new ArrayList<>();
@@ -55,6 +55,7 @@ public class NodeMaintenanceTask implements Runnable {
     }
 
     private void process() {
+        evictMisbehavingNode();
         List<Node> needConnectNodes = getNeedConnectNodes();
         if (needConnectNodes == null || needConnectNodes.size() == 0) {
             return;
@@ -66,6 +67,21 @@ public class NodeMaintenanceTask implements Runnable {
         }
     }
 
+    /**
+     * 主动连接已满且有可连接的候选节点时，断开评分最低的异常节点
+     * When the outbound slots are full and there are candidates, drop the lowest scoring misbehaving peer.
+     */
+    private void evictMisbehavingNode() {
+        if (nodeManager.getAvailableNodes().size() < networkParam.getMaxOutCount() || nodeManager.getCanConnectNodes().isEmpty()) {
+            return;
+        }
+        Node node = nodeManager.getEvictableNode(Node.OUT);
+        if (node != null && node.getChannel() != null) {
+            Log.info("evict node {} with score {}", node.getId(), node.getMetrics().getScore());
+            node.getChannel().close();
+        }
+    }
+
     private boolean connectionNode(Node node) {
         node.setConnectStatus(NodeConnectStatusEnum.CONNECTING);
 
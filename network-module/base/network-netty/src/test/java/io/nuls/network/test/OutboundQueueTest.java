@@ -0,0 +1,140 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.network.test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.nuls.network.constant.NetworkParam;
+import io.nuls.network.netty.broadcast.OutboundQueue;
+import io.nuls.network.netty.conn.handler.OutboundQueueHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OutboundQueueTest {
+
+    private int outboundQueueSize;
+    private int outboundHighQueueBytes;
+
+    private EmbeddedChannel channel;
+
+    @Before
+    public void setUp() {
+        outboundQueueSize = NetworkParam.getInstance().getOutboundQueueSize();
+        outboundHighQueueBytes = NetworkParam.getInstance().getOutboundHighQueueBytes();
+        channel = new EmbeddedChannel(new OutboundQueueHandler());
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(8, 16));
+    }
+
+    @After
+    public void tearDown() {
+        NetworkParam.getInstance().setOutboundQueueSize(outboundQueueSize);
+        NetworkParam.getInstance().setOutboundHighQueueBytes(outboundHighQueueBytes);
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void writesByPriority() {
+        OutboundQueue queue = OutboundQueue.of(channel);
+        assertTrue(queue.offer(new byte[]{3}, OutboundQueue.PRIORITY_LOW, null));
+        assertTrue(queue.offer(new byte[]{2}, OutboundQueue.PRIORITY_NORMAL, null));
+        assertTrue(queue.offer(new byte[]{1}, OutboundQueue.PRIORITY_HIGH, null));
+        channel.runPendingTasks();
+
+        assertEquals(1, readByte());
+        assertEquals(2, readByte());
+        assertEquals(3, readByte());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void dropsWhenBackedUp() {
+        NetworkParam.getInstance().setOutboundQueueSize(2);
+        OutboundQueue queue = OutboundQueue.of(channel);
+        blockWrites();
+
+        assertFalse(queue.offer(new byte[]{3}, OutboundQueue.PRIORITY_LOW, null));
+        assertTrue(queue.offer(new byte[]{2}, OutboundQueue.PRIORITY_NORMAL, null));
+        assertTrue(queue.offer(new byte[]{2}, OutboundQueue.PRIORITY_NORMAL, null));
+        assertFalse(queue.offer(new byte[]{2}, OutboundQueue.PRIORITY_NORMAL, null));
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void closesWhenHighBacklogExceedsBudget() {
+        NetworkParam.getInstance().setOutboundHighQueueBytes(10);
+        OutboundQueue queue = OutboundQueue.of(channel);
+        blockWrites();
+
+        assertTrue(queue.offer(new byte[8], OutboundQueue.PRIORITY_HIGH, null));
+        assertTrue(channel.isOpen());
+        assertFalse(queue.offer(new byte[8], OutboundQueue.PRIORITY_HIGH, null));
+        assertFalse(channel.isOpen());
+    }
+
+    @Test
+    public void resumesWhenWritable() {
+        OutboundQueue queue = OutboundQueue.of(channel);
+        blockWrites();
+        assertTrue(queue.offer(new byte[]{1}, OutboundQueue.PRIORITY_HIGH, null));
+        assertTrue(queue.offer(new byte[]{2}, OutboundQueue.PRIORITY_NORMAL, null));
+        channel.runPendingTasks();
+        assertEquals(2, queue.size());
+
+        channel.flush();
+        channel.runPendingTasks();
+        assertTrue(channel.isWritable());
+        assertEquals(0, queue.size());
+
+        ByteBuf blocker = channel.readOutbound();
+        blocker.release();
+        assertEquals(1, readByte());
+        assertEquals(2, readByte());
+    }
+
+    /**
+     * 写入超过高水位但不flush，使连接变为不可写
+     * Write past the high water mark without a flush, so the channel turns unwritable
+     */
+    private void blockWrites() {
+        channel.write(Unpooled.wrappedBuffer(new byte[32]));
+        assertFalse(channel.isWritable());
+    }
+
+    private int readByte() {
+        ByteBuf buf = channel.readOutbound();
+        assertNotNull(buf);
+        try {
+            return buf.readByte();
+        } finally {
+            buf.release();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.network.test;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.*;
+import io.netty.channel.socket.SocketChannel;
+import io.nuls.kernel.utils.NulsByteBuffer;
+import io.nuls.network.constant.NetworkParam;
+import io.nuls.network.netty.broadcast.OutboundQueue;
+import io.nuls.network.netty.conn.NettyTransport;
+import io.nuls.network.netty.conn.handler.OutboundQueueHandler;
+import io.nuls.network.netty.conn.serialization.NulsMessageDecoder;
+import io.nuls.protocol.message.base.MessageHeader;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地多节点网络传输压测：一个服务端和多个客户端连接，统计每秒消息数和每核每秒消息数
+ * Local multi-node transport benchmark: one server and several client connections on loopback,
+ * reports messages per second and messages per second per busy core.
+ * <p>
+ * usage: TransportBenchmark [clients=4] [seconds=10] [payloadBytes=256] [epoll=true] [decodeThreads=cores]
+ */
+public class TransportBenchmark {
+
+    private static final int PORT = 18916;
+    private static final long MAGIC = 20180712L;
+
+    private static final LongAdder RECEIVED = new LongAdder();
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int payload = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+        NetworkParam networkParam = NetworkParam.getInstance();
+        networkParam.setPacketMagic(MAGIC);
+        if (args.length > 3) {
+            networkParam.setEpollEnabled(Boolean.parseBoolean(args[3]));
+        }
+        if (args.length > 4) {
+            networkParam.setDecodeThreads(Integer.parseInt(args[4]));
+        }
+
+        EventLoopGroup boss = NettyTransport.newEventLoopGroup(1, "bench-boss");
+        EventLoopGroup serverWorker = NettyTransport.newEventLoopGroup(networkParam.getWorkerThreads(), "bench-server-io");
+        ServerBootstrap serverBootstrap = new ServerBootstrap()
+                .group(boss, serverWorker)
+                .channel(NettyTransport.serverChannelClass())
+                .childOption(ChannelOption.SO_RCVBUF, networkParam.getReceiveBufferSize())
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast("decoder", new NulsMessageDecoder());
+                        ch.pipeline().addLast(new CountingHandler());
+                    }
+                });
+        Channel serverChannel = serverBootstrap.bind(PORT).sync().channel();
+
+        Bootstrap bootstrap = new Bootstrap()
+                .group(NettyTransport.getClientWorkerGroup())
+                .channel(NettyTransport.socketChannelClass())
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.SO_SNDBUF, networkParam.getSendBufferSize())
+                .option(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(
+                        networkParam.getWriteBufferLowWaterMark(), networkParam.getWriteBufferHighWaterMark()))
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast(new OutboundQueueHandler());
+                    }
+                });
+        byte[] message = newMessage(payload);
+        List<Thread> senders = new ArrayList<>();
+        long endTime = System.currentTimeMillis() + seconds * 1000L;
+        for (int i = 0; i < clients; i++) {
+            Channel channel = bootstrap.connect("127.0.0.1", PORT).sync().channel();
+            Thread sender = new Thread(() -> {
+                OutboundQueue queue = OutboundQueue.of(channel);
+                while (System.currentTimeMillis() < endTime) {
+                    if (!queue.offer(message, OutboundQueue.PRIORITY_NORMAL, null)) {
+                        Thread.yield();
+                    }
+                }
+            }, "bench-sender-" + i);
+            senders.add(sender);
+        }
+
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long startCpu = os.getProcessCpuTime();
+        long startNanos = System.nanoTime();
+        for (Thread sender : senders) {
+            sender.start();
+        }
+        for (Thread sender : senders) {
+            sender.join();
+        }
+        long received = RECEIVED.sum();
+        double wallSeconds = (System.nanoTime() - startNanos) / 1e9;
+        double cpuSeconds = (os.getProcessCpuTime() - startCpu) / 1e9;
+        double perSecond = received / wallSeconds;
+        double busyCores = cpuSeconds / wallSeconds;
+
+        System.out.println(String.format("transport=%s clients=%d payload=%dB decodeThreads=%d",
+                NettyTransport.isEpoll() ? "epoll" : "nio", clients, payload, networkParam.getDecodeThreads()));
+        System.out.println(String.format("messages=%d, %.0f msg/s, busy cores %.2f, %.0f msg/s per core",
+                received, perSecond, busyCores, perSecond / Math.max(busyCores, 0.01)));
+
+        serverChannel.close().sync();
+        boss.shutdownGracefully();
+        serverWorker.shutdownGracefully();
+        NettyTransport.getClientWorkerGroup().shutdownGracefully();
+        System.exit(0);
+    }
+
+    private static byte[] newMessage(int payload) throws Exception {
+        MessageHeader header = new MessageHeader((short) 3, (short) 2);
+        header.setMagicNumber(MAGIC);
+        header.setLength(payload);
+        byte[] headerBytes = header.serialize();
+        byte[] message = new byte[headerBytes.length + payload];
+        System.arraycopy(headerBytes, 0, message, 0, headerBytes.length);
+        return message;
+    }
+
+    /**
+     * 与MessageProcessor相同：IO线程拷贝帧数据，反序列化在连接绑定的线程中执行
+     * Same split as MessageProcessor: the IO thread copies the frame, parsing runs on the channel's decode executor.
+     */
+    private static class CountingHandler extends SimpleChannelInboundHandler<ByteBuf> {
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg) {
+            byte[] bytes = new byte[msg.readableBytes()];
+            msg.readBytes(bytes);
+            Runnable parse = () -> {
+                try {
+                    NulsByteBuffer byteBuffer = new NulsByteBuffer(bytes);
+                    MessageHeader header = byteBuffer.readNulsData(new MessageHeader());
+                    byteBuffer.readBytes(header.getLength());
+                    RECEIVED.increment();
+                } catch (Exception e) {
+                    ctx.close();
+                }
+            };
+            io.netty.util.concurrent.EventExecutor executor = NettyTransport.getDecodeExecutor(ctx.channel());
+            if (executor == null) {
+                parse.run();
+            } else {
+                executor.execute(parse);
+            }
+        }
+    }
+}
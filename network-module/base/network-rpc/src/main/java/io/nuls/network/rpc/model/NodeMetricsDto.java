@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.network.rpc.model;
+
+import io.nuls.network.model.Node;
+import io.nuls.network.model.NodeMetrics;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.Map;
+
+@ApiModel(value = "nodeMetricsJSON")
+public class NodeMetricsDto {
+
+    @ApiModelProperty(name = "id", value = "节点id")
+    private String id;
+    @ApiModelProperty(name = "type", value = "连接类型 1:被动连接, 2:主动连接")
+    private int type;
+    @ApiModelProperty(name = "score", value = "节点评分")
+    private int score;
+    @ApiModelProperty(name = "bytesIn", value = "接收字节数")
+    private long bytesIn;
+    @ApiModelProperty(name = "bytesOut", value = "发送字节数")
+    private long bytesOut;
+    @ApiModelProperty(name = "messagesIn", value = "接收消息数")
+    private long messagesIn;
+    @ApiModelProperty(name = "messagesOut", value = "发送消息数")
+    private long messagesOut;
+    @ApiModelProperty(name = "invalidMessages", value = "无效消息数")
+    private long invalidMessages;
+    @ApiModelProperty(name = "usefulBlocks", value = "提供的有效区块数")
+    private long usefulBlocks;
+    @ApiModelProperty(name = "averageLatency", value = "平均响应时间(ms)，-1表示没有数据")
+    private long averageLatency;
+    @ApiModelProperty(name = "in", value = "按消息类型(moduleId-msgType)统计的接收流量")
+    private Map<String, Map<String, Long>> in;
+    @ApiModelProperty(name = "out", value = "按消息类型(moduleId-msgType)统计的发送流量")
+    private Map<String, Map<String, Long>> out;
+
+    public NodeMetricsDto(Node node) {
+        NodeMetrics metrics = node.getMetrics();
+        this.id = node.getId();
+        this.type = node.getType();
+        this.score = metrics.getScore();
+        this.bytesIn = metrics.getBytesIn();
+        this.bytesOut = metrics.getBytesOut();
+        this.messagesIn = metrics.getMessagesIn();
+        this.messagesOut = metrics.getMessagesOut();
+        this.invalidMessages = metrics.getInvalidMessages();
+        this.usefulBlocks = metrics.getUsefulBlocks();
+        this.averageLatency = metrics.getAverageLatency();
+        this.in = metrics.getInStatistics();
+        this.out = metrics.getOutStatistics();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    public long getMessagesIn() {
+        return messagesIn;
+    }
+
+    public long getMessagesOut() {
+        return messagesOut;
+    }
+
+    public long getInvalidMessages() {
+        return invalidMessages;
+    }
+
+    public long getUsefulBlocks() {
+        return usefulBlocks;
+    }
+
+    public long getAverageLatency() {
+        return averageLatency;
+    }
+
+    public Map<String, Map<String, Long>> getIn() {
+        return in;
+    }
+
+    public Map<String, Map<String, Long>> getOut() {
+        return out;
+    }
+}
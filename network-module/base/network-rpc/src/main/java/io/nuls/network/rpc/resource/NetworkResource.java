@@ -37,6 +37,7 @@ import io.nuls.network.model.NodeConnectStatusEnum;
 import io.nuls.network.model.NodeGroup;
 import io.nuls.network.model.NodeStatusEnum;
 import io.nuls.network.rpc.model.NetworkInfoDto;
+import io.nuls.network.rpc.model.NodeMetricsDto;
 import io.nuls.network.rpc.model.NodeDto;
 import io.nuls.network.service.NetworkService;
 import io.swagger.annotations.Api;
@@ -133,4 +134,24 @@ public class NetworkResource {
         result.setData(map);
         return result.toRpcClientResult();
     }
+
+    @GET
+    @Path("/peers/metrics")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("查询已连接节点的流量统计和评分")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "success", response = NodeMetricsDto.class)
+    })
+    public RpcClientResult getPeerMetrics() {
+        List<NodeMetricsDto> dtoList = new ArrayList<>();
+        for (Node node : networkService.getAvailableNodes()) {
+            dtoList.add(new NodeMetricsDto(node));
+        }
+        dtoList.sort((o1, o2) -> Integer.compare(o2.getScore(), o1.getScore()));
+        Map<String, List<NodeMetricsDto>> map = new HashMap<>();
+        map.put("list", dtoList);
+        Result result = Result.getSuccess();
+        result.setData(map);
+        return result.toRpcClientResult();
+    }
 }
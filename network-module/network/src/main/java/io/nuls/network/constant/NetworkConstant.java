@@ -50,12 +50,58 @@ public interface NetworkConstant {
     String NETWORK_NODE_MAX_IN = "network.max.in";
     String NETWORK_NODE_MAX_OUT = "network.max.out";
     String NETWORK_SEED_IP = "network.seed.ip";
+    /**
+     * 连接写缓冲区的高低水位(字节)，超过高水位后暂停发送
+     * high and low water marks of a connection's write buffer in bytes, writing pauses above the high mark
+     */
+    String NETWORK_WRITE_BUFFER_HIGH = "network.write.buffer.high";
+    String NETWORK_WRITE_BUFFER_LOW = "network.write.buffer.low";
+    /**
+     * 每个连接每种优先级最多排队的消息数（区块消息不受限制）
+     * max queued messages per connection and priority, block traffic is never dropped
+     */
+    String NETWORK_OUTBOUND_QUEUE_SIZE = "network.outbound.queue.size";
+    /**
+     * 每个连接高优先级消息最多排队的字节数，超过后断开该连接
+     * max queued bytes of high priority messages per connection, the connection is closed beyond it
+     */
+    String NETWORK_OUTBOUND_HIGH_QUEUE_BYTES = "network.outbound.high.queue.bytes";
+    /**
+     * Linux下是否使用epoll传输
+     * use the native epoll transport on Linux when it is available
+     */
+    String NETWORK_EPOLL = "network.epoll";
+    /**
+     * 线程数配置，worker为0时使用netty默认值，decode为0时在IO线程中反序列化消息
+     * thread counts, worker 0 means netty's default, decode 0 deserializes messages on the IO threads
+     */
+    String NETWORK_BOSS_THREADS = "network.boss.threads";
+    String NETWORK_WORKER_THREADS = "network.worker.threads";
+    String NETWORK_DECODE_THREADS = "network.decode.threads";
+    /**
+     * 每个连接最多等待反序列化的帧数，超过后暂停读取，处理到一半以下时恢复
+     * max frames of a connection waiting for deserialization, reading pauses above it and resumes below half of it
+     */
+    String NETWORK_DECODE_PENDING_MAX = "network.decode.pending.max";
+    /**
+     * socket收发缓冲区大小(字节)
+     * socket send and receive buffer sizes in bytes
+     */
+    String NETWORK_SO_SNDBUF = "network.so.sndbuf";
+    String NETWORK_SO_RCVBUF = "network.so.rcvbuf";
     String NETWORK_NODE_IN_GROUP = "inGroup";
     String NETWORK_NODE_OUT_GROUP = "outGroup";
     String CACHE_P2P_NODE = "cacheNode";
     String CACHE_P2P_IP = "cacheIP";
     String NODE_FILE_NAME = ".nodes";
 
+    /**
+     * 每个节点已知交易清单过滤器单代的容量和误判率
+     * capacity and false positive rate of one generation of a peer's known inventory filter
+     */
+    int KNOWN_INVENTORY_SIZE = 5000;
+    double KNOWN_INVENTORY_FPP = 0.000001;
+
     int HANDSHAKE_SEVER_TYPE = 2;
     int HANDSHAKE_CLIENT_TYPE = 1;
 
@@ -53,6 +53,116 @@ public class NetworkParam {
 
     private List<String> seedIpList;
 
+    private int writeBufferHighWaterMark = 2 * 1024 * 1024;
+
+    private int writeBufferLowWaterMark = 512 * 1024;
+
+    private int outboundQueueSize = 1024;
+
+    private int outboundHighQueueBytes = 32 * 1024 * 1024;
+
+    private boolean epollEnabled = true;
+
+    private int bossThreads = 1;
+
+    private int workerThreads = 0;
+
+    private int decodeThreads = Runtime.getRuntime().availableProcessors();
+
+    private int decodePendingMax = 256;
+
+    private int sendBufferSize = 128 * 1024;
+
+    private int receiveBufferSize = 128 * 1024;
+
+    public int getWriteBufferHighWaterMark() {
+        return writeBufferHighWaterMark;
+    }
+
+    public void setWriteBufferHighWaterMark(int writeBufferHighWaterMark) {
+        this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+    }
+
+    public int getWriteBufferLowWaterMark() {
+        return writeBufferLowWaterMark;
+    }
+
+    public void setWriteBufferLowWaterMark(int writeBufferLowWaterMark) {
+        this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+    }
+
+    public int getOutboundQueueSize() {
+        return outboundQueueSize;
+    }
+
+    public void setOutboundQueueSize(int outboundQueueSize) {
+        this.outboundQueueSize = outboundQueueSize;
+    }
+
+    public int getOutboundHighQueueBytes() {
+        return outboundHighQueueBytes;
+    }
+
+    public void setOutboundHighQueueBytes(int outboundHighQueueBytes) {
+        this.outboundHighQueueBytes = outboundHighQueueBytes;
+    }
+
+    public boolean isEpollEnabled() {
+        return epollEnabled;
+    }
+
+    public void setEpollEnabled(boolean epollEnabled) {
+        this.epollEnabled = epollEnabled;
+    }
+
+    public int getBossThreads() {
+        return bossThreads;
+    }
+
+    public void setBossThreads(int bossThreads) {
+        this.bossThreads = bossThreads;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    public int getDecodeThreads() {
+        return decodeThreads;
+    }
+
+    public void setDecodeThreads(int decodeThreads) {
+        this.decodeThreads = decodeThreads;
+    }
+
+    public int getDecodePendingMax() {
+        return decodePendingMax;
+    }
+
+    public void setDecodePendingMax(int decodePendingMax) {
+        this.decodePendingMax = decodePendingMax;
+    }
+
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    public void setSendBufferSize(int sendBufferSize) {
+        this.sendBufferSize = sendBufferSize;
+    }
+
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    public void setReceiveBufferSize(int receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
     public int getPort() {
         return port;
     }
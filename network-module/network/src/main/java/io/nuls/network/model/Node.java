@@ -26,6 +26,7 @@
 package io.nuls.network.model;
 
 import io.netty.channel.Channel;
+import io.nuls.core.tools.BloomFilter.RollingBloomFilter;
 import io.nuls.core.tools.str.StringUtils;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.func.TimeService;
@@ -34,6 +35,7 @@ import io.nuls.kernel.model.NulsDigestData;
 import io.nuls.kernel.utils.NulsByteBuffer;
 import io.nuls.kernel.utils.NulsOutputStreamBuffer;
 import io.nuls.kernel.utils.SerializeUtils;
+import io.nuls.network.constant.NetworkConstant;
 import io.nuls.network.listener.EventListener;
 
 import java.io.IOException;
@@ -97,6 +99,14 @@ public class Node extends BaseNulsData {
 
     private String remoteVersion;
 
+    private volatile NodeMetrics metrics;
+
+    /**
+     * 对方已知的交易清单（对方通告给我们的，或我们已通告、发送给对方的），首次使用时创建
+     * Inventory the peer already knows: announced by it, or announced / sent to it by us. Created on first use.
+     */
+    private volatile RollingBloomFilter knownInventory;
+
     @Override
     public int size() {
         int s = 0;
@@ -338,7 +348,39 @@ public class Node extends BaseNulsData {
         return remoteVersion;
     }
 
+    /**
+     * 节点评分按IP记录，同一IP重连后沿用之前的评分
+     * Metrics are kept per IP, so a peer that reconnects keeps its score
+     */
+    public NodeMetrics getMetrics() {
+        NodeMetrics metrics = this.metrics;
+        if (metrics == null) {
+            metrics = NodeMetrics.of(ip);
+            this.metrics = metrics;
+        }
+        return metrics;
+    }
+
     public void setRemoteVersion(String remoteVersion) {
         this.remoteVersion = remoteVersion;
     }
+
+    public void addKnownInventory(byte[] hash) {
+        RollingBloomFilter filter = knownInventory;
+        if (null == filter) {
+            synchronized (this) {
+                filter = knownInventory;
+                if (null == filter) {
+                    filter = new RollingBloomFilter(NetworkConstant.KNOWN_INVENTORY_SIZE, NetworkConstant.KNOWN_INVENTORY_FPP);
+                    knownInventory = filter;
+                }
+            }
+        }
+        filter.insert(hash);
+    }
+
+    public boolean isKnownInventory(byte[] hash) {
+        RollingBloomFilter filter = knownInventory;
+        return null != filter && filter.contains(hash);
+    }
 }
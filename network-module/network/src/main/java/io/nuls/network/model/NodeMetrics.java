@@ -0,0 +1,236 @@
+/*
+ * *
+ *  * MIT License
+ *  *
+ *  * Copyright (c) 2017-2019 nuls.io
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+package io.nuls.network.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 节点的流量统计和评分
+ * Traffic statistics and score of a peer.
+ * <p>
+ * 评分规则 / scoring:
+ * base {@link #BASE_SCORE}, plus up to {@link #MAX_BLOCK_BONUS} for useful blocks,
+ * minus {@link #INVALID_MESSAGE_PENALTY} for each invalid message,
+ * minus up to {@link #MAX_LATENCY_PENALTY} for slow responses (one point per {@link #LATENCY_PENALTY_UNIT} ms).
+ * <p>
+ * 统计按IP保存，连接断开后保留，节点发送无效消息被断开后重连仍沿用原评分
+ * Metrics are kept per IP and outlive the connection, a peer dropped for an invalid message keeps its score
+ * when it reconnects. The least recently used {@link #MAX_TRACKED_IPS} addresses are kept.
+ */
+public class NodeMetrics {
+
+    public static final int BASE_SCORE = 100;
+    public static final int MAX_BLOCK_BONUS = 100;
+    public static final int INVALID_MESSAGE_PENALTY = 20;
+    public static final int MAX_LATENCY_PENALTY = 50;
+    public static final long LATENCY_PENALTY_UNIT = 50L;
+
+    /**
+     * 评分不高于此值的节点视为异常节点，下载和广播时不优先使用，连接满时优先断开
+     * Peers at or below this score are treated as misbehaving: they are used last for download and
+     * broadcast, and evicted first when the connection slots are full.
+     */
+    public static final int MISBEHAVING_SCORE = 0;
+
+    public static final int MAX_TRACKED_IPS = 2048;
+
+    private static final Map<String, NodeMetrics> METRICS_BY_IP = Collections.synchronizedMap(
+            new LinkedHashMap<String, NodeMetrics>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, NodeMetrics> eldest) {
+                    return size() > MAX_TRACKED_IPS;
+                }
+            });
+
+    private final Map<Integer, MessageStats> inStats = new ConcurrentHashMap<>();
+    private final Map<Integer, MessageStats> outStats = new ConcurrentHashMap<>();
+
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder messagesIn = new LongAdder();
+    private final LongAdder messagesOut = new LongAdder();
+    private final LongAdder invalidMessages = new LongAdder();
+    private final LongAdder usefulBlocks = new LongAdder();
+
+    /**
+     * 未响应请求的发送时间，0表示没有等待中的请求
+     * send time of the outstanding request, 0 when nothing is pending
+     */
+    private final AtomicLong pendingRequestTime = new AtomicLong();
+
+    /**
+     * 响应时间的指数移动平均值(ms)，-1表示还没有样本
+     * exponential moving average of the response latency in ms, -1 when there is no sample yet
+     */
+    private volatile long averageLatency = -1L;
+
+    /**
+     * 获取某个IP的统计，不存在时创建
+     * Get the metrics of an ip, created on first use
+     */
+    public static NodeMetrics of(String ip) {
+        if (ip == null) {
+            return new NodeMetrics();
+        }
+        return METRICS_BY_IP.computeIfAbsent(ip, key -> new NodeMetrics());
+    }
+
+    public void recordIn(short moduleId, short msgType, int bytes) {
+        messagesIn.increment();
+        bytesIn.add(bytes);
+        inStats.computeIfAbsent(typeKey(moduleId, msgType), k -> new MessageStats()).record(bytes);
+    }
+
+    public void recordOut(short moduleId, short msgType, int bytes) {
+        messagesOut.increment();
+        bytesOut.add(bytes);
+        outStats.computeIfAbsent(typeKey(moduleId, msgType), k -> new MessageStats()).record(bytes);
+    }
+
+    public void recordInvalidMessage() {
+        invalidMessages.increment();
+    }
+
+    public void recordUsefulBlock() {
+        usefulBlocks.increment();
+    }
+
+    /**
+     * 记录发出请求的时间，已有等待中的请求时保留原时间
+     * Mark that a request was sent, an already pending request keeps its send time.
+     */
+    public void markRequest() {
+        pendingRequestTime.compareAndSet(0L, System.currentTimeMillis());
+    }
+
+    /**
+     * 收到响应，根据等待中的请求计算响应时间
+     * Mark that a response arrived and record the latency of the pending request.
+     */
+    public void markResponse() {
+        long sendTime = pendingRequestTime.getAndSet(0L);
+        if (sendTime > 0L) {
+            recordLatency(System.currentTimeMillis() - sendTime);
+        }
+    }
+
+    public void recordLatency(long millis) {
+        long latency = this.averageLatency;
+        if (latency < 0L) {
+            this.averageLatency = millis;
+        } else {
+            this.averageLatency = (latency * 7 + millis) / 8;
+        }
+    }
+
+    public int getScore() {
+        int score = BASE_SCORE;
+        score += (int) Math.min(usefulBlocks.sum() / 5, MAX_BLOCK_BONUS);
+        score -= (int) Math.min(invalidMessages.sum() * INVALID_MESSAGE_PENALTY, Integer.MAX_VALUE / 2);
+        long latency = this.averageLatency;
+        if (latency > 0L) {
+            score -= (int) Math.min(latency / LATENCY_PENALTY_UNIT, MAX_LATENCY_PENALTY);
+        }
+        return score;
+    }
+
+    public boolean isMisbehaving() {
+        return getScore() <= MISBEHAVING_SCORE;
+    }
+
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    public long getMessagesIn() {
+        return messagesIn.sum();
+    }
+
+    public long getMessagesOut() {
+        return messagesOut.sum();
+    }
+
+    public long getInvalidMessages() {
+        return invalidMessages.sum();
+    }
+
+    public long getUsefulBlocks() {
+        return usefulBlocks.sum();
+    }
+
+    public long getAverageLatency() {
+        return averageLatency;
+    }
+
+    /**
+     * 按消息类型统计的入站流量，key为"moduleId-msgType"
+     * Inbound traffic per message type, keyed by "moduleId-msgType".
+     */
+    public Map<String, Map<String, Long>> getInStatistics() {
+        return toMap(inStats);
+    }
+
+    public Map<String, Map<String, Long>> getOutStatistics() {
+        return toMap(outStats);
+    }
+
+    private static Map<String, Map<String, Long>> toMap(Map<Integer, MessageStats> statsMap) {
+        Map<String, Map<String, Long>> map = new TreeMap<>();
+        for (Map.Entry<Integer, MessageStats> entry : statsMap.entrySet()) {
+            int key = entry.getKey();
+            Map<String, Long> stats = new HashMap<>();
+            stats.put("messages", entry.getValue().messages.sum());
+            stats.put("bytes", entry.getValue().bytes.sum());
+            map.put((key >>> 16) + "-" + (key & 0xFFFF), stats);
+        }
+        return map;
+    }
+
+    private static int typeKey(short moduleId, short msgType) {
+        return ((moduleId & 0xFFFF) << 16) | (msgType & 0xFFFF);
+    }
+
+    private static final class MessageStats {
+        private final LongAdder messages = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+
+        private void record(int size) {
+            messages.increment();
+            bytes.add(size);
+        }
+    }
+}
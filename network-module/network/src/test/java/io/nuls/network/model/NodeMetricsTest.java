@@ -0,0 +1,102 @@
+/*
+ * *
+ *  * MIT License
+ *  *
+ *  * Copyright (c) 2017-2019 nuls.io
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+package io.nuls.network.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NodeMetricsTest {
+
+    @Test
+    public void baseScore() {
+        NodeMetrics metrics = new NodeMetrics();
+        assertEquals(NodeMetrics.BASE_SCORE, metrics.getScore());
+        assertFalse(metrics.isMisbehaving());
+    }
+
+    @Test
+    public void invalidMessagesMakePeerMisbehave() {
+        NodeMetrics metrics = new NodeMetrics();
+        for (int i = 0; i < NodeMetrics.BASE_SCORE / NodeMetrics.INVALID_MESSAGE_PENALTY - 1; i++) {
+            metrics.recordInvalidMessage();
+        }
+        assertEquals(NodeMetrics.INVALID_MESSAGE_PENALTY, metrics.getScore());
+        assertFalse(metrics.isMisbehaving());
+
+        metrics.recordInvalidMessage();
+        assertEquals(0, metrics.getScore());
+        assertTrue(metrics.isMisbehaving());
+    }
+
+    @Test
+    public void blockBonusIsCapped() {
+        NodeMetrics metrics = new NodeMetrics();
+        for (int i = 0; i < 10; i++) {
+            metrics.recordUsefulBlock();
+        }
+        assertEquals(NodeMetrics.BASE_SCORE + 2, metrics.getScore());
+
+        for (int i = 0; i < NodeMetrics.MAX_BLOCK_BONUS * 10; i++) {
+            metrics.recordUsefulBlock();
+        }
+        assertEquals(NodeMetrics.BASE_SCORE + NodeMetrics.MAX_BLOCK_BONUS, metrics.getScore());
+    }
+
+    @Test
+    public void latencyPenaltyIsCapped() {
+        NodeMetrics metrics = new NodeMetrics();
+        metrics.recordLatency(NodeMetrics.LATENCY_PENALTY_UNIT * 10);
+        assertEquals(NodeMetrics.BASE_SCORE - 10, metrics.getScore());
+
+        metrics = new NodeMetrics();
+        metrics.recordLatency(NodeMetrics.LATENCY_PENALTY_UNIT * 1000);
+        assertEquals(NodeMetrics.BASE_SCORE - NodeMetrics.MAX_LATENCY_PENALTY, metrics.getScore());
+    }
+
+    @Test
+    public void latencyIsAveraged() {
+        NodeMetrics metrics = new NodeMetrics();
+        assertEquals(-1L, metrics.getAverageLatency());
+        metrics.recordLatency(800L);
+        metrics.recordLatency(0L);
+        assertEquals(700L, metrics.getAverageLatency());
+    }
+
+    @Test
+    public void scoreSurvivesReconnect() {
+        String ip = "192.0.2.45";
+        Node first = new Node(ip, 8003, Node.IN);
+        first.getMetrics().recordInvalidMessage();
+
+        Node reconnected = new Node(ip, 8004, Node.IN);
+        assertSame(first.getMetrics(), reconnected.getMetrics());
+        assertEquals(NodeMetrics.BASE_SCORE - NodeMetrics.INVALID_MESSAGE_PENALTY, reconnected.getMetrics().getScore());
+
+        Node other = new Node("192.0.2.46", 8003, Node.IN);
+        assertEquals(NodeMetrics.BASE_SCORE, other.getMetrics().getScore());
+    }
+}
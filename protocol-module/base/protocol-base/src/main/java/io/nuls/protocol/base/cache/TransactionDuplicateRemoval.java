@@ -25,12 +25,10 @@
 
 package io.nuls.protocol.base.cache;
 
+import io.nuls.core.tools.BloomFilter.RollingBloomFilter;
 import io.nuls.kernel.model.NulsDigestData;
-import io.nuls.kernel.thread.manager.TaskManager;
-import io.nuls.protocol.base.utils.filter.InventoryFilter;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Map;
 
 /**
  * 用于接收交易去重
@@ -40,13 +38,24 @@ import java.util.Set;
  */
 public class TransactionDuplicateRemoval {
 
-    private static InventoryFilter FILTER = new InventoryFilter( 1000000);
+    /**
+     * 3代，每代50万条，至少记住最近100万条交易，每代最多存活30分钟
+     * 3 generations of 500k entries remember at least the last million transactions, a generation lives 30 minutes at most
+     */
+    private static RollingBloomFilter FILTER = new RollingBloomFilter(500000, 0.000005, 3, 30 * 60 * 1000L);
 
     public static boolean mightContain(NulsDigestData hash) {
         return FILTER.contains(hash.getDigestBytes());
     }
 
-    public static void insert(NulsDigestData hash) {
-        FILTER.insert(hash.getDigestBytes());
+    /**
+     * @return 之前未收到过该交易时返回true/true when the transaction was not seen before
+     */
+    public static boolean insert(NulsDigestData hash) {
+        return FILTER.insert(hash.getDigestBytes());
+    }
+
+    public static Map<String, Object> getStatistics() {
+        return FILTER.getStatistics();
     }
 }
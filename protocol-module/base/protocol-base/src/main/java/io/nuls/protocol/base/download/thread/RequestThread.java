@@ -59,7 +59,7 @@ public class RequestThread implements Runnable {
         if (nodeList.size() <= nodeCount) {
             this.nodeList = nodeList;
         } else {
-            Collections.sort(nodeList, new NodeComparator());
+            Collections.sort(nodeList, new NodeComparator(nodeList));
             this.nodeList = nodeList.subList(0, nodeCount);
         }
     }
@@ -127,6 +127,7 @@ public class RequestThread implements Runnable {
 
     private boolean request(Node node, long start, int size) {
         GetBlocksByHeightMessage message = new GetBlocksByHeightMessage(start, start + size - 1);
+        node.getMetrics().markRequest();
         Result result = service.sendToNode(message, node, true);
         return result.isSuccess();
     }
@@ -66,11 +66,17 @@ public class DownloadUtils {
             ProtocolCacheHandler.removeRequest(hash);
             return null;
         }
+        long startTime = System.currentTimeMillis();
         try {
             reactFuture.get(1L, TimeUnit.SECONDS);
             Block block = future.get(30L, TimeUnit.SECONDS);
+            node.getMetrics().recordLatency(System.currentTimeMillis() - startTime);
+            if (null != block) {
+                node.getMetrics().recordUsefulBlock();
+            }
             return block;
         } catch (Exception e) {
+            node.getMetrics().recordLatency(System.currentTimeMillis() - startTime);
             Log.error(node.getId(), e);
             return null;
         } finally {
@@ -27,13 +27,31 @@ package io.nuls.protocol.base.download.utils;
 
 import io.nuls.network.model.Node;
 
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
+ * 下载节点排序：评分高的节点在前，评分相同时时间偏差小的在前
+ * Orders download peers by score (highest first), then by time offset.
+ * 评分在创建时一次性读取，排序过程中评分变化不会破坏比较规则
+ * The scores are read once when the comparator is created, so scores changing during the sort can not break the ordering.
+ *
  * @author Niels
  */
 public class NodeComparator implements Comparator<Node> {
 
+    private final Map<String, Integer> scores = new HashMap<>();
+
+    public NodeComparator(Collection<Node> nodes) {
+        for (Node node : nodes) {
+            if (node != null) {
+                scores.put(node.getId(), node.getMetrics().getScore());
+            }
+        }
+    }
+
     @Override
     public int compare(Node o1, Node o2) {
         if (o1 == null) {
@@ -42,6 +60,10 @@ public class NodeComparator implements Comparator<Node> {
         if (o2 == null) {
             return -1;
         }
+        int score = Integer.compare(getScore(o2), getScore(o1));
+        if (score != 0) {
+            return score;
+        }
         if (o1.getTimeOffset() == null) {
             return 1;
         }
@@ -57,4 +79,8 @@ public class NodeComparator implements Comparator<Node> {
         }
         return 0;
     }
+
+    private int getScore(Node node) {
+        return scores.getOrDefault(node.getId(), 0);
+    }
 }
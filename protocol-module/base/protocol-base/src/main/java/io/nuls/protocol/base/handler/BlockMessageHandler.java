@@ -46,8 +46,10 @@ public class BlockMessageHandler extends AbstractMessageHandler<BlockMessage> {
         }
 //        Log.info("recieved:::::" + block.getHeader().getHeight() + ":::::" + fromNode.getId());
 
+        fromNode.getMetrics().markResponse();
         boolean result = CollectThread.getInstance().addBlock(block);
         if (result) {
+            fromNode.getMetrics().recordUsefulBlock();
             return;
         }
 
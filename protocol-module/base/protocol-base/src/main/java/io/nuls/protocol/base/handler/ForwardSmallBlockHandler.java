@@ -56,7 +56,6 @@ public class ForwardSmallBlockHandler extends AbstractMessageHandler<ForwardSmal
         Result result = messageBusService.sendToNode(getSmallBlockMessage, fromNode, true);
 
 //        if (result.isFailed()) {
-//            SmallBlockDuplicateRemoval.removeForward(hash);
 //            return;
 //        }
     }
@@ -47,11 +47,10 @@ public class ForwardTxMessageHandler extends AbstractMessageHandler<ForwardTxMes
             return;
         }
         NulsDigestData hash = message.getMsgBody();
-        boolean consains = TransactionDuplicateRemoval.mightContain(hash);
-        if (consains) {
+        fromNode.addKnownInventory(hash.getDigestBytes());
+        if (!TransactionDuplicateRemoval.insert(hash)) {
             return;
         }
-        TransactionDuplicateRemoval.insert(hash);
         GetTxMessage getTxMessage = new GetTxMessage();
         getTxMessage.setMsgBody(hash);
         Result result = messageBusService.sendToNode(getTxMessage, fromNode, true);
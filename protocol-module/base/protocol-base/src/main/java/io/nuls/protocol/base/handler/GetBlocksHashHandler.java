@@ -27,7 +27,6 @@ package io.nuls.protocol.base.handler;
 import io.nuls.core.tools.log.BlockLog;
 import io.nuls.core.tools.log.Log;
 import io.nuls.kernel.context.NulsContext;
-import io.nuls.kernel.model.BlockHeader;
 import io.nuls.kernel.model.NulsDigestData;
 import io.nuls.kernel.model.Result;
 import io.nuls.message.bus.handler.AbstractMessageHandler;
@@ -42,6 +41,8 @@ import io.nuls.protocol.model.GetBlocksHashParam;
 import io.nuls.protocol.model.NotFound;
 import io.nuls.protocol.service.BlockService;
 
+import java.util.List;
+
 /**
  * @author Niels
  */
@@ -60,21 +61,16 @@ public class GetBlocksHashHandler extends AbstractMessageHandler<GetBlocksHashMe
         }
         NulsDigestData requestHash = message.getHash();
 
-        BlockHeader endHeader = blockService.getBlockHeader(param.getEndHeight()).getData();
-        if (null == endHeader) {
+        List<NulsDigestData> hashList = blockService.getBlockHashList(param.getStartHeight(), param.getEndHeight()).getData();
+        if (null == hashList || hashList.size() != param.getEndHeight() - param.getStartHeight() + 1) {
             sendNotFound(fromNode, requestHash);
             return;
         }
         BlockHashResponse response = new BlockHashResponse();
 
         response.setRequestMessageHash(requestHash);
-        BlockHeader header = endHeader;
-        while (header.getHeight() >= param.getStartHeight()) {
-            response.putFront(header.getHash());
-            header = blockService.getBlockHeader(header.getPreHash()).getData();
-            if(header == null) {
-                break;
-            }
+        for (NulsDigestData hash : hashList) {
+            response.put(hash);
         }
         sendResponse(response, fromNode);
     }
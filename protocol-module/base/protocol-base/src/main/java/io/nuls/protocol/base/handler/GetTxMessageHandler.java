@@ -53,6 +53,7 @@ public class GetTxMessageHandler extends AbstractMessageHandler<GetTxMessage> {
             return;
         }
 
+        fromNode.addKnownInventory(tx.getHash().getDigestBytes());
         TransactionMessage txMessage = new TransactionMessage();
         txMessage.setMsgBody(tx);
         Result result = messageBusService.sendToNode(txMessage, fromNode, true);
@@ -54,6 +54,9 @@ public class TransactionMessageHandler extends AbstractMessageHandler<Transactio
             return;
         }
         NulsDigestData hash = tx.getHash();
+        if (null != fromNode) {
+            fromNode.addKnownInventory(hash.getDigestBytes());
+        }
         TransactionDuplicateRemoval.insert(hash);
         transactionService.newTx(tx);
     }
@@ -38,6 +38,7 @@ import io.nuls.message.bus.service.MessageBusService;
 import io.nuls.network.constant.NetworkConstant;
 import io.nuls.protocol.base.handler.*;
 import io.nuls.protocol.base.service.DownloadServiceImpl;
+import io.nuls.protocol.base.utils.TxInventoryAnnouncer;
 import io.nuls.protocol.message.*;
 import io.nuls.protocol.model.tx.CoinBaseTransaction;
 import io.nuls.protocol.model.tx.DataTransaction;
@@ -87,6 +88,7 @@ public class BaseProtocolsModuleBootstrap extends AbstractProtocolModule {
         if (null != block) {
             NulsContext.getInstance().setBestBlock(block);
             this.initHandlers();
+            TxInventoryAnnouncer.getInstance().start();
             ((DownloadServiceImpl) NulsContext.getServiceBean(DownloadService.class)).start();
         } else {
             start();
@@ -49,6 +49,7 @@ import io.nuls.protocol.service.BlockService;
 import io.nuls.protocol.service.TransactionService;
 import io.nuls.protocol.storage.po.BlockHeaderPo;
 import io.nuls.protocol.storage.service.BlockHeaderStorageService;
+import io.nuls.protocol.utils.ChainEventManager;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -206,6 +207,37 @@ public class BlockServiceImpl implements BlockService {
         return Result.getSuccess().setData(PoConvertUtil.fromBlockHeaderPo(headerPo));
     }
 
+    /**
+     * 按高度区间获取区块头（从存储中），高度索引按顺序一次扫描
+     * Get the block headers of a height range (from storage), the height index is scanned once in order
+     *
+     * @param startHeight 起始高度（包含）/start height, inclusive
+     * @param endHeight   结束高度（包含）/end height, inclusive
+     * @return 按高度升序排列的区块头列表/block headers in ascending height order
+     */
+    @Override
+    public Result<List<BlockHeader>> getBlockHeaderList(long startHeight, long endHeight) {
+        List<BlockHeaderPo> poList = blockHeaderStorageService.getHeaders(startHeight, endHeight);
+        List<BlockHeader> headerList = new ArrayList<>(poList.size());
+        for (BlockHeaderPo po : poList) {
+            headerList.add(PoConvertUtil.fromBlockHeaderPo(po));
+        }
+        return Result.getSuccess().setData(headerList);
+    }
+
+    /**
+     * 按高度区间获取区块摘要（从存储中），只读取高度索引
+     * Get the block hashes of a height range (from storage), only the height index is read
+     *
+     * @param startHeight 起始高度（包含）/start height, inclusive
+     * @param endHeight   结束高度（包含）/end height, inclusive
+     * @return 按高度升序排列的区块摘要列表/block hashes in ascending height order
+     */
+    @Override
+    public Result<List<NulsDigestData>> getBlockHashList(long startHeight, long endHeight) {
+        return Result.getSuccess().setData(blockHeaderStorageService.getBlockHashList(startHeight, endHeight));
+    }
+
     /**
      * 根据区块摘要获取区块（从存储中）
      * Get the block (from storage) according to the block hash
@@ -334,6 +366,7 @@ public class BlockServiceImpl implements BlockService {
         } catch (Exception e) {
             Log.warn("save local tx failed", e);
         }
+        ChainEventManager.blockSaved(block);
         return Result.getSuccess();
     }
 
@@ -396,6 +429,7 @@ public class BlockServiceImpl implements BlockService {
         } catch (Exception e) {
             Log.warn("rollbackTransaction local tx failed", e);
         }
+        ChainEventManager.blockRolledBack(block);
         return result;
     }
 
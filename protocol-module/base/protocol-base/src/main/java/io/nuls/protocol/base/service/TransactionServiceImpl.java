@@ -40,10 +40,11 @@ import io.nuls.kernel.utils.TransactionManager;
 import io.nuls.kernel.validate.ValidateResult;
 import io.nuls.ledger.service.LedgerService;
 import io.nuls.message.bus.service.MessageBusService;
+import io.nuls.network.constant.NetworkErrorCode;
 import io.nuls.network.model.Node;
+import io.nuls.protocol.base.utils.TxInventoryAnnouncer;
 import io.nuls.protocol.cache.TemporaryCacheManager;
 import io.nuls.protocol.constant.ProtocolConstant;
-import io.nuls.protocol.message.ForwardTxMessage;
 import io.nuls.protocol.message.TransactionMessage;
 import io.nuls.protocol.service.TransactionService;
 
@@ -158,6 +159,10 @@ public class TransactionServiceImpl implements TransactionService {
     /**
      * 转发交易给连接的其他对等节点，允许一个列外（不转发给它）
      * Forward Transaction to other peers of the connection, allowing one column (not forward to it)
+     * <p>
+     * 只通告交易hash，由{@link TxInventoryAnnouncer}按节点批量发送，已知该交易的节点不会收到通告
+     * Only the hash is announced, batched per peer by {@link TxInventoryAnnouncer}; peers that already know the
+     * transaction are skipped. Fails when there is no connected peer.
      *
      * @param tx          完整交易/the whole transaction
      * @param excludeNode 需要排除的节点，一般是因为从该节点处接收的本交易/The nodes that need to be excluded are generally due to the transaction received from the node.
@@ -165,9 +170,10 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public Result forwardTx(Transaction tx, Node excludeNode) {
-        ForwardTxMessage message = new ForwardTxMessage();
-        message.setMsgBody(tx.getHash());
-        return messageBusService.broadcast(message, excludeNode, true, 50);
+        if (!TxInventoryAnnouncer.getInstance().announce(tx.getHash(), excludeNode)) {
+            return Result.getFailed(NetworkErrorCode.NET_BROADCAST_NODE_EMPTY);
+        }
+        return Result.getSuccess();
     }
 
     /**
@@ -194,7 +200,11 @@ public class TransactionServiceImpl implements TransactionService {
         consensusService.newTx(tx);
         // pierre test comment out
         //return Result.getSuccess();
-        return messageBusService.broadcast(message, null, true, 50);
+        Result<List<String>> result = messageBusService.broadcast(message, null, true, 50);
+        if (result.isSuccess()) {
+            TxInventoryAnnouncer.getInstance().markSent(tx.getHash(), result.getData());
+        }
+        return result;
     }
 
     @Override
@@ -0,0 +1,231 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.protocol.base.utils;
+
+import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.cfg.NulsConfig;
+import io.nuls.kernel.context.NulsContext;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.thread.manager.NulsThreadFactory;
+import io.nuls.kernel.thread.manager.TaskManager;
+import io.nuls.message.bus.service.MessageBusService;
+import io.nuls.network.model.Node;
+import io.nuls.network.service.NetworkService;
+import io.nuls.protocol.constant.ProtocolConstant;
+import io.nuls.protocol.message.ForwardTxMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 交易清单通告：新交易只把hash放入各节点的待通告队列，由定时任务按节点批量发送(inv)，对方再按需获取完整交易(getdata)。
+ * 对方已经通告给我们、或我们已经通告/发送给对方的交易不会再次通告。
+ * Transaction inventory announcer. A new transaction only queues its hash per peer, a timer trickles the queued
+ * hashes to each peer in one batch (inv) and the peer fetches the transactions it is missing (getdata).
+ * A transaction is never announced to a peer which announced it to us or which we already announced / sent it to.
+ * <p>
+ * 与原来的转发相同，连接超过{@link #MIN_FORWARD_COUNT}个节点时只随机通告给其中{@link #FORWARD_PERCENT}%（至少{@link #MIN_FORWARD_COUNT}个）
+ * Like the forwarding it replaces, with more than {@link #MIN_FORWARD_COUNT} peers a transaction is only announced to
+ * a random {@link #FORWARD_PERCENT}% of them, at least {@link #MIN_FORWARD_COUNT}.
+ */
+public class TxInventoryAnnouncer implements Runnable {
+
+    public static final int FORWARD_PERCENT = 50;
+    public static final int MIN_FORWARD_COUNT = 5;
+
+    private static final TxInventoryAnnouncer INSTANCE = new TxInventoryAnnouncer();
+
+    private final Map<String, PendingInventory> pendingMap = new ConcurrentHashMap<>();
+
+    private int batchSize = 1000;
+    private int queueLimit = batchSize * 10;
+
+    private NetworkService networkService;
+    private MessageBusService messageBusService;
+
+    private TxInventoryAnnouncer() {
+    }
+
+    TxInventoryAnnouncer(NetworkService networkService, MessageBusService messageBusService) {
+        this.networkService = networkService;
+        this.messageBusService = messageBusService;
+    }
+
+    public static TxInventoryAnnouncer getInstance() {
+        return INSTANCE;
+    }
+
+    public void start() {
+        long interval = NulsConfig.MODULES_CONFIG.getCfgValue(ProtocolConstant.CFG_PROTOCOL_SECTION, ProtocolConstant.CFG_TX_INV_INTERVAL, 500L);
+        this.batchSize = NulsConfig.MODULES_CONFIG.getCfgValue(ProtocolConstant.CFG_PROTOCOL_SECTION, ProtocolConstant.CFG_TX_INV_BATCH, batchSize);
+        this.queueLimit = batchSize * 10;
+        ScheduledThreadPoolExecutor executor = TaskManager.createScheduledThreadPool(new NulsThreadFactory(ProtocolConstant.MODULE_ID_PROTOCOL, "tx-inventory"));
+        executor.scheduleWithFixedDelay(this, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 从已连接且还不知道该交易的节点中随机选择一部分，把交易hash加入它们的待通告队列
+     * Queue the hash for a random share of the connected peers that do not know the transaction yet.
+     *
+     * @param hash        交易hash/transaction hash
+     * @param excludeNode 不需要通告的节点/the peer not to announce to, may be null
+     * @return 没有可通告的连接节点时返回false/false when there is no connected peer to announce to
+     */
+    public boolean announce(NulsDigestData hash, Node excludeNode) {
+        byte[] bytes = hash.getDigestBytes();
+        int peerCount = 0;
+        List<Node> candidates = new ArrayList<>();
+        for (Node node : getNetworkService().getAvailableNodes()) {
+            if (null != excludeNode && node.getId().equals(excludeNode.getId())) {
+                continue;
+            }
+            peerCount++;
+            if (!node.isKnownInventory(bytes)) {
+                candidates.add(node);
+            }
+        }
+        if (peerCount == 0) {
+            return false;
+        }
+        int count = candidates.size();
+        if (count > MIN_FORWARD_COUNT) {
+            count = Math.max(count * FORWARD_PERCENT / 100, MIN_FORWARD_COUNT);
+            Collections.shuffle(candidates);
+        }
+        for (Node node : candidates.subList(0, count)) {
+            pendingMap.computeIfAbsent(node.getId(), id -> new PendingInventory()).offer(hash);
+        }
+        return true;
+    }
+
+    /**
+     * 记录已经把完整交易发送给了这些节点
+     * Record that the whole transaction has been sent to these peers.
+     */
+    public void markSent(NulsDigestData hash, List<String> nodeIdList) {
+        if (null == nodeIdList) {
+            return;
+        }
+        byte[] bytes = hash.getDigestBytes();
+        for (String nodeId : nodeIdList) {
+            Node node = getNetworkService().getNode(nodeId);
+            if (null != node) {
+                node.addKnownInventory(bytes);
+            }
+        }
+    }
+
+    /**
+     * 每次都按节点id查找当前连接的节点，节点已断开时丢弃其待通告队列
+     * Look up the currently connected node by id on every tick, the queue of a disconnected peer is dropped
+     */
+    @Override
+    public void run() {
+        try {
+            List<String> nodeIdList = new ArrayList<>(pendingMap.keySet());
+            Collections.shuffle(nodeIdList);
+            for (String nodeId : nodeIdList) {
+                PendingInventory pending = pendingMap.get(nodeId);
+                if (null == pending) {
+                    continue;
+                }
+                Node node = getNetworkService().getNode(nodeId);
+                if (null == node || !node.isHandShake()) {
+                    pendingMap.remove(nodeId, pending);
+                    continue;
+                }
+                trickle(pending, node);
+            }
+        } catch (Exception e) {
+            Log.error(e);
+        }
+    }
+
+    int getPendingCount(String nodeId) {
+        PendingInventory pending = pendingMap.get(nodeId);
+        return null == pending ? 0 : pending.size.get();
+    }
+
+    private void trickle(PendingInventory pending, Node node) {
+        for (int i = 0; i < batchSize; i++) {
+            NulsDigestData hash = pending.poll();
+            if (null == hash) {
+                return;
+            }
+            byte[] bytes = hash.getDigestBytes();
+            if (node.isKnownInventory(bytes)) {
+                continue;
+            }
+            node.addKnownInventory(bytes);
+            ForwardTxMessage message = new ForwardTxMessage();
+            message.setMsgBody(hash);
+            getMessageBusService().sendToNode(message, node, true);
+        }
+    }
+
+    private NetworkService getNetworkService() {
+        if (null == networkService) {
+            networkService = NulsContext.getServiceBean(NetworkService.class);
+        }
+        return networkService;
+    }
+
+    private MessageBusService getMessageBusService() {
+        if (null == messageBusService) {
+            messageBusService = NulsContext.getServiceBean(MessageBusService.class);
+        }
+        return messageBusService;
+    }
+
+    private class PendingInventory {
+
+        private final Queue<NulsDigestData> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        private void offer(NulsDigestData hash) {
+            if (size.incrementAndGet() > queueLimit) {
+                size.decrementAndGet();
+                return;
+            }
+            queue.offer(hash);
+        }
+
+        private NulsDigestData poll() {
+            NulsDigestData hash = queue.poll();
+            if (null != hash) {
+                size.decrementAndGet();
+            }
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.protocol.base.utils;
+
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.model.Result;
+import io.nuls.message.bus.service.MessageBusService;
+import io.nuls.network.model.Node;
+import io.nuls.network.model.NodeConnectStatusEnum;
+import io.nuls.network.service.NetworkService;
+import io.nuls.protocol.message.ForwardTxMessage;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TxInventoryAnnouncerTest {
+
+    private Map<String, Node> nodes;
+    private List<Node> sentTo;
+    private TxInventoryAnnouncer announcer;
+
+    @Before
+    public void init() {
+        nodes = new LinkedHashMap<>();
+        sentTo = new ArrayList<>();
+        NetworkService networkService = (NetworkService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{NetworkService.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getAvailableNodes":
+                            return new ArrayList<>(nodes.values());
+                        case "getNode":
+                            return nodes.get(args[0]);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        MessageBusService messageBusService = (MessageBusService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{MessageBusService.class}, (proxy, method, args) -> {
+                    if ("sendToNode".equals(method.getName()) && args[0] instanceof ForwardTxMessage) {
+                        sentTo.add((Node) args[1]);
+                        return Result.getSuccess();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        announcer = new TxInventoryAnnouncer(networkService, messageBusService);
+    }
+
+    @Test
+    public void failsWithoutPeers() {
+        assertFalse(announcer.announce(hash(1), null));
+
+        Node node = addNode(1);
+        assertFalse(announcer.announce(hash(1), node));
+        assertTrue(announcer.announce(hash(1), null));
+    }
+
+    @Test
+    public void announcesToHalfOfThePeers() {
+        for (int i = 0; i < 20; i++) {
+            addNode(i);
+        }
+        assertTrue(announcer.announce(hash(1), null));
+        assertEquals(10, countAnnounced());
+    }
+
+    @Test
+    public void announcesToAtLeastMinPeers() {
+        for (int i = 0; i < 7; i++) {
+            addNode(i);
+        }
+        assertTrue(announcer.announce(hash(1), null));
+        assertEquals(TxInventoryAnnouncer.MIN_FORWARD_COUNT, countAnnounced());
+    }
+
+    @Test
+    public void announcesToAllOfFewPeers() {
+        for (int i = 0; i < 3; i++) {
+            addNode(i);
+        }
+        assertTrue(announcer.announce(hash(1), null));
+        assertEquals(3, countAnnounced());
+    }
+
+    @Test
+    public void skipsExcludedAndKnownPeers() {
+        Node excluded = addNode(1);
+        Node known = addNode(2);
+        Node other = addNode(3);
+        known.addKnownInventory(hash(1).getDigestBytes());
+
+        assertTrue(announcer.announce(hash(1), excluded));
+        assertEquals(0, announcer.getPendingCount(excluded.getId()));
+        assertEquals(0, announcer.getPendingCount(known.getId()));
+        assertEquals(1, announcer.getPendingCount(other.getId()));
+
+        announcer.run();
+        assertEquals(1, sentTo.size());
+        assertSame(other, sentTo.get(0));
+        assertTrue(other.isKnownInventory(hash(1).getDigestBytes()));
+    }
+
+    @Test
+    public void sendsToTheCurrentNode() {
+        Node old = addNode(1);
+        Node gone = addNode(2);
+        assertTrue(announcer.announce(hash(1), null));
+
+        // 节点重连后同一id对应新的节点对象；另一个节点已断开
+        // the peer reconnected under the same id with a new node object, the other one disconnected
+        Node current = newNode(1);
+        nodes.put(current.getId(), current);
+        nodes.remove(gone.getId());
+
+        announcer.run();
+        assertEquals(1, sentTo.size());
+        assertSame(current, sentTo.get(0));
+        assertFalse(old.isKnownInventory(hash(1).getDigestBytes()));
+        assertEquals(0, announcer.getPendingCount(gone.getId()));
+    }
+
+    private int countAnnounced() {
+        int count = 0;
+        for (String nodeId : nodes.keySet()) {
+            count += announcer.getPendingCount(nodeId);
+        }
+        return count;
+    }
+
+    private Node addNode(int index) {
+        Node node = newNode(index);
+        nodes.put(node.getId(), node);
+        return node;
+    }
+
+    private static Node newNode(int index) {
+        Node node = new Node("192.0.2." + index, 8003, Node.OUT);
+        node.setConnectStatus(NodeConnectStatusEnum.AVAILABLE);
+        return node;
+    }
+
+    private static NulsDigestData hash(int value) {
+        return NulsDigestData.calcDigestData(new byte[]{(byte) value});
+    }
+}
@@ -426,28 +426,20 @@ public class BlockResource {
             @ApiResponse(code = 200, message = "success", response = BlockInfoDto.class)
     })
     public RpcClientResult getBlockInfoList() throws IOException {
-        Block bestBlock = NulsContext.getInstance().getBestBlock();
+        long bestHeight = NulsContext.getInstance().getBestHeight();
+        List<BlockHeader> headerList = blockService.getBlockHeaderList(bestHeight - 4, bestHeight).getData();
+        if (null == headerList || headerList.isEmpty()) {
+            return RpcClientResult.getFailed(KernelErrorCode.DATA_ERROR);
+        }
         List<BlockInfoDto> list = new ArrayList<>();
-        int count = 0;
-        NulsDigestData preHash = null;
-        while (count < 5) {
-            count++;
-            BlockHeader header = null;
-            if (null != preHash) {
-                header = blockService.getBlockHeader(preHash).getData();
-            } else {
-                header = bestBlock.getHeader();
-            }
-            if (null == header) {
-                return RpcClientResult.getFailed(KernelErrorCode.DATA_ERROR);
-            }
+        for (int i = headerList.size() - 1; i >= 0; i--) {
+            BlockHeader header = headerList.get(i);
             BlockInfoDto dto = new BlockInfoDto();
             dto.setHeight(header.getHeight());
             dto.setHash(header.getHash().getDigestHex());
             dto.setPackingAddress(AddressTool.getStringAddressByBytes(header.getPackingAddress()));
             dto.setTxCount(header.getTxCount());
             list.add(dto);
-            preHash = header.getPreHash();
         }
         Map<String, List<BlockInfoDto>> map = new HashMap<>();
         map.put("list", list);
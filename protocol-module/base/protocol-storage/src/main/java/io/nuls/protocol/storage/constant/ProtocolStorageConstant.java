@@ -52,6 +52,14 @@ public interface ProtocolStorageConstant {
      * The index value of the latest block hash stored in the database.
      */
     String BEST_BLOCK_HASH_INDEX = "best_block_hash_index";
+
+    /**
+     * 区块头高度索引的key格式版本，版本1为定长大端序高度，按字节序即按高度排序
+     * Key format version of the block header height index, version 1 is the fixed-width big-endian height,
+     * whose byte order is the height order.
+     */
+    String BLOCK_HEADER_INDEX_VERSION_KEY = "block_header_index_version";
+    int BLOCK_HEADER_INDEX_VERSION = 1;
     /**
      * 主网协议版本号存储表名称
      */
@@ -29,6 +29,8 @@ import io.nuls.kernel.model.NulsDigestData;
 import io.nuls.kernel.model.Result;
 import io.nuls.protocol.storage.po.BlockHeaderPo;
 
+import java.util.List;
+
 /**
  * 区块头数据存储服务接口
  * Block header data storage service interface.
@@ -55,6 +57,26 @@ public interface BlockHeaderStorageService {
      */
     BlockHeaderPo getBlockHeaderPo(NulsDigestData hash);
 
+    /**
+     * 按高度区间顺序查询区块头数据，高度索引只做一次顺序扫描
+     * Query the block headers of a height range in order, the height index is read with one sequential scan.
+     *
+     * @param fromHeight 起始高度（包含）/start height, inclusive
+     * @param toHeight   结束高度（包含）/end height, inclusive
+     * @return 按高度升序排列的区块头/block headers in ascending height order
+     */
+    List<BlockHeaderPo> getHeaders(long fromHeight, long toHeight);
+
+    /**
+     * 按高度区间顺序查询区块hash，只读取高度索引
+     * Query the block hashes of a height range in order, only the height index is read.
+     *
+     * @param fromHeight 起始高度（包含）/start height, inclusive
+     * @param toHeight   结束高度（包含）/end height, inclusive
+     * @return 按高度升序排列的区块hash/block hashes in ascending height order
+     */
+    List<NulsDigestData> getBlockHashList(long fromHeight, long toHeight);
+
     /**
      * 保存区块头数据到存储中
      * Save the block header data to the storage.
@@ -27,6 +27,8 @@ package io.nuls.protocol.storage.service.impl;
 
 import io.nuls.core.tools.log.Log;
 import io.nuls.db.constant.DBErrorCode;
+import io.nuls.db.model.Entry;
+import io.nuls.db.service.BatchOperation;
 import io.nuls.db.service.DBService;
 import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.exception.NulsException;
@@ -36,13 +38,15 @@ import io.nuls.kernel.lite.annotation.Service;
 import io.nuls.kernel.lite.core.bean.InitializingBean;
 import io.nuls.kernel.model.NulsDigestData;
 import io.nuls.kernel.model.Result;
+import io.nuls.kernel.utils.SerializeUtils;
 import io.nuls.kernel.utils.VarInt;
 import io.nuls.protocol.storage.constant.ProtocolStorageConstant;
 import io.nuls.protocol.storage.po.BlockHeaderPo;
 import io.nuls.protocol.storage.service.BlockHeaderStorageService;
 
 import java.io.IOException;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 区块头数据存储服务实现类
@@ -54,8 +58,18 @@ import java.util.Arrays;
 @Service
 public class BlockHeaderStorageServiceImpl implements BlockHeaderStorageService, InitializingBean {
 
+    /**
+     * 高度索引迁移时每批处理的高度数量
+     * Number of heights handled per batch while migrating the height index.
+     */
+    private static final int MIGRATE_BATCH_SIZE = 10000;
+
+    private static final int HEIGHT_KEY_LENGTH = 8;
+
     private byte[] bestBlockKey;
 
+    private byte[] indexVersionKey;
+
     /**
      * 通用数据存储服务
      * Universal data storage services.
@@ -79,9 +93,62 @@ public class BlockHeaderStorageServiceImpl implements BlockHeaderStorageService,
         }
         try {
             bestBlockKey = NulsDigestData.calcDigestData(ProtocolStorageConstant.BEST_BLOCK_HASH_INDEX.getBytes()).serialize();
+            indexVersionKey = NulsDigestData.calcDigestData(ProtocolStorageConstant.BLOCK_HEADER_INDEX_VERSION_KEY.getBytes()).serialize();
         } catch (IOException e) {
             throw new NulsRuntimeException(e.getCause());
         }
+        migrateHeightIndex();
+    }
+
+    /**
+     * 高度key使用定长大端序编码，字节序与高度顺序一致，区间查询可以一次顺序扫描完成
+     * Height keys are fixed-width big-endian, so their byte order matches the height order and a range query
+     * is a single sequential scan.
+     */
+    private static byte[] heightKey(long height) {
+        byte[] key = new byte[HEIGHT_KEY_LENGTH];
+        for (int i = HEIGHT_KEY_LENGTH - 1; i >= 0; i--) {
+            key[i] = (byte) (height & 0xFF);
+            height >>>= 8;
+        }
+        return key;
+    }
+
+    /**
+     * 把旧版本以VarInt编码高度的索引迁移为定长大端序key，迁移完成后写入版本标记
+     * 迁移中断后重启会继续迁移，已迁移的高度在旧key下查不到而被跳过
+     * Migrate the legacy VarInt encoded height index to fixed-width big-endian keys, then write the version marker.
+     * An interrupted migration resumes on the next start, heights already moved are skipped since their legacy key
+     * is gone.
+     */
+    private void migrateHeightIndex() {
+        byte[] version = dbService.get(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX, indexVersionKey);
+        if (null != version) {
+            return;
+        }
+        BlockHeaderPo best = getBestBlockHeaderPo();
+        if (null != best) {
+            Log.info("migrate block header height index to ordered keys, best height: " + best.getHeight());
+            for (long start = 0; start <= best.getHeight(); start += MIGRATE_BATCH_SIZE) {
+                long end = Math.min(best.getHeight(), start + MIGRATE_BATCH_SIZE - 1);
+                BatchOperation batch = dbService.createWriteBatch(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX);
+                for (long height = start; height <= end; height++) {
+                    byte[] legacyKey = new VarInt(height).encode();
+                    byte[] hashBytes = dbService.get(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX, legacyKey);
+                    if (null == hashBytes) {
+                        continue;
+                    }
+                    batch.put(heightKey(height), hashBytes);
+                    batch.delete(legacyKey);
+                }
+                Result result = batch.executeBatch();
+                if (result.isFailed()) {
+                    throw new NulsRuntimeException(result.getErrorCode());
+                }
+            }
+        }
+        dbService.put(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX, indexVersionKey,
+                SerializeUtils.int32ToBytes(ProtocolStorageConstant.BLOCK_HEADER_INDEX_VERSION));
     }
 
     /**
@@ -96,13 +163,76 @@ public class BlockHeaderStorageServiceImpl implements BlockHeaderStorageService,
         if (height < 0L) {
             return null;
         }
-        byte[] hashBytes = dbService.get(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX, new VarInt(height).encode());
+        byte[] hashBytes = dbService.get(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX, heightKey(height));
         if (null == hashBytes) {
             return null;
         }
         return getBlockHeaderPo(hashBytes);
     }
 
+    /**
+     * 按高度区间顺序查询区块头数据，高度索引只做一次顺序扫描
+     * Query the block headers of a height range in order, the height index is read with one sequential scan.
+     *
+     * @param fromHeight 起始高度（包含）/start height, inclusive
+     * @param toHeight   结束高度（包含）/end height, inclusive
+     * @return 按高度升序排列的区块头/block headers in ascending height order
+     */
+    @Override
+    public List<BlockHeaderPo> getHeaders(long fromHeight, long toHeight) {
+        List<BlockHeaderPo> list = new ArrayList<>();
+        for (byte[] hashBytes : getHashBytesList(fromHeight, toHeight)) {
+            BlockHeaderPo po = getBlockHeaderPo(hashBytes);
+            if (null == po) {
+                break;
+            }
+            list.add(po);
+        }
+        return list;
+    }
+
+    /**
+     * 按高度区间顺序查询区块hash，只读取高度索引
+     * Query the block hashes of a height range in order, only the height index is read.
+     *
+     * @param fromHeight 起始高度（包含）/start height, inclusive
+     * @param toHeight   结束高度（包含）/end height, inclusive
+     * @return 按高度升序排列的区块hash/block hashes in ascending height order
+     */
+    @Override
+    public List<NulsDigestData> getBlockHashList(long fromHeight, long toHeight) {
+        List<NulsDigestData> list = new ArrayList<>();
+        for (byte[] hashBytes : getHashBytesList(fromHeight, toHeight)) {
+            NulsDigestData hash = new NulsDigestData();
+            try {
+                hash.parse(hashBytes, 0);
+            } catch (NulsException e) {
+                Log.error(e);
+                break;
+            }
+            list.add(hash);
+        }
+        return list;
+    }
+
+    private List<byte[]> getHashBytesList(long fromHeight, long toHeight) {
+        List<byte[]> list = new ArrayList<>();
+        fromHeight = Math.max(0L, fromHeight);
+        if (toHeight < fromHeight) {
+            return list;
+        }
+        List<Entry<byte[], byte[]>> entryList = dbService.entryList(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX, heightKey(fromHeight), heightKey(toHeight));
+        if (null == entryList) {
+            return list;
+        }
+        for (Entry<byte[], byte[]> entry : entryList) {
+            if (entry.getKey().length == HEIGHT_KEY_LENGTH) {
+                list.add(entry.getValue());
+            }
+        }
+        return list;
+    }
+
     /**
      * 根据区块hash查询区块头数据
      * Query block header data according to block hash.
@@ -180,7 +310,7 @@ public class BlockHeaderStorageServiceImpl implements BlockHeaderStorageService,
         if (result.isFailed()) {
             return result;
         }
-        result = dbService.put(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX, new VarInt(po.getHeight()).encode(), hashBytes);
+        result = dbService.put(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX, heightKey(po.getHeight()), hashBytes);
         if (result.isFailed()) {
             this.removeBlockHerader(hashBytes);
             return result;
@@ -197,7 +327,7 @@ public class BlockHeaderStorageServiceImpl implements BlockHeaderStorageService,
         if (null == blockHeaderPo) {
             return Result.getSuccess();
         }
-        dbService.delete(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX, new VarInt(blockHeaderPo.getHeight()).encode());
+        dbService.delete(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX, heightKey(blockHeaderPo.getHeight()));
 
         try {
             dbService.put(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX, bestBlockKey, blockHeaderPo.getPreHash().serialize());
@@ -219,7 +349,7 @@ public class BlockHeaderStorageServiceImpl implements BlockHeaderStorageService,
         if (null == po || po.getHeight() < 0 || po.getHash() == null || po.getPreHash() == null) {
             return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
         }
-        dbService.delete(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX, new VarInt(po.getHeight()).encode());
+        dbService.delete(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX, heightKey(po.getHeight()));
         try {
             dbService.put(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX, bestBlockKey, po.getPreHash().serialize());
         } catch (IOException e) {
@@ -158,6 +158,22 @@ public interface ProtocolConstant extends NulsConstant {
     short PROTOCOL_FORWARD_NEW_BLOCK = 18;
     short PROTOCOL_GET_SMALL_BLOCK = 19;
     short PROTOCOL_GET_TRANSACTION = 20;
+
+    /**
+     * 协议模块配置项section名称
+     * The configuration item section name of the protocol module.
+     */
+    String CFG_PROTOCOL_SECTION = "protocol";
+    /**
+     * 交易清单通告的间隔(ms)，同一节点的待通告交易在每个间隔内批量发送
+     * interval in ms of the transaction inventory trickle, pending announcements of a peer are sent in one batch per interval
+     */
+    String CFG_TX_INV_INTERVAL = "tx.inv.interval";
+    /**
+     * 每个节点每个间隔最多通告的交易数
+     * max transactions announced to a peer per interval
+     */
+    String CFG_TX_INV_BATCH = "tx.inv.batch";
     //协议升级要求最低覆盖率
     int MIN_PROTOCOL_UPGRADE_RATE = 70; 
 
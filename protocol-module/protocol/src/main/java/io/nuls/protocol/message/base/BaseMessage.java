@@ -63,8 +63,8 @@ public abstract class BaseMessage<T extends BaseNulsData> extends BaseNulsData {
 //     */
     @Override
     protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
-        stream.write(header.serialize());
-        stream.write(msgBody.serialize());
+        header.serialize(stream);
+        msgBody.serialize(stream);
     }
 
     @Override
@@ -24,11 +24,13 @@
  */
 package io.nuls.protocol.message.base;
 
+import io.nuls.kernel.codegen.FieldType;
+import io.nuls.kernel.codegen.NulsSerializable;
+import io.nuls.kernel.codegen.SerializeField;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.model.BaseNulsData;
 import io.nuls.kernel.utils.NulsByteBuffer;
 import io.nuls.kernel.utils.NulsOutputStreamBuffer;
-import io.nuls.kernel.utils.SerializeUtils;
 import io.nuls.kernel.utils.VarInt;
 import io.protostuff.Tag;
 
@@ -41,40 +43,47 @@ import java.io.IOException;
  *
  * @author Niels
  */
+@NulsSerializable
 public class MessageHeader extends BaseNulsData {
     /**
      * 魔法参数，用于隔离网段
      * Magic parameters used in the isolation section.
      */
 
+    @SerializeField(order = 1, type = FieldType.UINT32)
     private long magicNumber;
     /**
      * 消息体大小
      * the length of the msgBody
      */
 
+    @SerializeField(order = 2, type = FieldType.UINT32)
     private int length;
     /**
      * 校验位，用于消息体的奇偶校验
      * Parity bit for the parity of the message body.
      */
 
+    @SerializeField(order = 3, type = FieldType.BYTE)
     private byte xor;
     /**
      * 加密算法标识
      * Encryption algorithm identification
      */
 
+    @SerializeField(order = 4, type = FieldType.BYTE)
     private byte arithmetic;
     /**
      * 模块id
      */
 
+    @SerializeField(order = 5, type = FieldType.UINT16)
     private short moduleId;
     /**
      * 消息类型
      */
 
+    @SerializeField(order = 6, type = FieldType.UINT16)
     private short msgType;
 
     public MessageHeader() {
@@ -90,34 +99,17 @@ public class MessageHeader extends BaseNulsData {
      */
     @Override
     protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
-        stream.writeUint32(magicNumber);
-        stream.writeUint32(length);
-        stream.write(xor);
-        stream.write(arithmetic);
-        stream.writeUint16(moduleId);
-        stream.writeUint16(msgType);
+        MessageHeaderSerializer.serialize(this, stream);
     }
 
     @Override
     public void parse(NulsByteBuffer buffer) throws NulsException {
-        magicNumber = buffer.readUint32();
-        length = (int) buffer.readUint32();
-        xor = buffer.readByte();
-        arithmetic = buffer.readByte();
-        moduleId = (short) buffer.readUint16();
-        msgType = (short) buffer.readUint16();
+        MessageHeaderSerializer.parse(this, buffer);
     }
 
     @Override
     public int size() {
-        int s = 0;
-        s += SerializeUtils.sizeOfUint32();
-        s += SerializeUtils.sizeOfUint32();
-        s += 1;
-        s += 1;
-        s += SerializeUtils.sizeOfUint16();
-        s += SerializeUtils.sizeOfUint16();
-        return s;
+        return MessageHeaderSerializer.size(this);
     }
 
     public short getMsgType() {
@@ -26,6 +26,7 @@ package io.nuls.protocol.model.validator;
 
 import io.nuls.kernel.lite.annotation.Component;
 import io.nuls.kernel.model.BlockHeader;
+import io.nuls.kernel.validate.ExpensiveValidator;
 import io.nuls.kernel.validate.NulsDataValidator;
 import io.nuls.kernel.validate.ValidateResult;
 import io.nuls.protocol.constant.ProtocolErroeCode;
@@ -34,6 +35,7 @@ import io.nuls.protocol.constant.ProtocolErroeCode;
  * @author Niels
  */
 @Component
+@ExpensiveValidator
 public class HeaderSignValidator implements NulsDataValidator<BlockHeader> {
 
     @Override
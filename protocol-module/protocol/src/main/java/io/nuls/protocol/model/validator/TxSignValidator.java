@@ -28,6 +28,7 @@ import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.lite.annotation.Component;
 import io.nuls.kernel.model.Transaction;
 import io.nuls.kernel.script.SignatureUtil;
+import io.nuls.kernel.validate.ExpensiveValidator;
 import io.nuls.kernel.validate.NulsDataValidator;
 import io.nuls.kernel.validate.ValidateResult;
 
@@ -35,6 +36,7 @@ import io.nuls.kernel.validate.ValidateResult;
  * @author Niels
  */
 @Component
+@ExpensiveValidator
 public class TxSignValidator implements NulsDataValidator<Transaction> {
 
     @Override
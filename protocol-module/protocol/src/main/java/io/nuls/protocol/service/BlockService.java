@@ -77,6 +77,26 @@ public interface BlockService {
      */
     Result<BlockHeader> getBlockHeader(NulsDigestData hash);
 
+    /**
+     * 按高度区间获取区块头（从存储中），高度索引按顺序一次扫描
+     * Get the block headers of a height range (from storage), the height index is scanned once in order
+     *
+     * @param startHeight 起始高度（包含）/start height, inclusive
+     * @param endHeight   结束高度（包含）/end height, inclusive
+     * @return 按高度升序排列的区块头列表/block headers in ascending height order
+     */
+    Result<List<BlockHeader>> getBlockHeaderList(long startHeight, long endHeight);
+
+    /**
+     * 按高度区间获取区块摘要（从存储中），只读取高度索引
+     * Get the block hashes of a height range (from storage), only the height index is read
+     *
+     * @param startHeight 起始高度（包含）/start height, inclusive
+     * @param endHeight   结束高度（包含）/end height, inclusive
+     * @return 按高度升序排列的区块摘要列表/block hashes in ascending height order
+     */
+    Result<List<NulsDigestData>> getBlockHashList(long startHeight, long endHeight);
+
     /**
      * 根据区块摘要获取区块（从存储中）
      * Get the block (from storage) according to the block hash
@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.protocol.utils;
+
+import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.model.Block;
+import io.nuls.kernel.model.Transaction;
+import io.nuls.protocol.listener.ChainEventListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 链上事件分发，监听器的异常不会影响区块保存流程
+ * Dispatches chain events to the registered listeners; a failing listener never breaks the block save path.
+ */
+public class ChainEventManager {
+
+    private static final List<ChainEventListener> LISTENER_LIST = new CopyOnWriteArrayList<>();
+
+    public static void addListener(ChainEventListener listener) {
+        LISTENER_LIST.add(listener);
+    }
+
+    public static void removeListener(ChainEventListener listener) {
+        LISTENER_LIST.remove(listener);
+    }
+
+    public static void blockSaved(Block block) {
+        for (ChainEventListener listener : LISTENER_LIST) {
+            try {
+                listener.onBlockSaved(block);
+            } catch (Exception e) {
+                Log.error(e);
+            }
+        }
+    }
+
+    public static void blockRolledBack(Block block) {
+        for (ChainEventListener listener : LISTENER_LIST) {
+            try {
+                listener.onBlockRolledBack(block);
+            } catch (Exception e) {
+                Log.error(e);
+            }
+        }
+    }
+
+    public static void txAdmitted(Transaction tx) {
+        for (ChainEventListener listener : LISTENER_LIST) {
+            try {
+                listener.onTxAdmitted(tx);
+            } catch (Exception e) {
+                Log.error(e);
+            }
+        }
+    }
+}
@@ -25,8 +25,12 @@
 
 package io.nuls.protocol.utils;
 
+import io.nuls.core.tools.BloomFilter.RollingBloomFilter;
 import io.nuls.kernel.model.NulsDigestData;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * 用于接收交易去重
  *
@@ -35,19 +39,22 @@ import io.nuls.kernel.model.NulsDigestData;
  */
 public class SmallBlockDuplicateRemoval {
 
-    private static HashSetDuplicateProcessor processorOfSmallBlock = new HashSetDuplicateProcessor(1000);
-    private static HashSetDuplicateProcessor processorOfForward = new HashSetDuplicateProcessor(1000);
+    private static RollingBloomFilter filterOfSmallBlock = new RollingBloomFilter(1000, 0.000000001);
+    private static RollingBloomFilter filterOfForward = new RollingBloomFilter(1000, 0.000000001);
 
     public static boolean needDownloadSmallBlock(NulsDigestData hash) {
-        return processorOfForward.check(hash);
+        return !filterOfForward.contains(hash.getDigestBytes());
     }
 
     public static boolean needProcess(NulsDigestData hash) {
-        processorOfForward.insertAndCheck(hash);
-        return processorOfSmallBlock.insertAndCheck(hash);
+        filterOfForward.insert(hash.getDigestBytes());
+        return filterOfSmallBlock.insert(hash.getDigestBytes());
     }
 
-    public static void removeForward(NulsDigestData hash) {
-        processorOfForward.remove(hash);
+    public static Map<String, Object> getStatistics() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("smallBlock", filterOfSmallBlock.getStatistics());
+        map.put("forward", filterOfForward.getStatistics());
+        return map;
     }
 }
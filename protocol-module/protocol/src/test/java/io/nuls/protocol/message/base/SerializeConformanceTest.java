@@ -0,0 +1,58 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.protocol.message.base;
+
+import io.nuls.core.tools.crypto.Hex;
+import io.nuls.kernel.utils.NulsByteBuffer;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 生成的消息头序列化代码必须与手写版本逐字节一致
+ * The generated message header serialization must reproduce the hand written layout byte for byte.
+ */
+public class SerializeConformanceTest {
+
+    /**
+     * magicNumber 0xF1E2D3C4(大于int上限/above the int range), length 1234, xor 0x5a, arithmetic 0, moduleId 4, msgType 10
+     */
+    private static final String MESSAGE_HEADER = "c4d3e2f1d20400005a0004000a00";
+
+    @Test
+    public void messageHeader() throws Exception {
+        byte[] bytes = Hex.decode(MESSAGE_HEADER);
+        MessageHeader header = new MessageHeader();
+        header.parse(new NulsByteBuffer(bytes));
+        assertEquals(0xF1E2D3C4L, header.getMagicNumber());
+        assertEquals(1234, header.getLength());
+        assertEquals((byte) 0x5a, header.getXor());
+        assertEquals(0, header.getArithmetic());
+        assertEquals(4, header.getModuleId());
+        assertEquals(10, header.getMsgType());
+        assertEquals(bytes.length, header.size());
+        assertArrayEquals(bytes, header.serialize());
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.core.tools.BloomFilter;
+
+import com.google.common.hash.Hashing;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 滚动布隆过滤器，由若干代过滤器组成，当前代写满或超过存活时间后滚动一代，最老的一代被丢弃，
+ * 旧数据逐步淘汰而不会像一次性清空那样瞬间丢失所有记录
+ * Rolling bloom filter made of several generations, lookups are lock-free. When the newest generation is full, or older than
+ * the max age, a fresh generation is started and the oldest one is dropped, so old entries age out gradually
+ * instead of all being forgotten at once.
+ * <p>
+ * 至少记住最近 elements * (generations - 1) 条数据，误判率不超过 falsePositiveRate * generations
+ * At least the last elements * (generations - 1) entries are remembered, and the false positive rate stays
+ * below falsePositiveRate * generations.
+ */
+public class RollingBloomFilter {
+
+    private static final int INSERT_LOCK_STRIPES = 64;
+
+    private final int elements;
+    private final double falsePositiveRate;
+    private final int generationCount;
+    private final long maxAge;
+
+    private final int bitCount;
+    private final int hashCount;
+
+    private final LongSupplier clock;
+
+    private final Object[] insertLocks = new Object[INSERT_LOCK_STRIPES];
+
+    /**
+     * 按新旧排列，下标0为当前写入的一代
+     * ordered from the newest generation, index 0 takes the inserts
+     */
+    private final AtomicReference<Generation[]> generations = new AtomicReference<>();
+
+    private final LongAdder insertCount = new LongAdder();
+    private final LongAdder queryCount = new LongAdder();
+    private final LongAdder hitCount = new LongAdder();
+    private final AtomicLong rotationCount = new AtomicLong();
+
+    /**
+     * @param elements          每一代的容量/capacity of a single generation
+     * @param falsePositiveRate 每一代的误判率/false positive rate of a single generation
+     */
+    public RollingBloomFilter(int elements, double falsePositiveRate) {
+        this(elements, falsePositiveRate, 2, 0L);
+    }
+
+    /**
+     * @param elements          每一代的容量/capacity of a single generation
+     * @param falsePositiveRate 每一代的误判率/false positive rate of a single generation
+     * @param generationCount   代数，至少为2/number of generations, at least 2
+     * @param maxAge            每一代的最长存活时间(ms)，0表示只按数量滚动/max age of a generation in ms, 0 rotates by count only
+     */
+    public RollingBloomFilter(int elements, double falsePositiveRate, int generationCount, long maxAge) {
+        this(elements, falsePositiveRate, generationCount, maxAge, System::currentTimeMillis);
+    }
+
+    RollingBloomFilter(int elements, double falsePositiveRate, int generationCount, long maxAge, LongSupplier clock) {
+        if (elements <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1 || generationCount < 2) {
+            throw new IllegalArgumentException();
+        }
+        this.elements = elements;
+        this.falsePositiveRate = falsePositiveRate;
+        this.generationCount = generationCount;
+        this.maxAge = maxAge;
+        this.clock = clock;
+        for (int i = 0; i < insertLocks.length; i++) {
+            insertLocks[i] = new Object();
+        }
+        long bits = (long) Math.ceil(-elements * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.max(64L, Math.min(bits, Integer.MAX_VALUE - 63));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / elements * Math.log(2)));
+        this.clear();
+    }
+
+    /**
+     * 写入数据，是否已存在由当前代写入时是否置位来判断；相同数据的写入落在同一把分段锁上，并发写入同一数据时只有一个线程返回true
+     * Insert the object. Whether it is new is decided by whether the put into the newest generation set any bit,
+     * not by a separate check before it. Inserts of the same object hold the same lock stripe, so of several threads
+     * inserting the same new object exactly one gets true. Lookups never lock.
+     *
+     * @return 写入前不存在时返回true/true when the object was not in the filter before
+     */
+    public boolean insert(byte[] object) {
+        long[] hash = hash(object);
+        boolean added;
+        Generation[] gens;
+        synchronized (insertLocks[(int) (hash[0] & (INSERT_LOCK_STRIPES - 1))]) {
+            gens = getGenerations();
+            Generation current = gens[0];
+            added = current.put(hash);
+            if (added && current.count.incrementAndGet() >= elements) {
+                rotate(gens);
+            }
+        }
+        insertCount.increment();
+        if (!added) {
+            return false;
+        }
+        for (int i = 1; i < gens.length; i++) {
+            if (gens[i].mightContain(hash)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(byte[] object) {
+        long[] hash = hash(object);
+        queryCount.increment();
+        for (Generation gen : getGenerations()) {
+            if (gen.mightContain(hash)) {
+                hitCount.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        Generation[] gens = new Generation[generationCount];
+        long now = clock.getAsLong();
+        for (int i = 0; i < gens.length; i++) {
+            gens[i] = new Generation(now);
+        }
+        generations.set(gens);
+    }
+
+    /**
+     * 当前代的占用率
+     * Occupancy of the newest generation, between 0 and 1.
+     */
+    public double getOccupancy() {
+        return (double) generations.get()[0].count.get() / elements;
+    }
+
+    /**
+     * 按各代实际写入数量估算的当前误判率
+     * Current false positive rate estimated from the fill of every generation.
+     */
+    public double getExpectedFalsePositiveRate() {
+        double notFalsePositive = 1;
+        for (Generation gen : generations.get()) {
+            notFalsePositive *= 1 - Math.pow(1 - Math.exp(-(double) hashCount * gen.count.get() / bitCount), hashCount);
+        }
+        return 1 - notFalsePositive;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("elements", elements);
+        map.put("generations", generationCount);
+        map.put("maxAge", maxAge);
+        map.put("occupancy", getOccupancy());
+        map.put("expectedFpp", getExpectedFalsePositiveRate());
+        map.put("maxFpp", falsePositiveRate * generationCount);
+        map.put("inserts", insertCount.sum());
+        map.put("queries", queryCount.sum());
+        map.put("hits", hitCount.sum());
+        map.put("rotations", rotationCount.get());
+        return map;
+    }
+
+    private Generation[] getGenerations() {
+        Generation[] gens = generations.get();
+        if (maxAge > 0 && clock.getAsLong() - gens[0].createTime >= maxAge) {
+            rotate(gens);
+            gens = generations.get();
+        }
+        return gens;
+    }
+
+    /**
+     * 只有一个线程能够完成滚动，其它线程继续使用滚动后的结果
+     * Only one thread wins the rotation, the others carry on with the rotated generations.
+     */
+    private void rotate(Generation[] expected) {
+        Generation[] next = new Generation[generationCount];
+        next[0] = new Generation(clock.getAsLong());
+        System.arraycopy(expected, 0, next, 1, generationCount - 1);
+        if (generations.compareAndSet(expected, next)) {
+            rotationCount.incrementAndGet();
+        }
+    }
+
+    private static long[] hash(byte[] object) {
+        byte[] bytes = Hashing.murmur3_128().hashBytes(object).asBytes();
+        long hash1 = 0;
+        long hash2 = 0;
+        for (int i = 7; i >= 0; i--) {
+            hash1 = (hash1 << 8) | (bytes[i] & 0xFF);
+            hash2 = (hash2 << 8) | (bytes[i + 8] & 0xFF);
+        }
+        return new long[]{hash1, hash2};
+    }
+
+    private class Generation {
+
+        private final AtomicLongArray bits = new AtomicLongArray((bitCount + 63) >>> 6);
+        private final AtomicInteger count = new AtomicInteger();
+        private final long createTime;
+
+        private Generation(long createTime) {
+            this.createTime = createTime;
+        }
+
+        private boolean put(long[] hash) {
+            boolean changed = false;
+            long combined = hash[0];
+            for (int i = 0; i < hashCount; i++) {
+                changed |= set((combined & Long.MAX_VALUE) % bitCount);
+                combined += hash[1];
+            }
+            return changed;
+        }
+
+        private boolean mightContain(long[] hash) {
+            long combined = hash[0];
+            for (int i = 0; i < hashCount; i++) {
+                if (!get((combined & Long.MAX_VALUE) % bitCount)) {
+                    return false;
+                }
+                combined += hash[1];
+            }
+            return true;
+        }
+
+        private boolean set(long index) {
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long old;
+            do {
+                old = bits.get(word);
+                if ((old & mask) != 0) {
+                    return false;
+                }
+            } while (!bits.compareAndSet(word, old, old | mask));
+            return true;
+        }
+
+        private boolean get(long index) {
+            return (bits.get((int) (index >>> 6)) & (1L << index)) != 0;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2019 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.core.tools.BloomFilter;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class RollingBloomFilterTest {
+
+    private static byte[] key(int i) {
+        return ByteBuffer.allocate(4).putInt(i).array();
+    }
+
+    @Test
+    public void insertAndContains() {
+        RollingBloomFilter filter = new RollingBloomFilter(1000, 0.0001);
+        assertTrue(filter.insert(key(1)));
+        assertFalse(filter.insert(key(1)));
+        assertTrue(filter.contains(key(1)));
+        assertFalse(filter.contains(key(2)));
+    }
+
+    @Test
+    public void rollsWithoutCliff() {
+        RollingBloomFilter filter = new RollingBloomFilter(1000, 0.0001, 3, 0L);
+        for (int i = 0; i < 10000; i++) {
+            filter.insert(key(i));
+            int oldest = Math.max(0, i - 1999);
+            assertTrue(filter.contains(key(oldest)));
+        }
+        assertFalse(filter.contains(key(0)));
+        assertTrue(filter.getOccupancy() < 1);
+        assertTrue(filter.getExpectedFalsePositiveRate() < 0.0003);
+    }
+
+    @Test
+    public void rollsByTime() {
+        AtomicLong now = new AtomicLong(1000L);
+        RollingBloomFilter filter = new RollingBloomFilter(1000, 0.0001, 2, 50L, now::get);
+        filter.insert(key(1));
+        now.addAndGet(49L);
+        assertTrue(filter.contains(key(1)));
+        assertEquals(0L, filter.getStatistics().get("rotations"));
+        now.addAndGet(1L);
+        assertTrue(filter.contains(key(1)));
+        assertEquals(1L, filter.getStatistics().get("rotations"));
+        now.addAndGet(50L);
+        assertFalse(filter.contains(key(1)));
+    }
+
+    @Test
+    public void concurrentInsertReportsNewOnce() throws Exception {
+        int threads = 8;
+        int keys = 20000;
+        RollingBloomFilter filter = new RollingBloomFilter(keys * 2, 1e-9, 2, 0L);
+        AtomicIntegerArray newCount = new AtomicIntegerArray(keys);
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                barrier.await();
+                for (int i = 0; i < keys; i++) {
+                    if (filter.insert(key(i))) {
+                        newCount.incrementAndGet(i);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        for (int i = 0; i < keys; i++) {
+            assertEquals(1, newCount.get(i));
+        }
+    }
+
+    @Test
+    public void falsePositiveRate() {
+        RollingBloomFilter filter = new RollingBloomFilter(10000, 0.001, 2, 0L);
+        for (int i = 0; i < 19999; i++) {
+            filter.insert(key(i));
+        }
+        int falsePositives = 0;
+        for (int i = 100000; i < 200000; i++) {
+            if (filter.contains(key(i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 100000 * 0.002 * 1.5);
+    }
+}